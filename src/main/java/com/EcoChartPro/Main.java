@@ -89,7 +89,9 @@ public class Main {
                 com.EcoChartPro.core.gamification.GamificationService.getInstance().saveState();
                 AchievementService.getInstance().saveState();
                 com.EcoChartPro.core.controller.ReplaySessionManager.getInstance().shutdown();
+                com.EcoChartPro.utils.SessionJournal.shutdown(); // Writes out queued journal events.
                 InternetConnectivityService.getInstance().stop(); 
+                DatabaseManager.getInstance().close(); // Flushes queued writes before exit.
             }
         }));
 
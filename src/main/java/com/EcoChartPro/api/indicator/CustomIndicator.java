@@ -1,6 +1,7 @@
 package com.EcoChartPro.api.indicator;
 
 import com.EcoChartPro.api.indicator.drawing.DrawableObject;
+import com.EcoChartPro.core.indicator.IncrementalContext;
 import com.EcoChartPro.core.indicator.IndicatorContext;
 import java.util.Collections;
 import java.util.List;
@@ -9,6 +10,12 @@ import java.util.Map;
 /**
  * [NEW ARCHITECTURE]
  * The core public API interface that all custom user-defined indicators must implement.
+ * <p>
+ * Indicators either implement {@link #calculate(IndicatorContext)}, which receives the whole
+ * visible window on every update, or opt into the incremental contract by returning true from
+ * {@link #isIncremental()} and implementing {@link #onBarClosed}, {@link #onBarUpdated} and
+ * {@link #render}. Incremental indicators only see each closed bar once, so a tick costs
+ * constant time regardless of the window size.
  */
 public interface CustomIndicator {
 
@@ -28,6 +35,50 @@ public interface CustomIndicator {
         return Collections.emptyList();
     }
 
+    /**
+     * @return True to be driven through {@link #onBarClosed}, {@link #onBarUpdated} and
+     *         {@link #render} instead of {@link #calculate(IndicatorContext)}.
+     */
+    default boolean isIncremental() {
+        return false;
+    }
+
+    /**
+     * Incremental contract: called once for every bar that closes, in chronological order.
+     * When the indicator is (re)initialised, it is called for every closed bar of the window.
+     * Append closed values to {@code context.series(...)} and carry values between bars in
+     * {@code context.state()}.
+     *
+     * @param bar The bar that just closed. It is also available as {@code context.bar(0)}.
+     * @param context The framework-managed series and state of this indicator instance.
+     */
+    default void onBarClosed(ApiKLine bar, IncrementalContext context) {
+        // Default implementation does nothing.
+    }
+
+    /**
+     * Incremental contract: called for the still-forming bar, possibly many times per bar.
+     * Compute provisional values from the closed-bar state and publish them with
+     * {@link com.EcoChartPro.core.indicator.IndicatorSeries#setForming}. Must not modify
+     * {@code context.state()}.
+     *
+     * @param formingBar The current state of the forming bar.
+     * @param context The framework-managed series and state of this indicator instance.
+     */
+    default void onBarUpdated(ApiKLine formingBar, IncrementalContext context) {
+        // Default implementation does nothing.
+    }
+
+    /**
+     * Incremental contract: turns the current series into drawables. Called after every update.
+     *
+     * @param context The framework-managed series and state of this indicator instance.
+     * @return A list of all drawable objects to be rendered on the chart.
+     */
+    default List<DrawableObject> render(IncrementalContext context) {
+        return Collections.emptyList();
+    }
+
     /**
      * [NEW] A lifecycle hook called by the framework *after* the user has changed
      * this indicator's settings in the UI. This provides a crucial opportunity to
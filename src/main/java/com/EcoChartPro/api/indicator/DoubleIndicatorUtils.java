@@ -0,0 +1,155 @@
+package com.EcoChartPro.api.indicator;
+
+import java.util.Arrays;
+
+/**
+ * The {@code double}-based counterpart to {@link IndicatorUtils}. The kernels work on
+ * primitive arrays (typically the columns of {@link KLineColumns}) and run in O(n).
+ * <p>
+ * Every kernel returns a new array with the same length as its input, aligned
+ * index-by-index with it. Positions without enough history yet are {@link Double#NaN}.
+ * This is part of the stable API for custom indicator plugins.
+ */
+public final class DoubleIndicatorUtils {
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private DoubleIndicatorUtils() {}
+
+    /**
+     * Simple Moving Average using a sliding-window sum.
+     */
+    public static double[] sma(double[] source, int period) {
+        double[] out = nanArray(source.length);
+        if (period <= 0 || source.length < period) return out;
+
+        double sum = 0;
+        for (int i = 0; i < source.length; i++) {
+            sum += source[i];
+            if (i >= period) sum -= source[i - period];
+            if (i >= period - 1) out[i] = sum / period;
+        }
+        return out;
+    }
+
+    /**
+     * Exponential Moving Average with {@code alpha = 2 / (period + 1)}, seeded with the SMA of the first {@code period} values.
+     */
+    public static double[] ema(double[] source, int period) {
+        return exponential(source, period, 2.0 / (period + 1.0));
+    }
+
+    /**
+     * Wilder's moving average ("RMA", used by RSI and ATR) with {@code alpha = 1 / period},
+     * seeded with the SMA of the first {@code period} values.
+     */
+    public static double[] rma(double[] source, int period) {
+        return exponential(source, period, 1.0 / period);
+    }
+
+    /**
+     * Rolling population standard deviation over {@code period} values.
+     * The sums are taken relative to the first value to avoid cancellation on large prices.
+     */
+    public static double[] stdev(double[] source, int period) {
+        double[] out = nanArray(source.length);
+        if (period <= 0 || source.length < period) return out;
+
+        double shift = source[0];
+        double sum = 0, sumSquares = 0;
+        for (int i = 0; i < source.length; i++) {
+            double x = source[i] - shift;
+            sum += x;
+            sumSquares += x * x;
+            if (i >= period) {
+                double old = source[i - period] - shift;
+                sum -= old;
+                sumSquares -= old * old;
+            }
+            if (i >= period - 1) {
+                double variance = (sumSquares - sum * sum / period) / period;
+                out[i] = Math.sqrt(Math.max(0, variance));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Highest value over the last {@code period} values, using a monotonic deque.
+     */
+    public static double[] highest(double[] source, int period) {
+        return rollingExtreme(source, period, true);
+    }
+
+    /**
+     * Lowest value over the last {@code period} values, using a monotonic deque.
+     */
+    public static double[] lowest(double[] source, int period) {
+        return rollingExtreme(source, period, false);
+    }
+
+    /**
+     * True range: {@code max(high - low, |high - prevClose|, |low - prevClose|)}. The first bar uses {@code high - low}.
+     */
+    public static double[] trueRange(double[] high, double[] low, double[] close) {
+        double[] out = new double[high.length];
+        for (int i = 0; i < high.length; i++) {
+            double range = high[i] - low[i];
+            if (i > 0) {
+                double prevClose = close[i - 1];
+                range = Math.max(range, Math.max(Math.abs(high[i] - prevClose), Math.abs(low[i] - prevClose)));
+            }
+            out[i] = range;
+        }
+        return out;
+    }
+
+    /**
+     * Average True Range: the {@link #rma} of the {@link #trueRange}.
+     */
+    public static double[] atr(double[] high, double[] low, double[] close, int period) {
+        return rma(trueRange(high, low, close), period);
+    }
+
+    private static double[] exponential(double[] source, int period, double alpha) {
+        double[] out = nanArray(source.length);
+        if (period <= 0 || source.length < period) return out;
+
+        double seed = 0;
+        for (int i = 0; i < period; i++) {
+            seed += source[i];
+        }
+        double value = seed / period;
+        out[period - 1] = value;
+        for (int i = period; i < source.length; i++) {
+            value += alpha * (source[i] - value);
+            out[i] = value;
+        }
+        return out;
+    }
+
+    private static double[] rollingExtreme(double[] source, int period, boolean max) {
+        double[] out = nanArray(source.length);
+        if (period <= 0 || source.length < period) return out;
+
+        // Indices of candidate extremes; values are monotonic from head to tail.
+        int[] deque = new int[source.length];
+        int head = 0, tail = 0;
+        for (int i = 0; i < source.length; i++) {
+            while (tail > head && (max ? source[deque[tail - 1]] <= source[i] : source[deque[tail - 1]] >= source[i])) {
+                tail--;
+            }
+            deque[tail++] = i;
+            if (deque[head] <= i - period) head++;
+            if (i >= period - 1) out[i] = source[deque[head]];
+        }
+        return out;
+    }
+
+    private static double[] nanArray(int length) {
+        double[] out = new double[length];
+        Arrays.fill(out, Double.NaN);
+        return out;
+    }
+}
@@ -0,0 +1,73 @@
+package com.EcoChartPro.api.indicator;
+
+import java.util.List;
+
+/**
+ * A columnar, primitive view of the K-lines handed to an indicator: one {@code long[]}
+ * of timestamps and one {@code double[]} per price field, all of the same length and
+ * in chronological order. Use it together with {@link DoubleIndicatorUtils} for heavy
+ * studies where {@code BigDecimal} arithmetic would be too slow.
+ * <p>
+ * The arrays are shared by every indicator on the chart and are exposed without a copy.
+ * Treat them as read-only; write results into arrays of your own.
+ * This is part of the stable API for custom indicator plugins.
+ */
+public final class KLineColumns {
+
+    private final long[] time;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final double[] volume;
+
+    /**
+     * Wraps existing arrays without copying them. All arrays must have the same length.
+     */
+    public KLineColumns(long[] time, double[] open, double[] high, double[] low, double[] close, double[] volume) {
+        int n = time.length;
+        if (open.length != n || high.length != n || low.length != n || close.length != n || volume.length != n) {
+            throw new IllegalArgumentException("All columns must have the same length.");
+        }
+        this.time = time;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+    }
+
+    /**
+     * Builds columns from a list of K-lines.
+     */
+    public static KLineColumns of(List<ApiKLine> klines) {
+        int n = klines.size();
+        long[] time = new long[n];
+        double[] open = new double[n], high = new double[n], low = new double[n], close = new double[n], volume = new double[n];
+        for (int i = 0; i < n; i++) {
+            ApiKLine k = klines.get(i);
+            time[i] = k.timestamp().toEpochMilli();
+            open[i] = k.open().doubleValue();
+            high[i] = k.high().doubleValue();
+            low[i] = k.low().doubleValue();
+            close[i] = k.close().doubleValue();
+            volume[i] = k.volume().doubleValue();
+        }
+        return new KLineColumns(time, open, high, low, close, volume);
+    }
+
+    public int size() { return time.length; }
+
+    /** @return Bar start times in epoch milliseconds. Read-only. */
+    public long[] time() { return time; }
+    /** @return Open prices. Read-only. */
+    public double[] open() { return open; }
+    /** @return High prices. Read-only. */
+    public double[] high() { return high; }
+    /** @return Low prices. Read-only. */
+    public double[] low() { return low; }
+    /** @return Close prices. Read-only. */
+    public double[] close() { return close; }
+    /** @return Volumes. Read-only. */
+    public double[] volume() { return volume; }
+}
@@ -0,0 +1,512 @@
+package com.EcoChartPro.core.backtest;
+
+import com.EcoChartPro.core.model.calculators.FootprintCalculator;
+import com.EcoChartPro.core.settings.SettingsService;
+import com.EcoChartPro.core.trading.OrderFillRules;
+import com.EcoChartPro.core.trading.TriggerBook;
+import com.EcoChartPro.data.TickBarBuilder;
+import com.EcoChartPro.data.store.KLineStore;
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.model.Symbol;
+import com.EcoChartPro.model.Timeframe;
+import com.EcoChartPro.model.Trade;
+import com.EcoChartPro.model.TradeDirection;
+import com.EcoChartPro.model.TradeTick;
+import com.EcoChartPro.model.trading.Order;
+import com.EcoChartPro.model.trading.OrderStatus;
+import com.EcoChartPro.model.trading.OrderType;
+import com.EcoChartPro.model.trading.Position;
+import com.EcoChartPro.utils.DatabaseManager;
+import com.EcoChartPro.utils.TradeCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A headless backtester. It streams bars straight from a {@link KLineStore} (or any
+ * in-memory list) into the same fill rules {@link com.EcoChartPro.core.trading.PaperTradingService}
+ * uses during replay, and calls a {@link BacktestStrategy} on every bar. There is no EDT,
+ * no settings lookup per bar and no event dispatch, so a run is bound only by how fast
+ * the store can decode bars.
+ * <p>
+ * The engine itself is stateless: every {@code run} has its own account and order book,
+ * so one engine can serve many runs in parallel.
+ * <p>
+ * {@link #runTicks} replays the recorded trades instead: bars are built from the ticks as
+ * they stream in, and orders and exits are checked on every tick, so a stop and a target
+ * inside the same bar are resolved in the order the market actually reached them.
+ */
+public final class BacktestEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(BacktestEngine.class);
+    private static final int PAGE_SIZE = 50_000;
+    private static final int TICK_BATCH_SIZE = 8_192;
+
+    private static final AtomicInteger readerCount = new AtomicInteger();
+    // Reads the next page from the store while the current one is simulated.
+    private static final ExecutorService pageReaders = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "Backtest-Reader-" + readerCount.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * @param startingBalance         The account balance at the start of the run.
+     * @param commissionPerTrade      Charged on every entry, like the paper trading commission. May be null.
+     * @param spreadPoints            Subtracted per unit of size on every exit, like the simulated spread. May be null.
+     * @param closeOpenPositionsAtEnd If true, positions still open after the last bar are closed at its close.
+     */
+    public record Config(BigDecimal startingBalance, BigDecimal commissionPerTrade, BigDecimal spreadPoints,
+                         boolean closeOpenPositionsAtEnd) {
+
+        public static Config of(BigDecimal startingBalance) {
+            return new Config(startingBalance, BigDecimal.ZERO, BigDecimal.ZERO, true);
+        }
+
+        /**
+         * @return A config using the commission and spread currently set for paper trading.
+         */
+        public static Config fromSettings(BigDecimal startingBalance) {
+            SettingsService settings = SettingsService.getInstance();
+            return new Config(startingBalance, settings.getCommissionPerTrade(), settings.getSimulatedSpreadPoints(), true);
+        }
+    }
+
+    /**
+     * The outcome of one run.
+     *
+     * @param trades        Closed trades in the order they were closed.
+     * @param openPositions Positions still open after the last bar.
+     * @param finalBalance  Starting balance plus realized PnL, minus commissions.
+     * @param totalFees     Commissions charged during the run.
+     * @param barsProcessed Number of bars fed to the strategy.
+     * @param elapsedNanos  Wall-clock duration of the run, including reading the bars.
+     * @param ticksProcessed Number of trade ticks replayed; 0 for bar-based runs.
+     */
+    public record Result(Symbol symbol, String timeframe, List<Trade> trades, List<Position> openPositions,
+                         BigDecimal startingBalance, BigDecimal finalBalance, BigDecimal totalFees,
+                         long barsProcessed, long elapsedNanos, long ticksProcessed) {
+
+        public double barsPerSecond() {
+            return elapsedNanos == 0 ? 0 : barsProcessed * 1e9 / elapsedNanos;
+        }
+
+        public double ticksPerSecond() {
+            return elapsedNanos == 0 ? 0 : ticksProcessed * 1e9 / elapsedNanos;
+        }
+    }
+
+    /**
+     * What a strategy can see and do during a run.
+     */
+    public interface Context {
+        Symbol symbol();
+        String timeframe();
+
+        /** @return The bar being processed. In a tick run, the bar that has just closed. */
+        KLine currentBar();
+
+        /** @return The zero-based index of the current bar within this run. */
+        long barIndex();
+
+        BigDecimal balance();
+        List<Position> openPositions();
+        List<Order> pendingOrders();
+        List<Trade> trades();
+
+        /**
+         * Places an order. MARKET orders fill immediately at the current bar's close;
+         * LIMIT and STOP orders rest until a later bar reaches their price.
+         */
+        void placeOrder(Order order);
+
+        /** @return The id of the new position. */
+        UUID marketOrder(TradeDirection direction, BigDecimal size, BigDecimal stopLoss, BigDecimal takeProfit);
+
+        /** @return The id of the new pending order. */
+        UUID pendingOrder(OrderType type, TradeDirection direction, BigDecimal size, BigDecimal price,
+                          BigDecimal stopLoss, BigDecimal takeProfit);
+
+        void cancelOrder(UUID orderId);
+
+        /** Closes the position at the current bar's close. */
+        void closePosition(UUID positionId);
+
+        void modifyPosition(UUID positionId, BigDecimal stopLoss, BigDecimal takeProfit, BigDecimal trailingStopDistance);
+    }
+
+    private final Config config;
+
+    public BacktestEngine(Config config) {
+        this.config = config;
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    /**
+     * Runs a strategy over a series in the store, reading it page by page.
+     *
+     * @param from The first bar to include, or null for the start of the series.
+     * @param to   The last bar to include, or null for the end of the series.
+     */
+    public Result run(KLineStore store, Symbol symbol, String timeframe, Instant from, Instant to, BacktestStrategy strategy) {
+        Simulation simulation = new Simulation(symbol, timeframe);
+        long start = System.nanoTime();
+        strategy.onStart(simulation);
+
+        long cursorSec = from != null ? from.getEpochSecond() : Long.MIN_VALUE;
+        CompletableFuture<List<KLine>> nextPage = readPage(store, symbol, timeframe, cursorSec);
+        boolean done = false;
+        while (!done) {
+            List<KLine> page = nextPage.join();
+            if (page.isEmpty()) break;
+            long lastSec = page.get(page.size() - 1).timestamp().getEpochSecond();
+            boolean lastPage = page.size() < PAGE_SIZE || (to != null && lastSec >= to.getEpochSecond());
+            nextPage = lastPage ? null : readPage(store, symbol, timeframe, lastSec + 1);
+
+            for (KLine bar : page) {
+                if (to != null && bar.timestamp().isAfter(to)) {
+                    done = true;
+                    break;
+                }
+                simulation.processBar(bar, strategy);
+            }
+            done |= lastPage;
+        }
+        return simulation.finish(strategy, System.nanoTime() - start);
+    }
+
+    /**
+     * Runs a strategy over bars already in memory, e.g. when sweeping parameters over the same data.
+     */
+    public Result run(Symbol symbol, String timeframe, List<KLine> bars, BacktestStrategy strategy) {
+        return run(symbol, timeframe, List.of(), bars, strategy);
+    }
+
+    /**
+     * Like {@link #run(Symbol, String, List, BacktestStrategy)}, but first hands the
+     * {@code warmUp} bars to {@link BacktestStrategy#onWarmUpBar}. They are not traded and
+     * not counted in the result.
+     */
+    public Result run(Symbol symbol, String timeframe, List<KLine> warmUp, List<KLine> bars, BacktestStrategy strategy) {
+        Simulation simulation = new Simulation(symbol, timeframe);
+        long start = System.nanoTime();
+        strategy.onStart(simulation);
+        for (KLine bar : warmUp) {
+            strategy.onWarmUpBar(bar);
+        }
+        for (KLine bar : bars) {
+            simulation.processBar(bar, strategy);
+        }
+        return simulation.finish(strategy, System.nanoTime() - start);
+    }
+
+    /**
+     * Replays the recorded trades of a symbol tick by tick. The strategy is called once per
+     * bar of {@code barTimeframe}, when the first tick of the next bar arrives (and once more
+     * for the last bar); pending orders, trailing stops and exits are checked on every tick.
+     * Ticks are streamed from the database in fixed-size batches, the next batch being read
+     * while the current one is simulated, so memory does not grow with the range.
+     *
+     * @param from      The first tick to include.
+     * @param to        The last tick to include.
+     * @param footprint If not null, every tick is also added to this footprint, keyed by its bar.
+     */
+    public Result runTicks(DatabaseManager db, Symbol symbol, Timeframe barTimeframe, Instant from, Instant to,
+                           BacktestStrategy strategy, FootprintCalculator footprint) {
+        Simulation simulation = new Simulation(symbol, barTimeframe.displayName());
+        TickBarBuilder barBuilder = new TickBarBuilder(barTimeframe);
+        long start = System.nanoTime();
+        strategy.onStart(simulation);
+
+        try (TradeCursor cursor = db.openTradeCursor(symbol.name(), from.toEpochMilli(), to.toEpochMilli())) {
+            CompletableFuture<TradeTick[]> nextBatch = readTicks(cursor);
+            try {
+                while (true) {
+                    TradeTick[] batch = nextBatch.join();
+                    if (batch.length == 0) break;
+                    boolean lastBatch = batch.length < TICK_BATCH_SIZE;
+                    nextBatch = lastBatch ? CompletableFuture.completedFuture(new TradeTick[0]) : readTicks(cursor);
+
+                    for (TradeTick tick : batch) {
+                        KLine closedBar = barBuilder.add(tick);
+                        if (closedBar != null) {
+                            simulation.closeBar(closedBar, strategy);
+                        }
+                        if (footprint != null) {
+                            footprint.addTrade(tick, barBuilder.getBucketStart());
+                        }
+                        simulation.processTick(tick);
+                    }
+                    if (lastBatch) break;
+                }
+            } finally {
+                // The cursor must not be closed under a read that is still in flight.
+                nextBatch.handle((batch, error) -> null).join();
+            }
+        } catch (SQLException | CompletionException e) {
+            logger.error("Tick replay of {} stopped early: failed to read trades.", symbol.name(), e);
+        }
+
+        KLine lastBar = barBuilder.getFormingBar();
+        if (lastBar != null) {
+            simulation.closeBar(lastBar, strategy);
+        }
+        return simulation.finish(strategy, System.nanoTime() - start);
+    }
+
+    private static CompletableFuture<TradeTick[]> readTicks(TradeCursor cursor) {
+        return CompletableFuture.supplyAsync(() -> {
+            TradeTick[] batch = new TradeTick[TICK_BATCH_SIZE];
+            int count = 0;
+            try {
+                TradeTick tick;
+                while (count < TICK_BATCH_SIZE && (tick = cursor.next()) != null) {
+                    batch[count++] = tick;
+                }
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+            return count == TICK_BATCH_SIZE ? batch : Arrays.copyOf(batch, count);
+        }, pageReaders);
+    }
+
+    private static CompletableFuture<List<KLine>> readPage(KLineStore store, Symbol symbol, String timeframe, long fromSec) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<KLine> page = store.getKLinesStartingFrom(symbol, timeframe, fromSec, PAGE_SIZE);
+            return page != null ? page : Collections.<KLine>emptyList();
+        }, pageReaders);
+    }
+
+    /**
+     * The account and order book of a single run. Confined to the running thread.
+     */
+    private final class Simulation implements Context {
+        private final Symbol symbol;
+        private final String timeframe;
+        private final Map<UUID, Order> pendingOrders = new LinkedHashMap<>();
+        private final Map<UUID, Position> openPositions = new LinkedHashMap<>();
+        private final TriggerBook orderBook = new TriggerBook();
+        private final TriggerBook positionBook = new TriggerBook();
+        private final List<Trade> trades = new ArrayList<>();
+        private BigDecimal balance;
+        private BigDecimal totalFees = BigDecimal.ZERO;
+        private KLine currentBar;
+        private long barIndex = -1;
+        private long ticksProcessed;
+
+        Simulation(Symbol symbol, String timeframe) {
+            this.symbol = symbol;
+            this.timeframe = timeframe;
+            this.balance = config.startingBalance();
+        }
+
+        /**
+         * Mirrors {@code PaperTradingService.onBarUpdate}: fill pending orders, trail stops,
+         * then check exits for positions that were open before the bar. Positions are checked
+         * with the levels they had at the start of the bar. Like the paper trading service,
+         * only the orders and positions the {@link TriggerBook}s place inside the bar are evaluated.
+         */
+        void processBar(KLine bar, BacktestStrategy strategy) {
+            currentBar = bar;
+            barIndex++;
+            applyFills(bar);
+            strategy.onBar(bar, this);
+        }
+
+        /**
+         * Fills and exits for a single trade, as if it were a bar whose open, high, low and
+         * close are all the trade price.
+         */
+        void processTick(TradeTick tick) {
+            ticksProcessed++;
+            if (pendingOrders.isEmpty() && openPositions.isEmpty()) return;
+            BigDecimal price = tick.price();
+            applyFills(new KLine(tick.timestamp(), price, price, price, price, tick.quantity()));
+        }
+
+        /**
+         * Hands a bar built from ticks to the strategy. Its fills were already applied tick by tick.
+         */
+        void closeBar(KLine bar, BacktestStrategy strategy) {
+            currentBar = bar;
+            barIndex++;
+            strategy.onBar(bar, this);
+        }
+
+        private void applyFills(KLine bar) {
+            List<Position> positionsAtBarStart = new ArrayList<>();
+            if (!openPositions.isEmpty()) {
+                for (UUID id : positionBook.triggeredBy(bar)) {
+                    positionsAtBarStart.add(openPositions.get(id));
+                }
+            }
+
+            if (!pendingOrders.isEmpty()) {
+                checkPendingOrders(bar);
+            }
+            if (!openPositions.isEmpty()) {
+                updateTrailingStops(bar);
+            }
+            for (Position position : positionsAtBarStart) {
+                if (bar.timestamp().equals(position.openTimestamp()) || !openPositions.containsKey(position.id())) {
+                    continue;
+                }
+                OrderFillRules.Exit exit = OrderFillRules.exitFor(position, bar);
+                if (exit != null) {
+                    finalizeTrade(position, exit.price(), bar.timestamp(), true);
+                }
+            }
+        }
+
+        Result finish(BacktestStrategy strategy, long elapsedNanos) {
+            strategy.onFinish(this);
+            if (config.closeOpenPositionsAtEnd() && currentBar != null) {
+                for (Position position : new ArrayList<>(openPositions.values())) {
+                    finalizeTrade(position, currentBar.close(), currentBar.timestamp(), false);
+                }
+            }
+            Result result = new Result(symbol, timeframe, Collections.unmodifiableList(trades),
+                    List.copyOf(openPositions.values()), config.startingBalance(), balance, totalFees,
+                    barIndex + 1, elapsedNanos, ticksProcessed);
+            logger.debug("Backtest of {} {} finished: {} bars, {} trades, final balance {} ({} bars/s).",
+                    symbol.name(), timeframe, result.barsProcessed(), trades.size(), balance, (long) result.barsPerSecond());
+            return result;
+        }
+
+        private void checkPendingOrders(KLine bar) {
+            for (UUID orderId : orderBook.triggeredBy(bar)) {
+                Order order = pendingOrders.get(orderId);
+                BigDecimal fillPrice = OrderFillRules.pendingFillPrice(order, bar);
+                if (fillPrice != null) {
+                    pendingOrders.remove(order.id());
+                    orderBook.remove(order.id());
+                    openPosition(order, fillPrice, bar.timestamp());
+                }
+            }
+        }
+
+        private void updateTrailingStops(KLine bar) {
+            for (UUID positionId : positionBook.trailing()) {
+                Position position = openPositions.get(positionId);
+                BigDecimal newStopLoss = OrderFillRules.trailedStopLoss(position, bar);
+                if (newStopLoss != null) {
+                    putPosition(OrderFillRules.withExitLevels(position, newStopLoss, position.takeProfit(), position.trailingStopDistance()));
+                }
+            }
+        }
+
+        private void openPosition(Order order, BigDecimal entryPrice, Instant timestamp) {
+            putPosition(OrderFillRules.openPosition(order, entryPrice, timestamp));
+            BigDecimal commission = config.commissionPerTrade();
+            if (commission != null && commission.compareTo(BigDecimal.ZERO) > 0) {
+                balance = balance.subtract(commission);
+                totalFees = totalFees.add(commission);
+            }
+        }
+
+        private void finalizeTrade(Position position, BigDecimal exitPrice, Instant exitTime, boolean planFollowed) {
+            BigDecimal pnl = OrderFillRules.realizedPnl(position, exitPrice, config.spreadPoints());
+            trades.add(new Trade(
+                position.id(), position.symbol(), position.direction(), position.openTimestamp(),
+                position.entryPrice(), exitTime, exitPrice, position.size(), pnl, planFollowed,
+                null, null, position.checklistId()
+            ));
+            balance = balance.add(pnl);
+            openPositions.remove(position.id());
+            positionBook.remove(position.id());
+        }
+
+        private void putPosition(Position position) {
+            openPositions.put(position.id(), position);
+            positionBook.put(position);
+        }
+
+        // --- Context ---
+
+        @Override public Symbol symbol() { return symbol; }
+        @Override public String timeframe() { return timeframe; }
+        @Override public KLine currentBar() { return currentBar; }
+        @Override public long barIndex() { return barIndex; }
+        @Override public BigDecimal balance() { return balance; }
+        @Override public List<Position> openPositions() { return List.copyOf(openPositions.values()); }
+        @Override public List<Order> pendingOrders() { return List.copyOf(pendingOrders.values()); }
+        @Override public List<Trade> trades() { return Collections.unmodifiableList(trades); }
+
+        @Override
+        public void placeOrder(Order order) {
+            if (order.type() == OrderType.MARKET) {
+                if (currentBar == null) {
+                    logger.error("Cannot place market order without a current bar context.");
+                    return;
+                }
+                openPosition(order, currentBar.close(), currentBar.timestamp());
+            } else {
+                pendingOrders.put(order.id(), order);
+                orderBook.put(order);
+            }
+        }
+
+        @Override
+        public UUID marketOrder(TradeDirection direction, BigDecimal size, BigDecimal stopLoss, BigDecimal takeProfit) {
+            return submit(OrderType.MARKET, direction, size, null, stopLoss, takeProfit);
+        }
+
+        @Override
+        public UUID pendingOrder(OrderType type, TradeDirection direction, BigDecimal size, BigDecimal price,
+                                 BigDecimal stopLoss, BigDecimal takeProfit) {
+            return submit(type, direction, size, price, stopLoss, takeProfit);
+        }
+
+        private UUID submit(OrderType type, TradeDirection direction, BigDecimal size, BigDecimal price,
+                            BigDecimal stopLoss, BigDecimal takeProfit) {
+            UUID id = UUID.randomUUID();
+            Instant now = currentBar != null ? currentBar.timestamp() : null;
+            placeOrder(new Order(id, symbol, type, OrderStatus.PENDING, direction, size, price,
+                    stopLoss, takeProfit, null, now, null));
+            return id;
+        }
+
+        @Override
+        public void cancelOrder(UUID orderId) {
+            pendingOrders.remove(orderId);
+            orderBook.remove(orderId);
+        }
+
+        @Override
+        public void closePosition(UUID positionId) {
+            Position position = openPositions.get(positionId);
+            if (position == null) return;
+            if (currentBar == null) {
+                logger.error("Cannot close position at market without a closing bar context.");
+                return;
+            }
+            finalizeTrade(position, currentBar.close(), currentBar.timestamp(), false);
+        }
+
+        @Override
+        public void modifyPosition(UUID positionId, BigDecimal stopLoss, BigDecimal takeProfit, BigDecimal trailingStopDistance) {
+            Position position = openPositions.get(positionId);
+            if (position != null) {
+                putPosition(OrderFillRules.withExitLevels(position, stopLoss, takeProfit, trailingStopDistance));
+            }
+        }
+    }
+}
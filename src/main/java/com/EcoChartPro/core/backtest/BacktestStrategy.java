@@ -0,0 +1,26 @@
+package com.EcoChartPro.core.backtest;
+
+import com.EcoChartPro.model.KLine;
+
+/**
+ * A trading strategy driven by {@link BacktestEngine}. Callbacks run on the thread that
+ * called {@code run}, one bar at a time, after the bar's pending orders, trailing stops
+ * and exits have been processed. Market orders placed from {@link #onBar} fill at that
+ * bar's close.
+ * <p>
+ * A strategy instance keeps its own state and must not be shared between concurrent runs.
+ */
+public interface BacktestStrategy {
+
+    default void onStart(BacktestEngine.Context context) {}
+
+    /**
+     * Called, after {@link #onStart}, for each bar preceding the traded range when a run is
+     * given warm-up bars, so indicators start primed. No orders can be placed here.
+     */
+    default void onWarmUpBar(KLine bar) {}
+
+    void onBar(KLine bar, BacktestEngine.Context context);
+
+    default void onFinish(BacktestEngine.Context context) {}
+}
@@ -0,0 +1,97 @@
+package com.EcoChartPro.core.backtest;
+
+import com.EcoChartPro.api.indicator.Parameter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The set of parameter combinations a {@link ParameterSweep} evaluates. Each key is an
+ * axis with a list of values; the grid is their cartesian product. Keys and value types
+ * follow the {@link Parameter} definitions of a {@code CustomIndicator}, so a strategy
+ * can read a combination exactly like an indicator reads its settings.
+ */
+public final class ParameterGrid {
+
+    private final Map<String, List<Object>> axes = new LinkedHashMap<>();
+
+    /**
+     * @return A grid with one point: every parameter at its default value. Use
+     *         {@link #values} or {@link #range} to widen the axes to sweep.
+     */
+    public static ParameterGrid fromDefaults(List<Parameter> parameters) {
+        ParameterGrid grid = new ParameterGrid();
+        for (Parameter parameter : parameters) {
+            grid.values(parameter.key(), parameter.defaultValue());
+        }
+        return grid;
+    }
+
+    public ParameterGrid values(String key, Object... values) {
+        List<Object> axis = new ArrayList<>(values.length);
+        Collections.addAll(axis, values);
+        axes.put(key, axis);
+        return this;
+    }
+
+    /**
+     * Adds an integer axis from {@code from} to {@code to}, both inclusive.
+     */
+    public ParameterGrid range(String key, int from, int to, int step) {
+        if (step <= 0) throw new IllegalArgumentException("Step must be positive.");
+        List<Object> axis = new ArrayList<>();
+        for (int v = from; v <= to; v += step) {
+            axis.add(v);
+        }
+        axes.put(key, axis);
+        return this;
+    }
+
+    /**
+     * Adds a decimal axis from {@code from} to {@code to}, both inclusive.
+     */
+    public ParameterGrid range(String key, BigDecimal from, BigDecimal to, BigDecimal step) {
+        if (step.signum() <= 0) throw new IllegalArgumentException("Step must be positive.");
+        List<Object> axis = new ArrayList<>();
+        for (BigDecimal v = from; v.compareTo(to) <= 0; v = v.add(step)) {
+            axis.add(v);
+        }
+        axes.put(key, axis);
+        return this;
+    }
+
+    /**
+     * @return The number of combinations in the grid.
+     */
+    public int size() {
+        int size = 1;
+        for (List<Object> axis : axes.values()) {
+            size *= axis.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return Every combination, as immutable maps from parameter key to value.
+     */
+    public List<Map<String, Object>> combinations() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        result.add(Collections.emptyMap());
+        for (Map.Entry<String, List<Object>> axis : axes.entrySet()) {
+            List<Map<String, Object>> expanded = new ArrayList<>(result.size() * axis.getValue().size());
+            for (Map<String, Object> partial : result) {
+                for (Object value : axis.getValue()) {
+                    Map<String, Object> combination = new LinkedHashMap<>(partial);
+                    combination.put(axis.getKey(), value);
+                    expanded.add(combination);
+                }
+            }
+            result = expanded;
+        }
+        return result.stream().map(Collections::unmodifiableMap).toList();
+    }
+}
@@ -0,0 +1,263 @@
+package com.EcoChartPro.core.backtest;
+
+import com.EcoChartPro.core.journal.JournalAnalysisService;
+import com.EcoChartPro.core.journal.JournalAnalysisService.OverallStats;
+import com.EcoChartPro.data.store.KLineStore;
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.model.Symbol;
+import com.EcoChartPro.model.Trade;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Evaluates a strategy over every combination of a {@link ParameterGrid}, in parallel on
+ * a fork-join pool. All runs read the same immutable bar list, loaded once with
+ * {@link #loadHistory}; time windows are views into it, never copies.
+ * <p>
+ * Besides a plain sweep, {@link #walkForward} optimizes on a rolling in-sample window and
+ * scores the winner on the out-of-sample window that follows it, so the combined result
+ * only contains trades the optimizer had not seen. Results are reported as
+ * {@link OverallStats}, the same shape the journal reports use, net of commissions, and
+ * are ranked on those net figures.
+ */
+public final class ParameterSweep implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParameterSweep.class);
+    private static final int LOAD_PAGE_SIZE = 100_000;
+
+    /**
+     * @param parameters The combination that was run.
+     * @param backtest   The raw engine result.
+     * @param stats      The result in journal report form. Every figure is net of commissions.
+     */
+    public record RunResult(Map<String, Object> parameters, BacktestEngine.Result backtest, OverallStats stats) {}
+
+    /**
+     * One walk-forward step. Start times are inclusive, end times exclusive.
+     */
+    public record Window(int index, Instant inSampleStart, Instant inSampleEnd, Instant outOfSampleStart, Instant outOfSampleEnd) {}
+
+    /**
+     * @param inSampleBest The best combination on the in-sample window.
+     * @param outOfSample  That combination run on the out-of-sample window.
+     */
+    public record WalkForwardStep(Window window, RunResult inSampleBest, RunResult outOfSample) {}
+
+    /**
+     * @param outOfSampleStats All out-of-sample trades of every step, reduced together, net of commissions.
+     */
+    public record WalkForwardResult(List<WalkForwardStep> steps, OverallStats outOfSampleStats) {}
+
+    private final BacktestEngine engine;
+    private final Function<Map<String, Object>, BacktestStrategy> strategyFactory;
+    private final ToDoubleFunction<OverallStats> objective;
+    private final ForkJoinPool pool;
+    private final JournalAnalysisService analysisService = new JournalAnalysisService();
+
+    /**
+     * @param strategyFactory Creates a fresh strategy for one combination. Called once per run.
+     * @param objective       The score to maximize, e.g. {@code stats -> stats.totalPnl().doubleValue()}.
+     * @param parallelism     Number of worker threads; typically the number of cores.
+     */
+    public ParameterSweep(BacktestEngine engine, Function<Map<String, Object>, BacktestStrategy> strategyFactory,
+                          ToDoubleFunction<OverallStats> objective, int parallelism) {
+        this.engine = engine;
+        this.strategyFactory = strategyFactory;
+        this.objective = objective;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Reads a series once into an immutable list that every run can share.
+     *
+     * @param from The first bar to include, or null for the start of the series.
+     * @param to   The last bar to include, or null for the end of the series.
+     */
+    public static List<KLine> loadHistory(KLineStore store, Symbol symbol, String timeframe, Instant from, Instant to) {
+        List<KLine> bars = new ArrayList<>();
+        long cursorSec = from != null ? from.getEpochSecond() : Long.MIN_VALUE;
+        while (true) {
+            List<KLine> page = store.getKLinesStartingFrom(symbol, timeframe, cursorSec, LOAD_PAGE_SIZE);
+            if (page == null || page.isEmpty()) break;
+            for (KLine bar : page) {
+                if (to != null && bar.timestamp().isAfter(to)) {
+                    return List.copyOf(bars);
+                }
+                bars.add(bar);
+            }
+            if (page.size() < LOAD_PAGE_SIZE) break;
+            cursorSec = page.get(page.size() - 1).timestamp().getEpochSecond() + 1;
+        }
+        return List.copyOf(bars);
+    }
+
+    /**
+     * Runs every combination over the given bars.
+     *
+     * @return One result per combination, best first.
+     */
+    public List<RunResult> sweep(Symbol symbol, String timeframe, List<KLine> bars, List<Map<String, Object>> combinations) {
+        List<Callable<RunResult>> tasks = new ArrayList<>(combinations.size());
+        for (Map<String, Object> parameters : combinations) {
+            tasks.add(() -> runOne(symbol, timeframe, bars, parameters));
+        }
+        long start = System.nanoTime();
+        List<RunResult> results = invokeAll(tasks);
+        results.sort(byObjective());
+        logger.info("Parameter sweep of {} combinations over {} bars finished in {} ms.",
+                combinations.size(), bars.size(), (System.nanoTime() - start) / 1_000_000);
+        return results;
+    }
+
+    /**
+     * Runs a rolling walk-forward optimization. The first in-sample window starts at the first
+     * bar; each following step shifts both windows forward by {@code outOfSample}. Each
+     * out-of-sample run is warmed up on its in-sample window, so the strategy enters it with
+     * the indicator state it would have had live.
+     */
+    public WalkForwardResult walkForward(Symbol symbol, String timeframe, List<KLine> bars,
+                                         List<Map<String, Object>> combinations, Duration inSample, Duration outOfSample) {
+        List<Window> windows = buildWindows(bars, inSample, outOfSample);
+        if (windows.isEmpty()) {
+            logger.warn("Not enough history for a walk-forward of {} in-sample + {} out-of-sample.", inSample, outOfSample);
+            return new WalkForwardResult(List.of(), analysisService.analyzeOverallPerformance(List.of(), engine.getConfig().startingBalance()));
+        }
+        long start = System.nanoTime();
+
+        // Each window's combinations run in parallel; only the winner is kept so that the
+        // trades and equity curves of the losing runs can be collected right away.
+        List<RunResult> bestPerWindow = new ArrayList<>(windows.size());
+        List<Callable<RunResult>> outOfSampleTasks = new ArrayList<>(windows.size());
+        for (Window window : windows) {
+            List<KLine> inSampleSlice = slice(bars, window.inSampleStart(), window.inSampleEnd());
+            List<Callable<RunResult>> inSampleTasks = new ArrayList<>(combinations.size());
+            for (Map<String, Object> parameters : combinations) {
+                inSampleTasks.add(() -> runOne(symbol, timeframe, inSampleSlice, parameters));
+            }
+            RunResult best = invokeAll(inSampleTasks).stream().min(byObjective()).orElseThrow(); // byObjective sorts best first
+            bestPerWindow.add(best);
+            List<KLine> outOfSampleSlice = slice(bars, window.outOfSampleStart(), window.outOfSampleEnd());
+            outOfSampleTasks.add(() -> runOne(symbol, timeframe, inSampleSlice, outOfSampleSlice, best.parameters()));
+        }
+        List<RunResult> outOfSampleResults = invokeAll(outOfSampleTasks);
+
+        List<WalkForwardStep> steps = new ArrayList<>(windows.size());
+        List<Trade> outOfSampleTrades = new ArrayList<>();
+        BigDecimal outOfSampleFees = BigDecimal.ZERO;
+        for (int w = 0; w < windows.size(); w++) {
+            RunResult result = outOfSampleResults.get(w);
+            steps.add(new WalkForwardStep(windows.get(w), bestPerWindow.get(w), result));
+            outOfSampleTrades.addAll(result.backtest().trades());
+            outOfSampleFees = outOfSampleFees.add(result.backtest().totalFees());
+        }
+        OverallStats combined = netStats(outOfSampleTrades, engine.getConfig().startingBalance(), outOfSampleFees);
+        logger.info("Walk-forward of {} windows x {} combinations finished in {} ms. Out-of-sample PnL: {}",
+                windows.size(), combinations.size(), (System.nanoTime() - start) / 1_000_000, combined.totalPnl());
+        return new WalkForwardResult(steps, combined);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private RunResult runOne(Symbol symbol, String timeframe, List<KLine> bars, Map<String, Object> parameters) {
+        return runOne(symbol, timeframe, List.of(), bars, parameters);
+    }
+
+    private RunResult runOne(Symbol symbol, String timeframe, List<KLine> warmUp, List<KLine> bars, Map<String, Object> parameters) {
+        BacktestEngine.Result result = engine.run(symbol, timeframe, warmUp, bars, strategyFactory.apply(parameters));
+        return new RunResult(parameters, result, netStats(result.trades(), result.startingBalance(), result.totalFees()));
+    }
+
+    /**
+     * Reduces trades into journal stats net of commissions. The engine charges the commission
+     * once per entry, so each closed trade carries one; whatever is left of {@code totalFees}
+     * was paid for positions still open and only comes off the end balance.
+     */
+    private OverallStats netStats(List<Trade> trades, BigDecimal startingBalance, BigDecimal totalFees) {
+        BigDecimal commission = engine.getConfig().commissionPerTrade();
+        List<Trade> netTrades = trades;
+        BigDecimal unattributedFees = totalFees;
+        if (commission != null && commission.signum() != 0) {
+            netTrades = new ArrayList<>(trades.size());
+            for (Trade t : trades) {
+                netTrades.add(new Trade(t.id(), t.symbol(), t.direction(), t.entryTime(), t.entryPrice(), t.exitTime(),
+                        t.exitPrice(), t.quantity(), t.profitAndLoss().subtract(commission), t.planFollowed(), t.notes(),
+                        t.tags(), t.checklistId()));
+            }
+            unattributedFees = totalFees.subtract(commission.multiply(BigDecimal.valueOf(trades.size())));
+        }
+        OverallStats s = analysisService.analyzeOverallPerformance(netTrades, startingBalance);
+        return new OverallStats(s.trades(), s.startBalance(), s.endBalance().subtract(unattributedFees), s.totalPnl(),
+                s.totalTrades(), s.winningTrades(), s.losingTrades(), s.winRate(), s.avgWinPnl(), s.avgLossPnl(),
+                s.avgRiskReward(), s.profitFactor(), s.expectancy(), s.avgTradeDuration(), totalFees,
+                s.equityCurve(), s.maxDrawdown(), s.maxRunup());
+    }
+
+    private Comparator<RunResult> byObjective() {
+        return Comparator.comparingDouble((RunResult r) -> objective.applyAsDouble(r.stats())).reversed();
+    }
+
+    private List<RunResult> invokeAll(List<Callable<RunResult>> tasks) {
+        List<RunResult> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<RunResult> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Parameter sweep interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A backtest run failed", e.getCause());
+        }
+        return results;
+    }
+
+    private static List<Window> buildWindows(List<KLine> bars, Duration inSample, Duration outOfSample) {
+        List<Window> windows = new ArrayList<>();
+        if (bars.isEmpty()) return windows;
+        Instant first = bars.get(0).timestamp();
+        Instant last = bars.get(bars.size() - 1).timestamp();
+        Instant inSampleStart = first;
+        while (true) {
+            Instant outOfSampleStart = inSampleStart.plus(inSample);
+            if (outOfSampleStart.isAfter(last)) break;
+            Instant outOfSampleEnd = outOfSampleStart.plus(outOfSample);
+            windows.add(new Window(windows.size(), inSampleStart, outOfSampleStart, outOfSampleStart, outOfSampleEnd));
+            inSampleStart = inSampleStart.plus(outOfSample);
+        }
+        return windows;
+    }
+
+    /**
+     * @return A view of the bars in [start, end).
+     */
+    private static List<KLine> slice(List<KLine> bars, Instant start, Instant end) {
+        return bars.subList(lowerBound(bars, start), lowerBound(bars, end));
+    }
+
+    private static int lowerBound(List<KLine> bars, Instant time) {
+        int lo = 0, hi = bars.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (bars.get(mid).timestamp().isBefore(time)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
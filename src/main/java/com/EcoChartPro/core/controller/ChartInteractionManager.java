@@ -7,6 +7,7 @@ import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.List;
 
 public class ChartInteractionManager implements ReplayStateListener {
 
@@ -235,6 +236,14 @@ public class ChartInteractionManager implements ReplayStateListener {
         }
     }
 
+    /**
+     * Turbo replay: scrolling to the newest bar once per frame is enough.
+     */
+    @Override
+    public void onReplayTicks(List<KLine> newBars) {
+        onReplayTick(newBars.get(newBars.size() - 1));
+    }
+
     @Override
     public void onReplaySessionStart() {
         this.viewingLiveEdge = true;
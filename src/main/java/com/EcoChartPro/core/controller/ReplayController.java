@@ -1,6 +1,8 @@
 package com.EcoChartPro.core.controller;
 
 import com.EcoChartPro.core.gamification.GamificationService;
+import com.EcoChartPro.core.manager.DrawingManager;
+import com.EcoChartPro.core.manager.listener.DrawingListener;
 import com.EcoChartPro.core.service.PnlCalculationService;
 import com.EcoChartPro.core.settings.SettingsService;
 import com.EcoChartPro.core.settings.config.TradingConfig;
@@ -8,11 +10,13 @@ import com.EcoChartPro.core.state.ReplaySessionState;
 import com.EcoChartPro.core.trading.PaperTradingService;
 import com.EcoChartPro.model.KLine;
 import com.EcoChartPro.model.Trade;
+import com.EcoChartPro.model.drawing.DrawingObject;
 import com.EcoChartPro.model.trading.Position;
 import com.EcoChartPro.ui.NotificationService;
 import com.EcoChartPro.ui.chart.ChartPanel;
 import com.EcoChartPro.ui.home.theme.UITheme;
 import com.EcoChartPro.utils.AppDataManager;
+import com.EcoChartPro.utils.SessionJournal;
 import com.EcoChartPro.utils.SessionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,8 +49,17 @@ public class ReplayController implements ReplayStateListener, PropertyChangeList
     private BigDecimal initialBalance = BigDecimal.ZERO;
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd MMM yyyy HH:mm:ss");
 
-    // --- Auto-Save Field ---
+    // --- Auto-Save Fields ---
     private int barsSinceLastAutoSave = 0;
+    private SessionJournal sessionJournal;
+    private long journaledSessionGeneration = -1;
+    private final Set<String> symbolsWithChangedDrawings = new HashSet<>();
+    private String journaledActiveSymbol;
+    private final DrawingListener drawingChangeTracker = new DrawingListener() {
+        @Override public void onDrawingAdded(DrawingObject drawingObject) { markDrawingsChanged(); }
+        @Override public void onDrawingUpdated(DrawingObject drawingObject) { markDrawingsChanged(); }
+        @Override public void onDrawingRemoved(UUID drawingObjectId) { markDrawingsChanged(); }
+    };
 
     // --- Real-time Session Monitoring Fields ---
     private List<Trade> sessionTradesToday = new ArrayList<>();
@@ -84,6 +97,10 @@ public class ReplayController implements ReplayStateListener, PropertyChangeList
         ReplaySessionManager.getInstance().setSpeed(delay);
     }
 
+    public void setTurbo(int barsPerFrame) {
+        ReplaySessionManager.getInstance().setTurbo(barsPerFrame);
+    }
+
     @Override
     public void propertyChange(PropertyChangeEvent evt) {
         if ("displayZoneId".equals(evt.getPropertyName())) {
@@ -93,9 +110,40 @@ public class ReplayController implements ReplayStateListener, PropertyChangeList
         }
     }
 
+    /**
+     * Fills orders and checks positions on every symbol of the session, not just the one
+     * on screen, so that all of them trade on the shared clock.
+     */
+    @Override
+    public void onClockSteps(List<ReplaySessionManager.ClockStep> steps) {
+        PaperTradingService tradingService = workspaceContext.getPaperTradingService();
+        for (ReplaySessionManager.ClockStep step : steps) {
+            for (Map.Entry<String, KLine> bar : step.barsBySymbol().entrySet()) {
+                tradingService.onBarUpdate(bar.getKey(), bar.getValue());
+            }
+        }
+    }
+
     @Override
     public void onReplayTick(KLine newM1Bar) {
-        workspaceContext.getPaperTradingService().onBarUpdate(newM1Bar);
+        applyBar(newM1Bar);
+        updateDateTimeLabel();
+    }
+
+    /**
+     * Turbo replay: every bar still goes through trading, nudges and auto-save, but the
+     * date/time label is refreshed once per frame.
+     */
+    @Override
+    public void onReplayTicks(List<KLine> newM1Bars) {
+        for (KLine bar : newM1Bars) {
+            applyBar(bar);
+        }
+        updateDateTimeLabel();
+    }
+
+    private void applyBar(KLine newM1Bar) {
+        // Order fills already happened in onClockSteps.
         this.lastSeenBar = newM1Bar;
         checkSessionTransitions(newM1Bar);
 
@@ -133,8 +181,6 @@ public class ReplayController implements ReplayStateListener, PropertyChangeList
             hasSentFatigueNudgeToday = true;
         }
 
-        updateDateTimeLabel();
-
         // [NEW] Handle auto-save logic
         barsSinceLastAutoSave++;
         if (barsSinceLastAutoSave >= SettingsService.getInstance().getAutoSaveInterval()) {
@@ -143,7 +189,71 @@ public class ReplayController implements ReplayStateListener, PropertyChangeList
         }
     }
 
+    /**
+     * Records what changed since the last auto-save in the session journal: order, position
+     * and trade changes are already there, so only the replay heads and changed drawings are
+     * added; the journal skips heads it already holds. Every so often the journal is
+     * compacted into a full snapshot, off the EDT.
+     */
     private void performAutoSave() {
+        if (sessionJournal == null) {
+            performFullAutoSave();
+            return;
+        }
+        if (sessionJournal.registerAutoSave()) {
+            checkpointSessionJournal();
+            return;
+        }
+        ReplaySessionManager rsm = ReplaySessionManager.getInstance();
+        for (String symbol : rsm.getAllKnownSymbols()) {
+            sessionJournal.head(symbol, rsm.getReplayHeadIndex(symbol), rsm.getLastTimestamp(symbol));
+        }
+        String activeSymbol = rsm.getActiveSymbol();
+        if (activeSymbol != null && !activeSymbol.equals(journaledActiveSymbol)) {
+            sessionJournal.activeSymbol(activeSymbol);
+            journaledActiveSymbol = activeSymbol;
+        }
+        DrawingManager drawingManager = workspaceContext.getDrawingManager();
+        for (String symbol : symbolsWithChangedDrawings) {
+            sessionJournal.drawings(symbol, drawingManager.getAllDrawingsForSymbol(symbol));
+        }
+        symbolsWithChangedDrawings.clear();
+    }
+
+    /**
+     * Starts journaling a newly started session with a fresh snapshot. A symbol switch within
+     * the session also signals a session start; the journal then just carries on.
+     */
+    private void startSessionJournal() {
+        long generation = ReplaySessionManager.getInstance().getSessionGeneration();
+        if (sessionJournal != null && generation == journaledSessionGeneration) return;
+        SessionJournal journal = SessionJournal.getInstance();
+        if (journal == null) return;
+        if (sessionJournal == null) {
+            workspaceContext.getDrawingManager().addListener(drawingChangeTracker);
+        }
+        sessionJournal = journal;
+        journaledSessionGeneration = generation;
+        // Take the snapshot before the trading service starts recording, so that no event precedes it.
+        checkpointSessionJournal();
+        workspaceContext.getPaperTradingService().setSessionJournal(journal);
+    }
+
+    private void checkpointSessionJournal() {
+        // Everything tracked so far is part of the snapshot.
+        symbolsWithChangedDrawings.clear();
+        journaledActiveSymbol = null;
+        sessionJournal.checkpoint(workspaceContext.getPaperTradingService()::getCurrentSessionState);
+    }
+
+    private void markDrawingsChanged() {
+        String symbol = workspaceContext.getDrawingManager().getActiveSymbol();
+        if (symbol != null) {
+            symbolsWithChangedDrawings.add(symbol);
+        }
+    }
+
+    private void performFullAutoSave() {
         Optional<File> autoSaveFile = AppDataManager.getAutoSaveFilePath().map(java.nio.file.Path::toFile);
         if (autoSaveFile.isEmpty()) {
             logger.error("Could not determine auto-save file path. Auto-save skipped.");
@@ -165,6 +275,7 @@ public class ReplayController implements ReplayStateListener, PropertyChangeList
         this.lastSeenBar = ReplaySessionManager.getInstance().getCurrentBar();
         this.initialBalance = workspaceContext.getPaperTradingService().getAccountBalance();
         this.activeSessions.clear();
+        startSessionJournal();
         pcs.firePropertyChange("initialBalance", null, this.initialBalance);
 
         this.sessionTradesToday.clear();
@@ -5,35 +5,46 @@ import com.EcoChartPro.core.state.ReplaySessionState;
 import com.EcoChartPro.core.state.SymbolSessionState;
 import com.EcoChartPro.core.settings.SettingsService;
 import com.EcoChartPro.core.trading.PaperTradingService;
+import com.EcoChartPro.data.RollupPyramid;
+import com.EcoChartPro.data.store.KLineStore;
+import com.EcoChartPro.data.store.KLineStores;
 import com.EcoChartPro.model.KLine;
 import com.EcoChartPro.model.Symbol;
 import com.EcoChartPro.model.Timeframe;
 import com.EcoChartPro.utils.AppDataManager;
-import com.EcoChartPro.utils.DatabaseManager;
 import com.EcoChartPro.utils.DataSourceManager;
 import com.EcoChartPro.utils.DataSourceManager.ChartDataSource;
+import com.EcoChartPro.utils.DatabaseManager;
 import com.EcoChartPro.utils.SessionManager;
+import com.EcoChartPro.utils.TradeCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.SwingUtilities;
 import java.io.File;
+import java.sql.SQLException;
 import java.time.Instant;
 import java.time.LocalTime;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ReplaySessionManager {
 
@@ -47,16 +58,55 @@ public class ReplaySessionManager {
         int replayHeadIndex,
         List<KLine> baseOneMinuteDataWindow,
         int dataWindowStartIndex,
-        DatabaseManager dbManager
+        KLineStore klineStore
     ) {}
 
     private final Map<String, SymbolReplayContext> contextsBySymbol = new ConcurrentHashMap<>();
     private String activeSymbol;
+    private long sessionGeneration;
 
     private static final int DATA_WINDOW_SIZE = 10000;
 
+    /**
+     * The bars that follow a symbol's current window, read in the background.
+     * @param windowEndIndex The index of the first bar it holds, i.e. the end of the window it continues.
+     */
+    private record WindowPrefetch(int windowEndIndex, CompletableFuture<List<KLine>> bars) {}
+
+    // While the head walks through a window, the bars after it are already being read here, so
+    // reaching the window edge is a list splice instead of a blocking query.
+    private final Map<String, WindowPrefetch> prefetchesBySymbol = new ConcurrentHashMap<>();
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Replay-Prefetch");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * One step of the session clock.
+     * @param barsBySymbol The bar of every symbol in the session that has one at {@code time}.
+     */
+    public record ClockStep(Instant time, Map<String, KLine> barsBySymbol) {}
+
+    // All symbols of a session share one time axis: the clock is a k-way merge of their 1m
+    // streams, ordered by the timestamp of each symbol's next bar. Those bars are read from
+    // the in-memory windows, so a step costs O(log k) and no database access.
+    private record ClockEntry(long nextTimestampSec, String symbol) {}
+    private static final long NO_NEXT_BAR = Long.MAX_VALUE;
+    private final PriorityQueue<ClockEntry> clockQueue = new PriorityQueue<>(Comparator.comparingLong(ClockEntry::nextTimestampSec));
+    private volatile Instant clockTime;
+
     private boolean isPlaying = false;
-    private int speedInMs = 1000;
+    private volatile int speedInMs = 1000;
+
+    // --- Turbo replay: several bars per display frame, one UI notification per frame ---
+    public static final int TURBO_MAX = Integer.MAX_VALUE;
+    private static final long TURBO_FRAME_MS = 16;
+    private static final long TURBO_EDT_BUDGET_NANOS = 10_000_000; // Share of a frame the listeners may use in max mode.
+    private static final int TURBO_MAX_BARS_PER_FRAME = 5_000;
+    private volatile int turboBarsPerFrame = 0; // 0 = off; read by the playback thread
+    private volatile int adaptiveBarsPerFrame = 60;
+    private final AtomicBoolean turboFrameInFlight = new AtomicBoolean(false);
     
     private final ScheduledExecutorService playbackExecutor = Executors.newSingleThreadScheduledExecutor();
     private ScheduledFuture<?> playbackTask;
@@ -126,6 +176,7 @@ public class ReplaySessionManager {
         logger.info("Switching active replay symbol to: {}", newSymbol);
         pause();
         this.activeSymbol = newSymbol;
+        boolean joinsSession = !contextsBySymbol.containsKey(newSymbol);
         
         contextsBySymbol.computeIfAbsent(newSymbol, k -> {
             Optional<ChartDataSource> sourceOpt = DataSourceManager.getInstance().getAvailableSources().stream()
@@ -155,7 +206,19 @@ public class ReplaySessionManager {
             return;
         }
 
-        loadDataWindowForSymbol(newSymbol);
+        // The other symbols keep their windows and heads; they advance on the same clock.
+        if (clockTime == null) {
+            loadDataWindowForSymbol(newSymbol);
+            startClock();
+        } else if (joinsSession) {
+            // A cancelled playback task may still be advancing the clock; align under its lock.
+            synchronized (this) {
+                alignToClock(newSymbol);
+                rebuildClockQueue();
+            }
+        } else if (barAt(contextsBySymbol.get(newSymbol), contextsBySymbol.get(newSymbol).replayHeadIndex()) == null) {
+            loadDataWindowForSymbol(newSymbol);
+        }
 
         // The responsibility of updating context-specific services is now
         // on the listeners (e.g., ChartWorkspacePanel). This manager just signals the change.
@@ -168,14 +231,14 @@ public class ReplaySessionManager {
             return null;
         }
         try {
-            String jdbcUrl = "jdbc:sqlite:" + source.dbPath().toAbsolutePath();
-            DatabaseManager dbManager = new DatabaseManager(jdbcUrl);
-            int totalBarCount = dbManager.getTotalKLineCount(new Symbol(source.symbol()), "1m");
+            KLineStore klineStore = KLineStores.open(source.dbPath());
+            int totalBarCount = klineStore.getTotalKLineCount(new Symbol(source.symbol()), "1m");
+            RollupPyramid.ensureBuiltAsync(klineStore, new Symbol(source.symbol()));
             int validatedStartIndex = Math.max(0, Math.min(startIndex, totalBarCount - 1));
 
             return new SymbolReplayContext(
                 source, totalBarCount, validatedStartIndex, 
-                new ArrayList<>(), 0, dbManager
+                new ArrayList<>(), 0, klineStore
             );
         } catch (Exception e) {
             logger.error("Failed to create replay context for {}", source.symbol(), e);
@@ -184,41 +247,108 @@ public class ReplaySessionManager {
     }
 
     private void cleanupPreviousSession() {
+        sessionGeneration++;
+        prefetchesBySymbol.values().forEach(prefetch -> prefetch.bars().cancel(false));
+        prefetchesBySymbol.clear();
         for (SymbolReplayContext context : contextsBySymbol.values()) {
-            if (context != null && context.dbManager() != null) {
-                context.dbManager().close();
+            if (context != null && context.klineStore() != null) {
+                context.klineStore().close();
             }
         }
         contextsBySymbol.clear();
         activeSymbol = null;
+        synchronized (this) {
+            clockQueue.clear();
+            clockTime = null;
+        }
     }
     
     private void loadDataWindowForSymbol(String symbol) {
         SymbolReplayContext context = contextsBySymbol.get(symbol);
-        if (context == null || context.totalBarCount() == 0 || context.replayHeadIndex() < 0) {
+        if (context == null || context.totalBarCount() == 0) {
             return;
         }
 
+        // A head of -1 means the symbol's first bar is still ahead of the session clock.
         int newWindowStart = Math.max(0, context.replayHeadIndex() - (DATA_WINDOW_SIZE / 2));
         newWindowStart = Math.min(newWindowStart, context.totalBarCount() - DATA_WINDOW_SIZE);
         newWindowStart = Math.max(0, newWindowStart);
 
         int newWindowSize = Math.min(DATA_WINDOW_SIZE, context.totalBarCount() - newWindowStart);
         if (newWindowSize <= 0) {
-            SymbolReplayContext updatedContext = new SymbolReplayContext(context.source(), context.totalBarCount(), context.replayHeadIndex(), Collections.emptyList(), newWindowStart, context.dbManager());
+            SymbolReplayContext updatedContext = new SymbolReplayContext(context.source(), context.totalBarCount(), context.replayHeadIndex(), Collections.emptyList(), newWindowStart, context.klineStore());
             contextsBySymbol.put(symbol, updatedContext);
             return;
         }
 
-        List<KLine> newWindow = context.dbManager().getKLinesByIndex(new Symbol(symbol), "1m", newWindowStart, newWindowSize);
-        SymbolReplayContext updatedContext = new SymbolReplayContext(context.source(), context.totalBarCount(), context.replayHeadIndex(), newWindow, newWindowStart, context.dbManager());
+        List<KLine> newWindow = loadBars(context, newWindowStart, newWindowSize);
+        SymbolReplayContext updatedContext = new SymbolReplayContext(context.source(), context.totalBarCount(), context.replayHeadIndex(), newWindow, newWindowStart, context.klineStore());
         contextsBySymbol.put(symbol, updatedContext);
+        prefetchNextWindow(symbol, updatedContext);
+    }
+
+    /**
+     * Starts reading the half window that follows the context's window, unless that read is
+     * already in flight. The read is keyed on the timestamp of the window's last bar, so it
+     * is a plain range scan in either store backend.
+     */
+    private void prefetchNextWindow(String symbol, SymbolReplayContext context) {
+        List<KLine> window = context.baseOneMinuteDataWindow();
+        int windowEnd = context.dataWindowStartIndex() + window.size();
+        if (window.isEmpty() || windowEnd >= context.totalBarCount()) return;
+
+        WindowPrefetch existing = prefetchesBySymbol.get(symbol);
+        if (existing != null && existing.windowEndIndex() == windowEnd) return;
+        if (existing != null) existing.bars().cancel(false);
+
+        Symbol sym = new Symbol(context.source().symbol());
+        long cursor = window.get(window.size() - 1).timestamp().getEpochSecond() + 1;
+        int count = Math.min(DATA_WINDOW_SIZE / 2, context.totalBarCount() - windowEnd);
+        CompletableFuture<List<KLine>> bars = CompletableFuture
+            .supplyAsync(() -> context.klineStore().getKLinesStartingFrom(sym, "1m", cursor, count), prefetchExecutor)
+            .exceptionally(e -> {
+                logger.warn("Background read of the next replay window for {} failed; it will be loaded on demand.", symbol, e);
+                return Collections.emptyList();
+            });
+        prefetchesBySymbol.put(symbol, new WindowPrefetch(windowEnd, bars));
+    }
+
+    /**
+     * Slides the window forward onto the prefetched bars, keeping the newest bars of the old
+     * window as history.
+     * @return The new context, or null if no usable prefetch exists for this window.
+     */
+    private SymbolReplayContext swapInPrefetchedWindow(String symbol, SymbolReplayContext context) {
+        List<KLine> window = context.baseOneMinuteDataWindow();
+        int windowEnd = context.dataWindowStartIndex() + window.size();
+        WindowPrefetch prefetch = prefetchesBySymbol.remove(symbol);
+        if (prefetch == null || prefetch.windowEndIndex() != windowEnd) {
+            if (prefetch != null) prefetch.bars().cancel(false);
+            return null;
+        }
+        if (!prefetch.bars().isDone()) {
+            logger.debug("Replay for {} reached the window edge before its prefetch finished; waiting for it.", symbol);
+        }
+        List<KLine> next = prefetch.bars().join();
+        if (next == null || next.isEmpty()) return null;
+
+        int keep = Math.min(window.size(), DATA_WINDOW_SIZE - next.size());
+        List<KLine> newWindow = new ArrayList<>(keep + next.size());
+        newWindow.addAll(window.subList(window.size() - keep, window.size()));
+        newWindow.addAll(next);
+        return new SymbolReplayContext(context.source(), context.totalBarCount(), context.replayHeadIndex(),
+            newWindow, windowEnd - keep, context.klineStore());
     }
 
     public void play() {
         if (isReplayFinished() || isPlaying) return;
         isPlaying = true;
-        playbackTask = playbackExecutor.scheduleAtFixedRate(this::nextBar, 0, speedInMs, TimeUnit.MILLISECONDS);
+        if (isTurbo()) {
+            turboFrameInFlight.set(false);
+            playbackTask = playbackExecutor.scheduleAtFixedRate(this::nextTurboFrame, 0, TURBO_FRAME_MS, TimeUnit.MILLISECONDS);
+        } else {
+            playbackTask = playbackExecutor.scheduleAtFixedRate(this::nextBar, 0, speedInMs, TimeUnit.MILLISECONDS);
+        }
         notifyStateChanged();
     }
 
@@ -241,31 +371,193 @@ public class ReplaySessionManager {
             pause();
             return;
         }
-        
-        SymbolReplayContext currentContext = contextsBySymbol.get(activeSymbol);
-        int newHeadIndex = currentContext.replayHeadIndex() + 1;
 
-        int currentWindowEnd = currentContext.dataWindowStartIndex() + currentContext.baseOneMinuteDataWindow().size();
-        if (newHeadIndex >= currentWindowEnd && !isReplayFinished()) {
-            loadDataWindowForSymbol(activeSymbol);
-            currentContext = contextsBySymbol.get(activeSymbol); // Refresh context after reload
+        ClockStep step = advanceClock();
+        if (step != null) {
+            notifyClockSteps(List.of(step));
+            if (step.barsBySymbol().containsKey(activeSymbol)) notifyTick();
         }
         
-        SymbolReplayContext updatedContext = new SymbolReplayContext(
-            currentContext.source(), currentContext.totalBarCount(), newHeadIndex,
-            currentContext.baseOneMinuteDataWindow(), currentContext.dataWindowStartIndex(), currentContext.dbManager()
-        );
-        contextsBySymbol.put(activeSymbol, updatedContext);
-
-        notifyTick();
-        
         // [REMOVED] Auto-save logic is moved to ReplayController
         
         if (isReplayFinished()) {
-            logger.info("Replay session finished for symbol {}.", activeSymbol);
+            logger.info("Replay session finished at {}.", clockTime);
+            pause();
+        }
+    }
+
+    /**
+     * One turbo frame: advances up to the frame's bar count and hands all of them to the
+     * listeners in a single EDT notification. A frame is skipped while the previous one is
+     * still being processed, so the EDT is never flooded and the replay runs exactly as
+     * fast as the listeners can apply the bars.
+     */
+    private void nextTurboFrame() {
+        if (!turboFrameInFlight.compareAndSet(false, true)) return;
+        if (isReplayFinished() || activeSymbol == null) {
+            turboFrameInFlight.set(false);
+            pause();
+            return;
+        }
+
+        int barsThisFrame = turboBarsPerFrame == TURBO_MAX ? adaptiveBarsPerFrame : turboBarsPerFrame;
+        List<ClockStep> frameSteps = new ArrayList<>(barsThisFrame);
+        List<KLine> frameBars = new ArrayList<>(barsThisFrame);
+        for (int i = 0; i < barsThisFrame && !isReplayFinished(); i++) {
+            ClockStep step = advanceClock();
+            if (step == null) break;
+            frameSteps.add(step);
+            KLine bar = step.barsBySymbol().get(activeSymbol);
+            if (bar != null) frameBars.add(bar);
+        }
+
+        if (frameSteps.isEmpty()) {
+            turboFrameInFlight.set(false);
+        } else {
+            SwingUtilities.invokeLater(() -> {
+                long start = System.nanoTime();
+                try {
+                    for (ReplayStateListener listener : listeners) listener.onClockSteps(frameSteps);
+                    if (!frameBars.isEmpty()) {
+                        for (ReplayStateListener listener : listeners) listener.onReplayTicks(frameBars);
+                    }
+                } finally {
+                    adaptTurboRate(frameSteps.size(), System.nanoTime() - start);
+                    turboFrameInFlight.set(false);
+                }
+            });
+        }
+
+        if (isReplayFinished()) {
+            logger.info("Replay session finished at {}.", clockTime);
             pause();
         }
     }
+
+    /**
+     * In max mode, sizes the next frame so the listeners' EDT time stays within budget.
+     */
+    private void adaptTurboRate(int bars, long elapsedNanos) {
+        if (turboBarsPerFrame != TURBO_MAX) return;
+        double perBar = (double) Math.max(1, elapsedNanos) / bars;
+        int target = (int) Math.min(TURBO_MAX_BARS_PER_FRAME, Math.max(1, TURBO_EDT_BUDGET_NANOS / perBar));
+        // Move halfway towards the target to avoid oscillating on a single slow frame.
+        adaptiveBarsPerFrame = Math.max(1, (adaptiveBarsPerFrame + target) / 2);
+    }
+
+    // --- Session clock ---
+
+    /**
+     * Moves the clock to the earliest next bar of any symbol and advances every symbol that
+     * has a bar at that time.
+     * @return The step, or null if no symbol has bars left.
+     */
+    private synchronized ClockStep advanceClock() {
+        if (clockQueue.isEmpty()) rebuildClockQueue();
+        ClockEntry first = clockQueue.poll();
+        if (first == null) return null;
+
+        List<ClockEntry> due = new ArrayList<>();
+        due.add(first);
+        while (!clockQueue.isEmpty() && clockQueue.peek().nextTimestampSec() == first.nextTimestampSec()) {
+            due.add(clockQueue.poll());
+        }
+        Map<String, KLine> barsBySymbol = new LinkedHashMap<>();
+        for (ClockEntry entry : due) {
+            KLine bar = advanceHead(entry.symbol());
+            if (bar != null) barsBySymbol.put(entry.symbol(), bar);
+            long next = nextTimestampSec(entry.symbol());
+            if (next != NO_NEXT_BAR) clockQueue.add(new ClockEntry(next, entry.symbol()));
+        }
+        clockTime = Instant.ofEpochSecond(first.nextTimestampSec());
+        return new ClockStep(clockTime, Collections.unmodifiableMap(barsBySymbol));
+    }
+
+    /**
+     * Starts the clock at the active symbol's current bar and moves every other symbol of
+     * the session to its last bar at or before that time.
+     */
+    private synchronized void startClock() {
+        KLine currentBar = getCurrentBar();
+        if (currentBar == null) return;
+        clockTime = currentBar.timestamp();
+        for (String symbol : contextsBySymbol.keySet()) {
+            if (!symbol.equals(activeSymbol)) alignToClock(symbol);
+        }
+        rebuildClockQueue();
+    }
+
+    /**
+     * Puts a symbol's head on its last bar at or before the clock, or before its first bar
+     * if the clock has not reached it yet.
+     */
+    private synchronized void alignToClock(String symbol) {
+        SymbolReplayContext context = contextsBySymbol.get(symbol);
+        if (context == null || context.totalBarCount() == 0 || clockTime == null) return;
+        Symbol sym = new Symbol(context.source().symbol());
+        int index = context.klineStore().findClosestTimestampIndex(sym, "1m", clockTime);
+        List<KLine> bar = context.klineStore().getKLinesByIndex(sym, "1m", index, 1);
+        if (!bar.isEmpty() && bar.get(0).timestamp().isAfter(clockTime)) index--;
+        contextsBySymbol.put(symbol, new SymbolReplayContext(context.source(), context.totalBarCount(), index,
+            context.baseOneMinuteDataWindow(), context.dataWindowStartIndex(), context.klineStore()));
+        loadDataWindowForSymbol(symbol);
+    }
+
+    private synchronized void rebuildClockQueue() {
+        clockQueue.clear();
+        for (String symbol : contextsBySymbol.keySet()) {
+            long next = nextTimestampSec(symbol);
+            if (next != NO_NEXT_BAR) clockQueue.add(new ClockEntry(next, symbol));
+        }
+    }
+
+    private long nextTimestampSec(String symbol) {
+        SymbolReplayContext context = contextsBySymbol.get(symbol);
+        if (context == null) return NO_NEXT_BAR;
+        int nextIndex = context.replayHeadIndex() + 1;
+        if (nextIndex >= context.totalBarCount()) return NO_NEXT_BAR;
+        KLine next = barAt(ensureInWindow(symbol, context, nextIndex), nextIndex);
+        return next != null ? next.timestamp().getEpochSecond() : NO_NEXT_BAR;
+    }
+
+    /**
+     * Moves a symbol's head forward by one bar.
+     * @return The new current bar, or null if it could not be resolved.
+     */
+    private KLine advanceHead(String symbol) {
+        SymbolReplayContext context = contextsBySymbol.get(symbol);
+        int newHeadIndex = context.replayHeadIndex() + 1;
+        context = ensureInWindow(symbol, context, newHeadIndex);
+        SymbolReplayContext updatedContext = new SymbolReplayContext(
+            context.source(), context.totalBarCount(), newHeadIndex,
+            context.baseOneMinuteDataWindow(), context.dataWindowStartIndex(), context.klineStore()
+        );
+        contextsBySymbol.put(symbol, updatedContext);
+        prefetchNextWindow(symbol, updatedContext);
+        return barAt(updatedContext, newHeadIndex);
+    }
+
+    /**
+     * Makes sure the symbol's window holds a bar index ahead of it. The window slides onto
+     * the prefetched bars; it is only reloaded synchronously if no prefetch matches.
+     */
+    private SymbolReplayContext ensureInWindow(String symbol, SymbolReplayContext context, int index) {
+        int windowEnd = context.dataWindowStartIndex() + context.baseOneMinuteDataWindow().size();
+        if (index < windowEnd || index >= context.totalBarCount()) return context;
+        SymbolReplayContext slid = swapInPrefetchedWindow(symbol, context);
+        if (slid != null) {
+            contextsBySymbol.put(symbol, slid);
+            return slid;
+        }
+        loadDataWindowForSymbol(symbol);
+        return contextsBySymbol.get(symbol);
+    }
+
+    private static KLine barAt(SymbolReplayContext context, int index) {
+        int relativeIndex = index - context.dataWindowStartIndex();
+        List<KLine> window = context.baseOneMinuteDataWindow();
+        return relativeIndex >= 0 && relativeIndex < window.size() ? window.get(relativeIndex) : null;
+    }
     
     // --- Getters now operate on the active symbol's context ---
 
@@ -292,20 +584,65 @@ public class ReplaySessionManager {
     public List<KLine> getOneMinuteBars(int fromIndex, int count) {
         if (activeSymbol == null) return Collections.emptyList();
         SymbolReplayContext context = contextsBySymbol.get(activeSymbol);
-        if (context == null || context.dbManager() == null || context.totalBarCount() == 0 || fromIndex < 0 || count <= 0) {
+        if (context == null || context.klineStore() == null || context.totalBarCount() == 0 || fromIndex < 0 || count <= 0) {
             return Collections.emptyList();
         }
         int toIndex = Math.min(fromIndex + count, context.totalBarCount());
         if (fromIndex >= toIndex) return Collections.emptyList();
         int actualCount = toIndex - fromIndex;
-        return context.dbManager().getKLinesByIndex(new Symbol(activeSymbol), "1m", fromIndex, actualCount);
+        return loadBars(context, fromIndex, actualCount);
+    }
+
+    /**
+     * Loads {@code count} 1m bars starting at a row index. When the first requested bar is
+     * already in the loaded window, its timestamp is used as a keyset cursor so the store
+     * performs a plain indexed range scan; otherwise the store resolves the index itself.
+     */
+    private List<KLine> loadBars(SymbolReplayContext context, int fromIndex, int count) {
+        Symbol symbol = new Symbol(context.source().symbol());
+        List<KLine> window = context.baseOneMinuteDataWindow();
+        int relativeIndex = fromIndex - context.dataWindowStartIndex();
+        if (relativeIndex >= 0 && relativeIndex < window.size()) {
+            long cursor = window.get(relativeIndex).timestamp().getEpochSecond();
+            return context.klineStore().getKLinesStartingFrom(symbol, "1m", cursor, count);
+        }
+        return context.klineStore().getKLinesByIndex(symbol, "1m", fromIndex, count);
+    }
+
+    /**
+     * Reads the active symbol's bars for a higher timeframe from its stored rollups, ending
+     * with the 1m bars of the bucket that is still forming at {@code to}.
+     *
+     * @return The bars to resample, or null if the store has no usable rollup for the target.
+     */
+    public List<KLine> getRollupBars(Timeframe target, Instant from, Instant to) {
+        if (activeSymbol == null) return null;
+        SymbolReplayContext context = contextsBySymbol.get(activeSymbol);
+        if (context == null || context.klineStore() == null) return null;
+        Symbol symbol = new Symbol(context.source().symbol());
+        Timeframe rollup = RollupPyramid.findUsableRollup(context.klineStore(), symbol, target);
+        if (rollup == null) return null;
+        return RollupPyramid.readSpliced(context.klineStore(), symbol, rollup, from, to);
+    }
+
+    /**
+     * Opens a cursor over the recorded trades of a replayed symbol in [from, to]. The caller
+     * closes it.
+     *
+     * @return The cursor, or null if the symbol is not part of the session.
+     */
+    public TradeCursor openTradeCursor(String symbol, Instant from, Instant to) throws SQLException {
+        SymbolReplayContext context = contextsBySymbol.get(symbol);
+        if (context == null || context.klineStore() == null) return null;
+        Optional<DatabaseManager> db = KLineStores.databaseOf(context.klineStore());
+        return db.isPresent() ? db.get().openTradeCursor(symbol, from.toEpochMilli(), to.toEpochMilli()) : null;
     }
 
     public int findClosestM1IndexForTimestamp(Instant time) {
         if (activeSymbol == null) return -1;
         SymbolReplayContext context = contextsBySymbol.get(activeSymbol);
-        if (context == null || context.dbManager() == null) return -1;
-        return context.dbManager().findClosestTimestampIndex(new Symbol(activeSymbol), "1m", time);
+        if (context == null || context.klineStore() == null) return -1;
+        return context.klineStore().findClosestTimestampIndex(new Symbol(activeSymbol), "1m", time);
     }
     
     public String getActiveSymbol() { return activeSymbol; }
@@ -315,11 +652,21 @@ public class ReplaySessionManager {
         return context != null ? context.source() : null; 
     }
     public boolean isPlaying() { return isPlaying; }
+    /**
+     * @return True once no symbol of the session has bars left.
+     */
     public boolean isReplayFinished() {
         if (activeSymbol == null) return true;
-        SymbolReplayContext context = contextsBySymbol.get(activeSymbol);
-        return context == null || context.totalBarCount() == 0 || context.replayHeadIndex() >= context.totalBarCount() - 1;
+        for (SymbolReplayContext context : contextsBySymbol.values()) {
+            if (context.replayHeadIndex() < context.totalBarCount() - 1) return false;
+        }
+        return true;
     }
+
+    /**
+     * @return The time of the session clock's last step, shared by all symbols.
+     */
+    public Instant getClockTime() { return clockTime; }
     public int getReplayHeadIndex() {
         if (activeSymbol == null) return -1;
         SymbolReplayContext context = contextsBySymbol.get(activeSymbol);
@@ -345,6 +692,13 @@ public class ReplaySessionManager {
         }
         return null;
     }
+    /** @return The data source of a symbol in the session, or null if it is not part of it. */
+    public ChartDataSource getSource(String symbol) {
+        SymbolReplayContext context = contextsBySymbol.get(symbol);
+        return context != null ? context.source() : null;
+    }
+    /** @return A number that changes each time a new session is started, but not when the active symbol changes. */
+    public long getSessionGeneration() { return sessionGeneration; }
     public Set<String> getAllKnownSymbols() {
         return contextsBySymbol.keySet();
     }
@@ -352,15 +706,32 @@ public class ReplaySessionManager {
     // --- Boilerplate and other methods ---
     public void setSpeed(int delayMs) {
         this.speedInMs = Math.max(1, delayMs);
+        this.turboBarsPerFrame = 0;
         if (isPlaying) {
             pause();
             play();
         }
     }
+
+    /**
+     * Switches playback to turbo mode: every bar is still applied to trading and chart
+     * state, but listeners are notified once per display frame instead of once per bar.
+     * @param barsPerFrame Bars to advance per frame, or {@link #TURBO_MAX} to go as fast as the listeners allow.
+     */
+    public void setTurbo(int barsPerFrame) {
+        this.turboBarsPerFrame = Math.max(1, barsPerFrame);
+        if (isPlaying) {
+            pause();
+            play();
+        }
+    }
+
+    public boolean isTurbo() { return turboBarsPerFrame > 0; }
     public void addListener(ReplayStateListener listener) { if (!listeners.contains(listener)) listeners.add(listener); }
     public void removeListener(ReplayStateListener listener) { listeners.remove(listener); }
     private void notifySessionStart() { SwingUtilities.invokeLater(() -> { for (ReplayStateListener listener : listeners) listener.onReplaySessionStart(); }); }
     private void notifyTick() { KLine newBar = getCurrentBar(); if (newBar != null) SwingUtilities.invokeLater(() -> { for (ReplayStateListener listener : listeners) listener.onReplayTick(newBar); }); }
+    private void notifyClockSteps(List<ClockStep> steps) { SwingUtilities.invokeLater(() -> { for (ReplayStateListener listener : listeners) listener.onClockSteps(steps); }); }
     private void notifyStateChanged() { SwingUtilities.invokeLater(() -> { for (ReplayStateListener listener : listeners) listener.onReplayStateChanged(); }); }
 
     public void jumpToNextDay() {
@@ -374,9 +745,13 @@ public class ReplaySessionManager {
 
         SymbolReplayContext currentContext = contextsBySymbol.get(activeSymbol);
         if (nextDayIndex > currentContext.replayHeadIndex()) {
-            SymbolReplayContext updatedContext = new SymbolReplayContext(currentContext.source(), currentContext.totalBarCount(), nextDayIndex, currentContext.baseOneMinuteDataWindow(), currentContext.dataWindowStartIndex(), currentContext.dbManager());
+            SymbolReplayContext updatedContext = new SymbolReplayContext(currentContext.source(), currentContext.totalBarCount(), nextDayIndex, currentContext.baseOneMinuteDataWindow(), currentContext.dataWindowStartIndex(), currentContext.klineStore());
             contextsBySymbol.put(activeSymbol, updatedContext);
             loadDataWindowForSymbol(activeSymbol);
+            synchronized (this) {
+                clockTime = null;
+                startClock();
+            }
             notifyTick();
             logger.info("Jumped replay for {} forward to next day at {}. New index: {}", activeSymbol, fastForwardTime, nextDayIndex);
         } else {
@@ -386,5 +761,6 @@ public class ReplaySessionManager {
 
     public void shutdown() {
         playbackExecutor.shutdownNow();
+        prefetchExecutor.shutdownNow();
     }
 }
\ No newline at end of file
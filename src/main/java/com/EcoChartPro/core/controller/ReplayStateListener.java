@@ -2,6 +2,8 @@ package com.EcoChartPro.core.controller;
 
 import com.EcoChartPro.model.KLine;
 
+import java.util.List;
+
 /**
  * An interface for components that need to be notified of changes
  * in the replay session's state or live data ticks.
@@ -14,6 +16,28 @@ public interface ReplayStateListener {
      */
     void onReplayTick(KLine newBar);
 
+    /**
+     * Called once per display frame in turbo replay with every bar advanced since the
+     * previous frame, oldest first. The default delivers them one at a time through
+     * {@link #onReplayTick}. Listeners that repaint or recalculate should override it to
+     * apply each bar to their state and refresh the UI only once.
+     * @param newBars The bars advanced during this frame. Never empty.
+     */
+    default void onReplayTicks(List<KLine> newBars) {
+        for (KLine bar : newBars) {
+            onReplayTick(bar);
+        }
+    }
+
+    /**
+     * Called for every step of the shared replay clock with the bar of each symbol in the
+     * session that has one at that time, the active symbol's included. In turbo replay one
+     * call carries every step of the frame. It is delivered before the matching
+     * {@link #onReplayTick} or {@link #onReplayTicks} call.
+     * @param steps The clock steps, oldest first. Never empty.
+     */
+    default void onClockSteps(List<ReplaySessionManager.ClockStep> steps) {}
+
     /**
      * Called when the replay session officially starts or is initialized.
      * This signals to the listener that it should set up its initial state
@@ -0,0 +1,81 @@
+package com.EcoChartPro.core.indicator;
+
+import com.EcoChartPro.api.indicator.ApiKLine;
+import com.EcoChartPro.api.indicator.KLineColumns;
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.model.Timeframe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything one calculation pass hands to its runners. It is built once per pass by
+ * {@link IndicatorManager} and shared by every runner, so the API conversion of the
+ * data slice and its columnar view are each done at most once, on first use, instead
+ * of once per indicator.
+ */
+public final class CalculationInput {
+
+    private final List<KLine> dataSlice;
+    private final KLine formingCandle;
+    private final Map<Timeframe, List<KLine>> mtfData;
+
+    private volatile List<ApiKLine> apiKLines;
+    private volatile KLineColumns columns;
+
+    /**
+     * @param dataSlice The candles to calculate over. Must not be modified afterwards.
+     * @param formingCandle The chart's still-forming candle, or null.
+     * @param mtfData Resampled series resolved on the EDT, keyed by timeframe.
+     */
+    public CalculationInput(List<KLine> dataSlice, KLine formingCandle, Map<Timeframe, List<KLine>> mtfData) {
+        this.dataSlice = dataSlice != null ? dataSlice : Collections.emptyList();
+        this.formingCandle = formingCandle;
+        this.mtfData = mtfData != null ? mtfData : Collections.emptyMap();
+    }
+
+    public List<KLine> dataSlice() { return dataSlice; }
+    public KLine formingCandle() { return formingCandle; }
+    public Map<Timeframe, List<KLine>> mtfData() { return mtfData; }
+
+    /**
+     * @return The data slice converted to the public API model. Shared and unmodifiable;
+     *         runners hand each indicator a copy.
+     */
+    public List<ApiKLine> apiKLines() {
+        List<ApiKLine> result = apiKLines;
+        if (result == null) {
+            synchronized (this) {
+                result = apiKLines;
+                if (result == null) {
+                    List<ApiKLine> converted = new ArrayList<>(dataSlice.size());
+                    for (KLine k : dataSlice) {
+                        converted.add(new ApiKLine(k.timestamp(), k.open(), k.high(), k.low(), k.close(), k.volume()));
+                    }
+                    result = Collections.unmodifiableList(converted);
+                    apiKLines = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The data slice as primitive columns. Shared by all runners; read-only.
+     */
+    public KLineColumns columns() {
+        KLineColumns result = columns;
+        if (result == null) {
+            synchronized (this) {
+                result = columns;
+                if (result == null) {
+                    result = KLineColumns.of(apiKLines());
+                    columns = result;
+                }
+            }
+        }
+        return result;
+    }
+}
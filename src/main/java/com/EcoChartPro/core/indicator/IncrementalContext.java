@@ -0,0 +1,97 @@
+package com.EcoChartPro.core.indicator;
+
+import com.EcoChartPro.api.indicator.ApiKLine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The context passed to the incremental hooks of a {@link com.EcoChartPro.api.indicator.CustomIndicator}
+ * ({@code onBarClosed}, {@code onBarUpdated} and {@code render}).
+ * <p>
+ * The framework keeps it alive between calls. It holds the recent closed bars, the
+ * indicator's named output series and a state map for values carried from one closed
+ * bar to the next. When the data no longer continues from the last processed bar
+ * (e.g. after a settings change or a jump), the context is cleared and rebuilt from the
+ * current window.
+ */
+public final class IncrementalContext {
+
+    private final Map<String, Object> state;
+    private final Map<String, IndicatorSeries> series = new HashMap<>();
+    private final ArrayList<ApiKLine> closedBars = new ArrayList<>();
+    private Map<String, Object> settings;
+
+    IncrementalContext(Map<String, Object> settings, Map<String, Object> state) {
+        this.settings = settings;
+        this.state = state;
+    }
+
+    public Map<String, Object> settings() {
+        return settings;
+    }
+
+    /**
+     * A mutable map for values carried between closed bars (e.g. the last EMA).
+     * Only {@code onBarClosed} may modify it; {@code onBarUpdated} is called repeatedly
+     * for the same bar and must treat it as read-only.
+     */
+    public Map<String, Object> state() {
+        return state;
+    }
+
+    /**
+     * @return The output series with the given name, created on first use.
+     */
+    public IndicatorSeries series(String name) {
+        return series.computeIfAbsent(name, k -> new IndicatorSeries());
+    }
+
+    /**
+     * @param barsAgo 0 for the most recent closed bar. During {@code onBarClosed} this is the bar being closed.
+     * @return The closed bar, or null if the history does not reach that far back.
+     */
+    public ApiKLine bar(int barsAgo) {
+        int index = closedBars.size() - 1 - barsAgo;
+        return (index >= 0 && barsAgo >= 0) ? closedBars.get(index) : null;
+    }
+
+    /**
+     * @return The number of closed bars currently held.
+     */
+    public int barCount() {
+        return closedBars.size();
+    }
+
+    // --- Framework methods ---
+
+    void setSettings(Map<String, Object> settings) {
+        this.settings = settings;
+    }
+
+    void addClosedBar(ApiKLine bar) {
+        closedBars.add(bar);
+    }
+
+    void beginFormingUpdate() {
+        series.values().forEach(IndicatorSeries::clearForming);
+    }
+
+    void clear() {
+        state.clear();
+        series.values().forEach(IndicatorSeries::clear);
+        closedBars.clear();
+    }
+
+    /**
+     * Bounds memory to roughly the calculation window. Trims lazily once the history
+     * holds more than twice {@code keep} bars, so the cost is amortized constant per bar.
+     */
+    void trimTo(int keep) {
+        if (closedBars.size() > 2 * keep) {
+            closedBars.subList(0, closedBars.size() - keep).clear();
+        }
+        series.values().forEach(s -> s.trimTo(keep));
+    }
+}
@@ -1,6 +1,7 @@
 package com.EcoChartPro.core.indicator;
 
 import com.EcoChartPro.api.indicator.ApiKLine;
+import com.EcoChartPro.api.indicator.KLineColumns;
 import com.EcoChartPro.model.KLine;
 import com.EcoChartPro.model.Timeframe;
 import com.EcoChartPro.model.chart.FootprintBar; // [NEW] Import FootprintBar
@@ -10,6 +11,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -18,6 +20,7 @@ import java.util.stream.Collectors;
  * perform its calculation for the current chart view.
  *
  * @param klineData The slice of K-line data for the visible chart area, plus a lookback buffer.
+ *                  Each indicator gets its own list, which it may modify.
  * @param settings The user-configured settings for this indicator instance.
  * @param getHigherTimeframeData A function to request and receive data for another timeframe.
  * @param debugLogger A consumer to send debug data to the Data Inspector.
@@ -25,6 +28,7 @@ import java.util.stream.Collectors;
  * @param isReset A flag indicating that this is the first calculation run or that
  *                settings have changed, signaling that the indicator should re-initialize its state.
  * @param footprintData [NEW] The map of calculated footprint bars for the visible data.
+ * @param columnsSupplier Supplies {@code klineData} as primitive columns, built lazily and shared by all indicators.
  */
 public record IndicatorContext(
     List<ApiKLine> klineData,
@@ -33,7 +37,8 @@ public record IndicatorContext(
     Consumer<IndicatorContext.DebugLogEntry> debugLogger,
     Map<String, Object> state,
     boolean isReset,
-    Map<Instant, FootprintBar> footprintData // [MODIFIED] Add this field
+    Map<Instant, FootprintBar> footprintData, // [MODIFIED] Add this field
+    Supplier<KLineColumns> columnsSupplier
 ) {
     /**
      * A record to hold a single piece of debug information from an indicator calculation.
@@ -52,6 +57,16 @@ public record IndicatorContext(
         }
     }
 
+    /**
+     * The same data as {@code klineData}, as read-only {@code double[]}/{@code long[]} columns.
+     * The arrays are shared with the other indicators on the chart rather than copied,
+     * and are meant for use with {@link com.EcoChartPro.api.indicator.DoubleIndicatorUtils}.
+     * @return The columnar view of {@code klineData}.
+     */
+    public KLineColumns columns() {
+        return columnsSupplier != null ? columnsSupplier.get() : KLineColumns.of(klineData);
+    }
+
     /**
      * [NEW] A convenience method for indicators to request resampled data for a different timeframe.
      * This converts the internal model.KLine to the public api.indicator.ApiKLine.
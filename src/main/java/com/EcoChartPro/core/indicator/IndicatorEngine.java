@@ -0,0 +1,55 @@
+package com.EcoChartPro.core.indicator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The process-wide worker pool that runs indicator calculations off the Event Dispatch
+ * Thread. Every chart's {@link IndicatorManager} submits its runners here, so indicators
+ * are computed in parallel both within a chart and across charts.
+ * <p>
+ * Scheduling concerns (coalescing, cancellation, publishing results) live in
+ * {@link IndicatorManager}; this class only owns the threads.
+ */
+public final class IndicatorEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndicatorEngine.class);
+    private static volatile IndicatorEngine instance;
+
+    private final ExecutorService workers;
+
+    private IndicatorEngine() {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "Indicator-Worker-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        logger.info("Indicator engine started with {} worker threads.", threads);
+    }
+
+    public static IndicatorEngine getInstance() {
+        if (instance == null) {
+            synchronized (IndicatorEngine.class) {
+                if (instance == null) {
+                    instance = new IndicatorEngine();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Runs a calculation on the worker pool.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, workers);
+    }
+}
@@ -9,6 +9,7 @@ import com.EcoChartPro.model.Timeframe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.swing.SwingUtilities;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.util.ArrayList;
@@ -18,7 +19,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 public final class IndicatorManager {
@@ -27,6 +30,15 @@ public final class IndicatorManager {
     private final Map<UUID, List<IndicatorContext.DebugLogEntry>> debugData = new ConcurrentHashMap<>();
     private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
 
+    // --- Asynchronous recalculation ---
+    // Bumped by every new request and by resets; calculations from an older generation are discarded.
+    private final AtomicLong generation = new AtomicLong();
+    private boolean calculationInFlight = false; // EDT-confined
+    private PendingRecalculation pendingRecalculation; // EDT-confined; latest request seen while busy
+
+    private record PendingRecalculation(ChartDataModel dataModel, List<KLine> dataSlice) {}
+    private record RunnerOutcome(IndicatorRunner runner, CalculationResult result) {}
+
     public IndicatorManager() {
         // Constructor is empty.
     }
@@ -80,6 +92,7 @@ public final class IndicatorManager {
      * to ensure indicators re-initialize their state without being removed.
      */
     public void resetAllIndicators() {
+        cancelPendingCalculations();
         activeIndicators.values().forEach(IndicatorRunner::reset);
         debugData.clear();
         logger.info("All active indicators have been reset for new data source.");
@@ -95,15 +108,94 @@ public final class IndicatorManager {
         }
     }
 
+    /**
+     * Schedules a recalculation of every indicator on the {@link IndicatorEngine}.
+     * <p>
+     * At most one calculation per chart is in flight. Requests that arrive meanwhile are
+     * coalesced so that only the latest one runs next. Runners that have not started when a
+     * newer request arrives are skipped. Results are published together on the EDT, followed by
+     * a {@code dataUpdated} event on the model.
+     */
     public void recalculateAll(ChartDataModel dataModel, List<KLine> dataSlice) {
-        for (IndicatorRunner runner : activeIndicators.values()) {
-            CalculationResult result = runner.recalculate(dataSlice);
-            Indicator indicator = runner.getIndicator();
-            indicator.results.clear();
-            indicator.results.addAll(result.drawables());
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> recalculateAll(dataModel, dataSlice));
+            return;
+        }
+        generation.incrementAndGet();
+        if (calculationInFlight) {
+            pendingRecalculation = new PendingRecalculation(dataModel, dataSlice);
+            return;
+        }
+        startCalculation(dataModel, dataSlice);
+    }
+
+    private void startCalculation(ChartDataModel dataModel, List<KLine> dataSlice) {
+        List<IndicatorRunner> runners = new ArrayList<>(activeIndicators.values());
+        if (runners.isEmpty()) return;
+
+        final long calculationGeneration = generation.get();
+        calculationInFlight = true;
+
+        // Resolve MTF data here, on the thread that owns the chart's history.
+        Map<Timeframe, List<KLine>> mtfData = new HashMap<>();
+        for (IndicatorRunner runner : runners) {
+            for (Timeframe timeframe : runner.getRequestedTimeframes()) {
+                mtfData.computeIfAbsent(timeframe, dataModel::getResampledDataForView);
+            }
+        }
+
+        CalculationInput input = new CalculationInput(dataSlice, dataModel.getCurrentReplayKLine(), mtfData);
+        IndicatorEngine engine = IndicatorEngine.getInstance();
+        List<CompletableFuture<RunnerOutcome>> futures = new ArrayList<>(runners.size());
+        for (IndicatorRunner runner : runners) {
+            futures.add(engine.submit(() -> {
+                if (generation.get() != calculationGeneration) return null; // Superseded before it started.
+                return new RunnerOutcome(runner, runner.recalculate(input));
+            }).exceptionally(error -> {
+                // A failing indicator must not stop the others from publishing or the next run from starting.
+                logger.error("Calculation of indicator '{}' failed.", runner.getIndicator().getName(), error);
+                return null;
+            }));
+        }
 
-            debugData.put(indicator.getId(), result.debugLogs());
-            pcs.firePropertyChange("debugDataUpdated", indicator.getId(), result.debugLogs());
+        CompletableFuture.allOf(futures.toArray(CompletableFuture<?>[]::new))
+                .whenCompleteAsync((ignored, error) -> finishCalculation(dataModel, dataSlice, calculationGeneration, futures),
+                        SwingUtilities::invokeLater);
+    }
+
+    private void finishCalculation(ChartDataModel dataModel, List<KLine> dataSlice, long calculationGeneration,
+                                   List<CompletableFuture<RunnerOutcome>> futures) {
+        calculationInFlight = false;
+        boolean isCurrent = generation.get() == calculationGeneration;
+        boolean needsRerun = false;
+
+        if (isCurrent) {
+            for (CompletableFuture<RunnerOutcome> future : futures) {
+                RunnerOutcome outcome = future.getNow(null);
+                if (outcome == null) continue;
+                Indicator indicator = outcome.runner().getIndicator();
+                if (activeIndicators.get(indicator.getId()) != outcome.runner()) continue; // Removed or replaced meanwhile.
+
+                indicator.results.clear();
+                indicator.results.addAll(outcome.result().drawables());
+                debugData.put(indicator.getId(), outcome.result().debugLogs());
+                pcs.firePropertyChange("debugDataUpdated", indicator.getId(), outcome.result().debugLogs());
+                needsRerun |= outcome.runner().hasMissedTimeframe();
+            }
+        }
+
+        PendingRecalculation next = pendingRecalculation;
+        pendingRecalculation = null;
+        if (next != null) {
+            startCalculation(next.dataModel(), next.dataSlice());
+        } else if (needsRerun) {
+            // An indicator asked for a timeframe that was not resolved yet; it is now known, so run again.
+            generation.incrementAndGet();
+            startCalculation(dataModel, dataSlice);
+        }
+
+        if (isCurrent) {
+            dataModel.fireDataUpdated();
         }
     }
 
@@ -149,9 +241,22 @@ public final class IndicatorManager {
     }
 
     public void clearAllIndicators() {
+        cancelPendingCalculations();
         activeIndicators.values().forEach(IndicatorRunner::onRemoved);
         activeIndicators.clear();
         debugData.clear();
         logger.info("All active indicators have been cleared.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Discards any in-flight or queued calculation, e.g. because the underlying data is being replaced.
+     */
+    private void cancelPendingCalculations() {
+        generation.incrementAndGet();
+        if (SwingUtilities.isEventDispatchThread()) {
+            pendingRecalculation = null;
+        } else {
+            SwingUtilities.invokeLater(() -> pendingRecalculation = null);
+        }
+    }
+}
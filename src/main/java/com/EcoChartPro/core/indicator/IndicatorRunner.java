@@ -1,6 +1,7 @@
 package com.EcoChartPro.core.indicator;
 
 import com.EcoChartPro.api.indicator.ApiKLine;
+import com.EcoChartPro.api.indicator.CustomIndicator;
 import com.EcoChartPro.api.indicator.drawing.DrawableObject;
 import com.EcoChartPro.core.indicator.IndicatorContext.DebugLogEntry;
 import com.EcoChartPro.core.model.ChartDataModel;
@@ -9,25 +10,29 @@ import com.EcoChartPro.model.Timeframe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
  * Manages the calculation for a single indicator instance using the new contextual API.
  * Its job is to prepare the IndicatorContext and invoke the indicator's `calculate` method.
+ * <p>
+ * Calculations run on the {@link IndicatorEngine} worker pool, so every method that
+ * touches the indicator or its state store is synchronized.
  */
 public class IndicatorRunner {
     private static final Logger logger = LoggerFactory.getLogger(IndicatorRunner.class);
 
     private final Indicator indicator;
     private final ChartDataModel dataModel;
-    private final Map<Timeframe, List<KLine>> mtfCache = new HashMap<>();
     
     // The persistent state store for this indicator instance.
     private final Map<String, Object> stateStore = new HashMap<>();
@@ -35,6 +40,14 @@ public class IndicatorRunner {
     // Flag to signal a state reset to the indicator
     private boolean isResetNeeded = true;
 
+    // Higher timeframes this indicator asked for, so they can be resolved on the EDT before the next run.
+    private final Set<Timeframe> requestedTimeframes = ConcurrentHashMap.newKeySet();
+    private volatile boolean missedTimeframe = false;
+
+    // Incremental indicators only: the retained series/state and the first and last closed bars fed into them.
+    private IncrementalContext incrementalContext;
+    private Instant firstClosedBarTime;
+    private Instant lastClosedBarTime;
 
     public record CalculationResult(List<DrawableObject> drawables, List<DebugLogEntry> debugLogs) {}
 
@@ -43,28 +56,50 @@ public class IndicatorRunner {
         this.dataModel = dataModel;
     }
 
-    public void reset() {
+    public synchronized void reset() {
         this.indicator.reset();
-        this.mtfCache.clear();
         this.stateStore.clear();
         this.isResetNeeded = true;
+        this.incrementalContext = null;
+        this.firstClosedBarTime = null;
+        this.lastClosedBarTime = null;
     }
 
-    public CalculationResult recalculate(List<KLine> dataSlice) {
-        if (dataSlice == null || dataSlice.isEmpty()) {
+    /**
+     * Runs the indicator over a shared calculation input. Safe to call from a worker thread.
+     * <p>
+     * If the input's forming candle is the last candle of the slice, incremental indicators
+     * receive it through {@code onBarUpdated}. A timeframe missing from the input's MTF data
+     * yields an empty list and is reported by {@link #hasMissedTimeframe()}.
+     */
+    public synchronized CalculationResult recalculate(CalculationInput input) {
+        missedTimeframe = false;
+        List<KLine> dataSlice = input.dataSlice();
+        if (dataSlice.isEmpty()) {
             return new CalculationResult(Collections.emptyList(), Collections.emptyList());
         }
+        if (indicator instanceof CustomIndicatorAdapter adapter && adapter.getPlugin().isIncremental()) {
+            return recalculateIncremental(adapter.getPlugin(), dataSlice, input.formingCandle());
+        }
 
-        // Convert the internal data model to the public API model to enforce the API boundary.
-        List<ApiKLine> apiDataSlice = dataSlice.stream()
-                .map(k -> new ApiKLine(k.timestamp(), k.open(), k.high(), k.low(), k.close(), k.volume()))
-                .collect(Collectors.toList());
+        // The API conversion is shared by all runners of this pass to enforce the API boundary once.
+        // Each indicator still gets its own list, since plugins may modify klineData; copying the
+        // references of the immutable ApiKLines is cheap next to converting them.
+        List<ApiKLine> apiDataSlice = new ArrayList<>(input.apiKLines());
+        Map<Timeframe, List<KLine>> mtfData = input.mtfData();
 
         final List<DebugLogEntry> collectedLogs = new ArrayList<>();
         Consumer<DebugLogEntry> loggerConsumer = collectedLogs::add;
 
+        // Chart history is owned by the EDT, so resampled series are resolved there ahead of time.
         Function<Timeframe, List<KLine>> mtfDataProvider = (timeframe) -> {
-            return mtfCache.computeIfAbsent(timeframe, dataModel::getResampledDataForView);
+            requestedTimeframes.add(timeframe);
+            List<KLine> resampled = mtfData.get(timeframe);
+            if (resampled == null) {
+                missedTimeframe = true;
+                return Collections.emptyList();
+            }
+            return resampled;
         };
 
         // [MODIFIED] Create the context with the new footprint data
@@ -75,12 +110,11 @@ public class IndicatorRunner {
             loggerConsumer,
             this.stateStore,
             this.isResetNeeded,
-            dataModel.getFootprintData() // Pass footprint data from the model
+            dataModel.getFootprintData(), // Pass footprint data from the model
+            input::columns
         );
 
         try {
-            // Clear the MTF cache before every calculation to ensure fresh data
-            mtfCache.clear();
             List<DrawableObject> drawables = indicator.calculate(context);
             
             // After a reset calculation, turn the flag off
@@ -95,11 +129,85 @@ public class IndicatorRunner {
         }
     }
     
+    /**
+     * Drives an incremental plugin: only closed bars newer than the last processed one are
+     * passed to {@code onBarClosed}, followed by one {@code onBarUpdated} for the forming bar.
+     * The context is rebuilt from the whole slice when the slice no longer continues from the
+     * last processed bar, e.g. after a reset, a settings change or a jump to another position,
+     * or when it starts before the first processed bar (zooming out, older history prepended).
+     */
+    private CalculationResult recalculateIncremental(CustomIndicator plugin, List<KLine> dataSlice, KLine formingCandle) {
+        int closedCount = dataSlice.size();
+        KLine forming = null;
+        KLine lastInSlice = dataSlice.get(closedCount - 1);
+        if (formingCandle != null && lastInSlice.timestamp().equals(formingCandle.timestamp())) {
+            forming = lastInSlice;
+            closedCount--;
+        }
+
+        try {
+            int from = 0;
+            boolean continues = !isResetNeeded && incrementalContext != null && lastClosedBarTime != null && closedCount > 0
+                    && !dataSlice.get(0).timestamp().isBefore(firstClosedBarTime)
+                    && !dataSlice.get(0).timestamp().isAfter(lastClosedBarTime)
+                    && !dataSlice.get(closedCount - 1).timestamp().isBefore(lastClosedBarTime);
+            if (continues) {
+                from = firstIndexAfter(dataSlice, closedCount, lastClosedBarTime);
+            } else {
+                if (incrementalContext == null) {
+                    incrementalContext = new IncrementalContext(indicator.getSettings(), stateStore);
+                }
+                incrementalContext.clear();
+                firstClosedBarTime = null;
+                lastClosedBarTime = null;
+            }
+            incrementalContext.setSettings(indicator.getSettings());
+
+            for (int i = from; i < closedCount; i++) {
+                ApiKLine bar = toApiKLine(dataSlice.get(i));
+                incrementalContext.addClosedBar(bar);
+                plugin.onBarClosed(bar, incrementalContext);
+                if (firstClosedBarTime == null) firstClosedBarTime = bar.timestamp();
+                lastClosedBarTime = bar.timestamp();
+            }
+
+            incrementalContext.beginFormingUpdate();
+            if (forming != null) {
+                plugin.onBarUpdated(toApiKLine(forming), incrementalContext);
+            }
+            incrementalContext.trimTo(Math.max(1, closedCount));
+            isResetNeeded = false;
+
+            return new CalculationResult(plugin.render(incrementalContext), Collections.emptyList());
+        } catch (Exception e) {
+            logger.error("Error during incremental calculation for indicator '{}'", indicator.getName(), e);
+            isResetNeeded = true; // Start from a clean slate next time.
+            return new CalculationResult(Collections.emptyList(), Collections.emptyList());
+        }
+    }
+
+    private static int firstIndexAfter(List<KLine> klines, int limit, Instant time) {
+        int lo = 0, hi = limit;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (klines.get(mid).timestamp().isAfter(time)) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    private static ApiKLine toApiKLine(KLine k) {
+        return new ApiKLine(k.timestamp(), k.open(), k.high(), k.low(), k.close(), k.volume());
+    }
+
     /**
      * Method to trigger the onSettingsChanged hook on the underlying plugin.
      * @param newSettings The new settings map.
      */
-    public void onSettingsChanged(Map<String, Object> newSettings) {
+    public synchronized void onSettingsChanged(Map<String, Object> newSettings) {
         indicator.setSettings(newSettings);
         this.isResetNeeded = true; // Signal that a reset is required on next calculation.
         if (indicator instanceof CustomIndicatorAdapter adapter) {
@@ -114,7 +222,7 @@ public class IndicatorRunner {
     /**
      * Method to trigger the onRemoved hook on the underlying plugin.
      */
-    public void onRemoved() {
+    public synchronized void onRemoved() {
         if (indicator instanceof CustomIndicatorAdapter adapter) {
             try {
                 adapter.getPlugin().onRemoved(this.stateStore);
@@ -125,6 +233,20 @@ public class IndicatorRunner {
         this.stateStore.clear(); // Clear state as a final cleanup step.
     }
     
+    /**
+     * @return The higher timeframes this indicator has requested so far.
+     */
+    public Set<Timeframe> getRequestedTimeframes() {
+        return requestedTimeframes;
+    }
+
+    /**
+     * @return True if the last calculation asked for a timeframe that was not resolved in advance.
+     */
+    public boolean hasMissedTimeframe() {
+        return missedTimeframe;
+    }
+
     /**
      * Getter to expose the underlying indicator to the manager.
      */
@@ -0,0 +1,81 @@
+package com.EcoChartPro.core.indicator;
+
+import com.EcoChartPro.api.indicator.drawing.DataPoint;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A framework-managed output series for incremental indicators.
+ * <p>
+ * Values for closed bars are appended once in {@code onBarClosed}; the value for the
+ * still-forming bar is set in {@code onBarUpdated} and replaced on every tick. The
+ * framework clears the forming value before each update and trims old values that
+ * have scrolled out of the calculation window.
+ */
+public final class IndicatorSeries {
+
+    private final ArrayList<DataPoint> closed = new ArrayList<>();
+    private DataPoint forming;
+
+    /**
+     * Appends the value of a closed bar.
+     */
+    public void append(Instant time, BigDecimal value) {
+        closed.add(new DataPoint(time, value));
+    }
+
+    /**
+     * Sets the provisional value of the forming bar.
+     */
+    public void setForming(Instant time, BigDecimal value) {
+        this.forming = new DataPoint(time, value);
+    }
+
+    /**
+     * @param barsAgo 0 for the most recent closed value, 1 for the one before, and so on.
+     * @return The value, or null if the series does not reach that far back.
+     */
+    public BigDecimal get(int barsAgo) {
+        int index = closed.size() - 1 - barsAgo;
+        return (index >= 0 && barsAgo >= 0) ? closed.get(index).price() : null;
+    }
+
+    /**
+     * @return The number of closed values currently held.
+     */
+    public int size() {
+        return closed.size();
+    }
+
+    /**
+     * @return A new list with all closed values followed by the forming value, if any.
+     */
+    public List<DataPoint> points() {
+        List<DataPoint> all = new ArrayList<>(closed.size() + 1);
+        all.addAll(closed);
+        if (forming != null) all.add(forming);
+        return all;
+    }
+
+    void clearForming() {
+        forming = null;
+    }
+
+    void clear() {
+        closed.clear();
+        forming = null;
+    }
+
+    /**
+     * Drops the oldest values once the series holds more than twice {@code keep},
+     * so trimming costs amortized constant time per bar.
+     */
+    void trimTo(int keep) {
+        if (closed.size() > 2 * keep) {
+            closed.subList(0, closed.size() - keep).clear();
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.EcoChartPro.core.journal;
 
 import com.EcoChartPro.model.*;
 import com.EcoChartPro.utils.DataSourceManager;
+import com.EcoChartPro.data.store.KLineStore;
+import com.EcoChartPro.data.store.KLineStores;
 import com.EcoChartPro.utils.DatabaseManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -74,7 +76,7 @@ public class JournalAnalysisService {
         // Optimization: Only fetch if not in memory cache
         long uncachedCount = trades.stream().filter(t -> !mfeMaeCache.containsKey(t.id())).count();
 
-        DatabaseManager fallbackDb = null;
+        KLineStore fallbackStore = null;
         boolean useFallback = false;
         
         if (uncachedCount > 0 && source != null && source.dbPath() != null) {
@@ -83,10 +85,10 @@ public class JournalAnalysisService {
 
         try {
             if (useFallback) {
-                fallbackDb = new DatabaseManager("jdbc:sqlite:" + source.dbPath().toAbsolutePath());
+                fallbackStore = KLineStores.open(source.dbPath());
             }
             
-            final DatabaseManager dbToUse = fallbackDb;
+            final KLineStore storeToUse = fallbackStore;
 
             return trades.stream().map(trade -> {
                 // 1. Check RAM Cache
@@ -99,11 +101,11 @@ public class JournalAnalysisService {
                 List<KLine> tradeKlines = DatabaseManager.getInstance().getCandlesForTrade(trade.id(), "1m");
 
                 // 3. Fallback to Source DB (Slow/Heavy Historical Data)
-                if (tradeKlines.isEmpty() && dbToUse != null) {
+                if (tradeKlines.isEmpty() && storeToUse != null) {
                     Instant start = trade.entryTime().minusSeconds(60);
                     Instant end = trade.exitTime().plusSeconds(60);
                     Symbol lookupSymbol = trade.symbol(); 
-                    tradeKlines = dbToUse.getKLinesBetween(lookupSymbol, "1m", start, end);
+                    tradeKlines = storeToUse.getKLinesBetween(lookupSymbol, "1m", start, end);
 
                     // [CRITICAL OPTIMIZATION]: Persist to Fast Cache
                     // If we had to go to the source DB, save this snippet to the local DB so next time it's fast.
@@ -125,8 +127,8 @@ public class JournalAnalysisService {
             logger.error("Error during MFE/MAE calculation", e);
             return Collections.emptyList();
         } finally {
-            if (fallbackDb != null) {
-                fallbackDb.close();
+            if (fallbackStore != null) {
+                fallbackStore.close();
             }
         }
     }
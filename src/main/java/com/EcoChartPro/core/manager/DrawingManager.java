@@ -62,6 +62,10 @@ public final class DrawingManager {
         }
     }
 
+    public String getActiveSymbol() {
+        return activeSymbol;
+    }
+
     /**
      * [NEW] Helper method to get the map of drawings for the currently active symbol.
      * @return The map of drawings, or null if no symbol is active.
@@ -8,10 +8,11 @@ import com.EcoChartPro.core.model.providers.IHistoryProvider;
 import com.EcoChartPro.core.model.providers.LiveHistoryProvider;
 import com.EcoChartPro.core.model.providers.ReplayHistoryProvider;
 import com.EcoChartPro.data.DataProvider;
-import com.EcoChartPro.data.DataResampler;
+import com.EcoChartPro.data.ResampleCache;
 import com.EcoChartPro.data.DataTransformer;
 import com.EcoChartPro.data.provider.BinanceProvider;
 import com.EcoChartPro.data.provider.OkxProvider;
+import com.EcoChartPro.data.store.KLineStores;
 import com.EcoChartPro.model.KLine;
 import com.EcoChartPro.model.Timeframe;
 import com.EcoChartPro.model.Trade;
@@ -33,7 +34,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The central data model for a specific chart view.
@@ -63,7 +63,6 @@ public class ChartDataModel implements PropertyChangeListener {
     private final FootprintCalculator footprintCalculator;
 
     // --- Caching ---
-    private final Map<Timeframe, List<KLine>> htfCache = new ConcurrentHashMap<>();
     private List<KLine> heikinAshiCandlesCache;
     private boolean isHaCacheDirty = true;
 
@@ -82,6 +81,10 @@ public class ChartDataModel implements PropertyChangeListener {
             fireDataUpdated();
         } else if ("viewStateChanged".equals(evt.getPropertyName())) {
             updateView();
+        } else if ("historyRebuilt".equals(evt.getPropertyName())) {
+            // The provider replaced bars that resampled series may already cover.
+            String sourceKey = resampleSourceKey();
+            if (sourceKey != null) ResampleCache.getInstance().invalidate(sourceKey);
         }
     }
 
@@ -116,7 +119,7 @@ public class ChartDataModel implements PropertyChangeListener {
         if (liveDataProvider != null) {
             boolean isFootprint = chartPanel != null && chartPanel.getChartType() == ChartType.FOOTPRINT;
             
-            // [PHASE 4] Pass the dbManager to the provider so it can save live data
+            // [PHASE 4] Pass the active K-line store to the provider so it can save live data
             this.historyProvider = new LiveHistoryProvider(
                 chartPanel, 
                 source, 
@@ -124,8 +127,9 @@ public class ChartDataModel implements PropertyChangeListener {
                 timeframe, 
                 isFootprint, 
                 footprintCalculator,
-                this.dbManager // <-- Injection point
+                this.dbManager != null ? KLineStores.forDatabase(this.dbManager) : null // <-- Injection point
             );
+            this.historyProvider.addPropertyChangeListener(this);
         } else {
             logger.error("Cannot create LiveHistoryProvider without a valid DataProvider for '{}'.", source.providerName());
         }
@@ -136,6 +140,7 @@ public class ChartDataModel implements PropertyChangeListener {
         this.currentDisplayTimeframe = initialDisplayTimeframe;
         this.currentSource = source;
         this.historyProvider = new ReplayHistoryProvider(interactionManager, chartPanel, initialDisplayTimeframe);
+        this.historyProvider.addPropertyChangeListener(this);
     }
 
     // --- Data Access ---
@@ -150,21 +155,59 @@ public class ChartDataModel implements PropertyChangeListener {
         return all;
     }
 
+    /**
+     * Returns this chart's history resampled into another timeframe. Results come from the
+     * process-wide {@link ResampleCache}, so charts and indicators on the same source share
+     * one incrementally updated series per timeframe.
+     */
     public List<KLine> getResampledDataForView(Timeframe targetTimeframe) {
-        if (htfCache.containsKey(targetTimeframe)) {
-            return htfCache.get(targetTimeframe);
+        if (historyProvider == null || currentSource == null || targetTimeframe == null) {
+            return Collections.emptyList();
+        }
+        if (targetTimeframe.equals(this.currentDisplayTimeframe)) {
+            return getAllChartableCandles();
         }
 
+        String sourceKey = resampleSourceKey();
+        Timeframe baseTimeframe;
+        List<KLine> baseCandles;
         if (historyProvider instanceof LiveHistoryProvider) {
-            if (targetTimeframe.equals(this.currentDisplayTimeframe)) {
-                return getAllChartableCandles();
+            baseTimeframe = this.currentDisplayTimeframe;
+            baseCandles = historyProvider.getFinalizedCandles();
+        } else if (historyProvider instanceof ReplayHistoryProvider replayProvider) {
+            long displayMillis = this.currentDisplayTimeframe.duration().toMillis();
+            if (displayMillis > 0 && targetTimeframe.duration().toMillis() % displayMillis == 0) {
+                // The display candles reach further back than the bounded M1 window.
+                baseTimeframe = this.currentDisplayTimeframe;
+                baseCandles = getAllChartableCandles();
             } else {
-                List<KLine> resampled = DataResampler.resample(historyProvider.getFinalizedCandles(), targetTimeframe);
-                htfCache.put(targetTimeframe, resampled);
-                return resampled;
+                baseTimeframe = Timeframe.M1;
+                baseCandles = replayProvider.getBaseDataWindow();
             }
+        } else {
+            return Collections.emptyList();
         }
-        return Collections.emptyList();
+
+        // Candles can only be aggregated upwards.
+        if (targetTimeframe.duration().compareTo(baseTimeframe.duration()) < 0) {
+            return Collections.emptyList();
+        }
+        return ResampleCache.getInstance().getResampled(sourceKey, baseTimeframe, baseCandles, targetTimeframe);
+    }
+
+    /**
+     * @return The {@link ResampleCache} key of this chart's source, or null if it has none.
+     */
+    private String resampleSourceKey() {
+        if (currentSource == null) return null;
+        if (historyProvider instanceof LiveHistoryProvider) {
+            return "live:" + currentSource.providerName() + ":" + currentSource.symbol();
+        }
+        if (historyProvider instanceof ReplayHistoryProvider) {
+            // Two local files may hold the same symbol, so the file is part of the key.
+            return "replay:" + currentSource.providerName() + ":" + currentSource.symbol() + ":" + currentSource.dbPath();
+        }
+        return null;
     }
 
     // --- Live Update Handling ---
@@ -191,6 +234,31 @@ public class ChartDataModel implements PropertyChangeListener {
         runOnUIThread(updateTask);
     }
     
+    /**
+     * Batched counterpart of {@link #fireLiveCandleAdded} and {@link #fireLiveTickReceived}
+     * for turbo replay: the events are fired for every candle, but the view is rebuilt
+     * (and indicators recalculated) only once.
+     * @param finalizedCandles Candles finalized during the batch, oldest first. May be empty.
+     * @param formingCandle The candle still forming after the batch, or null.
+     */
+    public void fireLiveCandlesAdded(List<KLine> finalizedCandles, KLine formingCandle) {
+        Runnable updateTask = () -> {
+            KLine latest = formingCandle != null ? formingCandle
+                    : (finalizedCandles.isEmpty() ? null : finalizedCandles.get(finalizedCandles.size() - 1));
+            if (interactionManager != null && latest != null) {
+                interactionManager.onReplayTick(latest);
+            }
+            updateView();
+            for (KLine candle : finalizedCandles) {
+                pcs.firePropertyChange("liveCandleAdded", null, candle);
+            }
+            if (formingCandle != null) {
+                pcs.firePropertyChange("liveTickReceived", null, formingCandle);
+            }
+        };
+        runOnUIThread(updateTask);
+    }
+    
     private void runOnUIThread(Runnable task) {
         if (SwingUtilities.isEventDispatchThread()) {
             task.run();
@@ -241,7 +309,6 @@ public class ChartDataModel implements PropertyChangeListener {
 
         Timeframe oldTimeframe = this.currentDisplayTimeframe;
         this.currentDisplayTimeframe = newTimeframe;
-        htfCache.clear();
         isHaCacheDirty = true;
 
         if (historyProvider != null) {
@@ -260,9 +327,9 @@ public class ChartDataModel implements PropertyChangeListener {
         this.maxPrice = BigDecimal.ZERO;
         this.indicatorManager.resetAllIndicators();
         this.footprintCalculator.clear();
-        this.htfCache.clear();
         this.isHaCacheDirty = true;
         if (historyProvider != null) {
+            historyProvider.removePropertyChangeListener(this);
             historyProvider.cleanup();
             historyProvider = null;
         }
@@ -332,6 +399,7 @@ public class ChartDataModel implements PropertyChangeListener {
         if (this.interactionManager != null)
             this.interactionManager.removePropertyChangeListener(this);
         if (this.historyProvider != null) {
+            this.historyProvider.removePropertyChangeListener(this);
             this.historyProvider.cleanup();
             historyProvider = null;
         }
@@ -74,7 +74,20 @@ public class FootprintCalculator {
         // one.
         // This ensures 10:03 tick goes into the 10:00 bar (if target is 5m)
         // or 10:00 bar (if target is 45m).
-        Instant candleTimestamp = currentlyFormingCandle.timestamp();
+        addTrade(tick, currentlyFormingCandle.timestamp());
+    }
+
+    /**
+     * [NEW] Adds a trade tick to the footprint bar starting at the given time, e.g. while
+     * replaying ticks where the bar is still being built from those same ticks.
+     *
+     * @param tick            The trade to add.
+     * @param candleTimestamp The open time of the bar the tick belongs to.
+     */
+    public void addTrade(TradeTick tick, Instant candleTimestamp) {
+        if (tick == null || candleTimestamp == null) {
+            return;
+        }
 
         FootprintBar currentFpBar = footprintData.computeIfAbsent(candleTimestamp, ts -> {
             FootprintBar newBar = new FootprintBar(ts);
@@ -1,11 +1,15 @@
 package com.EcoChartPro.core.model.providers;
 
 import com.EcoChartPro.core.model.calculators.FootprintCalculator;
+import com.EcoChartPro.data.BarAggregator;
 import com.EcoChartPro.data.DataProvider;
 import com.EcoChartPro.data.DataResampler;
+import com.EcoChartPro.data.HistoryCache;
 import com.EcoChartPro.data.LiveDataManager;
+import com.EcoChartPro.data.RollupPyramid;
 import com.EcoChartPro.data.provider.BinanceProvider;
 import com.EcoChartPro.data.provider.OkxProvider;
+import com.EcoChartPro.data.store.KLineStore;
 import com.EcoChartPro.model.KLine;
 import com.EcoChartPro.model.Symbol;
 import com.EcoChartPro.model.Timeframe;
@@ -17,6 +21,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -37,7 +43,6 @@ public class LiveHistoryProvider implements IHistoryProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(LiveHistoryProvider.class);
     
-    private static final int MAX_BUFFER_SIZE = 5000; 
     private static final int AUTO_SAVE_INTERVAL_MS = 60_000;
     private static final long CACHE_STALE_THRESHOLD_MS = 12 * 60 * 60 * 1000; 
 
@@ -46,12 +51,12 @@ public class LiveHistoryProvider implements IHistoryProvider {
     private final DataProvider dataProvider;
     private final FootprintCalculator footprintCalculator;
     private final boolean isFootprintMode;
-    private final DatabaseManager dbManager;
+    private final KLineStore klineStore;
 
     private Timeframe targetTimeframe;
     private final Timeframe baseTimeframe = Timeframe.M1;
 
-    private final List<KLine> formingBuffer = new ArrayList<>();
+    private BarAggregator barAggregator;
     private final List<KLine> pendingSaveBuffer = Collections.synchronizedList(new ArrayList<>());
     private List<KLine> finalizedCandles = new ArrayList<>();
     private KLine currentlyFormingCandle;
@@ -62,23 +67,24 @@ public class LiveHistoryProvider implements IHistoryProvider {
     private final List<KLine> liveTickBuffer = Collections.synchronizedList(new ArrayList<>());
 
     private final Timer autoSaveTimer;
-    private final Consumer<KLine> liveKLineConsumer;
-    private final Consumer<TradeTick> liveTradeConsumer;
+    private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
+    private final Consumer<List<KLine>> liveKLineConsumer;
+    private final Consumer<List<TradeTick>> liveTradeConsumer;
 
     public LiveHistoryProvider(ChartPanel chartPanel, DataSourceManager.ChartDataSource source,
             DataProvider dataProvider, Timeframe initialTimeframe, boolean isFootprintMode,
-            FootprintCalculator footprintCalculator, DatabaseManager dbManager) {
+            FootprintCalculator footprintCalculator, KLineStore klineStore) {
         this.chartPanel = chartPanel;
         this.source = source;
         this.dataProvider = dataProvider;
         this.isFootprintMode = isFootprintMode;
         this.footprintCalculator = footprintCalculator;
-        this.dbManager = dbManager;
+        this.klineStore = klineStore;
 
         this.liveKLineConsumer = isFootprintMode ? this::onLiveFootprintKLineUpdate : this::onLiveBaseKLineUpdate;
         this.liveTradeConsumer = isFootprintMode ? this::onLiveTradeUpdate : null;
 
-        if (this.dbManager != null) {
+        if (this.klineStore != null) {
             this.autoSaveTimer = new Timer(AUTO_SAVE_INTERVAL_MS, e -> savePendingData());
             this.autoSaveTimer.setRepeats(true);
             this.autoSaveTimer.start();
@@ -89,6 +95,10 @@ public class LiveHistoryProvider implements IHistoryProvider {
         setTimeframe(initialTimeframe, true);
     }
 
+    @Override
+    public void addPropertyChangeListener(PropertyChangeListener listener) { pcs.addPropertyChangeListener(listener); }
+    @Override
+    public void removePropertyChangeListener(PropertyChangeListener listener) { pcs.removePropertyChangeListener(listener); }
     @Override
     public List<KLine> getFinalizedCandles() { return finalizedCandles; }
     @Override
@@ -108,7 +118,7 @@ public class LiveHistoryProvider implements IHistoryProvider {
         
         logger.info("Timeframe set to {}. Bridging with Base: {}", targetTimeframe, baseTimeframe);
 
-        this.formingBuffer.clear();
+        this.barAggregator = new BarAggregator(newTimeframe);
         this.finalizedCandles.clear();
         this.currentlyFormingCandle = null;
         if (isFootprintMode) this.footprintCalculator.clear();
@@ -125,57 +135,53 @@ public class LiveHistoryProvider implements IHistoryProvider {
         cleanupSubscriptions();
     }
 
-    private void onLiveBaseKLineUpdate(KLine incomingM1Tick) {
+    // Live updates arrive in batches, one per dispatch interval; each batch is one EDT event.
+    private void onLiveBaseKLineUpdate(List<KLine> incomingM1Ticks) {
         if (isInitializing) {
-            liveTickBuffer.add(incomingM1Tick);
+            liveTickBuffer.addAll(incomingM1Ticks);
         } else {
             SwingUtilities.invokeLater(() -> {
-                processNewM1Tick(incomingM1Tick);
+                for (KLine incomingM1Tick : incomingM1Ticks) {
+                    processNewM1Tick(incomingM1Tick);
+                }
                 chartPanel.getDataModel().fireLiveTickReceived(currentlyFormingCandle);
                 chartPanel.getDataModel().fireDataUpdated();
             });
         }
     }
 
-    private void onLiveFootprintKLineUpdate(KLine incomingM1Tick) {
+    private void onLiveFootprintKLineUpdate(List<KLine> incomingM1Ticks) {
         if (isInitializing) {
-            liveTickBuffer.add(incomingM1Tick);
+            liveTickBuffer.addAll(incomingM1Ticks);
         } else {
             SwingUtilities.invokeLater(() -> {
-                processNewM1Tick(incomingM1Tick);
-                if (currentlyFormingCandle != null) {
-                    footprintCalculator.addLiveTrade(
-                            new TradeTick(Instant.now(), incomingM1Tick.close(), incomingM1Tick.volume(), 
-                            incomingM1Tick.close().compareTo(incomingM1Tick.open()) >= 0 ? "buy" : "sell"),
-                            currentlyFormingCandle);
+                for (KLine incomingM1Tick : incomingM1Ticks) {
+                    processNewM1Tick(incomingM1Tick);
+                    if (currentlyFormingCandle != null) {
+                        footprintCalculator.addLiveTrade(
+                                new TradeTick(Instant.now(), incomingM1Tick.close(), incomingM1Tick.volume(),
+                                incomingM1Tick.close().compareTo(incomingM1Tick.open()) >= 0 ? "buy" : "sell"),
+                                currentlyFormingCandle);
+                    }
                 }
                 chartPanel.getDataModel().fireDataUpdated();
             });
         }
     }
 
-    private void onLiveTradeUpdate(TradeTick newTrade) {
+    private void onLiveTradeUpdate(List<TradeTick> newTrades) {
         if (!isInitializing) {
             SwingUtilities.invokeLater(() -> {
                 if (currentlyFormingCandle == null) return;
-                footprintCalculator.addLiveTrade(newTrade, currentlyFormingCandle);
+                for (TradeTick newTrade : newTrades) {
+                    footprintCalculator.addLiveTrade(newTrade, currentlyFormingCandle);
+                }
                 chartPanel.getDataModel().fireDataUpdated();
             });
         }
     }
 
     private void processNewM1Tick(KLine tick) {
-        if (formingBuffer.isEmpty()) {
-            formingBuffer.add(tick);
-        } else {
-            KLine lastTick = formingBuffer.get(formingBuffer.size() - 1);
-            if (tick.timestamp().equals(lastTick.timestamp())) {
-                formingBuffer.set(formingBuffer.size() - 1, tick);
-            } else {
-                formingBuffer.add(tick);
-            }
-        }
-        
         synchronized(pendingSaveBuffer) {
             if (pendingSaveBuffer.isEmpty()) {
                 pendingSaveBuffer.add(tick);
@@ -189,33 +195,16 @@ public class LiveHistoryProvider implements IHistoryProvider {
             }
         }
 
-        List<KLine> resampled = DataResampler.resample(formingBuffer, targetTimeframe);
-
-        if (resampled.isEmpty()) return;
-        
-        if (resampled.size() > 1) {
-            List<KLine> newlyFinalized = resampled.subList(0, resampled.size() - 1);
-            finalizedCandles.addAll(newlyFinalized);
-            
-            for(KLine k : newlyFinalized) {
-                chartPanel.getDataModel().fireLiveCandleAdded(k);
-            }
-
-            KLine newForming = resampled.get(resampled.size() - 1);
-            formingBuffer.removeIf(m1 -> m1.timestamp().isBefore(newForming.timestamp()));
-            
-            currentlyFormingCandle = newForming;
-        } else {
-            currentlyFormingCandle = resampled.get(0);
-        }
-        
-        if (formingBuffer.size() > MAX_BUFFER_SIZE) {
-            formingBuffer.subList(0, formingBuffer.size() - 1000).clear();
+        KLine finalized = barAggregator.add(tick);
+        if (finalized != null) {
+            finalizedCandles.add(finalized);
+            chartPanel.getDataModel().fireLiveCandleAdded(finalized);
         }
+        currentlyFormingCandle = barAggregator.getFormingBar();
     }
     
     private void savePendingData() {
-        if (dbManager == null) return;
+        if (klineStore == null) return;
 
         final List<KLine> batchToSave;
         synchronized(pendingSaveBuffer) {
@@ -228,7 +217,9 @@ public class LiveHistoryProvider implements IHistoryProvider {
             @Override
             protected Void doInBackground() {
                 try {
-                    dbManager.saveKLines(batchToSave, new Symbol(source.symbol()), "1m");
+                    Symbol symbol = new Symbol(source.symbol());
+                    klineStore.saveKLines(batchToSave, symbol, "1m");
+                    RollupPyramid.update(klineStore, symbol, batchToSave);
                     logger.debug("Auto-saved {} live 1m candles to database.", batchToSave.size());
                 } catch (Exception e) {
                     logger.error("Failed to auto-save live data for {}", source.symbol(), e);
@@ -244,9 +235,9 @@ public class LiveHistoryProvider implements IHistoryProvider {
 
         this.isInitializing = true;
         this.liveTickBuffer.clear();
-        LiveDataManager.getInstance().subscribeToKLine(source.symbol(), baseTimeframe.displayName(), liveKLineConsumer);
+        LiveDataManager.getInstance().subscribeToKLineBatches(source.symbol(), baseTimeframe.displayName(), liveKLineConsumer);
         if (isFootprintMode)
-            LiveDataManager.getInstance().subscribeToTrades(source.symbol(), liveTradeConsumer);
+            LiveDataManager.getInstance().subscribeToTradeBatches(source.symbol(), liveTradeConsumer);
 
         new SwingWorker<Void, Void>() {
             private List<KLine> historyData = new ArrayList<>();
@@ -258,38 +249,54 @@ public class LiveHistoryProvider implements IHistoryProvider {
                 int requiredTargetBars = 1000;
                 long requiredM1Bars = requiredTargetBars * targetDuration;
                 
-                List<KLine> localM1Data = Collections.emptyList();
-                if (dbManager != null) {
-                    Optional<DatabaseManager.DataRange> range = dbManager.getDataRange(new Symbol(source.symbol()), "1m");
+                // Local history: the stored rollups plus the 1m bars of the forming bucket, or
+                // plain 1m bars while the store has no usable rollup for this timeframe.
+                List<KLine> localHistory = Collections.emptyList();
+                Instant localEnd = null;
+                if (klineStore != null) {
+                    Symbol symbol = new Symbol(source.symbol());
+                    Optional<DatabaseManager.DataRange> range = klineStore.getDataRange(symbol, "1m");
                     if (range.isPresent()) {
-                        localM1Data = dbManager.getKLinesByIndex(new Symbol(source.symbol()), "1m", 
-                                Math.max(0, dbManager.getTotalKLineCount(new Symbol(source.symbol()), "1m") - (int)requiredM1Bars), 
-                                (int)requiredM1Bars);
+                        localEnd = range.get().end();
+                        Timeframe rollup = RollupPyramid.findUsableRollup(klineStore, symbol, targetTimeframe);
+                        if (rollup != null) {
+                            Instant from = localEnd.minus(targetTimeframe.duration().multipliedBy(requiredTargetBars));
+                            localHistory = RollupPyramid.readSpliced(klineStore, symbol, rollup, from, localEnd);
+                        } else {
+                            RollupPyramid.ensureBuiltAsync(klineStore, symbol);
+                            localHistory = klineStore.getKLinesByIndex(symbol, "1m",
+                                    Math.max(0, klineStore.getTotalKLineCount(symbol, "1m") - (int)requiredM1Bars),
+                                    (int)requiredM1Bars);
+                        }
                     }
                 }
 
-                if (!localM1Data.isEmpty()) {
-                    long lastTimestamp = localM1Data.get(localM1Data.size() - 1).timestamp().toEpochMilli();
-                    if (System.currentTimeMillis() - lastTimestamp > CACHE_STALE_THRESHOLD_MS) {
+                List<KLine> localResampled = Collections.emptyList();
+                if (!localHistory.isEmpty()) {
+                    if (System.currentTimeMillis() - localEnd.toEpochMilli() > CACHE_STALE_THRESHOLD_MS) {
                         logger.info("Cache stale. Forcing full API fetch.");
-                        localM1Data = Collections.emptyList(); 
+                    } else {
+                        localResampled = DataResampler.resample(localHistory, targetTimeframe);
+                        if (localResampled.size() < 50) {
+                            logger.info("Cache insufficient ({} bars). Forcing full API fetch.", localResampled.size());
+                            localResampled = Collections.emptyList();
+                        }
                     }
                 }
 
-                long cachedTargetBars = localM1Data.size() / Math.max(1, targetDuration);
-                if (!localM1Data.isEmpty() && cachedTargetBars < 50) {
-                    logger.info("Cache insufficient ({} bars). Forcing full API fetch.", cachedTargetBars);
-                    localM1Data = Collections.emptyList(); 
-                }
-
                 long startTimeForGap = 0;
 
-                if (localM1Data.isEmpty()) {
+                if (localResampled.isEmpty()) {
                     Timeframe fetchTimeframe = Timeframe.getSmartBaseTimeframe(targetTimeframe);
                     boolean requiresResampling = !fetchTimeframe.equals(targetTimeframe);
                     int fetchLimit = 1000;
 
-                    List<KLine> rawFetched = dataProvider.getHistoricalData(source.symbol(), fetchTimeframe.displayName(), fetchLimit);
+                    // Served from the history cache; only the bars it does not hold yet are fetched.
+                    List<KLine> rawFetched = HistoryCache.forExchange(source.providerName())
+                            .getBarsBefore(source.symbol(), fetchTimeframe, System.currentTimeMillis(), fetchLimit);
+                    if (rawFetched.isEmpty()) {
+                        rawFetched = dataProvider.getHistoricalData(source.symbol(), fetchTimeframe.displayName(), fetchLimit);
+                    }
                     
                     if (rawFetched != null && !rawFetched.isEmpty()) {
                         List<KLine> resampled;
@@ -307,15 +314,9 @@ public class LiveHistoryProvider implements IHistoryProvider {
                         historyData = resampled;
                     }
                 } else {
-                    List<KLine> resampled = DataResampler.resample(localM1Data, targetTimeframe);
-                    
-                    if (!resampled.isEmpty()) {
-                        KLine last = resampled.remove(resampled.size()-1);
-                        startTimeForGap = last.timestamp().toEpochMilli(); 
-                    } else {
-                        startTimeForGap = System.currentTimeMillis() - (60000 * 1000); 
-                    }
-                    
+                    List<KLine> resampled = new ArrayList<>(localResampled);
+                    KLine last = resampled.remove(resampled.size()-1);
+                    startTimeForGap = last.timestamp().toEpochMilli(); 
                     historyData = resampled;
                 }
 
@@ -353,6 +354,8 @@ public class LiveHistoryProvider implements IHistoryProvider {
                         liveTickBuffer.clear();
                         isInitializing = false; 
                     }
+                    // The reloaded bars replace any earlier ones of the same range.
+                    pcs.firePropertyChange("historyRebuilt", null, null);
 
                     if (isFootprintMode) {
                         List<KLine> all = new ArrayList<>(finalizedCandles);
@@ -388,14 +391,9 @@ public class LiveHistoryProvider implements IHistoryProvider {
                 boolean requiresResampling = !fetchTimeframe.equals(targetTimeframe);
                 int fetchLimit = 1000;
 
-                List<KLine> rawFetched;
-                if (dataProvider instanceof BinanceProvider bp) {
-                    rawFetched = bp.getHistoricalData(source.symbol(), fetchTimeframe.displayName(), fetchLimit, null, endTimeForFetch);
-                } else if (dataProvider instanceof OkxProvider op) {
-                    rawFetched = op.getHistoricalData(source.symbol(), fetchTimeframe.displayName(), fetchLimit, null, endTimeForFetch);
-                } else {
-                    return Collections.emptyList();
-                }
+                // Older history is read from the history cache, which fetches and keeps what it lacks.
+                List<KLine> rawFetched = HistoryCache.forExchange(source.providerName())
+                        .getBarsBefore(source.symbol(), fetchTimeframe, endTimeForFetch, fetchLimit);
 
                 if (requiresResampling && rawFetched != null) {
                     return DataResampler.resample(rawFetched, targetTimeframe);
@@ -408,21 +406,24 @@ public class LiveHistoryProvider implements IHistoryProvider {
                 try {
                     List<KLine> olderData = get();
                     if (olderData != null && !olderData.isEmpty()) {
-                        if (!finalizedCandles.isEmpty() && !olderData.isEmpty()) {
-                             KLine firstCurrent = finalizedCandles.get(0);
-                             KLine lastOlder = olderData.get(olderData.size()-1);
-                             if (lastOlder.timestamp().equals(firstCurrent.timestamp())) {
-                                 olderData.remove(olderData.size()-1);
-                             }
+                        int olderCount = olderData.size();
+                        if (!finalizedCandles.isEmpty()
+                                && olderData.get(olderCount - 1).timestamp().equals(finalizedCandles.get(0).timestamp())) {
+                            olderCount--;
                         }
-                        finalizedCandles.addAll(0, olderData);
+                        // Build the merged list once rather than shifting every loaded candle to make room.
+                        List<KLine> merged = new ArrayList<>(olderCount + finalizedCandles.size() + 1);
+                        merged.addAll(olderData.subList(0, olderCount));
+                        merged.addAll(finalizedCandles);
                         if (isFootprintMode) {
-                            List<KLine> all = new ArrayList<>(finalizedCandles);
-                            if (currentlyFormingCandle != null) all.add(currentlyFormingCandle);
-                            footprintCalculator.calculateHistoricalFootprints(all);
+                            // The spare slot holds the forming candle just for this calculation.
+                            if (currentlyFormingCandle != null) merged.add(currentlyFormingCandle);
+                            footprintCalculator.calculateHistoricalFootprints(merged);
+                            if (currentlyFormingCandle != null) merged.remove(merged.size() - 1);
                         }
+                        finalizedCandles = merged;
                         chartPanel.getDataModel().getInteractionManager().setStartIndex(
-                                chartPanel.getDataModel().getInteractionManager().getStartIndex() + olderData.size());
+                                chartPanel.getDataModel().getInteractionManager().getStartIndex() + olderCount);
                     }
                 } catch (Exception e) {
                     logger.error("Failed to fetch older live data.", e);
@@ -438,10 +439,10 @@ public class LiveHistoryProvider implements IHistoryProvider {
     private void cleanupSubscriptions() {
         if (source != null) {
             if (liveKLineConsumer != null)
-                LiveDataManager.getInstance().unsubscribeFromKLine(source.symbol(), baseTimeframe.displayName(),
+                LiveDataManager.getInstance().unsubscribeFromKLineBatches(source.symbol(), baseTimeframe.displayName(),
                         liveKLineConsumer);
             if (liveTradeConsumer != null)
-                LiveDataManager.getInstance().unsubscribeFromTrades(source.symbol(), liveTradeConsumer);
+                LiveDataManager.getInstance().unsubscribeFromTradeBatches(source.symbol(), liveTradeConsumer);
         }
     }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.EcoChartPro.core.model.providers;
 import com.EcoChartPro.core.controller.ChartInteractionManager;
 import com.EcoChartPro.core.controller.ReplaySessionManager;
 import com.EcoChartPro.core.controller.ReplayStateListener;
+import com.EcoChartPro.data.BarAggregator;
 import com.EcoChartPro.data.DataResampler;
 import com.EcoChartPro.model.KLine;
 import com.EcoChartPro.model.Timeframe;
@@ -45,7 +46,7 @@ public class ReplayHistoryProvider implements IHistoryProvider, ReplayStateListe
     private List<KLine> finalizedCandles = new ArrayList<>();
     private KLine currentlyFormingCandle;
     private List<KLine> baseDataWindow = new ArrayList<>(); // M1 data for resampling
-    private List<KLine> m1BufferForResampling = new ArrayList<>();
+    private BarAggregator barAggregator;
     private int totalCandleCount = 0;
     private int dataWindowStartIndex = 0;
 
@@ -62,6 +63,7 @@ public class ReplayHistoryProvider implements IHistoryProvider, ReplayStateListe
         this.chartPanel = chartPanel;
         this.replaySessionManager = ReplaySessionManager.getInstance();
         this.currentDisplayTimeframe = initialTimeframe;
+        this.barAggregator = new BarAggregator(initialTimeframe);
 
         // Register listeners to receive updates
         this.replaySessionManager.addListener(this);
@@ -90,6 +92,13 @@ public class ReplayHistoryProvider implements IHistoryProvider, ReplayStateListe
         return finalizedCandles;
     }
 
+    /**
+     * @return The M1 bars behind the current data window, including bars added by replay ticks.
+     */
+    public List<KLine> getBaseDataWindow() {
+        return baseDataWindow;
+    }
+
     @Override
     public KLine getFormingCandle() {
         return (currentDisplayTimeframe == Timeframe.M1) ? null : currentlyFormingCandle;
@@ -118,11 +127,11 @@ public class ReplayHistoryProvider implements IHistoryProvider, ReplayStateListe
         this.finalizedCandles.clear();
         this.currentlyFormingCandle = null;
         this.baseDataWindow.clear();
-        this.m1BufferForResampling.clear();
         this.totalCandleCount = 0;
         this.dataWindowStartIndex = 0;
         
         this.currentDisplayTimeframe = newTimeframe;
+        this.barAggregator = new BarAggregator(newTimeframe);
         int m1HeadIndex = replaySessionManager.getReplayHeadIndex();
         if (m1HeadIndex < 0) return; // Not started yet
 
@@ -162,9 +171,36 @@ public class ReplayHistoryProvider implements IHistoryProvider, ReplayStateListe
         }
     }
 
+    /**
+     * Turbo replay: applies every bar to the window and the aggregator, then updates the
+     * chart once for the whole frame.
+     */
+    @Override
+    public void onReplayTicks(List<KLine> newM1Bars) {
+        if (baseDataWindow != null) baseDataWindow.addAll(newM1Bars);
+
+        if (currentDisplayTimeframe == Timeframe.M1) {
+            totalCandleCount += newM1Bars.size();
+            chartPanel.getDataModel().fireLiveCandlesAdded(newM1Bars, null);
+            return;
+        }
+
+        List<KLine> finalizedInFrame = new ArrayList<>();
+        for (KLine newM1Bar : newM1Bars) {
+            KLine finalizedCandle = barAggregator.add(newM1Bar);
+            if (finalizedCandle != null) {
+                finalizedCandles.add(finalizedCandle);
+                finalizedInFrame.add(finalizedCandle);
+                totalCandleCount++;
+            }
+        }
+        this.currentlyFormingCandle = barAggregator.getFormingBar();
+        chartPanel.getDataModel().fireLiveCandlesAdded(finalizedInFrame, this.currentlyFormingCandle);
+    }
+
     @Override
     public void onReplaySessionStart() {
-        this.m1BufferForResampling.clear();
+        this.barAggregator.reset();
         // Trigger initial data load when a new session starts
         setTimeframe(this.currentDisplayTimeframe, true);
     }
@@ -287,21 +323,54 @@ public class ReplayHistoryProvider implements IHistoryProvider, ReplayStateListe
             int availableM1Bars = replaySessionManager.getReplayHeadIndex() + 1 - m1FetchStartIndex;
             int m1FetchCount = Math.min(m1LookbackForWindow, availableM1Bars);
 
+            RebuildResult fromRollups = fetchFromRollups(newWindowStartInFinalData, m1FetchStartIndex, m1FetchCount);
+            if (fromRollups != null) {
+                return fromRollups;
+            }
+
             List<KLine> m1HistorySlice = replaySessionManager.getOneMinuteBars(m1FetchStartIndex, m1FetchCount);
             List<KLine> resampledData = DataResampler.resample(m1HistorySlice, currentDisplayTimeframe);
-
-            KLine formingCandle = null;
-            if (!resampledData.isEmpty() && !m1HistorySlice.isEmpty()) {
-                Instant lastM1TsInSlice = m1HistorySlice.get(m1HistorySlice.size() - 1).timestamp();
-                Instant lastResampledCandleTs = resampledData.get(resampledData.size() - 1).timestamp();
-                if (getIntervalStart(lastM1TsInSlice, currentDisplayTimeframe).equals(lastResampledCandleTs)) {
-                    formingCandle = resampledData.remove(resampledData.size() - 1);
-                }
-            }
+            KLine formingCandle = m1HistorySlice.isEmpty() ? null
+                    : removeFormingCandle(resampledData, m1HistorySlice.get(m1HistorySlice.size() - 1).timestamp());
             return new RebuildResult(resampledData, formingCandle, newWindowStartInFinalData, m1HistorySlice);
         }
     }
 
+    /**
+     * Builds the window from the session's stored rollups plus the 1m bars of the bucket that
+     * is still forming, instead of resampling every 1m bar of the window. The M1 base window
+     * is then limited to the last {@link #DATA_WINDOW_SIZE} 1m bars.
+     *
+     * @return null if there is no usable rollup for the display timeframe.
+     */
+    private RebuildResult fetchFromRollups(int newWindowStart, int m1FetchStartIndex, int m1FetchCount) {
+        if (m1FetchCount <= 0) return null;
+        int m1EndIndex = m1FetchStartIndex + m1FetchCount - 1;
+        int baseStartIndex = Math.max(m1FetchStartIndex, m1EndIndex - DATA_WINDOW_SIZE + 1);
+        List<KLine> baseSlice = replaySessionManager.getOneMinuteBars(baseStartIndex, m1EndIndex + 1 - baseStartIndex);
+        List<KLine> firstBar = baseStartIndex == m1FetchStartIndex ? baseSlice : replaySessionManager.getOneMinuteBars(m1FetchStartIndex, 1);
+        if (baseSlice.isEmpty() || firstBar.isEmpty()) return null;
+
+        Instant lastM1Ts = baseSlice.get(baseSlice.size() - 1).timestamp();
+        List<KLine> bars = replaySessionManager.getRollupBars(currentDisplayTimeframe, firstBar.get(0).timestamp(), lastM1Ts);
+        if (bars == null) return null;
+        List<KLine> resampledData = DataResampler.resample(bars, currentDisplayTimeframe);
+        KLine formingCandle = removeFormingCandle(resampledData, lastM1Ts);
+        return new RebuildResult(resampledData, formingCandle, newWindowStart, baseSlice);
+    }
+
+    /**
+     * Removes and returns the last resampled candle if the last 1m bar falls inside it.
+     */
+    private KLine removeFormingCandle(List<KLine> resampledData, Instant lastM1Ts) {
+        if (resampledData.isEmpty()) return null;
+        Instant lastResampledCandleTs = resampledData.get(resampledData.size() - 1).timestamp();
+        if (BarAggregator.intervalStart(lastM1Ts, currentDisplayTimeframe).equals(lastResampledCandleTs)) {
+            return resampledData.remove(resampledData.size() - 1);
+        }
+        return null;
+    }
+
     private void applyRebuildResult(RebuildResult result) {
         if (currentDisplayTimeframe == Timeframe.M1) {
             baseDataWindow = result.rawM1Slice() != null ? new ArrayList<>(result.rawM1Slice()) : new ArrayList<>();
@@ -312,6 +381,12 @@ public class ReplayHistoryProvider implements IHistoryProvider, ReplayStateListe
         }
         currentlyFormingCandle = result.formingCandle();
         dataWindowStartIndex = result.newWindowStart();
+        // Continue the rebuilt forming candle with the next replay ticks. Its last 1m bar is
+        // passed along so that a repeat of that bar replaces it rather than adding to it.
+        if (currentlyFormingCandle != null) {
+            KLine lastM1 = baseDataWindow.isEmpty() ? null : baseDataWindow.get(baseDataWindow.size() - 1);
+            barAggregator.seed(currentlyFormingCandle, lastM1);
+        }
 
         // Update total count based on the latest replay head
         int m1HeadIndex = replaySessionManager.getReplayHeadIndex();
@@ -346,40 +421,14 @@ public class ReplayHistoryProvider implements IHistoryProvider, ReplayStateListe
     }
     
     private void processNewM1BarForResampling(KLine newM1Bar) {
-        long intervalMillis = currentDisplayTimeframe.duration().toMillis();
-        long newBarIntervalStart = newM1Bar.timestamp().toEpochMilli() / intervalMillis * intervalMillis;
-
-        boolean isNewInterval = true;
-        if (!m1BufferForResampling.isEmpty()) {
-            long currentIntervalStart = getIntervalStart(m1BufferForResampling.get(0).timestamp(), currentDisplayTimeframe).toEpochMilli();
-            isNewInterval = (newBarIntervalStart != currentIntervalStart);
-        }
-
-        if (isNewInterval) {
-            if (!m1BufferForResampling.isEmpty()) {
-                List<KLine> resampled = DataResampler.resample(m1BufferForResampling, currentDisplayTimeframe);
-                if (!resampled.isEmpty()) {
-                    KLine finalizedCandle = resampled.get(0);
-                    finalizedCandles.add(finalizedCandle);
-                    totalCandleCount++;
-                    chartPanel.getDataModel().fireLiveCandleAdded(finalizedCandle);
-                }
-            }
-            m1BufferForResampling.clear();
+        KLine finalizedCandle = barAggregator.add(newM1Bar);
+        if (finalizedCandle != null) {
+            finalizedCandles.add(finalizedCandle);
+            totalCandleCount++;
+            chartPanel.getDataModel().fireLiveCandleAdded(finalizedCandle);
         }
-
-        m1BufferForResampling.add(newM1Bar);
-        List<KLine> resampledForming = DataResampler.resample(m1BufferForResampling, currentDisplayTimeframe);
-        this.currentlyFormingCandle = resampledForming.isEmpty() ? null : resampledForming.get(0);
+        this.currentlyFormingCandle = barAggregator.getFormingBar();
 
         chartPanel.getDataModel().fireLiveTickReceived(this.currentlyFormingCandle);
     }
-
-
-    private static Instant getIntervalStart(Instant timestamp, Timeframe timeframe) {
-        long durationMillis = timeframe.duration().toMillis();
-        if (durationMillis == 0) return timestamp;
-        long epochMillis = timestamp.toEpochMilli();
-        return Instant.ofEpochMilli(epochMillis - (epochMillis % durationMillis));
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,144 @@
+package com.EcoChartPro.core.trading;
+
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.model.TradeDirection;
+import com.EcoChartPro.model.trading.Order;
+import com.EcoChartPro.model.trading.OrderType;
+import com.EcoChartPro.model.trading.Position;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * The bar-based fill rules of the simulated broker, free of any UI, settings or session
+ * state. {@link PaperTradingService} applies them to the live and replay sessions, and
+ * {@link com.EcoChartPro.core.backtest.BacktestEngine} applies the same rules headlessly,
+ * so a backtest fills exactly like a replay session would.
+ */
+public final class OrderFillRules {
+
+    /**
+     * Why a position was closed by the simulator.
+     */
+    public enum ExitReason {
+        STOP_LOSS("Stop Loss"),
+        TAKE_PROFIT("Take Profit");
+
+        private final String displayName;
+
+        ExitReason(String displayName) {
+            this.displayName = displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    /**
+     * @param price  The price the position is closed at.
+     * @param reason The level that was hit.
+     */
+    public record Exit(BigDecimal price, ExitReason reason) {}
+
+    private OrderFillRules() {}
+
+    /**
+     * @return The price a pending LIMIT or STOP order fills at on this bar, or null if it is not triggered.
+     */
+    public static BigDecimal pendingFillPrice(Order order, KLine bar) {
+        if (order.limitPrice() == null) return null;
+        boolean touchedFromAbove = bar.low().compareTo(order.limitPrice()) <= 0;
+        boolean touchedFromBelow = bar.high().compareTo(order.limitPrice()) >= 0;
+        boolean triggered;
+        if (order.direction() == TradeDirection.LONG) {
+            triggered = (order.type() == OrderType.LIMIT && touchedFromAbove)
+                    || (order.type() == OrderType.STOP && touchedFromBelow);
+        } else { // SHORT
+            triggered = (order.type() == OrderType.LIMIT && touchedFromBelow)
+                    || (order.type() == OrderType.STOP && touchedFromAbove);
+        }
+        return triggered ? order.limitPrice() : null;
+    }
+
+    /**
+     * @return The new stop loss if this bar moves the trailing stop in the position's favour, otherwise null.
+     */
+    public static BigDecimal trailedStopLoss(Position position, KLine bar) {
+        BigDecimal distance = position.trailingStopDistance();
+        if (distance == null || distance.compareTo(BigDecimal.ZERO) <= 0) {
+            return null;
+        }
+        if (position.direction() == TradeDirection.LONG) {
+            BigDecimal potentialNewSl = bar.high().subtract(distance);
+            return (position.stopLoss() == null || potentialNewSl.compareTo(position.stopLoss()) > 0) ? potentialNewSl : null;
+        } else { // SHORT
+            BigDecimal potentialNewSl = bar.low().add(distance);
+            return (position.stopLoss() == null || potentialNewSl.compareTo(position.stopLoss()) < 0) ? potentialNewSl : null;
+        }
+    }
+
+    /**
+     * Checks the position's stop loss and take profit against the bar. When both are inside
+     * the bar's range the stop loss wins, since the intrabar order is unknown.
+     *
+     * @return The exit, or null if neither level was hit.
+     */
+    public static Exit exitFor(Position position, KLine bar) {
+        BigDecimal stopLoss = position.stopLoss();
+        BigDecimal takeProfit = position.takeProfit();
+        if (position.direction() == TradeDirection.LONG) {
+            if (stopLoss != null && bar.low().compareTo(stopLoss) <= 0) {
+                return new Exit(stopLoss, ExitReason.STOP_LOSS);
+            } else if (takeProfit != null && bar.high().compareTo(takeProfit) >= 0) {
+                return new Exit(takeProfit, ExitReason.TAKE_PROFIT);
+            }
+        } else { // SHORT
+            if (stopLoss != null && bar.high().compareTo(stopLoss) >= 0) {
+                return new Exit(stopLoss, ExitReason.STOP_LOSS);
+            } else if (takeProfit != null && bar.low().compareTo(takeProfit) <= 0) {
+                return new Exit(takeProfit, ExitReason.TAKE_PROFIT);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param spreadPoints The simulated spread charged per unit of size, or null for none.
+     * @return The realized PnL of closing the position at the given price, net of spread.
+     */
+    public static BigDecimal realizedPnl(Position position, BigDecimal exitPrice, BigDecimal spreadPoints) {
+        BigDecimal pnl = position.direction() == TradeDirection.LONG
+                ? exitPrice.subtract(position.entryPrice()).multiply(position.size())
+                : position.entryPrice().subtract(exitPrice).multiply(position.size());
+        if (spreadPoints != null && spreadPoints.compareTo(BigDecimal.ZERO) > 0) {
+            pnl = pnl.subtract(spreadPoints.multiply(position.size()));
+        }
+        return pnl;
+    }
+
+    /**
+     * @return The position opened by filling the order at the given price and time.
+     */
+    public static Position openPosition(Order fromOrder, BigDecimal entryPrice, Instant timestamp) {
+        return new Position(
+            fromOrder.id(), fromOrder.symbol(), fromOrder.direction(),
+            fromOrder.size(), entryPrice, fromOrder.stopLoss(),
+            fromOrder.takeProfit(), fromOrder.trailingStopDistance(),
+            timestamp, fromOrder.checklistId()
+        );
+    }
+
+    /**
+     * @return A copy of the position with new exit levels.
+     */
+    public static Position withExitLevels(Position position, BigDecimal stopLoss, BigDecimal takeProfit, BigDecimal trailingStopDistance) {
+        return new Position(
+            position.id(), position.symbol(), position.direction(),
+            position.size(), position.entryPrice(),
+            stopLoss, takeProfit, trailingStopDistance,
+            position.openTimestamp(), position.checklistId()
+        );
+    }
+}
@@ -14,12 +14,15 @@ import com.EcoChartPro.data.provider.OkxProvider;
 import com.EcoChartPro.model.KLine;
 import com.EcoChartPro.model.Symbol;
 import com.EcoChartPro.model.Trade;
-import com.EcoChartPro.model.TradeDirection;
+import com.EcoChartPro.model.TradeTick;
 import com.EcoChartPro.model.trading.Order;
 import com.EcoChartPro.model.trading.OrderType;
 import com.EcoChartPro.model.trading.Position;
 import com.EcoChartPro.ui.trading.JournalEntryDialog;
+import com.EcoChartPro.utils.DataSourceManager.ChartDataSource;
 import com.EcoChartPro.utils.DatabaseManager;
+import com.EcoChartPro.utils.SessionJournal;
+import com.EcoChartPro.utils.TradeCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,6 +30,7 @@ import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -39,7 +43,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 public class PaperTradingService implements TradingService {
@@ -52,6 +56,17 @@ public class PaperTradingService implements TradingService {
     private final Map<String, Map<UUID, Position>> openPositionsBySymbol = new ConcurrentHashMap<>();
     private final Map<String, Map<UUID, Order>> pendingOrdersBySymbol = new ConcurrentHashMap<>();
     private final Map<String, List<Trade>> tradeHistoryBySymbol = new ConcurrentHashMap<>();
+    // [NEW] Price-sorted trigger levels, kept in step with the two maps above.
+    private final Map<String, TriggerBook> orderBooksBySymbol = new ConcurrentHashMap<>();
+    private final Map<String, TriggerBook> positionBooksBySymbol = new ConcurrentHashMap<>();
+    // Snapshots of the active symbol's orders and positions, valid while their version is current.
+    private record Snapshot<T>(long version, List<T> items) {}
+    private final AtomicLong positionsVersion = new AtomicLong();
+    private final AtomicLong ordersVersion = new AtomicLong();
+    private volatile Snapshot<Position> openPositionsSnapshot;
+    private volatile Snapshot<Order> pendingOrdersSnapshot;
+    // [NEW] Receives every change to orders, positions, trades and balance while a replay session is journaled.
+    private volatile SessionJournal sessionJournal;
     private String activeSymbol;
 
     private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
@@ -76,6 +91,7 @@ public class PaperTradingService implements TradingService {
         if (newSymbol != null && !newSymbol.equals(this.activeSymbol)) {
             logger.debug("PaperTradingService switching active symbol to: {}", newSymbol);
             this.activeSymbol = newSymbol;
+            invalidateSnapshots();
             // Ensure data structures are initialized for the new symbol
             this.openPositionsBySymbol.computeIfAbsent(newSymbol, k -> new ConcurrentHashMap<>());
             this.pendingOrdersBySymbol.computeIfAbsent(newSymbol, k -> new ConcurrentHashMap<>());
@@ -87,6 +103,13 @@ public class PaperTradingService implements TradingService {
         }
     }
 
+    /**
+     * [NEW] Starts (or, with null, stops) recording this service's changes in a session journal.
+     */
+    public void setSessionJournal(SessionJournal sessionJournal) {
+        this.sessionJournal = sessionJournal;
+    }
+
     public void addPropertyChangeListener(PropertyChangeListener listener) {
         this.pcs.addPropertyChangeListener(listener);
     }
@@ -155,14 +178,10 @@ public class PaperTradingService implements TradingService {
                     this.tradeHistoryBySymbol.computeIfAbsent(symbol, k -> Collections.synchronizedList(new ArrayList<>())).addAll(symbolState.tradeHistory());
                 }
                 if (symbolState.pendingOrders() != null) {
-                    this.pendingOrdersBySymbol.computeIfAbsent(symbol, k -> new ConcurrentHashMap<>()).putAll(
-                        symbolState.pendingOrders().stream().collect(Collectors.toMap(Order::id, Function.identity()))
-                    );
+                    symbolState.pendingOrders().forEach(order -> putPendingOrder(symbol, order));
                 }
                 if (symbolState.openPositions() != null) {
-                    this.openPositionsBySymbol.computeIfAbsent(symbol, k -> new ConcurrentHashMap<>()).putAll(
-                        symbolState.openPositions().stream().collect(Collectors.toMap(Position::id, Function.identity()))
-                    );
+                    symbolState.openPositions().forEach(position -> putOpenPosition(symbol, position));
                 }
             }
         }
@@ -175,29 +194,92 @@ public class PaperTradingService implements TradingService {
     @Override
     public void onBarUpdate(KLine newBar) {
         if (this.activeSymbol == null) return;
-        
-        // [FIX] Make a copy of open positions before checking for fills to prevent opening and closing on the same bar.
-        List<Position> positionsAtBarStart = new ArrayList<>(getOpenPositions());
+        onBarUpdate(this.activeSymbol, newBar);
+    }
 
-        for (Position position : positionsAtBarStart) {
-            List<KLine> candles = activeTradeCandles.get(position.id());
-            if (candles != null) {
-                candles.add(newBar);
+    /**
+     * Processes a bar of any symbol: fills its pending orders, trails its stops and checks
+     * its open positions. Unrealized PnL is only published for the active symbol.
+     * <p>
+     * Only the orders and positions whose levels lie inside the bar's range are evaluated,
+     * looked up in the symbol's {@link TriggerBook}s. When the bar triggers any of them during
+     * replay and the symbol's database has recorded trades for the bar, the bar is resolved
+     * from those trades instead (see {@link #resolveFromTicks}).
+     */
+    public void onBarUpdate(String symbol, KLine newBar) {
+        Map<UUID, Position> symbolPositions = this.openPositionsBySymbol.getOrDefault(symbol, Collections.emptyMap());
+        Map<UUID, Order> symbolOrders = this.pendingOrdersBySymbol.getOrDefault(symbol, Collections.emptyMap());
+        if (symbolPositions.isEmpty() && symbolOrders.isEmpty()) return;
+
+        if (!activeTradeCandles.isEmpty()) {
+            for (Position position : symbolPositions.values()) {
+                List<KLine> candles = activeTradeCandles.get(position.id());
+                if (candles != null) {
+                    candles.add(newBar);
+                }
             }
         }
+
+        // [FIX] Take the exit candidates, with their levels, before checking for fills to prevent opening and closing on the same bar.
+        List<Position> exitCandidates = exitCandidates(symbol, newBar);
+        boolean triggers = !exitCandidates.isEmpty() || !orderBook(symbol).triggeredBy(newBar).isEmpty();
+
+        if (!triggers || !resolveFromTicks(symbol, newBar)) {
+            checkPendingOrders(newBar, symbol);
+            updateTrailingStops(newBar, symbol);
+            // [FIX] Pass the copy of positions that existed at the start of the bar.
+            checkOpenPositions(newBar, symbol, exitCandidates);
+        }
         
-        checkPendingOrders(newBar, this.activeSymbol);
-        updateTrailingStops(newBar, this.activeSymbol);
-        // [FIX] Pass the copy of positions that existed at the start of the bar.
-        checkOpenPositions(newBar, this.activeSymbol, positionsAtBarStart);
-        
-        if (!getOpenPositions().isEmpty()) {
+        if (symbol.equals(this.activeSymbol) && !getOpenPositions().isEmpty()) {
             Map<UUID, BigDecimal> pnlMap = PnlCalculationService.getInstance()
                     .calculateUnrealizedPnl(getOpenPositions(), newBar);
             pcs.firePropertyChange("unrealizedPnlCalculated", null, pnlMap);
         }
     }
 
+    /**
+     * Replays the recorded trades of a replayed 1m bar one at a time, each as a bar of its own,
+     * the way {@code BacktestEngine.runTicks} does, so that orders fill and positions exit in
+     * the order the market actually traded, at the trade's price and time, rather than being
+     * guessed from the bar's high and low.
+     *
+     * @return False if there is no replay session for the symbol, or no trades are recorded for
+     *         the bar or could be read; nothing has been applied then.
+     */
+    private boolean resolveFromTicks(String symbol, KLine bar) {
+        ReplaySessionManager rsm = ReplaySessionManager.getInstance();
+        if (rsm.getActiveSymbol() == null) return false;
+
+        Instant end = bar.timestamp().plusSeconds(60).minusMillis(1);
+        boolean applied = false;
+        try (TradeCursor cursor = rsm.openTradeCursor(symbol, bar.timestamp(), end)) {
+            if (cursor == null) return false;
+            TradeTick tick;
+            while ((tick = cursor.next()) != null) {
+                KLine tickBar = new KLine(tick.timestamp(), tick.price(), tick.price(), tick.price(), tick.price(), tick.quantity());
+                List<Position> candidates = exitCandidates(symbol, tickBar);
+                checkPendingOrders(tickBar, symbol);
+                updateTrailingStops(tickBar, symbol);
+                checkOpenPositions(tickBar, symbol, candidates);
+                applied = true;
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to read the trades of {} at {}.", symbol, bar.timestamp(), e);
+        }
+        return applied;
+    }
+
+    private List<Position> exitCandidates(String symbol, KLine bar) {
+        Map<UUID, Position> symbolPositions = this.openPositionsBySymbol.getOrDefault(symbol, Collections.emptyMap());
+        List<Position> candidates = new ArrayList<>();
+        for (UUID id : positionBook(symbol).triggeredBy(bar)) {
+            Position position = symbolPositions.get(id);
+            if (position != null) candidates.add(position);
+        }
+        return candidates;
+    }
+
     public void updateLivePnl(KLine currentBar) {
         if (this.activeSymbol == null || currentBar == null) return;
 
@@ -215,24 +297,12 @@ public class PaperTradingService implements TradingService {
 
         boolean ordersChanged = false;
         try {
-            for (Order order : new ArrayList<>(symbolOrders.values())) {
-                BigDecimal fillPrice = null;
-                if (order.direction() == TradeDirection.LONG) {
-                    if (order.type() == OrderType.LIMIT && bar.low().compareTo(order.limitPrice()) <= 0) {
-                        fillPrice = order.limitPrice();
-                    } else if (order.type() == OrderType.STOP && bar.high().compareTo(order.limitPrice()) >= 0) {
-                        fillPrice = order.limitPrice();
-                    }
-                } else { // SHORT
-                    if (order.type() == OrderType.LIMIT && bar.high().compareTo(order.limitPrice()) >= 0) {
-                        fillPrice = order.limitPrice();
-                    } else if (order.type() == OrderType.STOP && bar.low().compareTo(order.limitPrice()) <= 0) {
-                        fillPrice = order.limitPrice();
-                    }
-                }
+            for (UUID orderId : orderBook(symbol).triggeredBy(bar)) {
+                Order order = symbolOrders.get(orderId);
+                BigDecimal fillPrice = order != null ? OrderFillRules.pendingFillPrice(order, bar) : null;
                 if (fillPrice != null) {
                     openPosition(order, fillPrice, bar.timestamp());
-                    symbolOrders.remove(order.id());
+                    removePendingOrder(symbol, order.id());
                     logger.info("Filled order {} for symbol {} at price {}", order.id(), symbol, fillPrice);
                     ordersChanged = true;
                 }
@@ -249,29 +319,15 @@ public class PaperTradingService implements TradingService {
         Map<UUID, Position> symbolPositions = this.openPositionsBySymbol.get(symbol);
         if (symbolPositions == null || symbolPositions.isEmpty()) return;
 
-        symbolPositions.values().forEach(position -> {
-            if (position.trailingStopDistance() == null || position.trailingStopDistance().compareTo(BigDecimal.ZERO) <= 0) {
-                return;
-            }
-
-            BigDecimal newStopLoss = null;
-            if (position.direction() == TradeDirection.LONG) {
-                BigDecimal potentialNewSl = bar.high().subtract(position.trailingStopDistance());
-                if (position.stopLoss() == null || potentialNewSl.compareTo(position.stopLoss()) > 0) {
-                    newStopLoss = potentialNewSl;
-                }
-            } else { // SHORT
-                BigDecimal potentialNewSl = bar.low().add(position.trailingStopDistance());
-                if (position.stopLoss() == null || potentialNewSl.compareTo(position.stopLoss()) < 0) {
-                    newStopLoss = potentialNewSl;
-                }
-            }
-
+        for (UUID positionId : positionBook(symbol).trailing()) {
+            Position position = symbolPositions.get(positionId);
+            if (position == null) continue;
+            BigDecimal newStopLoss = OrderFillRules.trailedStopLoss(position, bar);
             if (newStopLoss != null) {
                 modifyOrderInternal(position.id(), null, newStopLoss, position.takeProfit(), position.trailingStopDistance());
                 logger.info("Position {} SL for symbol {} trailed to {}", position.id(), symbol, newStopLoss.toPlainString());
             }
-        });
+        }
     }
 
     private void checkOpenPositions(KLine bar, String symbol, List<Position> positionsToCheck) {
@@ -288,28 +344,10 @@ public class PaperTradingService implements TradingService {
                 return;
             }
 
-            BigDecimal closePrice = null;
-            String closeReason = "";
-            if (position.direction() == TradeDirection.LONG) {
-                if (position.stopLoss() != null && bar.low().compareTo(position.stopLoss()) <= 0) {
-                    closePrice = position.stopLoss();
-                    closeReason = "Stop Loss";
-                } else if (position.takeProfit() != null && bar.high().compareTo(position.takeProfit()) >= 0) {
-                    closePrice = position.takeProfit();
-                    closeReason = "Take Profit";
-                }
-            } else { // SHORT
-                if (position.stopLoss() != null && bar.high().compareTo(position.stopLoss()) >= 0) {
-                    closePrice = position.stopLoss();
-                    closeReason = "Stop Loss";
-                } else if (position.takeProfit() != null && bar.low().compareTo(position.takeProfit()) <= 0) {
-                    closePrice = position.takeProfit();
-                    closeReason = "Take Profit";
-                }
-            }
-            if (closePrice != null) {
-                Trade closedTrade = finalizeTrade(position, closePrice, bar.timestamp(), true);
-                logger.info("Closed position {} for symbol {} via {}.", position.id(), symbol, closeReason);
+            OrderFillRules.Exit exit = OrderFillRules.exitFor(position, bar);
+            if (exit != null) {
+                Trade closedTrade = finalizeTrade(position, exit.price(), bar.timestamp(), true);
+                logger.info("Closed position {} for symbol {} via {}.", position.id(), symbol, exit.reason());
 
                 if (SettingsService.getInstance().isAutoJournalOnTradeClose()) {
                     ReplaySessionManager.getInstance().pause();
@@ -336,7 +374,7 @@ public class PaperTradingService implements TradingService {
                 openPosition(order, currentBar.close(), currentBar.timestamp());
                 logger.info("Filled market order {} for {} at {}", order.id(), symbol, currentBar.close());
             } else {
-                this.pendingOrdersBySymbol.computeIfAbsent(symbol, k -> new ConcurrentHashMap<>()).put(order.id(), order);
+                putPendingOrder(symbol, order);
                 logger.info("Placed pending order for {}: {}", symbol, order);
             }
         } finally {
@@ -349,15 +387,10 @@ public class PaperTradingService implements TradingService {
 
     private void openPosition(Order fromOrder, BigDecimal entryPrice, Instant timestamp) {
         String symbol = fromOrder.symbol().name();
-        Position newPosition = new Position(
-            fromOrder.id(), fromOrder.symbol(), fromOrder.direction(),
-            fromOrder.size(), entryPrice, fromOrder.stopLoss(),
-            fromOrder.takeProfit(), fromOrder.trailingStopDistance(),
-            timestamp, fromOrder.checklistId()
-        );
+        Position newPosition = OrderFillRules.openPosition(fromOrder, entryPrice, timestamp);
         
         try {
-            this.openPositionsBySymbol.computeIfAbsent(symbol, k -> new ConcurrentHashMap<>()).put(newPosition.id(), newPosition);
+            putOpenPosition(symbol, newPosition);
 
             // We assume Live mode if ReplaySessionManager is not active on this symbol
             boolean isLiveMode = ReplaySessionManager.getInstance().getActiveSymbol() == null;
@@ -370,6 +403,7 @@ public class PaperTradingService implements TradingService {
             BigDecimal commission = SettingsService.getInstance().getCommissionPerTrade();
             if (commission != null && commission.compareTo(BigDecimal.ZERO) > 0) {
                 this.accountBalance = this.accountBalance.subtract(commission);
+                journalBalance();
                 logger.info("Applied entry commission of {} for trade {}. New balance: {}",
                     commission, newPosition.id(), this.accountBalance);
             }
@@ -384,20 +418,7 @@ public class PaperTradingService implements TradingService {
         String symbol = position.symbol().name();
         Trade completedTrade = null;
         try {
-            BigDecimal pnl;
-            if (position.direction() == TradeDirection.LONG) {
-                pnl = exitPrice.subtract(position.entryPrice()).multiply(position.size());
-                BigDecimal spread = SettingsService.getInstance().getSimulatedSpreadPoints();
-                if (spread != null && spread.compareTo(BigDecimal.ZERO) > 0) {
-                    pnl = pnl.subtract(spread.multiply(position.size()));
-                }
-            } else { // SHORT
-                pnl = position.entryPrice().subtract(exitPrice).multiply(position.size());
-                BigDecimal spread = SettingsService.getInstance().getSimulatedSpreadPoints();
-                if (spread != null && spread.compareTo(BigDecimal.ZERO) > 0) {
-                    pnl = pnl.subtract(spread.multiply(position.size()));
-                }
-            }
+            BigDecimal pnl = OrderFillRules.realizedPnl(position, exitPrice, SettingsService.getInstance().getSimulatedSpreadPoints());
     
             List<String> autoTags = new ArrayList<>();
             ReplaySessionManager rsm = ReplaySessionManager.getInstance();
@@ -416,8 +437,10 @@ public class PaperTradingService implements TradingService {
                     logger.warn("No cached candles found for closing trade {}. Data will not be saved.", position.id());
                 }
             } else { // REPLAY mode
-                if (rsm.getCurrentSource() != null && rsm.getCurrentSource().symbol().equals(symbol)) {
-                    try (DatabaseManager db = new DatabaseManager("jdbc:sqlite:" + rsm.getCurrentSource().dbPath().toAbsolutePath())) {
+                // The trade's own symbol, which need not be the one on screen.
+                ChartDataSource tradeSource = rsm.getSource(symbol);
+                if (tradeSource != null && tradeSource.dbPath() != null) {
+                    try (DatabaseManager db = DatabaseManager.open("jdbc:sqlite:" + tradeSource.dbPath().toAbsolutePath())) {
                         List<KLine> tradeKlines = db.getKLinesBetween(new Symbol(symbol), "1m", position.openTimestamp(), exitTime);
                         Trade tempTrade = new Trade(position.id(), position.symbol(), position.direction(), position.openTimestamp(), position.entryPrice(), exitTime, exitPrice, position.size(), pnl, planFollowed);
                         autoTags = automatedTaggingService.generateTags(tempTrade, tradeKlines);
@@ -437,7 +460,9 @@ public class PaperTradingService implements TradingService {
             );
             this.tradeHistoryBySymbol.computeIfAbsent(symbol, k -> Collections.synchronizedList(new ArrayList<>())).add(completedTrade);
             this.accountBalance = this.accountBalance.add(pnl);
-            this.openPositionsBySymbol.get(symbol).remove(position.id());
+            journalTrade(completedTrade);
+            journalBalance();
+            removeOpenPosition(symbol, position.id());
             
             logger.info("Trade finalized for {}. Position: {}. PnL: {}. Plan Followed: {}. New Balance: {}. Auto-tags: {}", symbol, position.id(), pnl, planFollowed, this.accountBalance, autoTags);
         } finally {
@@ -490,19 +515,14 @@ public class PaperTradingService implements TradingService {
                     newPrice, newStopLoss, newTakeProfit, newTrailingStopDistance,
                     existingOrder.creationTime(), existingOrder.checklistId()
                 );
-                this.pendingOrdersBySymbol.get(symbol).put(orderId, updatedOrder);
+                putPendingOrder(symbol, updatedOrder);
                 logger.info("Modified pending order {} for symbol {}", orderId, symbol);
                 return;
             }
             Position existingPosition = this.openPositionsBySymbol.get(symbol).get(orderId);
             if (existingPosition != null) {
-                 Position updatedPosition = new Position(
-                    existingPosition.id(), existingPosition.symbol(), existingPosition.direction(),
-                    existingPosition.size(), existingPosition.entryPrice(),
-                    newStopLoss, newTakeProfit, newTrailingStopDistance,
-                    existingPosition.openTimestamp(), existingPosition.checklistId()
-                 );
-                 this.openPositionsBySymbol.get(symbol).put(orderId, updatedPosition);
+                 Position updatedPosition = OrderFillRules.withExitLevels(existingPosition, newStopLoss, newTakeProfit, newTrailingStopDistance);
+                 putOpenPosition(symbol, updatedPosition);
                  logger.info("Modified open position SL/TP for {} on symbol {}", orderId, symbol);
             }
         } finally {
@@ -517,6 +537,7 @@ public class PaperTradingService implements TradingService {
         findTradeById(tradeId).ifPresent(trade -> {
             trade.setNotes(notes);
             trade.setTags(tags);
+            journalTrade(trade);
             logger.info("Updated basic journal entry for trade ID: {}", tradeId);
             pcs.firePropertyChange("tradeHistoryUpdated", null, getTradeHistory());
         });
@@ -545,6 +566,7 @@ public class PaperTradingService implements TradingService {
         }
         
         if (wasUpdated) {
+            journalTrade(updatedTrade);
             logger.info("Updated detailed journal reflection for trade ID: {}", updatedTrade.id());
             if (updatedTrade.identifiedMistakes() != null && !updatedTrade.identifiedMistakes().isEmpty()
                 && !(updatedTrade.identifiedMistakes().size() == 1 && "No Mistakes Made".equals(updatedTrade.identifiedMistakes().get(0)))) {
@@ -564,7 +586,7 @@ public class PaperTradingService implements TradingService {
     private synchronized void cancelOrderInternal(UUID orderId) {
         findSymbolForTradable(orderId).ifPresent(symbol -> {
             try {
-                if (this.pendingOrdersBySymbol.get(symbol).remove(orderId) != null) {
+                if (removePendingOrder(symbol, orderId) != null) {
                     logger.info("Cancelled pending order {} for symbol {}", orderId, symbol);
                 }
             } finally {
@@ -605,7 +627,10 @@ public class PaperTradingService implements TradingService {
             this.openPositionsBySymbol.clear();
             this.pendingOrdersBySymbol.clear();
             this.tradeHistoryBySymbol.clear();
+            this.orderBooksBySymbol.clear();
+            this.positionBooksBySymbol.clear();
             this.activeSymbol = null;
+            invalidateSnapshots();
             activeTradeCandles.clear();
             logger.info("Paper Trading Service session reset. Starting Balance: {}. Leverage: {}x", startingBalance, this.leverage);
         } finally {
@@ -631,16 +656,36 @@ public class PaperTradingService implements TradingService {
         logger.info("Trade history imported. {} total trades across {} symbols. New balance: {}", newHistory.size(), this.tradeHistoryBySymbol.size(), this.accountBalance);
     }
 
+    /**
+     * @return An unmodifiable snapshot of the active symbol's positions, shared until they change.
+     */
     @Override
     public List<Position> getOpenPositions() {
         if (this.activeSymbol == null) return Collections.emptyList();
-        return new ArrayList<>(this.openPositionsBySymbol.getOrDefault(this.activeSymbol, Collections.emptyMap()).values());
+        long version = this.positionsVersion.get();
+        Snapshot<Position> snapshot = this.openPositionsSnapshot;
+        if (snapshot == null || snapshot.version() != version) {
+            snapshot = new Snapshot<>(version,
+                    List.copyOf(this.openPositionsBySymbol.getOrDefault(this.activeSymbol, Collections.emptyMap()).values()));
+            this.openPositionsSnapshot = snapshot;
+        }
+        return snapshot.items();
     }
 
+    /**
+     * @return An unmodifiable snapshot of the active symbol's pending orders, shared until they change.
+     */
     @Override
     public List<Order> getPendingOrders() {
         if (this.activeSymbol == null) return Collections.emptyList();
-        return new ArrayList<>(this.pendingOrdersBySymbol.getOrDefault(this.activeSymbol, Collections.emptyMap()).values());
+        long version = this.ordersVersion.get();
+        Snapshot<Order> snapshot = this.pendingOrdersSnapshot;
+        if (snapshot == null || snapshot.version() != version) {
+            snapshot = new Snapshot<>(version,
+                    List.copyOf(this.pendingOrdersBySymbol.getOrDefault(this.activeSymbol, Collections.emptyMap()).values()));
+            this.pendingOrdersSnapshot = snapshot;
+        }
+        return snapshot.items();
     }
 
     @Override
@@ -665,6 +710,79 @@ public class PaperTradingService implements TradingService {
     @Override
     public BigDecimal getLeverage() { return this.leverage; }
     
+    // --- Order book maintenance: every change to the order and position maps goes through these ---
+
+    private void putPendingOrder(String symbol, Order order) {
+        this.pendingOrdersBySymbol.computeIfAbsent(symbol, k -> new ConcurrentHashMap<>()).put(order.id(), order);
+        orderBook(symbol).put(order);
+        this.ordersVersion.incrementAndGet();
+        SessionJournal journal = journalFor(symbol);
+        if (journal != null) journal.orderPut(symbol, order);
+    }
+
+    private Order removePendingOrder(String symbol, UUID orderId) {
+        Map<UUID, Order> symbolOrders = this.pendingOrdersBySymbol.get(symbol);
+        Order removed = symbolOrders != null ? symbolOrders.remove(orderId) : null;
+        orderBook(symbol).remove(orderId);
+        this.ordersVersion.incrementAndGet();
+        SessionJournal journal = removed != null ? journalFor(symbol) : null;
+        if (journal != null) journal.orderRemoved(symbol, orderId);
+        return removed;
+    }
+
+    private void putOpenPosition(String symbol, Position position) {
+        this.openPositionsBySymbol.computeIfAbsent(symbol, k -> new ConcurrentHashMap<>()).put(position.id(), position);
+        positionBook(symbol).put(position);
+        this.positionsVersion.incrementAndGet();
+        SessionJournal journal = journalFor(symbol);
+        if (journal != null) journal.positionPut(symbol, position);
+    }
+
+    private void removeOpenPosition(String symbol, UUID positionId) {
+        Map<UUID, Position> symbolPositions = this.openPositionsBySymbol.get(symbol);
+        Position removed = symbolPositions != null ? symbolPositions.remove(positionId) : null;
+        positionBook(symbol).remove(positionId);
+        this.positionsVersion.incrementAndGet();
+        SessionJournal journal = removed != null ? journalFor(symbol) : null;
+        if (journal != null) journal.positionRemoved(symbol, positionId);
+    }
+
+    private void journalTrade(Trade trade) {
+        SessionJournal journal = journalFor(trade.symbol().name());
+        if (journal != null) journal.tradePut(trade.symbol().name(), trade);
+    }
+
+    /**
+     * @return The session journal, after recording the symbol's replay head in it, so that
+     *         recovery never restores a trading event ahead of the head it happened at.
+     */
+    private SessionJournal journalFor(String symbol) {
+        SessionJournal journal = this.sessionJournal;
+        ReplaySessionManager rsm = ReplaySessionManager.getInstance();
+        if (journal != null && rsm.getAllKnownSymbols().contains(symbol)) {
+            journal.head(symbol, rsm.getReplayHeadIndex(symbol), rsm.getLastTimestamp(symbol));
+        }
+        return journal;
+    }
+
+    private void journalBalance() {
+        SessionJournal journal = this.sessionJournal;
+        if (journal != null) journal.balance(this.accountBalance);
+    }
+
+    private TriggerBook orderBook(String symbol) {
+        return this.orderBooksBySymbol.computeIfAbsent(symbol, k -> new TriggerBook());
+    }
+
+    private TriggerBook positionBook(String symbol) {
+        return this.positionBooksBySymbol.computeIfAbsent(symbol, k -> new TriggerBook());
+    }
+
+    private void invalidateSnapshots() {
+        this.positionsVersion.incrementAndGet();
+        this.ordersVersion.incrementAndGet();
+    }
+
     private Optional<String> findSymbolForTradable(UUID id) {
         for (String symbol : this.pendingOrdersBySymbol.keySet()) {
             if (this.pendingOrdersBySymbol.get(symbol).containsKey(id)) {
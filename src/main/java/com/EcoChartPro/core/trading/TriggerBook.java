@@ -0,0 +1,126 @@
+package com.EcoChartPro.core.trading;
+
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.model.TradeDirection;
+import com.EcoChartPro.model.trading.Order;
+import com.EcoChartPro.model.trading.OrderType;
+import com.EcoChartPro.model.trading.Position;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * A price-sorted index of the trigger levels of one symbol's pending orders or open
+ * positions. A bar can only reach the levels inside its [low, high] range, so
+ * {@link #triggeredBy} finds the candidates in O(log n + k) instead of evaluating every
+ * order or position. The candidates are then confirmed with {@link OrderFillRules}, which
+ * still decide the fill price and, for positions, whether the stop or the target wins.
+ * <p>
+ * Each level lives in one of two books: levels reached when the price falls to them
+ * (buy limits, sell stops, long stop losses and short take profits) and levels reached
+ * when the price rises to them (buy stops, sell limits, long take profits and short stop
+ * losses). Positions with a trailing stop are also listed separately, since every bar
+ * may move their stop. Methods are synchronized; a book is updated from the UI while
+ * replay reads it.
+ */
+public final class TriggerBook {
+
+    /** Levels a bar reaches when its low is at or below them. */
+    private final NavigableMap<BigDecimal, Set<UUID>> fallingTo = new TreeMap<>();
+    /** Levels a bar reaches when its high is at or above them. */
+    private final NavigableMap<BigDecimal, Set<UUID>> risingTo = new TreeMap<>();
+    private final Map<UUID, BigDecimal[]> levelsById = new HashMap<>(); // {fallingTo level, risingTo level}
+    private final Set<UUID> trailing = new LinkedHashSet<>();
+
+    /**
+     * Indexes (or re-indexes) a pending LIMIT or STOP order by its trigger price.
+     */
+    public synchronized void put(Order order) {
+        remove(order.id());
+        if (order.limitPrice() == null || order.type() == OrderType.MARKET) return;
+        boolean buy = order.direction() == TradeDirection.LONG;
+        boolean fills = (order.type() == OrderType.LIMIT) == buy;
+        add(order.id(), fills ? order.limitPrice() : null, fills ? null : order.limitPrice());
+    }
+
+    /**
+     * Indexes (or re-indexes) an open position by its stop loss and take profit.
+     */
+    public synchronized void put(Position position) {
+        remove(position.id());
+        boolean isLong = position.direction() == TradeDirection.LONG;
+        add(position.id(),
+            isLong ? position.stopLoss() : position.takeProfit(),
+            isLong ? position.takeProfit() : position.stopLoss());
+        BigDecimal distance = position.trailingStopDistance();
+        if (distance != null && distance.compareTo(BigDecimal.ZERO) > 0) {
+            trailing.add(position.id());
+        }
+    }
+
+    public synchronized void remove(UUID id) {
+        trailing.remove(id);
+        BigDecimal[] levels = levelsById.remove(id);
+        if (levels == null) return;
+        unlink(fallingTo, levels[0], id);
+        unlink(risingTo, levels[1], id);
+    }
+
+    public synchronized void clear() {
+        fallingTo.clear();
+        risingTo.clear();
+        levelsById.clear();
+        trailing.clear();
+    }
+
+    /**
+     * @return The ids with a level inside the bar's range, lowest falling-to level first.
+     */
+    public synchronized Set<UUID> triggeredBy(KLine bar) {
+        Set<UUID> ids = new LinkedHashSet<>();
+        if (levelsById.isEmpty()) return ids;
+        collect(fallingTo.tailMap(bar.low(), true).values(), ids);
+        collect(risingTo.headMap(bar.high(), true).values(), ids);
+        return ids;
+    }
+
+    /**
+     * @return The positions with a trailing stop, in the order they were indexed.
+     */
+    public synchronized List<UUID> trailing() {
+        return List.copyOf(trailing);
+    }
+
+    public synchronized boolean isEmpty() {
+        return levelsById.isEmpty() && trailing.isEmpty();
+    }
+
+    private void add(UUID id, BigDecimal fallingLevel, BigDecimal risingLevel) {
+        if (fallingLevel == null && risingLevel == null) return;
+        levelsById.put(id, new BigDecimal[] { fallingLevel, risingLevel });
+        if (fallingLevel != null) fallingTo.computeIfAbsent(fallingLevel, k -> new LinkedHashSet<>()).add(id);
+        if (risingLevel != null) risingTo.computeIfAbsent(risingLevel, k -> new LinkedHashSet<>()).add(id);
+    }
+
+    private static void unlink(NavigableMap<BigDecimal, Set<UUID>> book, BigDecimal level, UUID id) {
+        if (level == null) return;
+        Set<UUID> ids = book.get(level);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            book.remove(level);
+        }
+    }
+
+    private static void collect(Collection<Set<UUID>> levels, Set<UUID> out) {
+        for (Set<UUID> ids : levels) {
+            out.addAll(ids);
+        }
+    }
+}
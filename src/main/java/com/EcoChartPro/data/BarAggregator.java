@@ -0,0 +1,152 @@
+package com.EcoChartPro.data;
+
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.model.Timeframe;
+
+import java.time.Instant;
+
+/**
+ * A streaming OHLCV aggregator that folds lower-timeframe bars (usually 1m) into a
+ * target timeframe in constant time per update.
+ * <p>
+ * The aggregator keeps the merged state of the bucket's settled sub-bars separately
+ * from the most recent sub-bar. A live update for the still-forming sub-bar (same
+ * timestamp) therefore replaces it instead of being counted twice, without having
+ * to re-scan the rest of the bucket. When a bar arrives for a later bucket, the
+ * previous bucket is returned as finalized.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class BarAggregator {
+
+    private final Timeframe timeframe;
+    private final long intervalMillis;
+
+    private long bucketStartMillis;
+    private KLine settled;     // Merge of all sub-bars in the bucket except lastSubBar
+    private KLine lastSubBar;  // Most recent sub-bar; may still be replaced
+    private KLine forming;     // Lazily computed merge of settled + lastSubBar
+
+    public BarAggregator(Timeframe timeframe) {
+        this.timeframe = timeframe;
+        this.intervalMillis = timeframe.duration().toMillis();
+        reset();
+    }
+
+    public Timeframe getTimeframe() {
+        return timeframe;
+    }
+
+    /**
+     * Folds a sub-bar into the current bucket.
+     *
+     * @param bar The incoming sub-bar. Updates for the most recent sub-bar must carry the same timestamp.
+     * @return The bucket that this bar closed, or null if the bucket is still forming.
+     *         Bars older than the current bucket are ignored and return null.
+     */
+    public KLine add(KLine bar) {
+        long barBucketStart = intervalStartMillis(bar.timestamp().toEpochMilli());
+
+        if (!hasBucket()) {
+            startBucket(barBucketStart, bar);
+            return null;
+        }
+        if (barBucketStart < bucketStartMillis) {
+            return null;
+        }
+        if (barBucketStart > bucketStartMillis) {
+            KLine finalized = getFormingBar();
+            startBucket(barBucketStart, bar);
+            return finalized;
+        }
+
+        if (lastSubBar != null && !bar.timestamp().equals(lastSubBar.timestamp())) {
+            settled = (settled == null) ? restamp(lastSubBar) : DataResampler.aggregate(settled, lastSubBar);
+        }
+        lastSubBar = bar;
+        forming = null;
+        return null;
+    }
+
+    /**
+     * Starts a bucket from an already aggregated bar, e.g. the forming candle of a
+     * freshly resampled history window, so that subsequent sub-bars extend it.
+     *
+     * @param formingBar The bucket so far, including {@code lastSubBar}.
+     * @param lastSubBar The most recent sub-bar inside {@code formingBar}, or null if unknown.
+     *                   It is kept apart from the settled part, so that a later update with its
+     *                   timestamp replaces it instead of being counted again. The settled part
+     *                   keeps the bucket's high and low, since updates of a sub-bar only widen them.
+     */
+    public void seed(KLine formingBar, KLine lastSubBar) {
+        reset();
+        if (formingBar == null) return;
+        bucketStartMillis = intervalStartMillis(formingBar.timestamp().toEpochMilli());
+        if (lastSubBar == null || intervalStartMillis(lastSubBar.timestamp().toEpochMilli()) != bucketStartMillis) {
+            settled = restamp(formingBar);
+            return;
+        }
+        if (lastSubBar.timestamp().toEpochMilli() != bucketStartMillis) {
+            // Sub-bars arrive in order, so one at the bucket start is the only one.
+            settled = new KLine(Instant.ofEpochMilli(bucketStartMillis), formingBar.open(), formingBar.high(), formingBar.low(),
+                    formingBar.close(), formingBar.volume().subtract(lastSubBar.volume()));
+        }
+        this.lastSubBar = lastSubBar;
+    }
+
+    /**
+     * @return The current bucket including the latest sub-bar, or null if nothing has been added.
+     */
+    public KLine getFormingBar() {
+        if (forming == null && hasBucket()) {
+            if (lastSubBar == null) {
+                forming = settled;
+            } else if (settled == null) {
+                forming = restamp(lastSubBar);
+            } else {
+                forming = DataResampler.aggregate(settled, lastSubBar);
+            }
+        }
+        return forming;
+    }
+
+    public void reset() {
+        bucketStartMillis = Long.MIN_VALUE;
+        settled = null;
+        lastSubBar = null;
+        forming = null;
+    }
+
+    /**
+     * Calculates the start time of the interval a given timestamp belongs to.
+     * Examples for M5: 10:03 -> 10:00, 10:05 -> 10:05.
+     */
+    public static Instant intervalStart(Instant timestamp, Timeframe timeframe) {
+        long durationMillis = timeframe.duration().toMillis();
+        if (durationMillis == 0) return timestamp;
+        long epochMillis = timestamp.toEpochMilli();
+        return Instant.ofEpochMilli(epochMillis - Math.floorMod(epochMillis, durationMillis));
+    }
+
+    private boolean hasBucket() {
+        return settled != null || lastSubBar != null;
+    }
+
+    private void startBucket(long startMillis, KLine firstBar) {
+        bucketStartMillis = startMillis;
+        settled = null;
+        lastSubBar = firstBar;
+        forming = null;
+    }
+
+    private long intervalStartMillis(long epochMillis) {
+        if (intervalMillis == 0) return epochMillis;
+        return epochMillis - Math.floorMod(epochMillis, intervalMillis);
+    }
+
+    private KLine restamp(KLine bar) {
+        Instant start = Instant.ofEpochMilli(bucketStartMillis);
+        if (bar.timestamp().equals(start)) return bar;
+        return new KLine(start, bar.open(), bar.high(), bar.low(), bar.close(), bar.volume());
+    }
+}
@@ -3,7 +3,6 @@ package com.EcoChartPro.data;
 import com.EcoChartPro.model.KLine;
 import com.EcoChartPro.model.Timeframe;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -18,7 +17,9 @@ public class DataResampler {
 
     /**
      * Resamples a list of source K-lines (usually 1m) into a target timeframe.
-     * This method is optimized to process the data in a single pass.
+     * This method is optimized to process the data in a single pass. Every input bar is
+     * aggregated, including bars that repeat a timestamp; unlike the streaming
+     * {@link BarAggregator}, a duplicate is not treated as an update of the previous bar.
      *
      * @param sourceData      A list of K-lines (e.g., 1m bars), sorted chronologically.
      * @param targetTimeframe The timeframe to aggregate the data into (e.g., M5, H1, D1).
@@ -43,34 +44,17 @@ public class DataResampler {
         KLine currentlyFormingCandle = null;
 
         for (KLine bar : sourceData) {
-            Instant barTimestamp = bar.timestamp();
-            Instant intervalStart = getIntervalStart(barTimestamp, targetTimeframe);
+            Instant intervalStart = BarAggregator.intervalStart(bar.timestamp(), targetTimeframe);
 
-            if (currentlyFormingCandle == null) {
-                // Initialize the first bucket
-                currentlyFormingCandle = new KLine(
-                    intervalStart, 
-                    bar.open(), 
-                    bar.high(), 
-                    bar.low(), 
-                    bar.close(), 
-                    bar.volume()
-                );
-            } else if (!currentlyFormingCandle.timestamp().equals(intervalStart)) {
-                // The incoming bar belongs to a NEW interval. 
-                // Finalize the previous one and start a new one.
-                resampledKLines.add(currentlyFormingCandle);
-                currentlyFormingCandle = new KLine(
-                    intervalStart, 
-                    bar.open(), 
-                    bar.high(), 
-                    bar.low(), 
-                    bar.close(), 
-                    bar.volume()
-                );
-            } else {
+            if (currentlyFormingCandle != null && currentlyFormingCandle.timestamp().equals(intervalStart)) {
                 // The incoming bar is within the current forming interval. Aggregate it.
                 currentlyFormingCandle = aggregate(currentlyFormingCandle, bar);
+            } else {
+                // The incoming bar starts a new interval; an out-of-order bar starts one too.
+                if (currentlyFormingCandle != null) {
+                    resampledKLines.add(currentlyFormingCandle);
+                }
+                currentlyFormingCandle = new KLine(intervalStart, bar.open(), bar.high(), bar.low(), bar.close(), bar.volume());
             }
         }
 
@@ -100,24 +84,4 @@ public class DataResampler {
             current.volume().add(tick.volume())         // Volume is accumulated
         );
     }
-
-    /**
-     * Calculates the start time of the interval a given timestamp belongs to.
-     * Examples for M5: 
-     * 10:03 -> 10:00
-     * 10:05 -> 10:05
-     *
-     * @param timestamp The timestamp to check.
-     * @param timeframe The target timeframe.
-     * @return The exact start time of the interval.
-     */
-    private static Instant getIntervalStart(Instant timestamp, Timeframe timeframe) {
-        long durationMillis = timeframe.duration().toMillis();
-        if (durationMillis == 0) return timestamp;
-        
-        long epochMillis = timestamp.toEpochMilli();
-        long remainder = epochMillis % durationMillis;
-        
-        return Instant.ofEpochMilli(epochMillis - remainder);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,178 @@
+package com.EcoChartPro.data;
+
+import com.EcoChartPro.data.provider.BackfillScheduler;
+import com.EcoChartPro.data.provider.BackfillScheduler.FetchedRange;
+import com.EcoChartPro.data.store.KLineStore;
+import com.EcoChartPro.data.store.KLineStores;
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.model.Symbol;
+import com.EcoChartPro.model.Timeframe;
+import com.EcoChartPro.utils.AppDataManager;
+import com.EcoChartPro.utils.DatabaseManager;
+import com.EcoChartPro.utils.DatabaseManager.DataRange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A persistent cache of exchange history for live charts. Each exchange has its own SQLite
+ * database in the app data directory that holds the bars fetched per (symbol, timeframe),
+ * together with the time ranges known to hold every bar of the exchange (the coverage).
+ * A request reads the covered part of its range from disk and fetches only the uncovered
+ * ranges, through the shared {@link BackfillScheduler}. Fetched bars are written through,
+ * so panning back over the same history, or reopening the chart, does not refetch it.
+ * <p>
+ * The cache is kept apart from the workspace database, whose 1m series and rollups are
+ * built from the live feed. Only closed bars are cached; a range ends before the bar that
+ * is still forming.
+ */
+public final class HistoryCache {
+    private static final Logger logger = LoggerFactory.getLogger(HistoryCache.class);
+    private static final String DB_FILE_SUFFIX = "_history.db";
+
+    private static final Map<String, HistoryCache> caches = new ConcurrentHashMap<>();
+
+    private final String exchange;
+    // Null if the cache database could not be opened; requests are then fetched without caching.
+    private final DatabaseManager db;
+    private final KLineStore store;
+
+    private HistoryCache(String exchange, DatabaseManager db) {
+        this.exchange = exchange;
+        this.db = db;
+        this.store = db != null ? KLineStores.forDatabase(db) : null;
+    }
+
+    /**
+     * @return The cache of an exchange, opened on first use and kept open for the application's lifetime.
+     */
+    public static HistoryCache forExchange(String exchange) {
+        return caches.computeIfAbsent(exchange, HistoryCache::open);
+    }
+
+    private static HistoryCache open(String exchange) {
+        DatabaseManager db = null;
+        Optional<Path> cacheDir = AppDataManager.getHistoryCacheDirectory();
+        if (cacheDir.isPresent()) {
+            Path dbPath = cacheDir.get().resolve(exchange.toLowerCase(Locale.ROOT) + DB_FILE_SUFFIX);
+            try {
+                db = DatabaseManager.open("jdbc:sqlite:" + dbPath.toAbsolutePath());
+            } catch (RuntimeException e) {
+                logger.error("Failed to open the {} history cache at {}. History will not be cached.", exchange, dbPath, e);
+            }
+        }
+        return new HistoryCache(exchange, db);
+    }
+
+    /**
+     * @return The closed bars among the {@code count} bars before the end time, oldest first.
+     */
+    public List<KLine> getBarsBefore(String symbol, Timeframe timeframe, long endMillis, int count) {
+        return getBars(symbol, timeframe, endMillis - timeframe.duration().toMillis() * count, endMillis);
+    }
+
+    /**
+     * Reads the closed bars in [startMillis, endMillis), fetching the ranges the cache does
+     * not cover. Blocks until done; call it off the EDT.
+     * @return The bars, oldest first. A range that failed to fetch is left out.
+     */
+    public List<KLine> getBars(String symbol, Timeframe timeframe, long startMillis, long endMillis) {
+        BackfillScheduler scheduler = BackfillScheduler.getInstance();
+        if (!scheduler.supports(exchange)) {
+            return Collections.emptyList();
+        }
+        long stepMillis = timeframe.duration().toMillis();
+        // A bar is closed once its whole interval has passed.
+        long closedEnd = Math.min(endMillis, System.currentTimeMillis() - stepMillis + 1);
+        if (closedEnd <= startMillis) {
+            return Collections.emptyList();
+        }
+        String tf = timeframe.displayName();
+        if (db == null) {
+            return scheduler.fetchRange(exchange, symbol, tf, startMillis, closedEnd).bars();
+        }
+
+        Symbol key = new Symbol(symbol);
+        List<long[]> missing = uncoveredRanges(db.getCoverage(key, tf), startMillis, closedEnd);
+        List<CompletableFuture<FetchedRange>> fetches = new ArrayList<>(missing.size());
+        for (long[] range : missing) {
+            fetches.add(scheduler.fetchRangeAsync(exchange, symbol, tf, range[0], range[1]));
+        }
+
+        TreeMap<Long, KLine> bars = new TreeMap<>();
+        if (missing.size() != 1 || missing.get(0)[0] != startMillis || missing.get(0)[1] != closedEnd) {
+            for (KLine bar : db.getKLinesBetween(key, tf, Instant.ofEpochMilli(startMillis), Instant.ofEpochMilli(closedEnd - 1))) {
+                long timestamp = bar.timestamp().toEpochMilli();
+                if (timestamp >= startMillis && timestamp < closedEnd) bars.put(timestamp, bar);
+            }
+        }
+        int fetchedCount = 0;
+        for (int i = 0; i < fetches.size(); i++) {
+            FetchedRange fetched;
+            try {
+                fetched = fetches.get(i).join();
+            } catch (RuntimeException e) {
+                logger.error("Failed to fetch {} @ {} history from {}.", symbol, tf, exchange, e);
+                continue;
+            }
+            writeThrough(key, tf, missing.get(i), fetched, stepMillis);
+            for (KLine bar : fetched.bars()) {
+                bars.put(bar.timestamp().toEpochMilli(), bar);
+            }
+            fetchedCount += fetched.bars().size();
+        }
+        logger.debug("History cache served {} bars of {} @ {} ({} fetched in {} range(s)).",
+                bars.size(), symbol, tf, fetchedCount, missing.size());
+        return new ArrayList<>(bars.values());
+    }
+
+    /**
+     * Saves fetched bars and records what they cover: the whole range if every page arrived,
+     * otherwise only up to the end of the last bar received. Coverage is only recorded once
+     * the bars are saved, so a failed write is fetched again next time.
+     */
+    private void writeThrough(Symbol key, String tf, long[] range, FetchedRange fetched, long stepMillis) {
+        List<KLine> bars = fetched.bars();
+        long coveredEnd = fetched.complete() ? range[1]
+                : bars.isEmpty() ? range[0] : bars.get(bars.size() - 1).timestamp().toEpochMilli() + stepMillis;
+        CompletableFuture<Void> saved = store.saveKLines(bars, key, tf);
+        // Coverage is kept in whole seconds, rounded inwards.
+        long startSec = Math.floorDiv(range[0] + 999, 1000);
+        long endSec = Math.floorDiv(coveredEnd, 1000);
+        if (endSec > startSec) {
+            // Async: the save may complete on the writer thread, which must not queue writes itself.
+            saved.thenRunAsync(() -> db.addCoverage(key, tf, new DataRange(Instant.ofEpochSecond(startSec), Instant.ofEpochSecond(endSec))));
+        }
+    }
+
+    /**
+     * @param coverage Ascending, non-overlapping half-open ranges.
+     * @return The parts of [start, end) outside the coverage, as {start, end} pairs in milliseconds.
+     */
+    static List<long[]> uncoveredRanges(List<DataRange> coverage, long start, long end) {
+        List<long[]> missing = new ArrayList<>();
+        long cursor = start;
+        for (DataRange covered : coverage) {
+            long coveredStart = covered.start().toEpochMilli();
+            long coveredEnd = covered.end().toEpochMilli();
+            if (coveredEnd <= cursor) continue;
+            if (coveredStart >= end) break;
+            if (coveredStart > cursor) missing.add(new long[] {cursor, coveredStart});
+            cursor = Math.max(cursor, coveredEnd);
+            if (cursor >= end) break;
+        }
+        if (cursor < end) missing.add(new long[] {cursor, end});
+        return missing;
+    }
+}
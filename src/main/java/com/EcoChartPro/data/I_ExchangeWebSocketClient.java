@@ -2,17 +2,18 @@ package com.EcoChartPro.data;
 
 import java.beans.PropertyChangeListener;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
- * Defines the contract for an exchange-specific WebSocket client that manages a single connection
+ * Defines the contract for an exchange-specific WebSocket client that manages the connections
  * for multiple data stream subscriptions.
  */
 public interface I_ExchangeWebSocketClient {
 
     /**
-     * Connects or reconnects the WebSocket client using the provided stream names.
-     * If already connected, this will typically involve a disconnect/reconnect cycle to update subscriptions.
+     * Moves the client's subscriptions to the provided stream names, connecting as needed.
+     * Only the difference to the current set is sent; streams that stay subscribed are not interrupted.
      *
      * @param streamNames The full set of stream names to subscribe to for this connection.
      */
@@ -31,12 +32,13 @@ public interface I_ExchangeWebSocketClient {
     void setMessageHandler(Consumer<String> messageHandler);
 
     /**
-     * [NEW] Sets the handler that will be invoked when the client successfully reconnects
-     * after an unintentional disconnection.
+     * [NEW] Sets the handler that will be invoked when a connection of the client successfully
+     * reconnects after an unintentional disconnection.
      *
-     * @param reconnectHandler A consumer that accepts the exchange name.
+     * @param reconnectHandler A consumer that accepts the exchange name and the streams of the
+     *                         connection that reconnected; the client's other streams kept flowing.
      */
-    void setReconnectHandler(Consumer<String> reconnectHandler);
+    void setReconnectHandler(BiConsumer<String, Set<String>> reconnectHandler);
 
     /**
      * [NEW] Adds a property change listener to the client.
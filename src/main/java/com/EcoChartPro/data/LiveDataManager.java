@@ -4,21 +4,17 @@ import com.EcoChartPro.data.provider.*;
 import com.EcoChartPro.model.KLine;
 import com.EcoChartPro.model.TradeTick;
 import com.EcoChartPro.utils.DataSourceManager;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -32,12 +28,20 @@ import java.util.stream.Collectors;
  * 1. Single-Stream Multiplexing: Forces all K-Line subscriptions to use the '1m' base timeframe.
  *    This ensures we only open one stream per symbol (e.g., btcusdt@kline_1m) and route that
  *    high-frequency data to all chart timeframes (which then handle aggregation).
+ * <p>
+ * Decoded messages are not delivered on the socket threads. Each stream publishes into a
+ * ring that a single dispatcher thread drains every {@value LiveStreamDispatcher#DISPATCH_INTERVAL_MS} ms,
+ * so subscribers receive at most one batch per stream per interval, with repeated updates of
+ * the same K-line conflated to the latest. See {@link #getDispatchStats()} for the counters.
  */
 public class LiveDataManager {
     private static final Logger logger = LoggerFactory.getLogger(LiveDataManager.class);
     private static final LiveDataManager INSTANCE = new LiveDataManager();
     private static final long RECONNECT_GAP_THRESHOLD_MS = 120_000; // 2 minutes
     private static final String BASE_TIMEFRAME_ID = "1m"; // The single source of truth for live data
+    // Several seconds of a busy stream at the dispatch interval; K-lines are conflated, so theirs can be small.
+    private static final int KLINE_RING_CAPACITY = 1024;
+    private static final int TRADE_RING_CAPACITY = 16384;
 
     public enum LiveDataSystemState {
         CONNECTED,      // All systems normal
@@ -49,14 +53,27 @@ public class LiveDataManager {
     private final Map<String, String> symbolToExchangeMap = new ConcurrentHashMap<>();
     private final Set<String> activeSubscriptions = ConcurrentHashMap.newKeySet();
 
-    private record SubscriptionInfo(String symbol, String timeframe, Consumer<KLine> callback) {}
+    // 'key' is the consumer the caller subscribed with, which may be a per-item consumer wrapped by 'onBatch'.
+    private record SubscriptionInfo(String symbol, String timeframe, Object key, Consumer<List<KLine>> onBatch) {}
     private final ConcurrentMap<String, List<SubscriptionInfo>> subscribers = new ConcurrentHashMap<>();
     private final Map<String, Long> lastKLineTimestampPerStream = new ConcurrentHashMap<>();
     private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
 
-    private record TradeSubscriptionInfo(String symbol, Consumer<TradeTick> callback) {}
+    private record TradeSubscriptionInfo(String symbol, Object key, Consumer<List<TradeTick>> onBatch) {}
     private final ConcurrentMap<String, List<TradeSubscriptionInfo>> tradeSubscribers = new ConcurrentHashMap<>();
 
+    // Messages are decoded on the socket threads; each connection has its own thread.
+    // The streams with a subscriber, rebuilt whenever that set changes; messages of other streams are skipped.
+    private volatile StreamNameTable subscribedStreams = StreamNameTable.EMPTY;
+    private final ThreadLocal<StreamMessageDecoder> decoders =
+            ThreadLocal.withInitial(() -> new StreamMessageDecoder(() -> subscribedStreams));
+    private final StreamMessageDecoder.Sink streamDispatcher = new StreamMessageDecoder.Sink() {
+        @Override public void onKLine(String streamName, KLine kline) { dispatchKLine(streamName, kline); }
+        @Override public void onTrade(String streamName, TradeTick trade) { dispatchTrade(streamName, trade); }
+    };
+
+    private final LiveStreamDispatcher dispatcher = new LiveStreamDispatcher();
+
     private final Map<String, Object> clientStates = new ConcurrentHashMap<>();
     private volatile LiveDataSystemState systemState = LiveDataSystemState.CONNECTED;
 
@@ -78,13 +95,68 @@ public class LiveDataManager {
     }
 
     /**
-     * Subscribes to a K-Line stream.
+     * Subscribes to a K-Line stream. The consumer is called on the dispatcher thread for
+     * each update of a batch; see {@link #subscribeToKLineBatches}.
+     */
+    public void subscribeToKLine(String symbol, String timeframe, Consumer<KLine> onKLineUpdate) {
+        addKLineSubscriber(symbol, onKLineUpdate, batch -> batch.forEach(onKLineUpdate));
+    }
+
+    public void unsubscribeFromKLine(String symbol, String timeframe, Consumer<KLine> onKLineUpdate) {
+        removeKLineSubscriber(symbol, onKLineUpdate);
+    }
+
+    /**
+     * Subscribes to a K-Line stream in batches.
      * <p>
      * PHASE 2 CHANGE: This method ignores the provided `timeframe` argument for the
      * actual WebSocket subscription. It forces the use of '1m' (BASE_TIMEFRAME_ID).
      * Consumers (charts) are expected to handle aggregation of 1m bars.
+     * <p>
+     * The consumer is called on the dispatcher thread with the updates that arrived since the
+     * previous batch, oldest first, holding only the latest update of each bar.
+     */
+    public void subscribeToKLineBatches(String symbol, String timeframe, Consumer<List<KLine>> onKLineBatch) {
+        addKLineSubscriber(symbol, onKLineBatch, onKLineBatch);
+    }
+
+    public void unsubscribeFromKLineBatches(String symbol, String timeframe, Consumer<List<KLine>> onKLineBatch) {
+        removeKLineSubscriber(symbol, onKLineBatch);
+    }
+
+    /**
+     * Subscribes to a trade stream. The consumer is called on the dispatcher thread for each
+     * trade of a batch; see {@link #subscribeToTradeBatches}.
      */
-    public synchronized void subscribeToKLine(String symbol, String timeframe, Consumer<KLine> onKLineUpdate) {
+    public void subscribeToTrades(String symbol, Consumer<TradeTick> onTradeUpdate) {
+        addTradeSubscriber(symbol, onTradeUpdate, batch -> batch.forEach(onTradeUpdate));
+    }
+
+    public void unsubscribeFromTrades(String symbol, Consumer<TradeTick> onTradeUpdate) {
+        removeTradeSubscriber(symbol, onTradeUpdate);
+    }
+
+    /**
+     * Subscribes to a trade stream in batches. The consumer is called on the dispatcher thread
+     * with every trade that arrived since the previous batch, oldest first.
+     */
+    public void subscribeToTradeBatches(String symbol, Consumer<List<TradeTick>> onTradeBatch) {
+        addTradeSubscriber(symbol, onTradeBatch, onTradeBatch);
+    }
+
+    public void unsubscribeFromTradeBatches(String symbol, Consumer<List<TradeTick>> onTradeBatch) {
+        removeTradeSubscriber(symbol, onTradeBatch);
+    }
+
+    /**
+     * @return The dispatch counters of every open stream: messages published, dropped,
+     *         conflated and delivered, the ring backlog and the delivery lag.
+     */
+    public List<StreamDispatchStats> getDispatchStats() {
+        return dispatcher.getStats();
+    }
+
+    private synchronized void addKLineSubscriber(String symbol, Object key, Consumer<List<KLine>> onBatch) {
         String exchange = symbolToExchangeMap.get(symbol);
         if (exchange == null) {
             logger.error("Cannot subscribe to live data for symbol '{}': Unknown exchange.", symbol);
@@ -97,10 +169,12 @@ public class LiveDataManager {
         
         // We still store the consumer, but associated with the 1m stream.
         // Note: We store BASE_TIMEFRAME_ID in SubscriptionInfo so backfills fetch 1m data.
-        SubscriptionInfo subInfo = new SubscriptionInfo(symbol, BASE_TIMEFRAME_ID, onKLineUpdate);
+        SubscriptionInfo subInfo = new SubscriptionInfo(symbol, BASE_TIMEFRAME_ID, key, onBatch);
         subscribers.computeIfAbsent(streamName, k -> new CopyOnWriteArrayList<>()).add(subInfo);
 
         if (activeSubscriptions.add(streamName)) {
+            dispatcher.<KLine>open(streamName, KLINE_RING_CAPACITY, KLine::timestamp, batch -> deliverKLines(streamName, batch));
+            refreshSubscribedStreams();
             logger.info("New base subscription added: {}. Total active: {}. Updating {} client.", streamName, activeSubscriptions.size(), exchange);
             updateClientSubscriptions(exchange);
         } else {
@@ -108,7 +182,7 @@ public class LiveDataManager {
         }
     }
 
-    public synchronized void unsubscribeFromKLine(String symbol, String timeframe, Consumer<KLine> onKLineUpdate) {
+    private synchronized void removeKLineSubscriber(String symbol, Object key) {
         String exchange = symbolToExchangeMap.get(symbol);
         if (exchange == null) {
             logger.warn("Cannot unsubscribe for symbol '{}': Unknown exchange.", symbol);
@@ -120,11 +194,13 @@ public class LiveDataManager {
         List<SubscriptionInfo> streamSubscribers = subscribers.get(streamName);
         
         if (streamSubscribers != null) {
-            streamSubscribers.removeIf(subInfo -> subInfo.callback().equals(onKLineUpdate));
+            streamSubscribers.removeIf(subInfo -> subInfo.key().equals(key));
             if (streamSubscribers.isEmpty()) {
                 subscribers.remove(streamName);
                 lastKLineTimestampPerStream.remove(streamName);
                 if (activeSubscriptions.remove(streamName)) {
+                    refreshSubscribedStreams();
+                    dispatcher.close(streamName);
                     logger.info("Last subscriber for base stream {} removed. Total active: {}. Updating {} client.", streamName, activeSubscriptions.size(), exchange);
                     updateClientSubscriptions(exchange);
                 }
@@ -132,23 +208,25 @@ public class LiveDataManager {
         }
     }
 
-    public synchronized void subscribeToTrades(String symbol, Consumer<TradeTick> onTradeUpdate) {
+    private synchronized void addTradeSubscriber(String symbol, Object key, Consumer<List<TradeTick>> onBatch) {
         String exchange = symbolToExchangeMap.get(symbol);
         if (exchange == null) {
             logger.error("Cannot subscribe to trade data for symbol '{}': Unknown exchange.", symbol);
             return;
         }
         String streamName = buildTradeStreamName(symbol, exchange);
-        TradeSubscriptionInfo subInfo = new TradeSubscriptionInfo(symbol, onTradeUpdate);
+        TradeSubscriptionInfo subInfo = new TradeSubscriptionInfo(symbol, key, onBatch);
         tradeSubscribers.computeIfAbsent(streamName, k -> new CopyOnWriteArrayList<>()).add(subInfo);
 
         if (activeSubscriptions.add(streamName)) {
+            dispatcher.<TradeTick>open(streamName, TRADE_RING_CAPACITY, null, batch -> deliverTrades(streamName, batch));
+            refreshSubscribedStreams();
             logger.info("New trade subscription added: {}. Total active: {}. Updating {} client.", streamName, activeSubscriptions.size(), exchange);
             updateClientSubscriptions(exchange);
         }
     }
 
-    public synchronized void unsubscribeFromTrades(String symbol, Consumer<TradeTick> onTradeUpdate) {
+    private synchronized void removeTradeSubscriber(String symbol, Object key) {
         String exchange = symbolToExchangeMap.get(symbol);
         if (exchange == null) {
             logger.warn("Cannot unsubscribe from trades for symbol '{}': Unknown exchange.", symbol);
@@ -158,10 +236,12 @@ public class LiveDataManager {
         List<TradeSubscriptionInfo> streamSubscribers = tradeSubscribers.get(streamName);
 
         if (streamSubscribers != null) {
-            streamSubscribers.removeIf(subInfo -> subInfo.callback().equals(onTradeUpdate));
+            streamSubscribers.removeIf(subInfo -> subInfo.key().equals(key));
             if (streamSubscribers.isEmpty()) {
                 tradeSubscribers.remove(streamName);
                 if (activeSubscriptions.remove(streamName)) {
+                    refreshSubscribedStreams();
+                    dispatcher.close(streamName);
                     logger.info("Last subscriber for trade stream {} removed. Total active: {}. Updating {} client.", streamName, activeSubscriptions.size(), exchange);
                     updateClientSubscriptions(exchange);
                 }
@@ -169,6 +249,10 @@ public class LiveDataManager {
         }
     }
 
+    private void refreshSubscribedStreams() {
+        subscribedStreams = StreamNameTable.of(activeSubscriptions);
+    }
+
     private void updateClientSubscriptions(String exchange) {
         I_ExchangeWebSocketClient client = exchangeClients.computeIfAbsent(exchange, this::createClientForExchange);
         
@@ -253,125 +337,72 @@ public class LiveDataManager {
     }
 
     private void handleBinanceMessage(String message) {
-        JsonObject root = JsonParser.parseString(message).getAsJsonObject();
-        if (!root.has("stream") || !root.has("data")) return;
-
-        String streamName = root.get("stream").getAsString();
-        JsonObject data = root.getAsJsonObject("data");
-        String eventType = data.get("e").getAsString();
-
-        if ("kline".equals(eventType)) {
-            List<SubscriptionInfo> streamSubscribers = subscribers.get(streamName);
-            if (streamSubscribers == null || streamSubscribers.isEmpty()) return;
-
-            JsonObject klineJson = data.getAsJsonObject("k");
-            KLine kline = new KLine(
-                    Instant.ofEpochMilli(klineJson.get("t").getAsLong()),
-                    new BigDecimal(klineJson.get("o").getAsString()),
-                    new BigDecimal(klineJson.get("h").getAsString()),
-                    new BigDecimal(klineJson.get("l").getAsString()),
-                    new BigDecimal(klineJson.get("c").getAsString()),
-                    new BigDecimal(klineJson.get("v").getAsString())
-            );
-            
-            lastKLineTimestampPerStream.put(streamName, kline.timestamp().toEpochMilli());
-
-            for (SubscriptionInfo subInfo : streamSubscribers) {
-                subInfo.callback().accept(kline);
-            }
-        } else if ("trade".equals(eventType)) {
-            List<TradeSubscriptionInfo> streamSubscribers = tradeSubscribers.get(streamName);
-            if (streamSubscribers == null || streamSubscribers.isEmpty()) return;
-
-            TradeTick tick = new TradeTick(
-                Instant.ofEpochMilli(data.get("T").getAsLong()),
-                new BigDecimal(data.get("p").getAsString()),
-                new BigDecimal(data.get("q").getAsString()),
-                data.get("m").getAsBoolean() ? "sell" : "buy"
-            );
-
-            for (TradeSubscriptionInfo subInfo : streamSubscribers) {
-                subInfo.callback().accept(tick);
-            }
-        }
+        decoders.get().decodeBinance(message, streamDispatcher);
     }
-    
+
     private void handleOkxMessage(String message) {
-        JsonObject root = JsonParser.parseString(message).getAsJsonObject();
+        decoders.get().decodeOkx(message, streamDispatcher);
+    }
 
-        if (root.has("event") || !root.has("arg") || !root.has("data")) {
-            return;
+    // Called on the socket threads: hand the message to the stream's ring and return.
+    private void dispatchKLine(String streamName, KLine kline) {
+        if (dispatcher.publish(streamName, kline)) {
+            lastKLineTimestampPerStream.put(streamName, kline.timestamp().toEpochMilli());
         }
+    }
 
-        JsonObject arg = root.getAsJsonObject("arg");
-        String channel = arg.get("channel").getAsString();
-        String instId = arg.get("instId").getAsString();
-
-        if (channel.startsWith("candle")) {
-            String streamName = String.format("%s:%s", channel, instId);
-            List<SubscriptionInfo> streamSubscribers = subscribers.get(streamName);
-            if (streamSubscribers == null || streamSubscribers.isEmpty()) return;
-
-            JsonArray dataArray = root.getAsJsonArray("data");
-            for (JsonElement candleElement : dataArray) {
-                JsonArray rawBar = candleElement.getAsJsonArray();
-                KLine kline = new KLine(
-                    Instant.ofEpochMilli(Long.parseLong(rawBar.get(0).getAsString())),
-                    new BigDecimal(rawBar.get(1).getAsString()), 
-                    new BigDecimal(rawBar.get(2).getAsString()), 
-                    new BigDecimal(rawBar.get(3).getAsString()), 
-                    new BigDecimal(rawBar.get(4).getAsString()), 
-                    new BigDecimal(rawBar.get(5).getAsString())
-                );
-
-                lastKLineTimestampPerStream.put(streamName, kline.timestamp().toEpochMilli());
-
-                for (SubscriptionInfo subInfo : streamSubscribers) {
-                    subInfo.callback().accept(kline);
-                }
+    private void dispatchTrade(String streamName, TradeTick tick) {
+        dispatcher.publish(streamName, tick);
+    }
+
+    // Called on the dispatcher thread with one batch of a stream.
+    private void deliverKLines(String streamName, List<KLine> batch) {
+        List<SubscriptionInfo> streamSubscribers = subscribers.get(streamName);
+        if (streamSubscribers == null) return;
+        for (SubscriptionInfo subInfo : streamSubscribers) {
+            try {
+                subInfo.onBatch().accept(batch);
+            } catch (Exception e) {
+                logger.error("K-line subscriber of stream {} failed.", streamName, e);
             }
-        } else if ("trades".equals(channel)) {
-            String streamName = String.format("%s:%s", channel, instId);
-            List<TradeSubscriptionInfo> streamSubscribers = tradeSubscribers.get(streamName);
-            if (streamSubscribers == null || streamSubscribers.isEmpty()) return;
-
-            JsonArray dataArray = root.getAsJsonArray("data");
-            for (JsonElement tradeElement : dataArray) {
-                JsonObject tradeJson = tradeElement.getAsJsonObject();
-                TradeTick tick = new TradeTick(
-                    Instant.ofEpochMilli(Long.parseLong(tradeJson.get("ts").getAsString())),
-                    new BigDecimal(tradeJson.get("px").getAsString()),
-                    new BigDecimal(tradeJson.get("sz").getAsString()),
-                    tradeJson.get("side").getAsString()
-                );
-                for (TradeSubscriptionInfo subInfo : streamSubscribers) {
-                    subInfo.callback().accept(tick);
-                }
+        }
+    }
+
+    private void deliverTrades(String streamName, List<TradeTick> batch) {
+        List<TradeSubscriptionInfo> streamSubscribers = tradeSubscribers.get(streamName);
+        if (streamSubscribers == null) return;
+        for (TradeSubscriptionInfo subInfo : streamSubscribers) {
+            try {
+                subInfo.onBatch().accept(batch);
+            } catch (Exception e) {
+                logger.error("Trade subscriber of stream {} failed.", streamName, e);
             }
         }
     }
     
-    private synchronized void handleReconnect(String exchange) {
-        logger.info("Reconnect detected for {}. Checking for data gaps to backfill...", exchange);
+    /**
+     * Backfills the gaps of the K-line streams of a connection that reconnected.
+     */
+    private synchronized void handleReconnect(String exchange, Set<String> reconnectedStreams) {
+        logger.info("Reconnect detected for {} streams of {}. Checking for data gaps to backfill...", reconnectedStreams.size(), exchange);
 
-        DataProvider provider;
-        switch (exchange) {
-            case "Binance": provider = new BinanceProvider(); break;
-            case "OKX": provider = new OkxProvider(); break;
-            default: logger.error("Cannot backfill for unknown exchange: {}", exchange); return;
+        BackfillScheduler backfillScheduler = BackfillScheduler.getInstance();
+        if (!backfillScheduler.supports(exchange)) {
+            logger.error("Cannot backfill for unknown exchange: {}", exchange);
+            return;
         }
 
         Set<String> streamsToCheck = activeSubscriptions.stream()
-                .filter(stream -> getExchangeForStream(stream).equals(exchange) && !stream.contains("@trade") && !stream.startsWith("trades:"))
+                .filter(stream -> reconnectedStreams.contains(stream) && !stream.contains("@trade") && !stream.startsWith("trades:"))
                 .collect(Collectors.toSet());
 
+        // All gaps are requested at once; the scheduler paces the pages within the exchange's rate limit.
+        List<CompletableFuture<?>> backfills = new ArrayList<>();
         for (String streamName : streamsToCheck) {
             Long lastTimestamp = lastKLineTimestampPerStream.get(streamName);
             List<SubscriptionInfo> subs = subscribers.get(streamName);
 
             if (lastTimestamp != null && subs != null && !subs.isEmpty() && (Instant.now().toEpochMilli() - lastTimestamp > RECONNECT_GAP_THRESHOLD_MS)) {
-                setSystemState(LiveDataSystemState.SYNCING);
-                
                 SubscriptionInfo subInfo = subs.get(0);
                 String symbol = subInfo.symbol();
                 // This will now be "1m" because we forced it in subscribeToKLine
@@ -379,39 +410,30 @@ public class LiveDataManager {
                 
                 logger.info("Significant data gap detected for stream {}. Last data at {}. Attempting backfill using base timeframe {}.",
                         streamName, Instant.ofEpochMilli(lastTimestamp), timeframe);
-                
-                new Thread(() -> {
-                    try {
-                        List<KLine> backfilledData = new ArrayList<>();
-                        if (provider instanceof BinanceProvider bp) {
-                            backfilledData = bp.backfillHistoricalData(symbol, timeframe, lastTimestamp);
-                        } else if (provider instanceof OkxProvider op) {
-                            backfilledData = op.backfillHistoricalDataForward(symbol, timeframe, lastTimestamp);
-                        }
-                        
-                        if (!backfilledData.isEmpty()) {
-                            logger.info("Successfully backfilled {} 1m candles for {}. Dispatching to subscribers.",
-                                    backfilledData.size(), streamName);
-                            List<SubscriptionInfo> currentSubscribers = subscribers.get(streamName);
-                            if (currentSubscribers != null) {
-                                for (KLine kline : backfilledData) {
-                                    lastKLineTimestampPerStream.put(streamName, kline.timestamp().toEpochMilli());
-                                    for (SubscriptionInfo s : currentSubscribers) {
-                                        s.callback().accept(kline);
-                                    }
-                                }
+
+                backfills.add(backfillScheduler.backfillAsync(exchange, symbol, timeframe, lastTimestamp)
+                        .whenComplete((backfilledData, error) -> {
+                            if (error != null) {
+                                logger.error("Error during backfill for stream {}", streamName, error);
+                            } else if (!backfilledData.isEmpty()) {
+                                logger.info("Successfully backfilled {} 1m candles for {}. Dispatching to subscribers.",
+                                        backfilledData.size(), streamName);
+                                List<KLine> batch = List.copyOf(backfilledData);
+                                lastKLineTimestampPerStream.merge(streamName, batch.get(batch.size() - 1).timestamp().toEpochMilli(), Math::max);
+                                // Delivered on the dispatcher thread, like the live batches.
+                                dispatcher.execute(() -> deliverKLines(streamName, batch));
+                            } else {
+                                logger.info("Backfill for {} returned no new data.", streamName);
                             }
-                        } else {
-                            logger.info("Backfill for {} returned no new data.", streamName);
-                        }
-                    } catch (Exception e) {
-                        logger.error("Error during backfill for stream {}", streamName, e);
-                    } finally {
-                        setSystemState(LiveDataSystemState.CONNECTED);
-                    }
-                }, "Backfill-" + streamName).start();
+                        }));
             }
         }
+
+        if (!backfills.isEmpty()) {
+            setSystemState(LiveDataSystemState.SYNCING);
+            CompletableFuture.allOf(backfills.toArray(CompletableFuture[]::new))
+                    .whenComplete((ignored, error) -> setSystemState(LiveDataSystemState.CONNECTED));
+        }
     }
 
     private String getExchangeForStream(String streamName) {
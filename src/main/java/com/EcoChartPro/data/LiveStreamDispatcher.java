@@ -0,0 +1,161 @@
+package com.EcoChartPro.data;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Moves live stream messages off the socket threads. Each stream has a {@link LiveStreamRing}
+ * that its socket thread publishes into; one dispatcher thread drains every ring at a fixed
+ * interval and hands each stream's subscribers a single batch per interval. Consecutive
+ * updates of the same K-line are conflated to the latest one, so a subscriber sees at most
+ * one update per bar per batch, while trade ticks are delivered in full. A full ring of a
+ * conflated stream keeps its latest update rather than dropping it; a full trade ring drops.
+ */
+final class LiveStreamDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(LiveStreamDispatcher.class);
+    static final long DISPATCH_INTERVAL_MS = 50;
+    private static final long DROP_REPORT_INTERVAL_MS = 10_000;
+
+    private final Map<String, Channel<?>> channels = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    LiveStreamDispatcher() {
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "LiveData-Dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::dispatchAll, DISPATCH_INTERVAL_MS, DISPATCH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens the ring of a stream, replacing any previous one.
+     * @param conflationKey Items with equal keys that follow each other are conflated to the
+     *                      latest one, and the latest item is kept when the ring is full; or
+     *                      null to deliver every item.
+     * @param subscribers   Receives each batch on the dispatcher thread.
+     */
+    <T> void open(String streamName, int capacity, Function<T, ?> conflationKey, Consumer<List<T>> subscribers) {
+        channels.put(streamName, new Channel<>(streamName, new LiveStreamRing<>(capacity, conflationKey != null), conflationKey, subscribers));
+    }
+
+    void close(String streamName) {
+        channels.remove(streamName);
+    }
+
+    /**
+     * Publishes an item of a stream. Called on the stream's socket thread; never blocks.
+     * @return false if the stream is not open or its ring is full.
+     */
+    @SuppressWarnings("unchecked")
+    <T> boolean publish(String streamName, T item) {
+        Channel<T> channel = (Channel<T>) channels.get(streamName);
+        return channel != null && channel.ring.offer(item);
+    }
+
+    /**
+     * Runs a task on the dispatcher thread, in order with the batch deliveries.
+     */
+    void execute(Runnable task) {
+        scheduler.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                logger.error("Live data dispatch task failed.", e);
+            }
+        });
+    }
+
+    List<StreamDispatchStats> getStats() {
+        List<StreamDispatchStats> stats = new ArrayList<>(channels.size());
+        for (Channel<?> channel : channels.values()) {
+            LiveStreamRing<?> ring = channel.ring;
+            stats.add(new StreamDispatchStats(channel.streamName, ring.published(), ring.dropped(), channel.conflated,
+                channel.delivered, channel.batches, ring.backlog(),
+                TimeUnit.NANOSECONDS.toMicros(ring.lastLagNanos()), TimeUnit.NANOSECONDS.toMicros(ring.maxLagNanos())));
+        }
+        return stats;
+    }
+
+    private void dispatchAll() {
+        for (Channel<?> channel : channels.values()) {
+            try {
+                channel.dispatch();
+            } catch (Exception e) {
+                // An exception escaping a scheduled task would cancel all future dispatches.
+                logger.error("Failed to dispatch live data for stream {}", channel.streamName, e);
+            }
+        }
+    }
+
+    private static final class Channel<T> {
+        final String streamName;
+        final LiveStreamRing<T> ring;
+        final Function<T, ?> conflationKey;
+        final Consumer<List<T>> subscribers;
+        private final List<T> drained = new ArrayList<>();
+
+        // Written by the dispatcher thread only.
+        volatile long conflated;
+        volatile long delivered;
+        volatile long batches;
+        private long reportedDrops;
+        private long lastDropReportMs;
+
+        Channel(String streamName, LiveStreamRing<T> ring, Function<T, ?> conflationKey, Consumer<List<T>> subscribers) {
+            this.streamName = streamName;
+            this.ring = ring;
+            this.conflationKey = conflationKey;
+            this.subscribers = subscribers;
+        }
+
+        void dispatch() {
+            reportDrops();
+            // Bounded by what was pending when the drain started, so a busy stream cannot starve the others.
+            int pending = ring.backlog();
+            if (pending == 0 || ring.drainTo(drained, pending) == 0) return;
+
+            List<T> batch = conflationKey == null ? List.copyOf(drained) : conflate(drained);
+            drained.clear();
+            delivered += batch.size();
+            batches++;
+            subscribers.accept(batch);
+        }
+
+        private List<T> conflate(List<T> items) {
+            List<T> batch = new ArrayList<>(items.size());
+            Object lastKey = null;
+            for (T item : items) {
+                Object key = conflationKey.apply(item);
+                if (!batch.isEmpty() && key.equals(lastKey)) {
+                    batch.set(batch.size() - 1, item);
+                    conflated++;
+                } else {
+                    batch.add(item);
+                }
+                lastKey = key;
+            }
+            return List.copyOf(batch);
+        }
+
+        private void reportDrops() {
+            long drops = ring.dropped();
+            long now = System.currentTimeMillis();
+            if (drops > reportedDrops && now - lastDropReportMs >= DROP_REPORT_INTERVAL_MS) {
+                logger.warn("Live stream {} dropped {} messages because its subscribers fell behind.", streamName, drops - reportedDrops);
+                reportedDrops = drops;
+                lastDropReportMs = now;
+            }
+        }
+    }
+}
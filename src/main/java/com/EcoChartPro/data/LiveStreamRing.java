@@ -0,0 +1,166 @@
+package com.EcoChartPro.data;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A bounded, lock-free ring of the pending items of one live stream, written by the socket
+ * thread that decodes the stream and drained by the dispatcher thread. An offer never blocks
+ * the socket thread: while the ring is full, new items are dropped and counted.
+ * <p>
+ * A ring that keeps the latest item never drops the newest one instead. When it is full, the
+ * item goes to a single overflow slot, which every later item replaces (counting the replaced
+ * one as dropped) until the next drain. The ring is not written while the slot is taken, so
+ * draining the rest of the ring and then the slot keeps the items in order. This suits
+ * streams where only the latest update matters, such as K-lines.
+ * <p>
+ * A stream is written by the one connection that carries it, but a stream that moves to
+ * another connection can briefly have two writers, so slots are claimed with a CAS and
+ * published through a per-slot sequence number. Only one thread may drain the ring.
+ */
+final class LiveStreamRing<T> {
+
+    private final Object[] items;
+    private final long[] enqueuedAtNanos;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    // Null unless the ring keeps the latest item.
+    private final AtomicReference<T> overflow;
+
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    // Written by the draining thread only; volatile so that the statistics can be read anywhere.
+    private volatile long head;
+    private volatile long lastLagNanos;
+    private volatile long maxLagNanos;
+    private volatile long overflowEnqueuedAtNanos;
+    private final AtomicLong overflowed = new AtomicLong();
+
+    /**
+     * @param keepLatest If true, an item offered to the full ring replaces the older items
+     *                   offered since it filled, rather than being dropped.
+     */
+    LiveStreamRing(int capacity, boolean keepLatest) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two, got " + capacity);
+        }
+        this.items = new Object[capacity];
+        this.enqueuedAtNanos = new long[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        this.overflow = keepLatest ? new AtomicReference<>() : null;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an item to the ring.
+     * @return false if the ring was full and the item was dropped.
+     */
+    boolean offer(T item) {
+        long now = System.nanoTime();
+        if (overflow != null && overflow.get() != null) {
+            return replaceOverflow(item, now);
+        }
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items[index] = item;
+                    enqueuedAtNanos[index] = now;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                // The slot still holds an item from the previous lap: the ring is full.
+                if (overflow != null) {
+                    return replaceOverflow(item, now);
+                }
+                dropped.incrementAndGet();
+                return false;
+            }
+            // Another writer claimed this slot first; retry with the next one.
+        }
+    }
+
+    private boolean replaceOverflow(T item, long now) {
+        if (overflow.get() == null) {
+            overflowEnqueuedAtNanos = now;
+        }
+        if (overflow.getAndSet(item) != null) {
+            dropped.incrementAndGet();
+        }
+        overflowed.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Moves up to {@code max} items, oldest first, into the sink and records how long the
+     * oldest of them waited in the ring. If the overflow slot is taken, the whole ring and
+     * then the slot are moved, whatever {@code max}.
+     * @return The number of items moved.
+     */
+    @SuppressWarnings("unchecked")
+    int drainTo(List<T> sink, int max) {
+        long position = head;
+        int count = 0;
+        long oldestEnqueuedAt = 0;
+        boolean takeOverflow = overflow != null && overflow.get() != null;
+        int limit = takeOverflow ? items.length : max;
+        while (count < limit) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) break;
+            if (count == 0) oldestEnqueuedAt = enqueuedAtNanos[index];
+            sink.add((T) items[index]);
+            items[index] = null;
+            sequences.set(index, position + items.length);
+            position++;
+            count++;
+        }
+        if (takeOverflow) {
+            if (count == 0) oldestEnqueuedAt = overflowEnqueuedAtNanos;
+            sink.add(overflow.getAndSet(null));
+            count++;
+        }
+        if (count > 0) {
+            head = position;
+            long lag = System.nanoTime() - oldestEnqueuedAt;
+            lastLagNanos = lag;
+            if (lag > maxLagNanos) maxLagNanos = lag;
+        }
+        return count;
+    }
+
+    /** @return The number of items accepted into the ring or its overflow slot so far. */
+    long published() {
+        return tail.get() + overflowed.get();
+    }
+
+    /** @return The number of items drained from the ring so far. */
+    long drained() {
+        return head;
+    }
+
+    long dropped() {
+        return dropped.get();
+    }
+
+    /** @return The number of items waiting in the ring, including the overflow slot. */
+    int backlog() {
+        int waiting = (int) Math.max(0, tail.get() - head);
+        return overflow != null && overflow.get() != null ? waiting + 1 : waiting;
+    }
+
+    long lastLagNanos() {
+        return lastLagNanos;
+    }
+
+    long maxLagNanos() {
+        return maxLagNanos;
+    }
+}
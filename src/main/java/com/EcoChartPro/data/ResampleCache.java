@@ -0,0 +1,222 @@
+package com.EcoChartPro.data;
+
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.model.Timeframe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A process-wide cache of resampled K-line series, shared by every chart and
+ * indicator that looks at the same source.
+ * <p>
+ * Entries are keyed by (source, base timeframe, target timeframe) and remember the
+ * range of base bars they cover. A request whose base series lies inside that range
+ * is served from the cache; base bars appended after the range (new live or replay
+ * bars) are folded in incrementally through a {@link BarAggregator}. Requests that
+ * reach before the cached range or do not overlap it rebuild the entry.
+ * <p>
+ * Bars that change inside the covered range (a reload, or history rebuilt after a
+ * backfill) cannot be detected from the request alone; the owner of the source calls
+ * {@link #invalidate} so the next request rebuilds from the new bars.
+ * <p>
+ * Entries are evicted least-recently-used first once their estimated size exceeds
+ * the memory budget.
+ */
+public final class ResampleCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResampleCache.class);
+    private static final long DEFAULT_MEMORY_BUDGET_BYTES = 64L * 1024 * 1024;
+    // Rough footprint of a KLine with its Instant and five BigDecimals.
+    private static final int ESTIMATED_BYTES_PER_BAR = 200;
+    private static volatile ResampleCache instance;
+
+    private record CacheKey(String sourceKey, Timeframe baseTimeframe, Timeframe targetTimeframe) {}
+
+    private static final class Entry {
+        final BarAggregator aggregator;
+        final List<KLine> finalized = new ArrayList<>();
+        Instant coverageStart;
+        Instant coverageEnd;
+        List<KLine> snapshot; // finalized + forming; rebuilt lazily after a change
+
+        Entry(Timeframe targetTimeframe) {
+            this.aggregator = new BarAggregator(targetTimeframe);
+        }
+
+        long estimatedBytes() {
+            return (long) (finalized.size() + 1) * ESTIMATED_BYTES_PER_BAR;
+        }
+    }
+
+    private final LinkedHashMap<CacheKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBudgetBytes = DEFAULT_MEMORY_BUDGET_BYTES;
+    private long estimatedBytes = 0;
+
+    private ResampleCache() {}
+
+    public static ResampleCache getInstance() {
+        if (instance == null) {
+            synchronized (ResampleCache.class) {
+                if (instance == null) {
+                    instance = new ResampleCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    public synchronized void setMemoryBudgetBytes(long memoryBudgetBytes) {
+        this.memoryBudgetBytes = Math.max(0, memoryBudgetBytes);
+        evictOverBudget(null);
+    }
+
+    /**
+     * Returns the base series resampled into the target timeframe.
+     *
+     * @param sourceKey      Identifies the data source, e.g. "live:Binance:btcusdt".
+     * @param baseTimeframe  The timeframe of the bars in {@code base}.
+     * @param base           Chronologically sorted base bars.
+     * @param targetTimeframe The timeframe to aggregate into.
+     * @return An unmodifiable list of target-timeframe bars, the last of which may still be forming.
+     *         Never contains data from after the last base bar.
+     */
+    public synchronized List<KLine> getResampled(String sourceKey, Timeframe baseTimeframe, List<KLine> base, Timeframe targetTimeframe) {
+        if (base == null || base.isEmpty() || targetTimeframe == null) {
+            return Collections.emptyList();
+        }
+
+        CacheKey key = new CacheKey(sourceKey, baseTimeframe, targetTimeframe);
+        Instant first = base.get(0).timestamp();
+        Instant last = base.get(base.size() - 1).timestamp();
+
+        Entry entry = entries.get(key);
+        if (entry == null || first.isBefore(entry.coverageStart) || first.isAfter(entry.coverageEnd)) {
+            entry = rebuild(key, base);
+        } else if (!last.isBefore(entry.coverageEnd)) {
+            extend(entry, base);
+            evictOverBudget(key);
+        }
+        return view(entry, base, first, last, targetTimeframe);
+    }
+
+    /**
+     * Drops every cached series of a source, e.g. after its bars were reloaded or backfilled
+     * inside the range already cached.
+     */
+    public synchronized void invalidate(String sourceKey) {
+        Iterator<Map.Entry<CacheKey, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<CacheKey, Entry> cached = it.next();
+            if (cached.getKey().sourceKey().equals(sourceKey)) {
+                estimatedBytes -= cached.getValue().estimatedBytes();
+                it.remove();
+            }
+        }
+    }
+
+    private Entry rebuild(CacheKey key, List<KLine> base) {
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            estimatedBytes -= previous.estimatedBytes();
+        }
+
+        Entry entry = new Entry(key.targetTimeframe());
+        for (KLine bar : base) {
+            KLine finalized = entry.aggregator.add(bar);
+            if (finalized != null) entry.finalized.add(finalized);
+        }
+        entry.coverageStart = base.get(0).timestamp();
+        entry.coverageEnd = base.get(base.size() - 1).timestamp();
+
+        entries.put(key, entry);
+        estimatedBytes += entry.estimatedBytes();
+        logger.debug("Resample cache rebuilt {} -> {} for {} ({} bars).",
+                key.baseTimeframe(), key.targetTimeframe().displayName(), key.sourceKey(), entry.finalized.size() + 1);
+        evictOverBudget(key);
+        return entry;
+    }
+
+    /**
+     * Folds every base bar from the end of the covered range onwards. The bar at the
+     * range end is folded again so that updates to a still-forming base bar are picked up.
+     */
+    private void extend(Entry entry, List<KLine> base) {
+        int from = lowerBound(base, entry.coverageEnd);
+        if (from >= base.size()) return;
+
+        long before = entry.estimatedBytes();
+        for (int i = from; i < base.size(); i++) {
+            KLine finalized = entry.aggregator.add(base.get(i));
+            if (finalized != null) entry.finalized.add(finalized);
+        }
+        entry.coverageEnd = base.get(base.size() - 1).timestamp();
+        entry.snapshot = null;
+        estimatedBytes += entry.estimatedBytes() - before;
+    }
+
+    private List<KLine> view(Entry entry, List<KLine> base, Instant first, Instant last, Timeframe targetTimeframe) {
+        if (entry.snapshot == null) {
+            List<KLine> all = new ArrayList<>(entry.finalized.size() + 1);
+            all.addAll(entry.finalized);
+            KLine forming = entry.aggregator.getFormingBar();
+            if (forming != null) all.add(forming);
+            entry.snapshot = Collections.unmodifiableList(all);
+        }
+        List<KLine> full = entry.snapshot;
+
+        int from = first.isAfter(entry.coverageStart)
+                ? lowerBound(full, BarAggregator.intervalStart(first, targetTimeframe))
+                : 0;
+        if (!last.isBefore(entry.coverageEnd)) {
+            return full.subList(from, full.size());
+        }
+
+        // The cache reaches further than the requested base (e.g. an earlier replay position).
+        // Rebuild the last bucket from the request's own bars so no later data leaks into it.
+        Instant lastBucketStart = BarAggregator.intervalStart(last, targetTimeframe);
+        int end = lowerBound(full, lastBucketStart);
+        List<KLine> trimmed = new ArrayList<>(full.subList(Math.min(from, end), end));
+        BarAggregator lastBucket = new BarAggregator(targetTimeframe);
+        for (int i = lowerBound(base, lastBucketStart); i < base.size(); i++) {
+            lastBucket.add(base.get(i));
+        }
+        if (lastBucket.getFormingBar() != null) trimmed.add(lastBucket.getFormingBar());
+        return Collections.unmodifiableList(trimmed);
+    }
+
+    private void evictOverBudget(CacheKey keep) {
+        Iterator<Map.Entry<CacheKey, Entry>> it = entries.entrySet().iterator();
+        while (estimatedBytes > memoryBudgetBytes && it.hasNext()) {
+            Map.Entry<CacheKey, Entry> eldest = it.next();
+            if (eldest.getKey().equals(keep)) continue;
+            estimatedBytes -= eldest.getValue().estimatedBytes();
+            it.remove();
+            logger.debug("Resample cache evicted {} -> {} for {}.", eldest.getKey().baseTimeframe(),
+                    eldest.getKey().targetTimeframe().displayName(), eldest.getKey().sourceKey());
+        }
+    }
+
+    /**
+     * @return The index of the first bar whose timestamp is at or after {@code time}.
+     */
+    private static int lowerBound(List<KLine> bars, Instant time) {
+        int lo = 0, hi = bars.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (bars.get(mid).timestamp().isBefore(time)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
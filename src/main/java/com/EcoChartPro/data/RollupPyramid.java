@@ -0,0 +1,271 @@
+package com.EcoChartPro.data;
+
+import com.EcoChartPro.data.store.KLineStore;
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.model.Symbol;
+import com.EcoChartPro.model.Timeframe;
+import com.EcoChartPro.utils.DatabaseManager;
+import com.EcoChartPro.utils.DatabaseManager.DataRange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Persisted higher-timeframe rollups of a symbol's 1m series. The 5m, 15m, 1H, 4H and 1D
+ * series are stored next to the 1m bars in the same store, under their own timeframe keys
+ * (see {@link DatabaseManager#rollupKey}) so they never mix with imported data of those
+ * timeframes. A daily chart reads a few hundred daily bars instead of hundreds of thousands
+ * of 1m bars, and only the still-forming tail is spliced in from 1m.
+ * <p>
+ * Rollup buckets use the epoch alignment of {@link BarAggregator}, so each rollup bar lies
+ * inside exactly one bucket of every timeframe whose duration it divides, and resampling
+ * rollup bars gives the same candles as resampling the 1m bars behind them.
+ */
+public final class RollupPyramid {
+
+    private static final Logger logger = LoggerFactory.getLogger(RollupPyramid.class);
+
+    /** The stored rollup timeframes, finest first. */
+    public static final List<Timeframe> ROLLUP_TIMEFRAMES = List.of(
+            Timeframe.M5, Timeframe.M15, Timeframe.H1, Timeframe.H4, Timeframe.D1);
+
+    private static final String BASE_TIMEFRAME = Timeframe.M1.displayName();
+    private static final Timeframe COARSEST = Timeframe.D1;
+    private static final int READ_PAGE_SIZE = 50_000;
+    private static final int WRITE_BATCH_SIZE = 10_000;
+
+    private record BuildKey(KLineStore store, String symbol) {}
+
+    private static final Set<BuildKey> runningBuilds = ConcurrentHashMap.newKeySet();
+    private static final ExecutorService builder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Rollup-Builder");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private RollupPyramid() {}
+
+    /**
+     * @return The coarsest rollup that builds the target exactly, or null if only 1m can.
+     *         Custom timeframes are matched through {@link Timeframe#getSmartBaseTimeframe}.
+     */
+    public static Timeframe rollupFor(Timeframe target) {
+        long baseMillis = Timeframe.getSmartBaseTimeframe(target).duration().toMillis();
+        for (int i = ROLLUP_TIMEFRAMES.size() - 1; i >= 0; i--) {
+            long rollupMillis = ROLLUP_TIMEFRAMES.get(i).duration().toMillis();
+            if (rollupMillis <= baseMillis && baseMillis % rollupMillis == 0) {
+                return ROLLUP_TIMEFRAMES.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return True if the stored rollup spans the same buckets as the stored 1m series and
+     *         has as many bars as those buckets can hold: exactly one per bucket if the 1m
+     *         series has no gaps, otherwise at least enough to hold every 1m bar.
+     */
+    public static boolean isComplete(KLineStore store, Symbol symbol, Timeframe rollup) {
+        Optional<DataRange> base = store.getDataRange(symbol, BASE_TIMEFRAME);
+        if (base.isEmpty()) return false;
+        Optional<DataRange> rolled = store.getDataRange(symbol, key(rollup));
+        Instant firstBucket = BarAggregator.intervalStart(base.get().start(), rollup);
+        Instant lastBucket = BarAggregator.intervalStart(base.get().end(), rollup);
+        if (rolled.isEmpty() || !rolled.get().start().equals(firstBucket) || !rolled.get().end().equals(lastBucket)) {
+            return false;
+        }
+
+        long rollupSeconds = rollup.duration().getSeconds();
+        long baseSeconds = Timeframe.M1.duration().getSeconds();
+        long spanBuckets = Duration.between(firstBucket, lastBucket).getSeconds() / rollupSeconds + 1;
+        long spanBaseBars = Duration.between(base.get().start(), base.get().end()).getSeconds() / baseSeconds + 1;
+        long baseBars = store.getTotalKLineCount(symbol, BASE_TIMEFRAME);
+        long rolledBars = store.getTotalKLineCount(symbol, key(rollup));
+        if (baseBars >= spanBaseBars) {
+            return rolledBars == spanBuckets;
+        }
+        long barsPerBucket = rollupSeconds / baseSeconds;
+        return rolledBars <= spanBuckets && rolledBars >= (baseBars + barsPerBucket - 1) / barsPerBucket;
+    }
+
+    /**
+     * @return The rollup to build the target from, or null if the store has no complete one
+     *         and the caller has to resample 1m bars.
+     */
+    public static Timeframe findUsableRollup(KLineStore store, Symbol symbol, Timeframe target) {
+        Timeframe rollup = rollupFor(target);
+        return rollup != null && isComplete(store, symbol, rollup) ? rollup : null;
+    }
+
+    /**
+     * Reads what is needed to resample [from, to] into any timeframe the rollup divides:
+     * the rollup bars that are complete at {@code to}, followed by the 1m bars after them.
+     * Nothing after {@code to} is read, so replay never sees ahead of its head.
+     */
+    public static List<KLine> readSpliced(KLineStore store, Symbol symbol, Timeframe rollup, Instant from, Instant to) {
+        // The first bucket that is still forming at the end of the 1m bar at 'to'.
+        Instant cutoff = BarAggregator.intervalStart(to.plus(Duration.ofMinutes(1)), rollup);
+        Instant rollupStart = BarAggregator.intervalStart(from, rollup);
+        List<KLine> bars = new ArrayList<>();
+        if (cutoff.isAfter(rollupStart)) {
+            bars.addAll(store.getKLinesBetween(symbol, key(rollup), rollupStart, cutoff.minusSeconds(1)));
+        }
+        if (!cutoff.isAfter(to)) {
+            bars.addAll(store.getKLinesBetween(symbol, BASE_TIMEFRAME, cutoff, to));
+        }
+        return bars;
+    }
+
+    /**
+     * Recomputes every rollup bucket touched by newly saved 1m bars. The bars are laid over
+     * the stored 1m series, so this may run before an asynchronous save has committed.
+     */
+    public static void update(KLineStore store, Symbol symbol, List<KLine> savedBars) {
+        if (savedBars.isEmpty()) return;
+        Instant first = savedBars.get(0).timestamp();
+        Instant last = first;
+        for (KLine bar : savedBars) {
+            if (bar.timestamp().isBefore(first)) first = bar.timestamp();
+            if (bar.timestamp().isAfter(last)) last = bar.timestamp();
+        }
+        Instant rangeStart = BarAggregator.intervalStart(first, COARSEST);
+        Instant rangeEnd = BarAggregator.intervalStart(last, COARSEST).plus(COARSEST.duration()).minusSeconds(1);
+
+        TreeMap<Instant, KLine> merged = new TreeMap<>();
+        for (KLine bar : store.getKLinesBetween(symbol, BASE_TIMEFRAME, rangeStart, rangeEnd)) {
+            merged.put(bar.timestamp(), bar);
+        }
+        for (KLine bar : savedBars) {
+            merged.put(bar.timestamp(), bar);
+        }
+        RollupWriter writer = new RollupWriter(store, symbol);
+        writer.addAll(merged.values());
+        writer.finish();
+    }
+
+    /**
+     * Rebuilds every rollup from the stored 1m series.
+     */
+    public static void rebuild(KLineStore store, Symbol symbol) {
+        Optional<DataRange> range = store.getDataRange(symbol, BASE_TIMEFRAME);
+        if (range.isEmpty()) return;
+        rebuild(store, symbol, range.get().start(), range.get().end());
+    }
+
+    /**
+     * Rebuilds the rollup buckets that overlap [from, to], e.g. after an import. The range is
+     * widened to whole days so that no bucket is built from part of its bars.
+     */
+    public static void rebuild(KLineStore store, Symbol symbol, Instant from, Instant to) {
+        long start = System.nanoTime();
+        long endSec = BarAggregator.intervalStart(to, COARSEST).plus(COARSEST.duration()).getEpochSecond();
+        long cursorSec = BarAggregator.intervalStart(from, COARSEST).getEpochSecond();
+        RollupWriter writer = new RollupWriter(store, symbol);
+        long barsRead = 0;
+        paging:
+        while (true) {
+            List<KLine> page = store.getKLinesStartingFrom(symbol, BASE_TIMEFRAME, cursorSec, READ_PAGE_SIZE);
+            if (page == null || page.isEmpty()) break;
+            for (KLine bar : page) {
+                if (bar.timestamp().getEpochSecond() >= endSec) break paging;
+                writer.add(bar);
+                barsRead++;
+            }
+            if (page.size() < READ_PAGE_SIZE) break;
+            cursorSec = page.get(page.size() - 1).timestamp().getEpochSecond() + 1;
+        }
+        writer.finish();
+        logger.info("Built rollups for {} from {} 1m bars in {} ms.", symbol.name(), barsRead, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Rebuilds the rollups on a background thread if they do not cover the 1m series, e.g.
+     * for a database imported before rollups existed. Until the build finishes,
+     * {@link #findUsableRollup} keeps returning null.
+     */
+    public static void ensureBuiltAsync(KLineStore store, Symbol symbol) {
+        BuildKey key = new BuildKey(store, symbol.name());
+        if (!runningBuilds.add(key)) return;
+        builder.execute(() -> {
+            try {
+                if (!isComplete(store, symbol, ROLLUP_TIMEFRAMES.get(0)) || !isComplete(store, symbol, COARSEST)) {
+                    rebuild(store, symbol);
+                }
+            } catch (Exception e) {
+                logger.error("Failed to build rollups for {}.", symbol.name(), e);
+            } finally {
+                runningBuilds.remove(key);
+            }
+        });
+    }
+
+    private static String key(Timeframe rollup) {
+        return DatabaseManager.rollupKey(rollup.displayName());
+    }
+
+    /**
+     * Feeds 1m bars through one aggregator per rollup and saves the bars in batches. Bars
+     * must arrive in order and start at a day boundary. {@link #finish} waits until every
+     * batch is saved, so a rollup reported complete afterwards can be read right away.
+     */
+    private static final class RollupWriter {
+        private final KLineStore store;
+        private final Symbol symbol;
+        private final BarAggregator[] aggregators = new BarAggregator[ROLLUP_TIMEFRAMES.size()];
+        private final List<List<KLine>> pending = new ArrayList<>(ROLLUP_TIMEFRAMES.size());
+        private final List<CompletableFuture<Void>> saves = new ArrayList<>();
+
+        RollupWriter(KLineStore store, Symbol symbol) {
+            this.store = store;
+            this.symbol = symbol;
+            for (int i = 0; i < aggregators.length; i++) {
+                aggregators[i] = new BarAggregator(ROLLUP_TIMEFRAMES.get(i));
+                pending.add(new ArrayList<>());
+            }
+        }
+
+        void addAll(Collection<KLine> bars) {
+            for (KLine bar : bars) add(bar);
+        }
+
+        void add(KLine bar) {
+            for (int i = 0; i < aggregators.length; i++) {
+                KLine finalized = aggregators[i].add(bar);
+                if (finalized != null) {
+                    List<KLine> batch = pending.get(i);
+                    batch.add(finalized);
+                    if (batch.size() >= WRITE_BATCH_SIZE) flush(i);
+                }
+            }
+        }
+
+        /** Saves the remaining bars, including each rollup's last, possibly partial, bucket. */
+        void finish() {
+            for (int i = 0; i < aggregators.length; i++) {
+                KLine forming = aggregators[i].getFormingBar();
+                if (forming != null) pending.get(i).add(forming);
+                flush(i);
+            }
+            CompletableFuture.allOf(saves.toArray(CompletableFuture<?>[]::new)).join();
+        }
+
+        private void flush(int i) {
+            List<KLine> batch = pending.get(i);
+            if (batch.isEmpty()) return;
+            saves.add(store.saveKLines(List.copyOf(batch), symbol, key(ROLLUP_TIMEFRAMES.get(i))));
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.EcoChartPro.data;
+
+/**
+ * A snapshot of the dispatch counters of one live stream.
+ *
+ * @param streamName    The exchange stream name, e.g. {@code btcusdt@kline_1m}.
+ * @param published     Messages the socket thread handed to the stream's ring.
+ * @param dropped       Messages dropped because the ring was full.
+ * @param conflated     K-line updates replaced by a later update of the same bar before delivery.
+ * @param delivered     Messages delivered to the subscribers after conflation.
+ * @param batches       Batches delivered to the subscribers.
+ * @param backlog       Messages waiting in the ring.
+ * @param lastLagMicros How long the oldest message of the last batch waited before delivery.
+ * @param maxLagMicros  The longest such wait so far.
+ */
+public record StreamDispatchStats(
+    String streamName,
+    long published,
+    long dropped,
+    long conflated,
+    long delivered,
+    long batches,
+    int backlog,
+    long lastLagMicros,
+    long maxLagMicros
+) {}
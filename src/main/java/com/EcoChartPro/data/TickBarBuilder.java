@@ -0,0 +1,88 @@
+package com.EcoChartPro.data;
+
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.model.Timeframe;
+import com.EcoChartPro.model.TradeTick;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Builds bars of one timeframe from individual trade ticks, in constant time per tick.
+ * Buckets use the same epoch alignment as {@link BarAggregator}, so tick-built bars line
+ * up with the stored and resampled bars of that timeframe.
+ * <p>
+ * Unlike {@link BarAggregator}, every input is a new trade: ticks sharing a timestamp are
+ * all counted. This class is not thread-safe.
+ */
+public final class TickBarBuilder {
+
+    private final Timeframe timeframe;
+    private final long intervalMillis;
+
+    private long bucketStartMillis = Long.MIN_VALUE;
+    private Instant bucketStart;
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+    private BigDecimal volume;
+
+    public TickBarBuilder(Timeframe timeframe) {
+        this.timeframe = timeframe;
+        this.intervalMillis = timeframe.duration().toMillis();
+    }
+
+    public Timeframe getTimeframe() {
+        return timeframe;
+    }
+
+    /**
+     * Folds a tick into the forming bar.
+     *
+     * @return The bar this tick closed, or null if the bar is still forming.
+     *         Ticks older than the forming bar are ignored and return null.
+     */
+    public KLine add(TradeTick tick) {
+        long tickMillis = tick.timestamp().toEpochMilli();
+        long tickBucketStart = intervalMillis == 0 ? tickMillis : tickMillis - Math.floorMod(tickMillis, intervalMillis);
+
+        if (bucketStart != null && tickBucketStart == bucketStartMillis) {
+            BigDecimal price = tick.price();
+            if (price.compareTo(high) > 0) high = price;
+            if (price.compareTo(low) < 0) low = price;
+            close = price;
+            volume = volume.add(tick.quantity());
+            return null;
+        }
+        if (bucketStart != null && tickBucketStart < bucketStartMillis) {
+            return null;
+        }
+        KLine finalized = getFormingBar();
+        bucketStartMillis = tickBucketStart;
+        bucketStart = Instant.ofEpochMilli(tickBucketStart);
+        open = high = low = close = tick.price();
+        volume = tick.quantity();
+        return finalized;
+    }
+
+    /**
+     * @return The start of the forming bar, or null if nothing has been added.
+     */
+    public Instant getBucketStart() {
+        return bucketStart;
+    }
+
+    /**
+     * @return The bar formed so far, or null if nothing has been added.
+     */
+    public KLine getFormingBar() {
+        return bucketStart == null ? null : new KLine(bucketStart, open, high, low, close, volume);
+    }
+
+    public void reset() {
+        bucketStartMillis = Long.MIN_VALUE;
+        bucketStart = null;
+        open = high = low = close = volume = null;
+    }
+}
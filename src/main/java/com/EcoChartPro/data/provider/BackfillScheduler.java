@@ -0,0 +1,220 @@
+package com.EcoChartPro.data.provider;
+
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.model.Timeframe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A shared scheduler for historical backfills and range fetches from the exchanges' REST APIs.
+ * <p>
+ * A backfill range is cut into pages of one request each, laid on a fixed grid per symbol
+ * and timeframe, and all pages are requested at once on virtual threads. Each request waits
+ * for room in its exchange's {@link RequestBudget}, so the pages go out as fast as the
+ * exchange's weight limit allows instead of one every half second. Because the grid is
+ * fixed, backfills of overlapping ranges, such as several charts of one symbol loading
+ * together or a chart loading during a reconnect, share the page requests still in flight.
+ */
+public final class BackfillScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(BackfillScheduler.class);
+    private static volatile BackfillScheduler instance;
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 2000;
+    // The request budget sets the rate; this only bounds the open connections per exchange.
+    private static final int MAX_CONCURRENT_PAGES = 8;
+
+    /** Fetches the bars in [startMs, endMs), oldest first, in one request. */
+    @FunctionalInterface
+    private interface PageFetcher {
+        List<KLine> fetch(String symbol, String timeframe, long startMs, long endMs) throws IOException;
+    }
+
+    private record PageSource(int pageSize, PageFetcher fetcher, Semaphore permits) {
+        PageSource(int pageSize, PageFetcher fetcher) {
+            this(pageSize, fetcher, new Semaphore(MAX_CONCURRENT_PAGES));
+        }
+    }
+
+    private record PageKey(String exchange, String symbol, String timeframe, long startMs) {}
+
+    /**
+     * The bars of a fetched range, oldest first.
+     * @param complete False if a page failed; the bars then end before that page.
+     */
+    public record FetchedRange(List<KLine> bars, boolean complete) {}
+
+    private final Map<String, PageSource> sources;
+    private final ConcurrentMap<PageKey, CompletableFuture<List<KLine>>> pagesInFlight = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private BackfillScheduler() {
+        BinanceProvider binance = new BinanceProvider();
+        OkxProvider okx = new OkxProvider();
+        this.sources = Map.of(
+            binance.getProviderName(), new PageSource(BinanceProvider.MAX_KLINES_PER_REQUEST,
+                (symbol, timeframe, startMs, endMs) -> binance.getHistoricalData(
+                    symbol, timeframe, BinanceProvider.MAX_KLINES_PER_REQUEST, startMs, endMs - 1)),
+            // OKX: 'before' returns bars newer than, and 'after' bars older than, the timestamp.
+            okx.getProviderName(), new PageSource(OkxProvider.MAX_KLINES_PER_REQUEST,
+                (symbol, timeframe, startMs, endMs) -> okx.getHistoricalData(
+                    symbol, timeframe, OkxProvider.MAX_KLINES_PER_REQUEST, startMs - 1, endMs))
+        );
+    }
+
+    public static BackfillScheduler getInstance() {
+        if (instance == null) {
+            synchronized (BackfillScheduler.class) {
+                if (instance == null) {
+                    instance = new BackfillScheduler();
+                }
+            }
+        }
+        return instance;
+    }
+
+    public boolean supports(String exchange) {
+        return sources.containsKey(exchange);
+    }
+
+    /**
+     * Fetches every bar from the start time up to now and blocks until done.
+     * @return The bars, oldest first. If a page fails, only the bars before it; an empty
+     *         list if the exchange or timeframe is not supported.
+     */
+    public List<KLine> backfill(String exchange, String symbol, String timeframe, long startTimeMillis) {
+        try {
+            return backfillAsync(exchange, symbol, timeframe, startTimeMillis).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Collections.emptyList();
+        } catch (ExecutionException e) {
+            logger.error("Backfill of {} @ {} from {} failed.", symbol, timeframe, exchange, e.getCause());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Starts fetching every bar from the start time up to now.
+     * @return A future of the bars, oldest first. If a page fails, the future holds only the
+     *         bars before it, so that callers never see a hole in the data.
+     */
+    public CompletableFuture<List<KLine>> backfillAsync(String exchange, String symbol, String timeframe, long startTimeMillis) {
+        return fetchRangeAsync(exchange, symbol, timeframe, startTimeMillis, System.currentTimeMillis() + 1)
+            .thenApply(FetchedRange::bars);
+    }
+
+    /**
+     * Fetches the bars in [startMs, endMs) and blocks until done.
+     * @return The bars; an incomplete, empty range if the fetch could not be started.
+     */
+    public FetchedRange fetchRange(String exchange, String symbol, String timeframe, long startMs, long endMs) {
+        try {
+            return fetchRangeAsync(exchange, symbol, timeframe, startMs, endMs).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new FetchedRange(Collections.emptyList(), false);
+        } catch (ExecutionException e) {
+            logger.error("Fetch of {} @ {} from {} failed.", symbol, timeframe, exchange, e.getCause());
+            return new FetchedRange(Collections.emptyList(), false);
+        }
+    }
+
+    /**
+     * Starts fetching the bars in [startMs, endMs).
+     */
+    public CompletableFuture<FetchedRange> fetchRangeAsync(String exchange, String symbol, String timeframe, long startMs, long endMs) {
+        PageSource source = sources.get(exchange);
+        Timeframe tf = Timeframe.fromString(timeframe);
+        if (source == null || tf == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                "Cannot fetch " + symbol + " @ " + timeframe + " from " + exchange));
+        }
+
+        long pageSpanMs = tf.duration().toMillis() * source.pageSize();
+        List<CompletableFuture<List<KLine>>> pages = new ArrayList<>();
+        for (long pageStart = startMs - Math.floorMod(startMs, pageSpanMs); pageStart < endMs; pageStart += pageSpanMs) {
+            pages.add(requestPage(exchange, source, symbol, timeframe, pageStart, pageStart + pageSpanMs));
+        }
+        logger.info("Fetching {} @ {} from {} for {} to {} in {} page(s).", symbol, timeframe, exchange,
+            Instant.ofEpochMilli(startMs), Instant.ofEpochMilli(endMs), pages.size());
+
+        return CompletableFuture.allOf(pages.toArray(CompletableFuture[]::new))
+            .handle((ignored, error) -> assemble(pages, startMs, endMs, symbol, timeframe));
+    }
+
+    private CompletableFuture<List<KLine>> requestPage(String exchange, PageSource source, String symbol, String timeframe,
+                                                       long startMs, long endMs) {
+        PageKey key = new PageKey(exchange, symbol, timeframe, startMs);
+        CompletableFuture<List<KLine>> page = new CompletableFuture<>();
+        CompletableFuture<List<KLine>> shared = pagesInFlight.putIfAbsent(key, page);
+        if (shared != null) {
+            return shared;
+        }
+        executor.execute(() -> {
+            try {
+                page.complete(fetchPage(source, symbol, timeframe, startMs, endMs));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                page.completeExceptionally(e);
+            } catch (Exception e) {
+                page.completeExceptionally(e);
+            } finally {
+                pagesInFlight.remove(key, page);
+            }
+        });
+        return page;
+    }
+
+    private List<KLine> fetchPage(PageSource source, String symbol, String timeframe, long startMs, long endMs)
+            throws IOException, InterruptedException {
+        source.permits().acquire();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return source.fetcher().fetch(symbol, timeframe, startMs, endMs);
+                } catch (IOException e) {
+                    if (attempt >= MAX_ATTEMPTS) throw e;
+                    logger.warn("Backfill page of {} @ {} at {} failed (attempt {} of {}): {}",
+                        symbol, timeframe, startMs, attempt, MAX_ATTEMPTS, e.getMessage());
+                    Thread.sleep(RETRY_DELAY_MS * attempt);
+                }
+            }
+        } finally {
+            source.permits().release();
+        }
+    }
+
+    private static FetchedRange assemble(List<CompletableFuture<List<KLine>>> pages, long startMs, long endMs,
+                                         String symbol, String timeframe) {
+        List<KLine> bars = new ArrayList<>();
+        for (CompletableFuture<List<KLine>> page : pages) {
+            if (page.isCompletedExceptionally()) {
+                logger.error("Backfill of {} @ {} stopped at a failed page; returning {} bars.", symbol, timeframe, bars.size(),
+                    page.handle((value, error) -> error).join());
+                return new FetchedRange(bars, false);
+            }
+            for (KLine bar : page.join()) {
+                long timestamp = bar.timestamp().toEpochMilli();
+                if (timestamp >= startMs && timestamp < endMs) {
+                    bars.add(bar);
+                }
+            }
+        }
+        return new FetchedRange(bars, true);
+    }
+}
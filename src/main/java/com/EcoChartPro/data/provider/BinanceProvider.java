@@ -9,6 +9,7 @@ import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
+import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -18,6 +19,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -35,8 +37,13 @@ public class BinanceProvider implements DataProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(BinanceProvider.class);
     private static final String API_BASE_URL = "https://api.binance.com/api/v3";
+    static final int MAX_KLINES_PER_REQUEST = 1000;
+    // Binance allows 6000 request weight per minute per IP and reports the weight used so far.
+    private static final RequestBudget requestBudget = new RequestBudget("Binance", 6000, Duration.ofMinutes(1),
+            "X-MBX-USED-WEIGHT-1M", BinanceProvider::requestWeight);
     private static final OkHttpClient client = new OkHttpClient.Builder()
             .readTimeout(30, TimeUnit.SECONDS)
+            .addInterceptor(requestBudget)
             .build();
     private static final Gson gson = new Gson();
 
@@ -196,46 +203,11 @@ public class BinanceProvider implements DataProvider {
         }
     }
 
+    /**
+     * Fetches every bar from the start time up to now through the shared {@link BackfillScheduler}.
+     */
     public List<KLine> backfillHistoricalData(String symbol, String timeframe, long startTimeMillis) {
-        List<KLine> allData = new ArrayList<>();
-        long currentStartTime = startTimeMillis;
-        final int batchLimit = 1000;
-
-        logger.info("Starting historical data backfill for {} @ {} from {}", symbol, timeframe,
-                Instant.ofEpochMilli(startTimeMillis));
-
-        while (true) {
-            int retries = 3;
-            List<KLine> batch = null;
-            while (retries > 0) {
-                try {
-                    batch = getHistoricalData(symbol, timeframe, batchLimit, currentStartTime, null);
-                    break;
-                } catch (IOException e) {
-                    retries--;
-                    try {
-                        Thread.sleep(2000);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-                }
-            }
-
-            if (batch == null || batch.isEmpty())
-                break;
-            allData.addAll(batch);
-            currentStartTime = batch.get(batch.size() - 1).timestamp().toEpochMilli() + 1;
-            if (batch.size() < batchLimit)
-                break;
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
-        return allData;
+        return BackfillScheduler.getInstance().backfill(getProviderName(), symbol, timeframe, startTimeMillis);
     }
 
     @Override
@@ -258,6 +230,14 @@ public class BinanceProvider implements DataProvider {
         LiveDataManager.getInstance().unsubscribeFromTrades(symbol, onTradeUpdate);
     }
 
+    // The request weights of the endpoints used here, from the Binance API documentation.
+    private static int requestWeight(HttpUrl url) {
+        String path = url.encodedPath();
+        if (path.endsWith("/exchangeInfo")) return 20;
+        if (path.endsWith("/historicalTrades")) return 25;
+        return 2;
+    }
+
     private static class BinanceSymbolData {
         String symbol;
         String status;
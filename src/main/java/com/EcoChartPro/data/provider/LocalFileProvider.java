@@ -100,7 +100,7 @@ public class LocalFileProvider implements DataProvider {
     }
 
     private List<String> getTimeframesFromDb(Path dbPath) {
-        try (DatabaseManager tempDbManager = new DatabaseManager("jdbc:sqlite:" + dbPath.toAbsolutePath())) {
+        try (DatabaseManager tempDbManager = DatabaseManager.open("jdbc:sqlite:" + dbPath.toAbsolutePath())) {
             return tempDbManager.getDistinctTimeframes();
         } catch (Exception e) {
             logger.error("Could not read timeframes from database: {}. Reason: {}", dbPath, e.getMessage());
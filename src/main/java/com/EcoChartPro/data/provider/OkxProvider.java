@@ -18,6 +18,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -33,7 +34,11 @@ public class OkxProvider implements DataProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(OkxProvider.class);
     private static final String API_BASE_URL = "https://www.okx.com";
-    private static final OkHttpClient client = new OkHttpClient();
+    static final int MAX_KLINES_PER_REQUEST = 100;
+    // The tightest limit of the endpoints used here: 20 requests per 2 seconds for history-candles.
+    private static final OkHttpClient client = new OkHttpClient.Builder()
+            .addInterceptor(new RequestBudget("OKX", 20, Duration.ofSeconds(2), null, url -> 1))
+            .build();
     private static final Gson gson = new Gson();
 
     // [MODIFIED] Removed "1s" from the list
@@ -164,92 +169,18 @@ public class OkxProvider implements DataProvider {
         }
     }
 
+    /**
+     * Fetches every bar from the start time up to now through the shared {@link BackfillScheduler}.
+     */
     public List<KLine> backfillHistoricalData(String symbol, String timeframe, long startTimeMillis) {
-        List<KLine> allData = new ArrayList<>();
-        Long currentBefore = null;
-        final int batchLimit = 100;
-
-        logger.info("Starting historical data backfill for {} @ {} from {}", symbol, timeframe,
-                Instant.ofEpochMilli(startTimeMillis));
-
-        while (true) {
-            int retries = 3;
-            List<KLine> batch = null;
-            while (retries > 0) {
-                try {
-                    batch = getHistoricalData(symbol, timeframe, batchLimit, currentBefore, null);
-                    break;
-                } catch (IOException e) {
-                    retries--;
-                    try {
-                        Thread.sleep(2000);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-                }
-            }
-
-            if (batch == null || batch.isEmpty())
-                break;
-
-            allData.addAll(0, batch);
-            currentBefore = batch.get(0).timestamp().toEpochMilli();
-
-            if (currentBefore <= startTimeMillis)
-                break;
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
-
-        allData.removeIf(k -> k.timestamp().toEpochMilli() < startTimeMillis);
-        return allData;
+        return BackfillScheduler.getInstance().backfill(getProviderName(), symbol, timeframe, startTimeMillis);
     }
 
+    /**
+     * Same as {@link #backfillHistoricalData}; the scheduler always returns the bars oldest first.
+     */
     public List<KLine> backfillHistoricalDataForward(String symbol, String timeframe, long startTimeMillis) {
-        List<KLine> allData = new ArrayList<>();
-        Long currentAfter = startTimeMillis;
-        final int batchLimit = 100;
-
-        while (true) {
-            int retries = 3;
-            List<KLine> batch = null;
-            while (retries > 0) {
-                try {
-                    // Pass currentAfter to 'after' param to get data OLDER than this timestamp
-                    batch = getHistoricalData(symbol, timeframe, batchLimit, null, currentAfter);
-                    break;
-                } catch (IOException e) {
-                    retries--;
-                    try {
-                        Thread.sleep(2000);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-                }
-            }
-
-            if (batch == null || batch.isEmpty())
-                break;
-
-            allData.addAll(batch);
-            currentAfter = batch.get(batch.size() - 1).timestamp().toEpochMilli();
-
-            if (batch.size() < batchLimit)
-                break;
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
-        return allData;
+        return backfillHistoricalData(symbol, timeframe, startTimeMillis);
     }
 
     @Override
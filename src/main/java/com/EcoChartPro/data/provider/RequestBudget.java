@@ -0,0 +1,143 @@
+package com.EcoChartPro.data.provider;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * Keeps the REST requests of one exchange within its request-weight limit. Installed as an
+ * interceptor on the provider's HTTP client, it makes every request wait for room in the
+ * current rate-limit window before it is sent. When the exchange reports the weight used so
+ * far in a response header, the local estimate is raised to that figure, so requests made by
+ * other clients on the same IP are accounted for too. A 429 or 418 response pauses all
+ * requests for the {@code Retry-After} period.
+ * <p>
+ * Waiting uses a {@link ReentrantLock} rather than a monitor so that it does not pin the
+ * carrier of a virtual thread.
+ */
+final class RequestBudget implements Interceptor {
+    private static final Logger logger = LoggerFactory.getLogger(RequestBudget.class);
+    // Leave some of the budget to requests we cannot see, such as another app on the same IP.
+    private static final double USABLE_FRACTION = 0.9;
+    private static final long DEFAULT_RETRY_AFTER_MS = 10_000;
+
+    private final String exchangeName;
+    private final int usableWeight;
+    private final long windowMs;
+    private final String usedWeightHeader;
+    private final ToIntFunction<HttpUrl> requestWeight;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition budgetChanged = lock.newCondition();
+    // Guarded by lock.
+    private long windowStartMs;
+    private int usedWeight;
+    private long pausedUntilMs;
+
+    /**
+     * @param weightPerWindow  The exchange's weight limit per window.
+     * @param window           The length of the exchange's rate-limit window; windows start
+     *                         at multiples of it, as they do on the exchanges.
+     * @param usedWeightHeader The response header that reports the weight used in the current
+     *                         window, or null if the exchange does not send one.
+     * @param requestWeight    The weight of a request to the given URL.
+     */
+    RequestBudget(String exchangeName, int weightPerWindow, Duration window, String usedWeightHeader,
+                  ToIntFunction<HttpUrl> requestWeight) {
+        this.exchangeName = exchangeName;
+        this.usableWeight = (int) (weightPerWindow * USABLE_FRACTION);
+        this.windowMs = window.toMillis();
+        this.usedWeightHeader = usedWeightHeader;
+        this.requestWeight = requestWeight;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        try {
+            acquire(requestWeight.applyAsInt(chain.request().url()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the " + exchangeName + " request budget.");
+        }
+        Response response = chain.proceed(chain.request());
+        onResponse(response);
+        return response;
+    }
+
+    /**
+     * Blocks until the current window has room for the weight, then takes it.
+     */
+    void acquire(int weight) throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                long now = System.currentTimeMillis();
+                rollWindow(now);
+                long waitMs;
+                if (pausedUntilMs > now) {
+                    waitMs = pausedUntilMs - now;
+                } else if (usedWeight + weight <= usableWeight || usedWeight == 0) {
+                    usedWeight += weight;
+                    return;
+                } else {
+                    waitMs = windowStartMs + windowMs - now;
+                }
+                budgetChanged.await(Math.max(1, waitMs), TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onResponse(Response response) {
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            rollWindow(now);
+            String reported = usedWeightHeader != null ? response.header(usedWeightHeader) : null;
+            if (reported != null) {
+                try {
+                    // Our own requests still in flight are not in the reported figure yet.
+                    usedWeight = Math.max(usedWeight, Integer.parseInt(reported.trim()));
+                } catch (NumberFormatException e) {
+                    logger.debug("Ignoring malformed {} header from {}: {}", usedWeightHeader, exchangeName, reported);
+                }
+            }
+            if (response.code() == 429 || response.code() == 418) {
+                long retryAfterMs = parseRetryAfterMs(response.header("Retry-After"));
+                pausedUntilMs = Math.max(pausedUntilMs, now + retryAfterMs);
+                logger.warn("{} rate limit hit (HTTP {}). Pausing requests for {} ms.", exchangeName, response.code(), retryAfterMs);
+            }
+            budgetChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rollWindow(long now) {
+        long currentWindowStart = now - Math.floorMod(now, windowMs);
+        if (currentWindowStart != windowStartMs) {
+            windowStartMs = currentWindowStart;
+            usedWeight = 0;
+        }
+    }
+
+    private static long parseRetryAfterMs(String retryAfter) {
+        if (retryAfter == null) return DEFAULT_RETRY_AFTER_MS;
+        try {
+            return Math.max(1, Long.parseLong(retryAfter.trim())) * 1000;
+        } catch (NumberFormatException e) {
+            return DEFAULT_RETRY_AFTER_MS;
+        }
+    }
+}
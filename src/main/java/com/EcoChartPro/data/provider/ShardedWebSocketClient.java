@@ -0,0 +1,557 @@
+package com.EcoChartPro.data.provider;
+
+import com.EcoChartPro.data.I_ExchangeWebSocketClient;
+import org.java_websocket.WebSocket;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.exceptions.WebsocketNotConnectedException;
+import org.java_websocket.framing.Framedata;
+import org.java_websocket.handshake.ServerHandshake;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Base for exchange WebSocket clients that change their subscriptions in-band. Streams are
+ * spread over as many connections ("shards") as the per-connection limit requires, and a
+ * stream stays on its shard for as long as it is subscribed. Adding or removing a stream
+ * therefore only sends a subscribe or unsubscribe message on one shard; the feeds of every
+ * other stream keep flowing. Changes that arrive close together, such as the unsubscribe
+ * and subscribe of a symbol switch, are sent as one control message per shard, which keeps
+ * the client within the exchanges' message rate limits.
+ * <p>
+ * Every control message carries a request id, and the exchange's answer to it is checked:
+ * a stream only stays subscribed while its request is not rejected. Rejected streams are
+ * dropped and reported as a {@code "subscriptionRejected"} event. A request left unanswered
+ * for {@value #REPLY_TIMEOUT_MS} ms is logged and assumed to have been accepted.
+ * <p>
+ * Each shard reconnects on its own with exponential backoff and resubscribes its streams,
+ * and the reconnect handler is only given that shard's streams. The reported connection
+ * state is the worst state of any shard.
+ */
+abstract class ShardedWebSocketClient implements I_ExchangeWebSocketClient {
+
+    private static final long INITIAL_RECONNECT_DELAY_MS = 1000;
+    private static final long MAX_RECONNECT_DELAY_MS = 30000;
+    private static final long PING_INTERVAL_SECONDS = 25;
+    private static final long CONTROL_FLUSH_DELAY_MS = 500;
+    private static final long REPLY_TIMEOUT_MS = 10000;
+
+    // Ordered from best to worst; the client reports the worst state of its shards.
+    private enum ConnectionState { CONNECTED, CLOSING, CONNECTING, DISCONNECTED }
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final String exchangeName;
+    private final int maxStreamsPerConnection;
+    // Also runs the coalesced control flushes and the listener callbacks, in order.
+    private final ScheduledExecutorService reconnectScheduler;
+    private final ScheduledExecutorService pingScheduler;
+    private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
+
+    // Guarded by this client.
+    private final List<Shard> shards = new ArrayList<>();
+    private final Map<String, Shard> shardByStream = new HashMap<>();
+    private ScheduledFuture<?> pendingFlush;
+    private ConnectionState reportedState = ConnectionState.DISCONNECTED;
+    private boolean shutDown = false;
+    private int nextShardId = 0;
+    private long nextRequestId = 0;
+
+    private volatile Consumer<String> messageHandler;
+    private volatile BiConsumer<String, Set<String>> reconnectHandler;
+
+    /**
+     * The exchange's answer to a control message.
+     *
+     * @param stream The one stream of the request the answer is about, or null if it answers
+     *               the whole request.
+     * @param error  The exchange's error, or null if the request was accepted.
+     */
+    protected record ControlReply(long requestId, String stream, String error) {}
+
+    protected ShardedWebSocketClient(String exchangeName, int maxStreamsPerConnection) {
+        this.exchangeName = exchangeName;
+        this.maxStreamsPerConnection = maxStreamsPerConnection;
+        this.reconnectScheduler = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, exchangeName + "-WS-Reconnect"));
+        this.pingScheduler = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, exchangeName + "-WS-Ping"));
+    }
+
+    /**
+     * @param streams The streams the shard starts with; empty unless {@link #subscribesThroughUri()}.
+     * @return The URI a shard connects to.
+     */
+    protected abstract URI connectionUri(Set<String> streams) throws URISyntaxException;
+
+    /**
+     * @return True if {@link #connectionUri} subscribes the streams it is given, false if
+     *         they are subscribed with a control message once the connection is open.
+     */
+    protected abstract boolean subscribesThroughUri();
+
+    /**
+     * @return The exchange's subscribe or unsubscribe request for the streams, tagged with
+     *         the request id so that its answer can be matched to it.
+     */
+    protected abstract String controlMessage(boolean subscribe, Collection<String> streams, long requestId);
+
+    /**
+     * Called for every text message, so it must rule out stream data cheaply.
+     *
+     * @return The answer to a control message, which is not passed on, or null if the
+     *         message is anything else.
+     */
+    protected abstract ControlReply parseControlReply(String message);
+
+    protected abstract void sendPing(WebSocketClient socket);
+
+    /**
+     * @return True if the text message is the answer to {@link #sendPing}; it is not passed on.
+     */
+    protected boolean isPong(String message) {
+        return false;
+    }
+
+    protected Draft createDraft() {
+        return new Draft_6455();
+    }
+
+    @Override
+    public void setMessageHandler(Consumer<String> messageHandler) {
+        this.messageHandler = messageHandler;
+    }
+
+    @Override
+    public void setReconnectHandler(BiConsumer<String, Set<String>> reconnectHandler) {
+        this.reconnectHandler = reconnectHandler;
+    }
+
+    /**
+     * Moves the subscriptions to the given set. New streams go to the first shard with
+     * room, or to a new shard; the change is sent once the flush delay has passed.
+     */
+    @Override
+    public synchronized void updateSubscriptions(Set<String> streamNames) {
+        if (shutDown) return;
+        int removed = 0;
+        for (Iterator<Map.Entry<String, Shard>> it = shardByStream.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Shard> entry = it.next();
+            if (!streamNames.contains(entry.getKey())) {
+                entry.getValue().desired.remove(entry.getKey());
+                it.remove();
+                removed++;
+            }
+        }
+        int added = 0;
+        for (String stream : streamNames) {
+            if (shardByStream.containsKey(stream)) continue;
+            Shard shard = shardWithRoom();
+            shard.desired.add(stream);
+            shardByStream.put(stream, shard);
+            added++;
+        }
+        if (added == 0 && removed == 0) return;
+        logger.info("Updating {} subscriptions: {} added, {} removed. {} streams on {} connection(s).",
+                exchangeName, added, removed, shardByStream.size(), shards.size());
+        scheduleFlush();
+    }
+
+    @Override
+    public synchronized void disconnect() {
+        shutDown = true;
+        if (pendingFlush != null) pendingFlush.cancel(false);
+        for (Shard shard : shards) {
+            shard.close();
+        }
+        shards.clear();
+        shardByStream.clear();
+        // Shutdown schedulers to prevent any further reconnect attempts
+        reconnectScheduler.shutdownNow();
+        pingScheduler.shutdownNow();
+        logger.info("{} WebSocket client explicitly disconnected and schedulers shut down.", exchangeName);
+    }
+
+    @Override
+    public void addPropertyChangeListener(PropertyChangeListener listener) {
+        pcs.addPropertyChangeListener(listener);
+    }
+
+    @Override
+    public void removePropertyChangeListener(PropertyChangeListener listener) {
+        pcs.removePropertyChangeListener(listener);
+    }
+
+    private Shard shardWithRoom() {
+        for (Shard shard : shards) {
+            if (shard.desired.size() < maxStreamsPerConnection) return shard;
+        }
+        Shard shard = new Shard(nextShardId++);
+        shards.add(shard);
+        return shard;
+    }
+
+    private void scheduleFlush() {
+        if (pendingFlush != null && !pendingFlush.isDone()) return;
+        try {
+            pendingFlush = reconnectScheduler.schedule(this::flush, CONTROL_FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.warn("{} subscription update dropped. Scheduler may be shutting down.", exchangeName);
+        }
+    }
+
+    /**
+     * Sends the pending subscription changes of every shard, connects new shards and closes
+     * the ones left without streams.
+     */
+    private synchronized void flush() {
+        pendingFlush = null;
+        if (shutDown) return;
+        for (Iterator<Shard> it = shards.iterator(); it.hasNext(); ) {
+            Shard shard = it.next();
+            if (shard.desired.isEmpty()) {
+                logger.info("{} connection {} has no streams left; closing it.", exchangeName, shard.id);
+                it.remove();
+                shard.close();
+            } else if (shard.state == ConnectionState.CONNECTED) {
+                shard.sync();
+            } else if (shard.state == ConnectionState.DISCONNECTED && shard.pendingReconnect == null) {
+                shard.connect();
+            }
+            // A connecting shard is synced once it opens; a disconnected one when it reconnects.
+        }
+        updateReportedState();
+    }
+
+    private void updateReportedState() {
+        ConnectionState worst = shards.isEmpty() ? ConnectionState.DISCONNECTED : ConnectionState.CONNECTED;
+        for (Shard shard : shards) {
+            if (shard.state.ordinal() > worst.ordinal()) worst = shard.state;
+        }
+        if (worst != reportedState) {
+            ConnectionState oldState = reportedState;
+            ConnectionState newState = worst;
+            reportedState = newState;
+            // Listeners take their own locks, so they are never called while holding this one.
+            runOutsideLock(() -> pcs.firePropertyChange("connectionStateChanged", oldState, newState));
+        }
+    }
+
+    private void runOutsideLock(Runnable task) {
+        try {
+            reconnectScheduler.execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.debug("{} client is shut down; dropping a listener notification.", exchangeName);
+        }
+    }
+
+    /**
+     * A control message awaiting its answer, with the streams not yet confirmed.
+     */
+    private record Request(boolean subscribe, Set<String> streams) {}
+
+    /**
+     * One connection and the streams assigned to it. All state is guarded by the client.
+     */
+    private final class Shard {
+        private final int id;
+        private final Set<String> desired = new LinkedHashSet<>();
+        // What the server has been asked to send on the current connection and has not refused.
+        private final Set<String> live = new HashSet<>();
+        // Control messages sent on the current connection that are not answered yet, by request id.
+        private final Map<Long, Request> unanswered = new HashMap<>();
+        private ConnectionState state = ConnectionState.DISCONNECTED;
+        private WebSocketClient socket;
+        private ScheduledFuture<?> pendingReconnect;
+        private ScheduledFuture<?> pingTask;
+        private long reconnectDelayMs = INITIAL_RECONNECT_DELAY_MS;
+        private boolean closing = false;
+        private boolean wasUnintentionalDisconnect = false;
+        private volatile long pingSentTimeNs = 0;
+
+        Shard(int id) {
+            this.id = id;
+        }
+
+        void connect() {
+            pendingReconnect = null;
+            if (closing || shutDown || state == ConnectionState.CONNECTED || state == ConnectionState.CONNECTING) return;
+            if (desired.isEmpty()) return;
+
+            Set<String> initialStreams = subscribesThroughUri() ? Set.copyOf(desired) : Set.of();
+            try {
+                URI serverUri = connectionUri(initialStreams);
+                logger.info("{} connection {} connecting with {} streams.", exchangeName, id, desired.size());
+                WebSocketClient client = new WebSocketClient(serverUri, createDraft()) {
+                    @Override
+                    public void onOpen(ServerHandshake h) {
+                        onSocketOpen(this, initialStreams);
+                    }
+
+                    @Override
+                    public void onMessage(String msg) {
+                        onSocketMessage(this, msg);
+                    }
+
+                    @Override
+                    public void onClose(int code, String reason, boolean remote) {
+                        onSocketClose(this, code, reason, remote);
+                    }
+
+                    @Override
+                    public void onError(Exception ex) {
+                        logger.error("{} WebSocket error occurred on connection {}.", exchangeName, id, ex);
+                    }
+
+                    @Override
+                    public void onWebsocketPong(WebSocket conn, Framedata f) {
+                        onPong();
+                    }
+                };
+                socket = client;
+                setState(ConnectionState.CONNECTING);
+                client.connect();
+            } catch (Exception e) {
+                logger.error("Invalid {} WebSocket URI or connection failed.", exchangeName, e);
+                socket = null;
+                setState(ConnectionState.DISCONNECTED);
+            }
+        }
+
+        /**
+         * Brings the server's subscriptions on this connection in line with {@link #desired}.
+         */
+        void sync() {
+            List<String> toRemove = new ArrayList<>();
+            for (String stream : live) {
+                if (!desired.contains(stream)) toRemove.add(stream);
+            }
+            List<String> toAdd = new ArrayList<>();
+            for (String stream : desired) {
+                if (!live.contains(stream)) toAdd.add(stream);
+            }
+            try {
+                if (!toRemove.isEmpty()) {
+                    send(false, toRemove);
+                    toRemove.forEach(live::remove);
+                }
+                if (!toAdd.isEmpty()) {
+                    send(true, toAdd);
+                    live.addAll(toAdd);
+                }
+            } catch (WebsocketNotConnectedException e) {
+                // The close callback follows; the streams are resubscribed on reconnect.
+                logger.warn("{} connection {} closed while updating its subscriptions.", exchangeName, id);
+                return;
+            }
+            if (!toAdd.isEmpty() || !toRemove.isEmpty()) {
+                logger.info("{} connection {}: subscribed {}, unsubscribed {}.", exchangeName, id, toAdd, toRemove);
+            }
+        }
+
+        private void send(boolean subscribe, List<String> streams) {
+            long requestId = ++nextRequestId;
+            WebSocketClient client = socket;
+            client.send(controlMessage(subscribe, streams, requestId));
+            unanswered.put(requestId, new Request(subscribe, new LinkedHashSet<>(streams)));
+            try {
+                reconnectScheduler.schedule(() -> onReplyTimeout(client, requestId), REPLY_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                logger.debug("{} client is shut down; not waiting for the answer to request {}.", exchangeName, requestId);
+            }
+        }
+
+        void close() {
+            closing = true;
+            if (pendingReconnect != null) pendingReconnect.cancel(false);
+            stopPingTimer();
+            if (socket != null) {
+                setState(ConnectionState.CLOSING);
+                socket.close();
+            }
+        }
+
+        private void onSocketOpen(WebSocketClient client, Set<String> initialStreams) {
+            boolean reconnected;
+            Set<String> streams;
+            synchronized (ShardedWebSocketClient.this) {
+                if (client != socket) return;
+                logger.info("{} WebSocket connection {} established.", exchangeName, id);
+                setState(ConnectionState.CONNECTED);
+                reconnectDelayMs = INITIAL_RECONNECT_DELAY_MS;
+                live.clear();
+                live.addAll(initialStreams);
+                unanswered.clear();
+                startPingTimer(client);
+                reconnected = wasUnintentionalDisconnect;
+                wasUnintentionalDisconnect = false;
+                streams = Set.copyOf(desired);
+                sync();
+            }
+            BiConsumer<String, Set<String>> handler = reconnectHandler;
+            if (reconnected && handler != null) {
+                logger.info("Detected reconnect of {} connection {} after unintentional disconnect. Triggering handler for its {} streams.",
+                        exchangeName, id, streams.size());
+                runOutsideLock(() -> handler.accept(exchangeName, streams));
+            }
+        }
+
+        private void onSocketMessage(WebSocketClient client, String msg) {
+            if (isPong(msg)) {
+                onPong();
+                return;
+            }
+            ControlReply reply = parseControlReply(msg);
+            if (reply != null) {
+                onControlReply(client, reply);
+                return;
+            }
+            Consumer<String> handler = messageHandler;
+            if (handler != null) {
+                handler.accept(msg);
+            }
+        }
+
+        private void onSocketClose(WebSocketClient client, int code, String reason, boolean remote) {
+            synchronized (ShardedWebSocketClient.this) {
+                if (client != socket) return;
+                logger.warn("{} WebSocket connection {} closed. Code: {}, Reason: {}, Remote: {}", exchangeName, id, code, reason, remote);
+                socket = null;
+                live.clear();
+                unanswered.clear();
+                stopPingTimer();
+                setState(ConnectionState.DISCONNECTED);
+                if (closing || shutDown) {
+                    logger.info("Intentional disconnect. No reconnect scheduled.");
+                    return;
+                }
+                wasUnintentionalDisconnect = true;
+                scheduleReconnect();
+            }
+        }
+
+        private void onControlReply(WebSocketClient client, ControlReply reply) {
+            synchronized (ShardedWebSocketClient.this) {
+                if (client != socket) return;
+                Request request = unanswered.get(reply.requestId());
+                if (request == null) {
+                    logger.debug("{} connection {}: answer to unknown or expired request {}.", exchangeName, id, reply.requestId());
+                    return;
+                }
+                if (reply.error() != null) {
+                    unanswered.remove(reply.requestId());
+                    onRejected(request, reply.error());
+                } else if (reply.stream() == null || (request.streams().remove(reply.stream()) && request.streams().isEmpty())) {
+                    unanswered.remove(reply.requestId());
+                }
+            }
+        }
+
+        /**
+         * A refused subscription drops its streams, which are subscribed again the next time
+         * they are requested. A refused unsubscription is retried on the next flush.
+         */
+        private void onRejected(Request request, String error) {
+            if (!request.subscribe()) {
+                logger.warn("{} connection {} refused to unsubscribe {}: {}", exchangeName, id, request.streams(), error);
+                for (String stream : request.streams()) {
+                    if (!desired.contains(stream)) live.add(stream);
+                }
+                return;
+            }
+            logger.error("{} connection {} refused the subscription to {}: {}", exchangeName, id, request.streams(), error);
+            Set<String> rejected = Set.copyOf(request.streams());
+            for (String stream : rejected) {
+                live.remove(stream);
+                desired.remove(stream);
+                shardByStream.remove(stream, this);
+            }
+            scheduleFlush(); // Closes the connection if nothing is left on it.
+            runOutsideLock(() -> pcs.firePropertyChange("subscriptionRejected", null, rejected));
+        }
+
+        private void onReplyTimeout(WebSocketClient client, long requestId) {
+            synchronized (ShardedWebSocketClient.this) {
+                if (client != socket) return;
+                Request request = unanswered.remove(requestId);
+                if (request == null) return;
+                logger.warn("{} connection {}: no answer within {} ms to the {} of {}.", exchangeName, id, REPLY_TIMEOUT_MS,
+                        request.subscribe() ? "subscription" : "unsubscription", request.streams());
+            }
+        }
+
+        private void onPong() {
+            long sentNs = pingSentTimeNs;
+            if (sentNs > 0) {
+                long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentNs);
+                logger.trace("Received {} pong on connection {}. Latency: {} ms", exchangeName, id, latencyMs);
+                pcs.firePropertyChange("latencyMeasured", null, latencyMs);
+                pingSentTimeNs = 0; // Reset
+            }
+        }
+
+        private void scheduleReconnect() {
+            if (pendingReconnect != null || closing || shutDown) return;
+            long currentDelay = reconnectDelayMs;
+            logger.info("Scheduling {} WebSocket reconnect of connection {} in {} ms.", exchangeName, id, currentDelay);
+            try {
+                pendingReconnect = reconnectScheduler.schedule(() -> {
+                    synchronized (ShardedWebSocketClient.this) {
+                        connect();
+                    }
+                }, currentDelay, TimeUnit.MILLISECONDS);
+                reconnectDelayMs = Math.min(currentDelay * 2, MAX_RECONNECT_DELAY_MS);
+            } catch (RejectedExecutionException e) {
+                logger.warn("{} reconnect scheduling failed. Scheduler may be shutting down.", exchangeName);
+            }
+        }
+
+        private void setState(ConnectionState newState) {
+            state = newState;
+            if (shards.contains(this)) {
+                updateReportedState();
+            }
+        }
+
+        private void startPingTimer(WebSocketClient client) {
+            stopPingTimer();
+            try {
+                pingTask = pingScheduler.scheduleAtFixedRate(() -> {
+                    if (client.isOpen()) {
+                        pingSentTimeNs = System.nanoTime();
+                        sendPing(client);
+                        logger.trace("Sent {} WebSocket ping on connection {}.", exchangeName, id);
+                    }
+                }, PING_INTERVAL_SECONDS, PING_INTERVAL_SECONDS, TimeUnit.SECONDS);
+            } catch (RejectedExecutionException e) {
+                logger.warn("{} ping scheduling failed. Scheduler may be shutting down.", exchangeName);
+            }
+        }
+
+        private void stopPingTimer() {
+            if (pingTask != null) {
+                pingTask.cancel(true);
+                pingTask = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package com.EcoChartPro.data.provider;
+
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.model.TradeTick;
+import com.EcoChartPro.utils.FixedPointDecimal;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * Decodes Binance and OKX stream messages straight from the frame text. Fields are located
+ * by a single forward scan and kept as offsets into the message; only the fields a bar or
+ * trade needs are converted, so no JSON tree, intermediate strings or formatted stream
+ * keys are allocated per message. Stream names are looked up in the {@link StreamNameTable}
+ * of the subscribed streams, which returns the subscribed name itself; the rest of a message
+ * of a stream nobody subscribes to is not decoded.
+ * <p>
+ * Malformed messages throw {@link IllegalArgumentException}. Not thread-safe; use one
+ * decoder per socket thread.
+ */
+public final class StreamMessageDecoder {
+
+    /**
+     * Receives the bars and trades of a message, in message order.
+     */
+    public interface Sink {
+        void onKLine(String streamName, KLine kline);
+
+        void onTrade(String streamName, TradeTick trade);
+    }
+
+    private final Supplier<StreamNameTable> subscribedStreams;
+
+    // Scan state for the message being decoded.
+    private String json;
+    private int pos;
+    private int keyStart, keyEnd;
+    private int valueStart, valueEnd;
+
+    // Field holders, as [start, end) offsets into the message.
+    private final int[] open = new int[2], high = new int[2], low = new int[2], close = new int[2], volume = new int[2];
+    private final int[] price = new int[2], quantity = new int[2], side = new int[2];
+    private int eventStart, eventEnd;
+    private long eventTime;
+    private long klineOpenTime;
+    private boolean hasKLine;
+    private boolean buyerIsMaker;
+
+    /**
+     * @param subscribedStreams The streams to decode, read once per message so that it may
+     *                          be replaced while the socket thread runs.
+     */
+    public StreamMessageDecoder(Supplier<StreamNameTable> subscribedStreams) {
+        this.subscribedStreams = subscribedStreams;
+    }
+
+    /**
+     * Decodes a combined-stream message ({@code {"stream": ..., "data": ...}}).
+     *
+     * @return False if the message is not a kline or trade event, e.g. a subscription reply,
+     *         or belongs to a stream that is not subscribed.
+     */
+    public boolean decodeBinance(String message, Sink sink) {
+        begin(message);
+        StreamNameTable streams = subscribedStreams.get();
+        String streamName = null;
+        boolean hasStream = false, hasData = false;
+        expect('{');
+        while (nextKey()) {
+            if (keyIs("stream")) {
+                readString();
+                streamName = streams.find(json, valueStart, valueEnd);
+                if (streamName == null) return false; // Nobody subscribes to it.
+                hasStream = true;
+            } else if (keyIs("data")) {
+                readBinanceEvent();
+                hasData = true;
+            } else {
+                skipValue();
+            }
+        }
+        if (!hasStream || !hasData) return false;
+
+        if (regionIs(eventStart, eventEnd, "kline") && hasKLine) {
+            sink.onKLine(streamName, new KLine(Instant.ofEpochMilli(klineOpenTime),
+                    decimal(open), decimal(high), decimal(low), decimal(close), decimal(volume)));
+            return true;
+        }
+        if (regionIs(eventStart, eventEnd, "trade")) {
+            sink.onTrade(streamName, new TradeTick(Instant.ofEpochMilli(eventTime),
+                    decimal(price), decimal(quantity), buyerIsMaker ? TradeTick.SELL : TradeTick.BUY));
+            return true;
+        }
+        return false;
+    }
+
+    /** Reads the fields of a kline or trade event into the holders. */
+    private void readBinanceEvent() {
+        expect('{');
+        while (nextKey()) {
+            if (keyIs('e')) {
+                readString();
+                eventStart = valueStart;
+                eventEnd = valueEnd;
+            } else if (keyIs('k')) {
+                hasKLine = true;
+                expect('{');
+                while (nextKey()) {
+                    if (keyIs('t')) klineOpenTime = readLong();
+                    else if (keyIs('o')) readInto(open);
+                    else if (keyIs('h')) readInto(high);
+                    else if (keyIs('l')) readInto(low);
+                    else if (keyIs('c')) readInto(close);
+                    else if (keyIs('v')) readInto(volume);
+                    else skipValue();
+                }
+            } else if (keyIs('T')) {
+                eventTime = readLong();
+            } else if (keyIs('p')) {
+                readInto(price);
+            } else if (keyIs('q')) {
+                readInto(quantity);
+            } else if (keyIs('m')) {
+                buyerIsMaker = readBoolean();
+            } else {
+                skipValue();
+            }
+        }
+    }
+
+    /**
+     * Decodes a push message ({@code {"arg": {"channel": ..., "instId": ...}, "data": [...]}}).
+     * The stream name is {@code channel:instId}.
+     *
+     * @return False if the message is an event (e.g. a subscription reply), another channel,
+     *         or belongs to a stream that is not subscribed.
+     */
+    public boolean decodeOkx(String message, Sink sink) {
+        begin(message);
+        int channelStart = -1, channelEnd = -1, instStart = -1, instEnd = -1, dataStart = -1;
+        expect('{');
+        while (nextKey()) {
+            if (keyIs("event")) {
+                return false;
+            } else if (keyIs("arg")) {
+                expect('{');
+                while (nextKey()) {
+                    if (keyIs("channel")) {
+                        readString();
+                        channelStart = valueStart;
+                        channelEnd = valueEnd;
+                    } else if (keyIs("instId")) {
+                        readString();
+                        instStart = valueStart;
+                        instEnd = valueEnd;
+                    } else {
+                        skipValue();
+                    }
+                }
+            } else if (keyIs("data")) {
+                dataStart = pos;
+                if (channelStart >= 0 && instStart >= 0) {
+                    // The usual order: the channel is known, so the data is decoded in this pass.
+                    return readOkxData(channelStart, channelEnd, instStart, instEnd, sink);
+                }
+                skipValue();
+            } else {
+                skipValue();
+            }
+        }
+        if (channelStart < 0 || instStart < 0 || dataStart < 0) return false;
+        pos = dataStart;
+        return readOkxData(channelStart, channelEnd, instStart, instEnd, sink);
+    }
+
+    private boolean readOkxData(int channelStart, int channelEnd, int instStart, int instEnd, Sink sink) {
+        boolean candles = json.startsWith("candle", channelStart);
+        if (!candles && !regionIs(channelStart, channelEnd, "trades")) return false;
+        String streamName = subscribedStreams.get().find(json, channelStart, channelEnd, ':', instStart, instEnd);
+        if (streamName == null) return false; // Nobody subscribes to it.
+
+        expect('[');
+        while (nextElement(']')) {
+            if (candles) {
+                long openTime = 0;
+                expect('[');
+                for (int field = 0; nextElement(']'); field++) {
+                    switch (field) {
+                        case 0 -> openTime = readLong();
+                        case 1 -> readInto(open);
+                        case 2 -> readInto(high);
+                        case 3 -> readInto(low);
+                        case 4 -> readInto(close);
+                        case 5 -> readInto(volume);
+                        default -> skipValue();
+                    }
+                }
+                sink.onKLine(streamName, new KLine(Instant.ofEpochMilli(openTime),
+                        decimal(open), decimal(high), decimal(low), decimal(close), decimal(volume)));
+            } else {
+                long tradeTime = 0;
+                expect('{');
+                while (nextKey()) {
+                    if (keyIs("ts")) tradeTime = readLong();
+                    else if (keyIs("px")) readInto(price);
+                    else if (keyIs("sz")) readInto(quantity);
+                    else if (keyIs("side")) readInto(side);
+                    else skipValue();
+                }
+                sink.onTrade(streamName, new TradeTick(Instant.ofEpochMilli(tradeTime),
+                        decimal(price), decimal(quantity), side(side)));
+            }
+        }
+        return true;
+    }
+
+    // --- Scanning ---
+
+    private void begin(String message) {
+        json = message;
+        pos = 0;
+        clear(open); clear(high); clear(low); clear(close); clear(volume);
+        clear(price); clear(quantity); clear(side);
+        eventStart = eventEnd = -1;
+        eventTime = klineOpenTime = 0;
+        hasKLine = false;
+        buyerIsMaker = false;
+    }
+
+    private static void clear(int[] range) {
+        range[0] = range[1] = -1;
+    }
+
+    /**
+     * Advances to the next key of the current object and past its colon.
+     *
+     * @return False once the object's closing brace has been consumed.
+     */
+    private boolean nextKey() {
+        if (!nextElement('}')) return false;
+        readString();
+        keyStart = valueStart;
+        keyEnd = valueEnd;
+        expect(':');
+        return true;
+    }
+
+    /**
+     * Advances to the next element of the current object or array.
+     *
+     * @return False once the closing character has been consumed.
+     */
+    private boolean nextElement(char closing) {
+        skipWhitespace();
+        char c = peek();
+        if (c == closing) {
+            pos++;
+            return false;
+        }
+        if (c == ',') {
+            pos++;
+            skipWhitespace();
+        }
+        return true;
+    }
+
+    private boolean keyIs(char key) {
+        return keyEnd - keyStart == 1 && json.charAt(keyStart) == key;
+    }
+
+    private boolean keyIs(String key) {
+        return regionIs(keyStart, keyEnd, key);
+    }
+
+    private boolean regionIs(int start, int end, String expected) {
+        return end - start == expected.length() && json.startsWith(expected, start);
+    }
+
+    /** Reads a string value into [valueStart, valueEnd), without its quotes. Escapes are left as they are. */
+    private void readString() {
+        skipWhitespace();
+        expect('"');
+        valueStart = pos;
+        int length = json.length();
+        while (pos < length) {
+            char c = json.charAt(pos);
+            if (c == '"') {
+                valueEnd = pos++;
+                return;
+            }
+            pos += c == '\\' ? 2 : 1;
+        }
+        throw malformed("unterminated string");
+    }
+
+    /** Reads a string or bare number value into the holder. */
+    private void readInto(int[] range) {
+        skipWhitespace();
+        if (peek() == '"') {
+            readString();
+        } else {
+            valueStart = pos;
+            skipScalar();
+            valueEnd = pos;
+        }
+        range[0] = valueStart;
+        range[1] = valueEnd;
+    }
+
+    private long readLong() {
+        skipWhitespace();
+        boolean quoted = peek() == '"';
+        if (quoted) pos++;
+        int start = pos;
+        boolean negative = peek() == '-';
+        if (negative) pos++;
+        long value = 0;
+        int length = json.length();
+        while (pos < length) {
+            char c = json.charAt(pos);
+            if (c < '0' || c > '9') break;
+            value = value * 10 + (c - '0');
+            pos++;
+        }
+        if (pos == start + (negative ? 1 : 0)) throw malformed("number expected");
+        if (quoted) expect('"');
+        return negative ? -value : value;
+    }
+
+    private boolean readBoolean() {
+        skipWhitespace();
+        if (json.startsWith("true", pos)) {
+            pos += 4;
+            return true;
+        }
+        if (json.startsWith("false", pos)) {
+            pos += 5;
+            return false;
+        }
+        throw malformed("boolean expected");
+    }
+
+    private void skipValue() {
+        skipWhitespace();
+        char c = peek();
+        if (c == '"') {
+            readString();
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            int length = json.length();
+            while (pos < length) {
+                char ch = json.charAt(pos);
+                if (ch == '"') {
+                    readString();
+                    continue;
+                }
+                pos++;
+                if (ch == '{' || ch == '[') {
+                    depth++;
+                } else if ((ch == '}' || ch == ']') && --depth == 0) {
+                    return;
+                }
+            }
+            throw malformed("unterminated container");
+        } else {
+            skipScalar();
+        }
+    }
+
+    private void skipScalar() {
+        int length = json.length();
+        while (pos < length) {
+            char c = json.charAt(pos);
+            if (c == ',' || c == '}' || c == ']' || c <= ' ') return;
+            pos++;
+        }
+    }
+
+    private void skipWhitespace() {
+        int length = json.length();
+        while (pos < length && json.charAt(pos) <= ' ') pos++;
+    }
+
+    private char peek() {
+        if (pos >= json.length()) throw malformed("unexpected end of message");
+        return json.charAt(pos);
+    }
+
+    private void expect(char c) {
+        skipWhitespace();
+        if (peek() != c) throw malformed("'" + c + "' expected");
+        pos++;
+    }
+
+    private IllegalArgumentException malformed(String problem) {
+        return new IllegalArgumentException("Malformed stream message at " + pos + ": " + problem);
+    }
+
+    // --- Conversion ---
+
+    private BigDecimal decimal(int[] range) {
+        if (range[0] < 0) throw malformed("missing price or quantity field");
+        return FixedPointDecimal.parse(json, range[0], range[1]);
+    }
+
+    private String side(int[] range) {
+        if (regionIs(range[0], range[1], TradeTick.BUY)) return TradeTick.BUY;
+        if (regionIs(range[0], range[1], TradeTick.SELL)) return TradeTick.SELL;
+        if (range[0] < 0) throw malformed("missing side field");
+        return json.substring(range[0], range[1]);
+    }
+}
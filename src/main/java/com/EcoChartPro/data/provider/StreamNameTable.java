@@ -0,0 +1,90 @@
+package com.EcoChartPro.data.provider;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An immutable set of stream names that can be looked up by a region of a message, so that
+ * a decoder finds the subscribed name of a stream without building a string for it. Names
+ * are hashed like {@link String#hashCode} and kept in an open-addressing table at most half
+ * full, so a lookup costs one hash of the region and, usually, one comparison.
+ */
+public final class StreamNameTable {
+
+    public static final StreamNameTable EMPTY = of(List.of());
+
+    private final String[] names;
+    private final int[] hashes;
+    private final int mask;
+    private final int size;
+
+    private StreamNameTable(Collection<String> streamNames) {
+        int capacity = Integer.highestOneBit(Math.max(1, streamNames.size()) * 2 - 1) << 1;
+        this.names = new String[capacity];
+        this.hashes = new int[capacity];
+        this.mask = capacity - 1;
+        int count = 0;
+        for (String name : streamNames) {
+            int hash = name.hashCode();
+            int slot = hash & mask;
+            while (names[slot] != null && !names[slot].equals(name)) {
+                slot = (slot + 1) & mask;
+            }
+            if (names[slot] == null) count++;
+            names[slot] = name;
+            hashes[slot] = hash;
+        }
+        this.size = count;
+    }
+
+    public static StreamNameTable of(Collection<String> streamNames) {
+        return new StreamNameTable(streamNames);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The name equal to {@code text[start, end)}, or null if it is not in the table.
+     */
+    public String find(String text, int start, int end) {
+        int hash = hash(0, text, start, end);
+        int length = end - start;
+        for (int slot = hash & mask; names[slot] != null; slot = (slot + 1) & mask) {
+            String name = names[slot];
+            if (hashes[slot] == hash && name.length() == length && name.regionMatches(0, text, start, length)) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The name equal to {@code text[start1, end1) + separator + text[start2, end2)},
+     *         or null if it is not in the table.
+     */
+    public String find(String text, int start1, int end1, char separator, int start2, int end2) {
+        int hash = hash(31 * hash(0, text, start1, end1) + separator, text, start2, end2);
+        int length1 = end1 - start1;
+        int length2 = end2 - start2;
+        for (int slot = hash & mask; names[slot] != null; slot = (slot + 1) & mask) {
+            String name = names[slot];
+            if (hashes[slot] == hash && name.length() == length1 + 1 + length2
+                    && name.charAt(length1) == separator
+                    && name.regionMatches(0, text, start1, length1)
+                    && name.regionMatches(length1 + 1, text, start2, length2)) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    // Continues a String.hashCode() computation over text[start, end).
+    private static int hash(int hash, String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,177 @@
+package com.EcoChartPro.data.store;
+
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.model.Symbol;
+import com.EcoChartPro.utils.DatabaseManager;
+import com.EcoChartPro.utils.DatabaseManager.DataRange;
+import com.EcoChartPro.utils.DatabaseManager.DatasetInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * A {@link KLineStore} that keeps every (symbol, timeframe) series in its own
+ * directory of fixed-point {@code long} columns (see {@link ColumnarSeries}).
+ * <p>
+ * Layout: {@code <root>/<symbol>/<timeframe>/}. Path segments are encoded so that
+ * timeframes differing only in case (e.g. "1m" and "1M") stay distinct on
+ * case-insensitive file systems.
+ */
+public final class ColumnarKLineStore implements KLineStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarKLineStore.class);
+
+    private final Path rootDirectory;
+    private final Map<String, ColumnarSeries> seriesByKey = new ConcurrentHashMap<>();
+
+    public ColumnarKLineStore(Path rootDirectory) {
+        this.rootDirectory = rootDirectory;
+    }
+
+    public Path getRootDirectory() {
+        return rootDirectory;
+    }
+
+    @Override
+    public List<DatasetInfo> getAvailableDatasets() {
+        List<DatasetInfo> datasets = new ArrayList<>();
+        if (Files.notExists(rootDirectory)) return datasets;
+        try (Stream<Path> paths = Files.walk(rootDirectory, 3)) {
+            paths.filter(p -> p.getFileName().toString().equals(ColumnarSeries.META_FILE))
+                 .forEach(metaPath -> {
+                     try {
+                         ColumnarSeries.SeriesMeta meta = ColumnarSeries.readMeta(metaPath.getParent());
+                         if (!DatabaseManager.isRollupKey(meta.timeframe())) {
+                             datasets.add(new DatasetInfo(meta.symbol(), meta.timeframe()));
+                         }
+                     } catch (IOException e) {
+                         logger.warn("Skipping unreadable columnar series at {}", metaPath.getParent(), e);
+                     }
+                 });
+        } catch (IOException e) {
+            logger.error("Failed to scan columnar store at {}", rootDirectory, e);
+        }
+        datasets.sort(Comparator.comparing(DatasetInfo::symbol).thenComparing(DatasetInfo::timeframe));
+        return datasets;
+    }
+
+    @Override
+    public Optional<DataRange> getDataRange(Symbol symbol, String timeframe) {
+        try {
+            long[] range = series(symbol, timeframe).range();
+            if (range == null) return Optional.empty();
+            return Optional.of(new DataRange(Instant.ofEpochSecond(range[0]), Instant.ofEpochSecond(range[1])));
+        } catch (IOException e) {
+            logger.error("Failed to retrieve data range for {} ({}).", symbol.name(), timeframe, e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public int getTotalKLineCount(Symbol symbol, String timeframe) {
+        try {
+            return series(symbol, timeframe).size();
+        } catch (IOException e) {
+            logger.error("Failed to get K-line count for {} ({}).", symbol.name(), timeframe, e);
+            return 0;
+        }
+    }
+
+    @Override
+    public int findClosestTimestampIndex(Symbol symbol, String timeframe, Instant targetTime) {
+        try {
+            return series(symbol, timeframe).findClosestIndex(targetTime.getEpochSecond());
+        } catch (IOException e) {
+            logger.error("Failed to find closest timestamp for {} ({})", symbol.name(), timeframe, e);
+            return 0;
+        }
+    }
+
+    @Override
+    public List<KLine> getKLinesByIndex(Symbol symbol, String timeframe, int offset, int limit) {
+        try {
+            return series(symbol, timeframe).read(offset, limit);
+        } catch (IOException e) {
+            logger.error("Failed to retrieve K-lines by index for {} ({}).", symbol.name(), timeframe, e);
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public List<KLine> getKLinesStartingFrom(Symbol symbol, String timeframe, long startTimestampSec, int limit) {
+        try {
+            return series(symbol, timeframe).readFrom(startTimestampSec, limit);
+        } catch (IOException e) {
+            logger.error("Failed to retrieve K-lines by start timestamp for {} ({}).", symbol.name(), timeframe, e);
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public List<KLine> getKLinesBetween(Symbol symbol, String timeframe, Instant startTime, Instant endTime) {
+        try {
+            return series(symbol, timeframe).readBetween(startTime.getEpochSecond(), endTime.getEpochSecond());
+        } catch (IOException e) {
+            logger.error("Failed to retrieve K-lines between timestamps for {} ({}).", symbol.name(), timeframe, e);
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> saveKLines(List<KLine> klines, Symbol symbol, String timeframe) {
+        try {
+            series(symbol, timeframe).write(klines);
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException | ArithmeticException e) {
+            logger.error("Failed to save {} K-lines for {} ({}).", klines.size(), symbol.name(), timeframe, e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Releases all open file handles. The store stays usable: series re-open
+     * lazily on their next access, so a store shared between components can be
+     * closed by any of them without breaking the others.
+     */
+    @Override
+    public void close() {
+        seriesByKey.values().forEach(ColumnarSeries::close);
+    }
+
+    private ColumnarSeries series(Symbol symbol, String timeframe) {
+        return seriesByKey.computeIfAbsent(symbol.name() + "|" + timeframe, k -> new ColumnarSeries(
+                rootDirectory.resolve(encodePathSegment(symbol.name())).resolve(encodePathSegment(timeframe)),
+                symbol.name(), timeframe));
+    }
+
+    /**
+     * Encodes a symbol or timeframe as a portable, case-insensitive-safe directory name.
+     * Lowercase letters, digits, '-' and '.' are kept; uppercase letters become
+     * '_' + lowercase; anything else becomes '%' + four hex digits.
+     */
+    static String encodePathSegment(String raw) {
+        StringBuilder sb = new StringBuilder(raw.length() + 4);
+        for (char ch : raw.toCharArray()) {
+            if ((ch >= 'a' && ch <= 'z') || (ch >= '0' && ch <= '9') || ch == '-' || ch == '.') {
+                sb.append(ch);
+            } else if (ch >= 'A' && ch <= 'Z') {
+                sb.append('_').append(Character.toLowerCase(ch));
+            } else {
+                sb.append('%').append(String.format("%04X", (int) ch));
+            }
+        }
+        return sb.toString();
+    }
+}
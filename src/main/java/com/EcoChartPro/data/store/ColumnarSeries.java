@@ -0,0 +1,648 @@
+package com.EcoChartPro.data.store;
+
+import com.EcoChartPro.model.KLine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * A single (symbol, timeframe) series in the columnar K-line format.
+ * <p>
+ * Each field lives in its own file of big-endian {@code long}s, so a window of N
+ * bars is six contiguous positional reads and decoding a bar never touches a string:
+ * <ul>
+ *   <li>{@code ts.col} - epoch seconds, strictly ascending.</li>
+ *   <li>{@code open/high/low/close.col} - price * 10^priceScale.</li>
+ *   <li>{@code volume.col} - volume * 10^volumeScale.</li>
+ *   <li>{@code ts.idx} - every {@code indexStride}-th timestamp, used to seek by time.</li>
+ *   <li>{@code meta.bin} - magic, version, scales, stride, symbol, timeframe and generation.</li>
+ * </ul>
+ * The column and index files live in a generation directory {@code g<N>/} next to
+ * {@code meta.bin}, which names the current generation. Series written before generations
+ * existed (version 1) keep their files in the series directory itself.
+ * <p>
+ * Appends write the value columns before the timestamp column; on open the row count
+ * is taken from the shortest column, so a torn append is simply truncated away.
+ * Writes that do not fit the append/overwrite-in-place fast path (out-of-order inserts
+ * or a scale increase) write a complete new generation, fsync it, and then atomically
+ * replace {@code meta.bin} to point at it. That replacement is the only commit point: a
+ * crash before it leaves the old generation current, and an abandoned generation
+ * directory is removed on the next open. Scales only ever grow, so stored values are
+ * never rounded.
+ */
+final class ColumnarSeries {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarSeries.class);
+
+    static final String META_FILE = "meta.bin";
+    private static final String INDEX_FILE = "ts.idx";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int MAGIC = 0x45434B4C; // "ECKL"
+    private static final int VERSION = 2;
+    private static final int LEGACY_VERSION = 1;
+    private static final String GENERATION_PREFIX = "g";
+    private static final int DEFAULT_INDEX_STRIDE = 1024;
+    private static final int MAX_SCALE = 12;
+    // A long holds 18 full decimal digits; integer digits + scale must stay within that.
+    private static final int MAX_FIXED_POINT_DIGITS = 18;
+    private static final int IO_CHUNK_LONGS = 65_536;
+
+    private static final int TS = 0, OPEN = 1, HIGH = 2, LOW = 3, CLOSE = 4, VOLUME = 5;
+    private static final String[] COLUMN_FILES = {"ts.col", "open.col", "high.col", "low.col", "close.col", "volume.col"};
+
+    /**
+     * @param generation The generation holding the data files; 0 for a version 1 series,
+     *                   whose files are in the series directory itself.
+     */
+    record SeriesMeta(String symbol, String timeframe, int priceScale, int volumeScale, int indexStride, long generation) {}
+
+    private final Path directory;
+    private final String symbol;
+    private final String timeframe;
+
+    private long generation;
+    // The directory of the current generation's column and index files.
+    private Path dataDirectory;
+
+    private final FileChannel[] channels = new FileChannel[COLUMN_FILES.length];
+    private boolean open = false;
+    private int priceScale;
+    private int volumeScale;
+    private int indexStride = DEFAULT_INDEX_STRIDE;
+    private int rowCount;
+    private long lastTimestamp;
+    private long[] sparseIndex = new long[0];
+
+    ColumnarSeries(Path directory, String symbol, String timeframe) {
+        this.directory = directory;
+        this.symbol = symbol;
+        this.timeframe = timeframe;
+    }
+
+    static SeriesMeta readMeta(Path seriesDirectory) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(seriesDirectory.resolve(META_FILE)))) {
+            int magic = in.readInt();
+            int version = in.readInt();
+            if (magic != MAGIC || (version != VERSION && version != LEGACY_VERSION)) {
+                throw new IOException("Unsupported columnar series header in " + seriesDirectory);
+            }
+            int priceScale = in.readInt();
+            int volumeScale = in.readInt();
+            int stride = in.readInt();
+            String symbol = in.readUTF();
+            String timeframe = in.readUTF();
+            long generation = version == LEGACY_VERSION ? 0 : in.readLong();
+            return new SeriesMeta(symbol, timeframe, priceScale, volumeScale, stride, generation);
+        }
+    }
+
+    // --- Read API ---
+
+    synchronized int size() throws IOException {
+        ensureOpen();
+        return rowCount;
+    }
+
+    /**
+     * @return {first, last} timestamps in epoch seconds, or null if the series is empty.
+     */
+    synchronized long[] range() throws IOException {
+        ensureOpen();
+        return rowCount == 0 ? null : new long[]{sparseIndex[0], lastTimestamp};
+    }
+
+    /**
+     * @return The index of the first bar at or after the target, or of the last bar if none is.
+     */
+    synchronized int findClosestIndex(long timestampSec) throws IOException {
+        ensureOpen();
+        if (rowCount == 0) return 0;
+        return Math.min(lowerBound(timestampSec), rowCount - 1);
+    }
+
+    synchronized List<KLine> read(int fromRow, int count) throws IOException {
+        ensureOpen();
+        return readRows(fromRow, count);
+    }
+
+    synchronized List<KLine> readFrom(long startTimestampSec, int limit) throws IOException {
+        ensureOpen();
+        return readRows(lowerBound(startTimestampSec), limit);
+    }
+
+    synchronized List<KLine> readBetween(long startTimestampSec, long endTimestampSec) throws IOException {
+        ensureOpen();
+        if (endTimestampSec < startTimestampSec) return new ArrayList<>();
+        int from = lowerBound(startTimestampSec);
+        int to = lowerBound(endTimestampSec + 1);
+        return readRows(from, to - from);
+    }
+
+    // --- Write API ---
+
+    synchronized void write(List<KLine> klines) throws IOException {
+        if (klines == null || klines.isEmpty()) return;
+        ensureOpen();
+
+        List<KLine> batch = sortAndDeduplicate(klines);
+        int targetPriceScale = targetScale(rowCount == 0 ? 0 : priceScale, batch, true);
+        int targetVolumeScale = targetScale(rowCount == 0 ? 0 : volumeScale, batch, false);
+        if (rowCount == 0 || targetPriceScale != priceScale || targetVolumeScale != volumeScale) {
+            rewrite(batch, targetPriceScale, targetVolumeScale);
+            return;
+        }
+
+        int firstAppend = batch.size();
+        int[] overwriteRows = new int[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            long ts = batch.get(i).timestamp().getEpochSecond();
+            if (ts > lastTimestamp) {
+                firstAppend = i;
+                break;
+            }
+            int row = lowerBound(ts);
+            if (row < rowCount && timestampAt(row) == ts) {
+                overwriteRows[i] = row;
+            } else {
+                // Out-of-order insert into the middle of the series.
+                rewrite(batch, priceScale, volumeScale);
+                return;
+            }
+        }
+
+        // Encoded before anything is written, so a value that does not fit fails the whole batch.
+        long[][] encoded = encodeAll(batch, priceScale, volumeScale);
+        for (int i = 0; i < firstAppend; i++) {
+            overwriteRow(overwriteRows[i], encoded, i);
+        }
+        if (firstAppend < batch.size()) {
+            appendRows(encoded, firstAppend);
+        }
+    }
+
+    /**
+     * Releases the file handles. The series re-opens itself on the next access.
+     */
+    synchronized void close() {
+        for (int i = 0; i < channels.length; i++) {
+            if (channels[i] != null) {
+                try {
+                    channels[i].close();
+                } catch (IOException e) {
+                    logger.warn("Failed to close column {} of {}", COLUMN_FILES[i], directory, e);
+                }
+                channels[i] = null;
+            }
+        }
+        open = false;
+    }
+
+    // --- Internals ---
+
+    private void ensureOpen() throws IOException {
+        if (open) return;
+
+        if (Files.notExists(directory.resolve(META_FILE))) {
+            // Nothing has been written yet. Files are created by the first rewrite.
+            rowCount = 0;
+            generation = 0;
+            dataDirectory = directory;
+            sparseIndex = new long[0];
+            open = true;
+            return;
+        }
+
+        SeriesMeta meta = readMeta(directory);
+        priceScale = meta.priceScale();
+        volumeScale = meta.volumeScale();
+        indexStride = meta.indexStride();
+        generation = meta.generation();
+        dataDirectory = generationDirectory(generation);
+        deleteStaleGenerations();
+
+        long shortest = Long.MAX_VALUE;
+        for (int i = 0; i < COLUMN_FILES.length; i++) {
+            channels[i] = FileChannel.open(dataDirectory.resolve(COLUMN_FILES[i]),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            shortest = Math.min(shortest, channels[i].size());
+        }
+        rowCount = (int) (shortest / Long.BYTES);
+        long validBytes = (long) rowCount * Long.BYTES;
+        for (FileChannel channel : channels) {
+            if (channel.size() > validBytes) {
+                logger.warn("Truncating incomplete append in columnar series {}", directory);
+                channel.truncate(validBytes);
+            }
+        }
+        open = true;
+
+        lastTimestamp = rowCount > 0 ? timestampAt(rowCount - 1) : 0;
+        loadSparseIndex();
+    }
+
+    private void loadSparseIndex() throws IOException {
+        int expected = (rowCount + indexStride - 1) / indexStride;
+        Path indexPath = dataDirectory.resolve(INDEX_FILE);
+        if (Files.exists(indexPath) && Files.size(indexPath) == (long) expected * Long.BYTES) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+            sparseIndex = new long[expected];
+            buffer.asLongBuffer().get(sparseIndex);
+            return;
+        }
+
+        sparseIndex = new long[expected];
+        for (int block = 0; block < expected; block++) {
+            sparseIndex[block] = timestampAt(block * indexStride);
+        }
+        writeLongs(indexPath, sparseIndex, false);
+        logger.info("Rebuilt sparse timestamp index for {} ({} entries).", directory, expected);
+    }
+
+    /**
+     * @return The index of the first bar whose timestamp is {@code >= timestampSec}, or rowCount.
+     */
+    private int lowerBound(long timestampSec) throws IOException {
+        if (rowCount == 0) return 0;
+
+        int lo = 0, hi = sparseIndex.length - 1, block = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sparseIndex[mid] <= timestampSec) {
+                block = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        if (block < 0) return 0;
+
+        int blockStart = block * indexStride;
+        if (sparseIndex[block] == timestampSec) return blockStart;
+
+        int blockLength = Math.min(indexStride, rowCount - blockStart);
+        long[] timestamps = readColumn(TS, blockStart, blockLength);
+        int position = Arrays.binarySearch(timestamps, timestampSec);
+        return blockStart + (position >= 0 ? position : -position - 1);
+    }
+
+    private long timestampAt(int row) throws IOException {
+        return readColumn(TS, row, 1)[0];
+    }
+
+    private List<KLine> readRows(int fromRow, int count) throws IOException {
+        int start = Math.max(0, fromRow);
+        int end = (int) Math.min(rowCount, (long) start + Math.max(0, count));
+        if (end <= start) return new ArrayList<>();
+
+        int n = end - start;
+        long[] ts = readColumn(TS, start, n);
+        long[] open = readColumn(OPEN, start, n);
+        long[] high = readColumn(HIGH, start, n);
+        long[] low = readColumn(LOW, start, n);
+        long[] close = readColumn(CLOSE, start, n);
+        long[] volume = readColumn(VOLUME, start, n);
+
+        List<KLine> klines = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            klines.add(new KLine(
+                Instant.ofEpochSecond(ts[i]),
+                BigDecimal.valueOf(open[i], priceScale),
+                BigDecimal.valueOf(high[i], priceScale),
+                BigDecimal.valueOf(low[i], priceScale),
+                BigDecimal.valueOf(close[i], priceScale),
+                BigDecimal.valueOf(volume[i], volumeScale)
+            ));
+        }
+        return klines;
+    }
+
+    private long[] readColumn(int column, int fromRow, int count) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(count * Long.BYTES);
+        long basePosition = (long) fromRow * Long.BYTES;
+        while (buffer.hasRemaining()) {
+            int read = channels[column].read(buffer, basePosition + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Unexpected end of column " + COLUMN_FILES[column] + " in " + directory);
+            }
+        }
+        buffer.flip();
+        long[] values = new long[count];
+        buffer.asLongBuffer().get(values);
+        return values;
+    }
+
+    private void overwriteRow(int row, long[][] encoded, int index) throws IOException {
+        long position = (long) row * Long.BYTES;
+        for (int c = 0; c < COLUMN_FILES.length; c++) {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(0, encoded[c][index]);
+            while (buffer.hasRemaining()) {
+                channels[c].write(buffer, position + buffer.position());
+            }
+        }
+    }
+
+    /**
+     * Appends the encoded rows from {@code from} to the end.
+     */
+    private void appendRows(long[][] encoded, int from) throws IOException {
+        long[][] columns = new long[COLUMN_FILES.length][];
+        for (int c = 0; c < COLUMN_FILES.length; c++) {
+            columns[c] = from == 0 ? encoded[c] : Arrays.copyOfRange(encoded[c], from, encoded[c].length);
+        }
+        int added = columns[TS].length;
+        // Timestamps go last: the shortest column decides the row count on the next open.
+        for (int c = OPEN; c <= VOLUME; c++) {
+            writeColumn(channels[c], rowCount, columns[c]);
+        }
+        writeColumn(channels[TS], rowCount, columns[TS]);
+
+        int previousCount = rowCount;
+        rowCount += added;
+        lastTimestamp = columns[TS][added - 1];
+
+        int expectedBlocks = (rowCount + indexStride - 1) / indexStride;
+        if (expectedBlocks > sparseIndex.length) {
+            long[] extended = Arrays.copyOf(sparseIndex, expectedBlocks);
+            for (int block = sparseIndex.length; block < expectedBlocks; block++) {
+                extended[block] = columns[TS][block * indexStride - previousCount];
+            }
+            sparseIndex = extended;
+            writeLongs(dataDirectory.resolve(INDEX_FILE), sparseIndex, false);
+        }
+    }
+
+    private void rewrite(List<KLine> batch, int newPriceScale, int newVolumeScale) throws IOException {
+        long[][] existing = new long[COLUMN_FILES.length][];
+        for (int c = 0; c < COLUMN_FILES.length; c++) {
+            existing[c] = rowCount > 0 ? readColumn(c, 0, rowCount) : new long[0];
+        }
+
+        if (rowCount > 0 && (newPriceScale != priceScale || newVolumeScale != volumeScale)) {
+            // Scales only grow (see targetScale), so this multiplies and never rounds.
+            try {
+                long[][] rescaled = existing.clone();
+                for (int c = OPEN; c <= CLOSE; c++) {
+                    rescaled[c] = rescale(existing[c], priceScale, newPriceScale);
+                }
+                rescaled[VOLUME] = rescale(existing[VOLUME], volumeScale, newVolumeScale);
+                existing = rescaled;
+            } catch (ArithmeticException e) {
+                logger.warn("Cannot change fixed-point scale of {} ({}) without overflow. Keeping price scale {} and volume scale {}.",
+                        symbol, timeframe, priceScale, volumeScale);
+                newPriceScale = priceScale;
+                newVolumeScale = volumeScale;
+            }
+        }
+
+        long[][] merged = merge(existing, encodeAll(batch, newPriceScale, newVolumeScale));
+        long[] newIndex = new long[(merged[TS].length + DEFAULT_INDEX_STRIDE - 1) / DEFAULT_INDEX_STRIDE];
+        for (int block = 0; block < newIndex.length; block++) {
+            newIndex[block] = merged[TS][block * DEFAULT_INDEX_STRIDE];
+        }
+
+        close();
+        long newGeneration = generation + 1;
+        Path newDirectory = generationDirectory(newGeneration);
+        deleteRecursively(newDirectory); // Left over from a rewrite that crashed before its commit.
+        Files.createDirectories(newDirectory);
+        for (int c = 0; c < COLUMN_FILES.length; c++) {
+            writeLongs(newDirectory.resolve(COLUMN_FILES[c]), merged[c], true);
+        }
+        writeLongs(newDirectory.resolve(INDEX_FILE), newIndex, true);
+        fsyncDirectory(newDirectory);
+
+        // The commit point: meta.bin now names the new generation.
+        Path metaTemp = directory.resolve(META_FILE + TEMP_SUFFIX);
+        writeMeta(metaTemp, newPriceScale, newVolumeScale, DEFAULT_INDEX_STRIDE, newGeneration);
+        Files.move(metaTemp, directory.resolve(META_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        fsyncDirectory(directory);
+
+        ensureOpen();
+        logger.info("Rewrote columnar series {} ({}) with {} bars (price scale {}, volume scale {}, generation {}).",
+                symbol, timeframe, rowCount, priceScale, volumeScale, generation);
+    }
+
+    private Path generationDirectory(long gen) {
+        return gen == 0 ? directory : directory.resolve(GENERATION_PREFIX + gen);
+    }
+
+    /**
+     * Removes every generation but the current one, and the files of a version 1 series
+     * once it has moved to a generation directory. Best effort: a failure is only logged.
+     */
+    private void deleteStaleGenerations() {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                boolean staleGeneration = Files.isDirectory(entry) && name.startsWith(GENERATION_PREFIX)
+                        && !entry.equals(dataDirectory);
+                boolean staleLegacyFile = generation > 0 && Files.isRegularFile(entry)
+                        && (name.equals(INDEX_FILE) || Arrays.asList(COLUMN_FILES).contains(name));
+                if (staleGeneration || staleLegacyFile) {
+                    deleteRecursively(entry);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to remove old generations of columnar series {}", directory, e);
+        }
+    }
+
+    private void writeMeta(Path path, int newPriceScale, int newVolumeScale, int stride, long newGeneration) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(newPriceScale);
+            out.writeInt(newVolumeScale);
+            out.writeInt(stride);
+            out.writeUTF(symbol);
+            out.writeUTF(timeframe);
+            out.writeLong(newGeneration);
+            out.flush();
+            channel.force(true);
+        }
+    }
+
+    /**
+     * @param sync Whether to fsync the file before returning.
+     */
+    private static void writeLongs(Path path, long[] values, boolean sync) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeColumn(channel, 0, values);
+            if (sync) channel.force(true);
+        }
+    }
+
+    /**
+     * Makes the directory's entries durable. Not every platform can open a directory for
+     * this (Windows cannot); there, the file system is trusted to order the metadata.
+     */
+    private static void fsyncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            logger.debug("Cannot fsync directory {} on this platform.", dir, e);
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (Files.notExists(path)) return;
+        try (Stream<Path> paths = Files.walk(path)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    private static void writeColumn(FileChannel channel, int fromRow, long[] values) throws IOException {
+        long position = (long) fromRow * Long.BYTES;
+        for (int offset = 0; offset < values.length; offset += IO_CHUNK_LONGS) {
+            int length = Math.min(IO_CHUNK_LONGS, values.length - offset);
+            ByteBuffer buffer = ByteBuffer.allocate(length * Long.BYTES);
+            buffer.asLongBuffer().put(values, offset, length);
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+    }
+
+    /**
+     * Merges two timestamp-sorted column sets. On equal timestamps the incoming row wins.
+     */
+    private static long[][] merge(long[][] existing, long[][] incoming) {
+        int a = existing[TS].length, b = incoming[TS].length;
+        long[][] out = new long[COLUMN_FILES.length][a + b];
+        int i = 0, j = 0, k = 0;
+        while (i < a || j < b) {
+            long[][] from;
+            int row;
+            if (j >= b || (i < a && existing[TS][i] < incoming[TS][j])) {
+                from = existing;
+                row = i++;
+            } else {
+                if (i < a && existing[TS][i] == incoming[TS][j]) i++;
+                from = incoming;
+                row = j++;
+            }
+            for (int c = 0; c < COLUMN_FILES.length; c++) {
+                out[c][k] = from[c][row];
+            }
+            k++;
+        }
+        if (k < a + b) {
+            for (int c = 0; c < COLUMN_FILES.length; c++) {
+                out[c] = Arrays.copyOf(out[c], k);
+            }
+        }
+        return out;
+    }
+
+    private static List<KLine> sortAndDeduplicate(List<KLine> klines) {
+        TreeMap<Long, KLine> byTimestamp = new TreeMap<>();
+        for (KLine kline : klines) {
+            byTimestamp.put(kline.timestamp().getEpochSecond(), kline);
+        }
+        return new ArrayList<>(byTimestamp.values());
+    }
+
+    /**
+     * Picks the smallest scale that represents every value of the batch exactly, capped so
+     * no value overflows a long, but never below the current scale: shrinking it would round
+     * the stored history. A batch too large for the current scale therefore fails to encode
+     * with an {@link ArithmeticException} instead.
+     */
+    private static int targetScale(int currentScale, List<KLine> batch, boolean prices) {
+        int needed = 0;
+        int safe = MAX_SCALE;
+        for (KLine k : batch) {
+            if (prices) {
+                for (BigDecimal v : new BigDecimal[]{k.open(), k.high(), k.low(), k.close()}) {
+                    needed = Math.max(needed, requiredScale(v));
+                    safe = Math.min(safe, MAX_FIXED_POINT_DIGITS - integerDigits(v));
+                }
+            } else {
+                needed = Math.max(needed, requiredScale(k.volume()));
+                safe = Math.min(safe, MAX_FIXED_POINT_DIGITS - integerDigits(k.volume()));
+            }
+        }
+        return Math.max(currentScale, Math.max(0, Math.min(needed, safe)));
+    }
+
+    private static int requiredScale(BigDecimal value) {
+        return Math.max(0, value.stripTrailingZeros().scale());
+    }
+
+    private static int integerDigits(BigDecimal value) {
+        return Math.max(1, value.precision() - value.scale());
+    }
+
+    private static long[] encode(KLine k, int priceScale, int volumeScale) {
+        return new long[]{
+            k.timestamp().getEpochSecond(),
+            toFixed(k.open(), priceScale),
+            toFixed(k.high(), priceScale),
+            toFixed(k.low(), priceScale),
+            toFixed(k.close(), priceScale),
+            toFixed(k.volume(), volumeScale)
+        };
+    }
+
+    private static long[][] encodeAll(List<KLine> rows, int priceScale, int volumeScale) {
+        long[][] columns = new long[COLUMN_FILES.length][rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            long[] values = encode(rows.get(i), priceScale, volumeScale);
+            for (int c = 0; c < values.length; c++) {
+                columns[c][i] = values[c];
+            }
+        }
+        return columns;
+    }
+
+    private static long toFixed(BigDecimal value, int scale) {
+        return value.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts fixed-point values to a larger scale.
+     *
+     * @throws ArithmeticException If a value overflows a long.
+     */
+    private static long[] rescale(long[] values, int fromScale, int toScale) {
+        if (fromScale == toScale) return values;
+        long factor = pow10(toScale - fromScale);
+        long[] out = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            out[i] = Math.multiplyExact(values[i], factor);
+        }
+        return out;
+    }
+
+    private static long pow10(int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) result = Math.multiplyExact(result, 10L);
+        return result;
+    }
+}
@@ -0,0 +1,60 @@
+package com.EcoChartPro.data.store;
+
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.model.Symbol;
+import com.EcoChartPro.utils.DatabaseManager.DataRange;
+import com.EcoChartPro.utils.DatabaseManager.DatasetInfo;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A pluggable storage backend for K-line series. The read and write methods
+ * mirror the K-line API of {@link com.EcoChartPro.utils.DatabaseManager} so that
+ * components like the replay session, the live history provider and the journal
+ * analysis can switch between the SQLite table and the columnar file format
+ * without changing their logic.
+ * <p>
+ * All timestamps passed as {@code long} are epoch seconds, matching the
+ * {@code timestamp_sec} column of the SQLite schema.
+ */
+public interface KLineStore extends AutoCloseable {
+
+    /**
+     * @return A list of every (symbol, timeframe) pair present in this store.
+     */
+    List<DatasetInfo> getAvailableDatasets();
+
+    Optional<DataRange> getDataRange(Symbol symbol, String timeframe);
+
+    int getTotalKLineCount(Symbol symbol, String timeframe);
+
+    /**
+     * Finds the index of the first bar whose timestamp is at or after the target.
+     * If no such bar exists, the index of the last bar is returned.
+     */
+    int findClosestTimestampIndex(Symbol symbol, String timeframe, Instant targetTime);
+
+    List<KLine> getKLinesByIndex(Symbol symbol, String timeframe, int offset, int limit);
+
+    List<KLine> getKLinesStartingFrom(Symbol symbol, String timeframe, long startTimestampSec, int limit);
+
+    List<KLine> getKLinesBetween(Symbol symbol, String timeframe, Instant startTime, Instant endTime);
+
+    /**
+     * Saves the given K-lines. Bars with a timestamp that already exists in the
+     * series replace the stored bar (INSERT OR REPLACE semantics).
+     * <p>
+     * A store may apply the write asynchronously. Callers that read the bars back
+     * must wait for the returned future first.
+     *
+     * @return A future completed once the bars are visible to reads from this store,
+     *         or exceptionally if the write failed.
+     */
+    CompletableFuture<Void> saveKLines(List<KLine> klines, Symbol symbol, String timeframe);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,93 @@
+package com.EcoChartPro.data.store;
+
+import com.EcoChartPro.utils.DatabaseManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the {@link KLineStore} backend for a given SQLite database file.
+ * <p>
+ * A database that has been migrated with
+ * {@link com.EcoChartPro.tools.KLineStoreMigrationTool} has a sibling columnar
+ * directory (e.g. {@code btcusdt.db} -> {@code btcusdt.klines/}) containing a
+ * completion marker. Reads from such databases are served from the columnar store; all
+ * others keep using the {@code kline_data} table.
+ * <p>
+ * The {@code kline_data} table is always the source of truth. The store of a migrated
+ * database writes to both the table and the columnar copy, so K-line writes must go
+ * through a store resolved here rather than {@link DatabaseManager#saveKLines}.
+ */
+public final class KLineStores {
+
+    private static final Logger logger = LoggerFactory.getLogger(KLineStores.class);
+
+    public static final String COLUMNAR_DIRECTORY_SUFFIX = ".klines";
+    public static final String MIGRATION_MARKER_FILE = "migration.complete";
+
+    // Columnar stores are shared per directory so that concurrent writers never race on the same files.
+    private static final Map<Path, ColumnarKLineStore> columnarStores = new ConcurrentHashMap<>();
+
+    private KLineStores() {}
+
+    /**
+     * @return The directory that holds (or would hold) the columnar copy of the given database.
+     */
+    public static Path getColumnarRoot(Path dbPath) {
+        Path absolute = dbPath.toAbsolutePath();
+        String fileName = absolute.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String baseName = dot > 0 ? fileName.substring(0, dot) : fileName;
+        return absolute.resolveSibling(baseName + COLUMNAR_DIRECTORY_SUFFIX);
+    }
+
+    public static boolean hasColumnarStore(Path dbPath) {
+        return Files.exists(getColumnarRoot(dbPath).resolve(MIGRATION_MARKER_FILE));
+    }
+
+    public static ColumnarKLineStore getColumnarStore(Path dbPath) {
+        return columnarStores.computeIfAbsent(getColumnarRoot(dbPath), ColumnarKLineStore::new);
+    }
+
+    /**
+     * Opens the preferred store for a database file. The caller owns the returned store
+     * and must close it.
+     */
+    public static KLineStore open(Path dbPath) {
+        SqliteKLineStore sqlite = new SqliteKLineStore(DatabaseManager.open("jdbc:sqlite:" + dbPath.toAbsolutePath()), true);
+        if (hasColumnarStore(dbPath)) {
+            logger.info("Using columnar K-line store for {}", dbPath.getFileName());
+            return new MirroredKLineStore(sqlite, getColumnarStore(dbPath));
+        }
+        return sqlite;
+    }
+
+    /**
+     * Returns the SQLite database behind a store opened here, for the tables that only
+     * live there, such as {@code trades}.
+     */
+    public static Optional<DatabaseManager> databaseOf(KLineStore store) {
+        if (store instanceof SqliteKLineStore sqlite) return Optional.of(sqlite.getDatabaseManager());
+        if (store instanceof MirroredKLineStore mirrored) return Optional.of(mirrored.getDatabaseManager());
+        return Optional.empty();
+    }
+
+    /**
+     * Resolves the preferred store for an already open database. Closing the returned
+     * store never closes the given manager.
+     */
+    public static KLineStore forDatabase(DatabaseManager dbManager) {
+        SqliteKLineStore sqlite = new SqliteKLineStore(dbManager, false);
+        Optional<Path> dbPath = dbManager.getDatabasePath();
+        if (dbPath.isPresent() && hasColumnarStore(dbPath.get())) {
+            logger.info("Using columnar K-line store for {}", dbPath.get().getFileName());
+            return new MirroredKLineStore(sqlite, getColumnarStore(dbPath.get()));
+        }
+        return sqlite;
+    }
+}
@@ -0,0 +1,79 @@
+package com.EcoChartPro.data.store;
+
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.model.Symbol;
+import com.EcoChartPro.utils.DatabaseManager;
+import com.EcoChartPro.utils.DatabaseManager.DataRange;
+import com.EcoChartPro.utils.DatabaseManager.DatasetInfo;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The store of a migrated database. Reads are served from the columnar copy; writes go to
+ * the {@code kline_data} table, which stays the source of truth, and to the columnar copy,
+ * so the two never diverge as long as every K-line write goes through {@link KLineStores}.
+ */
+final class MirroredKLineStore implements KLineStore {
+
+    private final SqliteKLineStore sqlite;
+    private final ColumnarKLineStore columnar;
+
+    MirroredKLineStore(SqliteKLineStore sqlite, ColumnarKLineStore columnar) {
+        this.sqlite = sqlite;
+        this.columnar = columnar;
+    }
+
+    DatabaseManager getDatabaseManager() {
+        return sqlite.getDatabaseManager();
+    }
+
+    @Override
+    public List<DatasetInfo> getAvailableDatasets() {
+        return columnar.getAvailableDatasets();
+    }
+
+    @Override
+    public Optional<DataRange> getDataRange(Symbol symbol, String timeframe) {
+        return columnar.getDataRange(symbol, timeframe);
+    }
+
+    @Override
+    public int getTotalKLineCount(Symbol symbol, String timeframe) {
+        return columnar.getTotalKLineCount(symbol, timeframe);
+    }
+
+    @Override
+    public int findClosestTimestampIndex(Symbol symbol, String timeframe, Instant targetTime) {
+        return columnar.findClosestTimestampIndex(symbol, timeframe, targetTime);
+    }
+
+    @Override
+    public List<KLine> getKLinesByIndex(Symbol symbol, String timeframe, int offset, int limit) {
+        return columnar.getKLinesByIndex(symbol, timeframe, offset, limit);
+    }
+
+    @Override
+    public List<KLine> getKLinesStartingFrom(Symbol symbol, String timeframe, long startTimestampSec, int limit) {
+        return columnar.getKLinesStartingFrom(symbol, timeframe, startTimestampSec, limit);
+    }
+
+    @Override
+    public List<KLine> getKLinesBetween(Symbol symbol, String timeframe, Instant startTime, Instant endTime) {
+        return columnar.getKLinesBetween(symbol, timeframe, startTime, endTime);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveKLines(List<KLine> klines, Symbol symbol, String timeframe) {
+        return CompletableFuture.allOf(sqlite.saveKLines(klines, symbol, timeframe),
+                columnar.saveKLines(klines, symbol, timeframe));
+    }
+
+    @Override
+    public void close() {
+        columnar.close();
+        sqlite.close();
+    }
+}
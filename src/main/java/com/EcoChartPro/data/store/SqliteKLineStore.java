@@ -0,0 +1,83 @@
+package com.EcoChartPro.data.store;
+
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.model.Symbol;
+import com.EcoChartPro.utils.DatabaseManager;
+import com.EcoChartPro.utils.DatabaseManager.DataRange;
+import com.EcoChartPro.utils.DatabaseManager.DatasetInfo;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link KLineStore} backed by the TEXT-typed {@code kline_data} table of a
+ * {@link DatabaseManager}. This is the default backend for any database that has
+ * not been migrated to the columnar format.
+ */
+public final class SqliteKLineStore implements KLineStore {
+
+    private final DatabaseManager dbManager;
+    private final boolean ownsDatabase;
+
+    /**
+     * @param dbManager    The database to read from and write to.
+     * @param ownsDatabase If true, closing this store also closes the database.
+     */
+    public SqliteKLineStore(DatabaseManager dbManager, boolean ownsDatabase) {
+        this.dbManager = dbManager;
+        this.ownsDatabase = ownsDatabase;
+    }
+
+    public DatabaseManager getDatabaseManager() {
+        return dbManager;
+    }
+
+    @Override
+    public List<DatasetInfo> getAvailableDatasets() {
+        return dbManager.getAvailableDatasets();
+    }
+
+    @Override
+    public Optional<DataRange> getDataRange(Symbol symbol, String timeframe) {
+        return dbManager.getDataRange(symbol, timeframe);
+    }
+
+    @Override
+    public int getTotalKLineCount(Symbol symbol, String timeframe) {
+        return dbManager.getTotalKLineCount(symbol, timeframe);
+    }
+
+    @Override
+    public int findClosestTimestampIndex(Symbol symbol, String timeframe, Instant targetTime) {
+        return dbManager.findClosestTimestampIndex(symbol, timeframe, targetTime);
+    }
+
+    @Override
+    public List<KLine> getKLinesByIndex(Symbol symbol, String timeframe, int offset, int limit) {
+        return dbManager.getKLinesByIndex(symbol, timeframe, offset, limit);
+    }
+
+    @Override
+    public List<KLine> getKLinesStartingFrom(Symbol symbol, String timeframe, long startTimestampSec, int limit) {
+        return dbManager.getKLinesStartingFrom(symbol, timeframe, startTimestampSec, limit);
+    }
+
+    @Override
+    public List<KLine> getKLinesBetween(Symbol symbol, String timeframe, Instant startTime, Instant endTime) {
+        return dbManager.getKLinesBetween(symbol, timeframe, startTime, endTime);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveKLines(List<KLine> klines, Symbol symbol, String timeframe) {
+        return dbManager.saveKLines(klines, symbol, timeframe);
+    }
+
+    @Override
+    public void close() {
+        if (ownsDatabase) {
+            dbManager.close();
+        }
+    }
+}
@@ -12,4 +12,7 @@ import java.time.Instant;
  * @param side The side of the aggressive party (taker), e.g., "buy" or "sell".
  */
 public record TradeTick(Instant timestamp, BigDecimal price, BigDecimal quantity, String side) {
+
+    public static final String BUY = "buy";
+    public static final String SELL = "sell";
 }
\ No newline at end of file
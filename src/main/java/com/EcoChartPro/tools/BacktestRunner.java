@@ -0,0 +1,249 @@
+package com.EcoChartPro.tools;
+
+import com.EcoChartPro.api.indicator.Parameter;
+import com.EcoChartPro.api.indicator.ParameterType;
+import com.EcoChartPro.core.backtest.BacktestEngine;
+import com.EcoChartPro.core.backtest.BacktestStrategy;
+import com.EcoChartPro.core.backtest.ParameterGrid;
+import com.EcoChartPro.core.backtest.ParameterSweep;
+import com.EcoChartPro.core.journal.JournalAnalysisService.OverallStats;
+import com.EcoChartPro.data.store.KLineStore;
+import com.EcoChartPro.data.store.KLineStores;
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.model.Symbol;
+import com.EcoChartPro.model.Timeframe;
+import com.EcoChartPro.model.Trade;
+import com.EcoChartPro.model.TradeDirection;
+import com.EcoChartPro.model.trading.Position;
+import com.EcoChartPro.utils.DatabaseManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A command-line runner for {@link BacktestEngine}. It streams a series from a database
+ * (or its columnar copy, if migrated) through a strategy and prints a summary.
+ * <p>
+ * Usage: {@code BacktestRunner <file.db> <symbol> <timeframe> [--strategy=<class>]
+ * [--from=<ISO instant>] [--to=<ISO instant>] [--balance=<amount>]}. The strategy class
+ * must implement {@link BacktestStrategy} and have a no-argument constructor; without it,
+ * a 20/50 moving-average crossover is run.
+ * <p>
+ * With {@code --walk-forward=<in-sample days>:<out-of-sample days>}, the built-in crossover
+ * is instead optimized with {@link ParameterSweep} over a grid of fast and slow periods on
+ * all cores, and the per-window winners and the combined out-of-sample stats are printed.
+ * <p>
+ * With {@code --ticks}, the recorded trades of the symbol are replayed tick by tick instead,
+ * building bars of the given timeframe as they go (see {@link BacktestEngine#runTicks}).
+ */
+public class BacktestRunner {
+
+    public static void main(String[] args) {
+        System.out.println("--- EcoChartPro Backtest Runner ---");
+        if (args.length < 3) {
+            System.err.println("Usage: BacktestRunner <file.db> <symbol> <timeframe> [--strategy=<class>] [--from=<ISO instant>] [--to=<ISO instant>] [--balance=<amount>] [--walk-forward=<days>:<days>] [--ticks]");
+            return;
+        }
+        Path dbPath = Paths.get(args[0]);
+        Symbol symbol = new Symbol(args[1]);
+        String timeframe = args[2];
+        Map<String, String> options = new HashMap<>();
+        for (int i = 3; i < args.length; i++) {
+            String arg = args[i];
+            int eq = arg.indexOf('=');
+            if (arg.startsWith("--") && eq > 2) {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else if (arg.startsWith("--") && eq < 0) {
+                options.put(arg.substring(2), "true");
+            }
+        }
+
+        try {
+            if (Files.notExists(dbPath)) {
+                System.err.println("Database not found: " + dbPath.toAbsolutePath());
+                return;
+            }
+            BacktestStrategy strategy = options.containsKey("strategy")
+                    ? (BacktestStrategy) Class.forName(options.get("strategy")).getDeclaredConstructor().newInstance()
+                    : new MovingAverageCrossStrategy(20, 50);
+            Instant from = options.containsKey("from") ? Instant.parse(options.get("from")) : null;
+            Instant to = options.containsKey("to") ? Instant.parse(options.get("to")) : null;
+            BigDecimal balance = new BigDecimal(options.getOrDefault("balance", "100000"));
+
+            BacktestEngine engine = new BacktestEngine(BacktestEngine.Config.of(balance));
+            if (options.containsKey("walk-forward")) {
+                String[] days = options.get("walk-forward").split(":");
+                runWalkForward(engine, dbPath, symbol, timeframe, from, to,
+                        Duration.ofDays(Long.parseLong(days[0])), Duration.ofDays(Long.parseLong(days[1])));
+                return;
+            }
+            if (options.containsKey("ticks")) {
+                runTicks(engine, dbPath, symbol, timeframe, from, to, strategy);
+                return;
+            }
+            BacktestEngine.Result result;
+            try (KLineStore store = KLineStores.open(dbPath)) {
+                result = engine.run(store, symbol, timeframe, from, to, strategy);
+            }
+            printSummary(result, strategy);
+        } catch (Exception e) {
+            System.err.println("\n--- An error occurred during the backtest ---");
+            e.printStackTrace();
+        }
+    }
+
+    private static void runWalkForward(BacktestEngine engine, Path dbPath, Symbol symbol, String timeframe,
+                                       Instant from, Instant to, Duration inSample, Duration outOfSample) {
+        List<KLine> history;
+        try (KLineStore store = KLineStores.open(dbPath)) {
+            history = ParameterSweep.loadHistory(store, symbol, timeframe, from, to);
+        }
+        List<Map<String, Object>> combinations = ParameterGrid.fromDefaults(MovingAverageCrossStrategy.PARAMETERS)
+                .range("fastPeriod", 5, 45, 5)
+                .range("slowPeriod", 50, 200, 25)
+                .combinations();
+        System.out.printf("Walk-forward over %,d bars: %d combinations, %d in-sample / %d out-of-sample days%n",
+                history.size(), combinations.size(), inSample.toDays(), outOfSample.toDays());
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        try (ParameterSweep sweep = new ParameterSweep(engine, MovingAverageCrossStrategy::new,
+                stats -> stats.totalPnl().doubleValue(), cores)) {
+            long start = System.nanoTime();
+            ParameterSweep.WalkForwardResult result = sweep.walkForward(symbol, timeframe, history, combinations, inSample, outOfSample);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            for (ParameterSweep.WalkForwardStep step : result.steps()) {
+                System.out.printf("  %s  best %-36s IS PnL %12s  OOS PnL %12s%n",
+                        step.window().outOfSampleStart(), step.inSampleBest().parameters(),
+                        step.inSampleBest().stats().totalPnl().toPlainString(),
+                        step.outOfSample().stats().totalPnl().toPlainString());
+            }
+            OverallStats oos = result.outOfSampleStats();
+            long runs = (long) result.steps().size() * (combinations.size() + 1);
+            System.out.printf("%nRuns:           %,d on %d cores in %.2f s%n", runs, cores, seconds);
+            System.out.printf("OOS trades:     %,d (win rate %.1f%%, profit factor %s)%n",
+                    oos.totalTrades(), oos.winRate() * 100, oos.profitFactor().toPlainString());
+            System.out.printf("OOS net PnL:    %s (max drawdown %s)%n",
+                    oos.totalPnl().toPlainString(), oos.maxDrawdown().toPlainString());
+        }
+    }
+
+    private static void runTicks(BacktestEngine engine, Path dbPath, Symbol symbol, String timeframe,
+                                 Instant from, Instant to, BacktestStrategy strategy) {
+        Timeframe barTimeframe = Timeframe.fromString(timeframe);
+        if (barTimeframe == null) {
+            System.err.println("Unknown timeframe: " + timeframe);
+            return;
+        }
+        BacktestEngine.Result result;
+        try (DatabaseManager db = DatabaseManager.open("jdbc:sqlite:" + dbPath.toAbsolutePath())) {
+            result = engine.runTicks(db, symbol, barTimeframe,
+                    from != null ? from : Instant.EPOCH,
+                    to != null ? to : Instant.ofEpochMilli(Long.MAX_VALUE),
+                    strategy, null);
+        }
+        printSummary(result, strategy);
+        System.out.printf("Ticks:          %,d (%,.0f ticks/s)%n", result.ticksProcessed(), result.ticksPerSecond());
+    }
+
+    private static void printSummary(BacktestEngine.Result result, BacktestStrategy strategy) {
+        List<Trade> trades = result.trades();
+        long wins = trades.stream().filter(t -> t.profitAndLoss().signum() > 0).count();
+        BigDecimal netPnl = result.finalBalance().subtract(result.startingBalance());
+
+        System.out.printf("%nStrategy:       %s%n", strategy.getClass().getSimpleName());
+        System.out.printf("Series:         %s %s%n", result.symbol().name(), result.timeframe());
+        System.out.printf("Bars:           %,d in %.2f s (%,.0f bars/s)%n",
+                result.barsProcessed(), result.elapsedNanos() / 1e9, result.barsPerSecond());
+        System.out.printf("Trades:         %,d (win rate %.1f%%)%n",
+                trades.size(), trades.isEmpty() ? 0.0 : 100.0 * wins / trades.size());
+        System.out.printf("Open positions: %d%n", result.openPositions().size());
+        System.out.printf("Fees:           %s%n", result.totalFees().toPlainString());
+        System.out.printf("Net PnL:        %s%n", netPnl.toPlainString());
+        System.out.printf("Final balance:  %s%n", result.finalBalance().toPlainString());
+    }
+
+    /**
+     * The default strategy: always in the market, long while the fast simple moving average
+     * of closes is above the slow one and short while it is below.
+     */
+    public static class MovingAverageCrossStrategy implements BacktestStrategy {
+        public static final List<Parameter> PARAMETERS = List.of(
+            new Parameter("fastPeriod", ParameterType.INTEGER, 20),
+            new Parameter("slowPeriod", ParameterType.INTEGER, 50)
+        );
+
+        private final int fastPeriod;
+        private final int slowPeriod;
+        private final double[] closes;
+        private double fastSum;
+        private double slowSum;
+        private int count;
+        private int previousSignal;
+
+        public MovingAverageCrossStrategy() {
+            this(20, 50);
+        }
+
+        public MovingAverageCrossStrategy(Map<String, Object> settings) {
+            this(((Number) settings.getOrDefault("fastPeriod", 20)).intValue(),
+                 ((Number) settings.getOrDefault("slowPeriod", 50)).intValue());
+        }
+
+        /**
+         * @throws IllegalArgumentException If a period is not positive, or the fast period is
+         *                                  not shorter than the slow one.
+         */
+        public MovingAverageCrossStrategy(int fastPeriod, int slowPeriod) {
+            if (fastPeriod <= 0 || slowPeriod <= 0) {
+                throw new IllegalArgumentException("Periods must be positive: fast " + fastPeriod + ", slow " + slowPeriod + ".");
+            }
+            if (fastPeriod >= slowPeriod) {
+                throw new IllegalArgumentException("Fast period " + fastPeriod + " must be shorter than slow period " + slowPeriod + ".");
+            }
+            this.fastPeriod = fastPeriod;
+            this.slowPeriod = slowPeriod;
+            this.closes = new double[slowPeriod];
+        }
+
+        @Override
+        public void onWarmUpBar(KLine bar) {
+            push(bar.close().doubleValue());
+        }
+
+        @Override
+        public void onBar(KLine bar, BacktestEngine.Context context) {
+            push(bar.close().doubleValue());
+            if (count < slowPeriod) return;
+
+            double fast = fastSum / fastPeriod;
+            double slow = slowSum / slowPeriod;
+            int signal = Double.compare(fast, slow);
+            if (signal != 0 && signal != previousSignal) {
+                for (Position position : context.openPositions()) {
+                    context.closePosition(position.id());
+                }
+                TradeDirection direction = signal > 0 ? TradeDirection.LONG : TradeDirection.SHORT;
+                context.marketOrder(direction, BigDecimal.ONE, null, null);
+                previousSignal = signal;
+            }
+        }
+
+        private void push(double close) {
+            int slot = count % slowPeriod;
+            if (count >= slowPeriod) slowSum -= closes[slot];
+            if (count >= fastPeriod) fastSum -= closes[(count - fastPeriod) % slowPeriod];
+            closes[slot] = close;
+            slowSum += close;
+            fastSum += close;
+            count++;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.EcoChartPro.tools;
 
+import com.EcoChartPro.data.RollupPyramid;
+import com.EcoChartPro.data.store.KLineStore;
+import com.EcoChartPro.data.store.KLineStores;
 import com.EcoChartPro.model.KLine;
 import com.EcoChartPro.model.Symbol;
 import com.EcoChartPro.utils.DatabaseManager;
@@ -78,9 +81,13 @@ public class CsvToDbImporter {
         
         DatabaseManager dbManager = null;
         try {
-            dbManager = new DatabaseManager(jdbcUrl);
+            dbManager = DatabaseManager.open(jdbcUrl);
+            // Write through the store so that a migrated database's columnar copy stays in sync.
+            KLineStore store = KLineStores.forDatabase(dbManager);
             List<KLine> klineBatch = new ArrayList<>(BATCH_SIZE);
             long totalLines = 0;
+            Instant firstImported = null;
+            Instant lastImported = null;
 
             try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
                 reader.readLine(); // Skip header line
@@ -90,9 +97,11 @@ public class CsvToDbImporter {
                     try {
                         KLine kline = parseLine(line);
                         klineBatch.add(kline);
+                        if (firstImported == null || kline.timestamp().isBefore(firstImported)) firstImported = kline.timestamp();
+                        if (lastImported == null || kline.timestamp().isAfter(lastImported)) lastImported = kline.timestamp();
 
                         if (klineBatch.size() >= BATCH_SIZE) {
-                            dbManager.saveKLines(klineBatch, symbol, timeframe);
+                            store.saveKLines(klineBatch, symbol, timeframe);
                             logger.info("Saved batch of {} records...", klineBatch.size());
                             klineBatch.clear();
                         }
@@ -102,10 +111,14 @@ public class CsvToDbImporter {
                 }
 
                 if (!klineBatch.isEmpty()) {
-                    dbManager.saveKLines(klineBatch, symbol, timeframe);
+                    store.saveKLines(klineBatch, symbol, timeframe);
                     logger.info("Saving final batch of {} records...", klineBatch.size());
                 }
             }
+            if (firstImported != null && "1m".equals(timeframe)) {
+                dbManager.flush().join();
+                RollupPyramid.rebuild(store, symbol, firstImported, lastImported);
+            }
             logger.info("Import completed successfully. Total lines processed: {}", totalLines);
         } finally {
             if (dbManager != null) {
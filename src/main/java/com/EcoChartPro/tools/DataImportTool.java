@@ -1,5 +1,8 @@
 package com.EcoChartPro.tools;
 
+import com.EcoChartPro.data.RollupPyramid;
+import com.EcoChartPro.data.store.KLineStore;
+import com.EcoChartPro.data.store.KLineStores;
 import com.EcoChartPro.model.KLine;
 import com.EcoChartPro.model.Symbol;
 import com.EcoChartPro.utils.DatabaseManager;
@@ -92,7 +95,7 @@ public class DataImportTool {
             Path dbPath = symbolDataDir.resolve(dbFileName);
             String jdbcUrl = "jdbc:sqlite:" + dbPath.toAbsolutePath();
             
-            try (DatabaseManager dbManager = new DatabaseManager(jdbcUrl)) {
+            try (DatabaseManager dbManager = DatabaseManager.open(jdbcUrl)) {
                 for (Path csvFile : filesToImport) {
                     importCsvFile(csvFile, baseSymbol, dbManager);
                     moveFileToProcessed(csvFile, processedDir);
@@ -119,7 +122,7 @@ public class DataImportTool {
         Path dbPath = symbolDataDir.resolve(dbFileName);
         String jdbcUrl = "jdbc:sqlite:" + dbPath.toAbsolutePath();
 
-        try (DatabaseManager dbManager = new DatabaseManager(jdbcUrl)) {
+        try (DatabaseManager dbManager = DatabaseManager.open(jdbcUrl)) {
             importCsvFile(csvFile, baseSymbol, dbManager);
         }
         logger.info("-> Finished importing from selected file: {}", csvFile.getFileName());
@@ -131,8 +134,12 @@ public class DataImportTool {
         long totalLines = Files.lines(csvFile).count();
         if (totalLines <= 1) return;
         
+        // Write through the store so that a migrated database's columnar copy stays in sync.
+        KLineStore store = KLineStores.forDatabase(dbManager);
         List<KLine> klineBatch = new ArrayList<>(BATCH_SIZE);
         long lineCount = 0;
+        Instant firstImported = null;
+        Instant lastImported = null;
         
         try (BufferedReader reader = new BufferedReader(new FileReader(csvFile.toFile()))) {
             String header = reader.readLine();
@@ -147,17 +154,26 @@ public class DataImportTool {
             while ((line = reader.readLine()) != null) {
                 lineCount++;
                 KLine kline = detector.parseLine(line);
-                if (kline != null) klineBatch.add(kline);
+                if (kline != null) {
+                    klineBatch.add(kline);
+                    if (firstImported == null || kline.timestamp().isBefore(firstImported)) firstImported = kline.timestamp();
+                    if (lastImported == null || kline.timestamp().isAfter(lastImported)) lastImported = kline.timestamp();
+                }
                 
                 if (klineBatch.size() >= BATCH_SIZE) {
-                    dbManager.saveKLines(klineBatch, symbol, "1m");
+                    store.saveKLines(klineBatch, symbol, "1m");
                     klineBatch.clear();
                 }
                 int percentage = (int) (((double) lineCount / (totalLines - 1)) * 100);
                 progressConsumer.accept(new ProgressUpdate("Processing: " + csvFile.getFileName(), percentage));
             }
 
-            if (!klineBatch.isEmpty()) dbManager.saveKLines(klineBatch, symbol, "1m");
+            if (!klineBatch.isEmpty()) store.saveKLines(klineBatch, symbol, "1m");
+            if (firstImported != null) {
+                progressConsumer.accept(new ProgressUpdate("Building rollups: " + csvFile.getFileName(), 100));
+                dbManager.flush().join();
+                RollupPyramid.rebuild(store, symbol, firstImported, lastImported);
+            }
             progressConsumer.accept(new ProgressUpdate("Finished: " + csvFile.getFileName(), 100));
         }
     }
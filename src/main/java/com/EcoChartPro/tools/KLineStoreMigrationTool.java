@@ -0,0 +1,154 @@
+package com.EcoChartPro.tools;
+
+import com.EcoChartPro.data.store.ColumnarKLineStore;
+import com.EcoChartPro.data.store.KLineStores;
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.model.Symbol;
+import com.EcoChartPro.utils.AppDataManager;
+import com.EcoChartPro.utils.DatabaseManager;
+import com.EcoChartPro.utils.DatabaseManager.DataRange;
+import com.EcoChartPro.utils.DatabaseManager.DatasetInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A command-line tool that copies the {@code kline_data} table of existing SQLite
+ * databases into the columnar K-line store. Once a database has been migrated, the
+ * replay session, live history provider and journal analysis read from the columnar
+ * copy instead of the SQLite table, while writes go to both (see {@link KLineStores}).
+ * <p>
+ * Usage: {@code KLineStoreMigrationTool [path/to/file.db ...]}. Without arguments, every
+ * database under {@code ./data/<symbol>/} plus the application's {@code trading_data.db}
+ * is migrated. The migration is incremental: re-running it only copies bars newer than
+ * the last migrated bar of each series.
+ */
+public class KLineStoreMigrationTool {
+
+    private static final Logger logger = LoggerFactory.getLogger(KLineStoreMigrationTool.class);
+    private static final int BATCH_SIZE = 50_000;
+    private static final String DATA_DIR_NAME = "data";
+    private static final String APP_DB_FILE_NAME = "trading_data.db";
+
+    public record ProgressUpdate(String status, int percentage) {}
+    private final Consumer<ProgressUpdate> progressConsumer;
+
+    public static void main(String[] args) {
+        System.out.println("--- EcoChartPro K-Line Store Migration Tool ---");
+        try {
+            KLineStoreMigrationTool tool = new KLineStoreMigrationTool(null);
+            List<Path> databases = args.length > 0
+                    ? Stream.of(args).map(Paths::get).collect(Collectors.toList())
+                    : findDefaultDatabases();
+            for (Path dbPath : databases) {
+                tool.migrate(dbPath);
+            }
+            System.out.println("\n--- Migration completed successfully! ---");
+        } catch (Exception e) {
+            System.err.println("\n--- An error occurred during the migration ---");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @param progressConsumer A consumer to receive real-time progress updates. Can be null.
+     */
+    public KLineStoreMigrationTool(Consumer<ProgressUpdate> progressConsumer) {
+        this.progressConsumer = progressConsumer != null ? progressConsumer : (p) -> {};
+    }
+
+    /**
+     * Migrates every dataset of a single SQLite database into its sibling columnar store
+     * and marks the store as complete once all row counts match.
+     * @param dbPath The SQLite database file.
+     * @throws IOException if the database does not exist or the store cannot be written.
+     */
+    public void migrate(Path dbPath) throws IOException {
+        if (Files.notExists(dbPath)) {
+            throw new IOException("Database file not found: " + dbPath.toAbsolutePath());
+        }
+        Path columnarRoot = KLineStores.getColumnarRoot(dbPath);
+        Files.createDirectories(columnarRoot);
+        ColumnarKLineStore columnarStore = KLineStores.getColumnarStore(dbPath);
+        logger.info("Migrating {} -> {}", dbPath.toAbsolutePath(), columnarRoot);
+
+        boolean allVerified = true;
+        try (DatabaseManager dbManager = DatabaseManager.open("jdbc:sqlite:" + dbPath.toAbsolutePath())) {
+            for (DatasetInfo dataset : dbManager.getAvailableDatasets()) {
+                allVerified &= migrateDataset(dbManager, columnarStore, dataset);
+            }
+        } finally {
+            columnarStore.close();
+        }
+
+        if (allVerified) {
+            Files.writeString(columnarRoot.resolve(KLineStores.MIGRATION_MARKER_FILE), Instant.now().toString());
+            logger.info("-> Migration of {} complete.", dbPath.getFileName());
+        } else {
+            logger.error("-> Migration of {} finished with mismatching row counts. The SQLite table stays active.", dbPath.getFileName());
+        }
+    }
+
+    private boolean migrateDataset(DatabaseManager dbManager, ColumnarKLineStore columnarStore, DatasetInfo dataset) {
+        Symbol symbol = new Symbol(dataset.symbol());
+        String timeframe = dataset.timeframe();
+        String label = dataset.toString();
+        int sourceCount = dbManager.getTotalKLineCount(symbol, timeframe);
+
+        // Resume after the last bar that was already migrated.
+        Optional<DataRange> migratedRange = columnarStore.getDataRange(symbol, timeframe);
+        long nextTimestamp = migratedRange.map(r -> r.end().getEpochSecond() + 1).orElse(Long.MIN_VALUE);
+        int copied = columnarStore.getTotalKLineCount(symbol, timeframe);
+
+        progressConsumer.accept(new ProgressUpdate("Migrating: " + label, percentage(copied, sourceCount)));
+        while (true) {
+            List<KLine> batch = dbManager.getKLinesStartingFrom(symbol, timeframe, nextTimestamp, BATCH_SIZE);
+            if (batch.isEmpty()) break;
+
+            columnarStore.saveKLines(new ArrayList<>(batch), symbol, timeframe);
+            copied += batch.size();
+            nextTimestamp = batch.get(batch.size() - 1).timestamp().getEpochSecond() + 1;
+            progressConsumer.accept(new ProgressUpdate("Migrating: " + label, percentage(copied, sourceCount)));
+            if (batch.size() < BATCH_SIZE) break;
+        }
+
+        int migratedCount = columnarStore.getTotalKLineCount(symbol, timeframe);
+        if (migratedCount != sourceCount) {
+            logger.error("  -> {}: source has {} bars but columnar store has {}.", label, sourceCount, migratedCount);
+            return false;
+        }
+        logger.info("  -> {}: {} bars migrated.", label, migratedCount);
+        progressConsumer.accept(new ProgressUpdate("Finished: " + label, 100));
+        return true;
+    }
+
+    private static int percentage(int done, int total) {
+        return total <= 0 ? 100 : (int) Math.min(100, (long) done * 100 / total);
+    }
+
+    private static List<Path> findDefaultDatabases() throws IOException {
+        List<Path> databases = new ArrayList<>();
+        Path dataDir = Paths.get(System.getProperty("user.dir")).resolve(DATA_DIR_NAME);
+        if (Files.isDirectory(dataDir)) {
+            try (Stream<Path> stream = Files.walk(dataDir, 2)) {
+                stream.filter(p -> p.toString().toLowerCase().endsWith(".db")).forEach(databases::add);
+            }
+        }
+        Path appDb = AppDataManager.getAppDataDirectory().resolve(APP_DB_FILE_NAME);
+        if (Files.exists(appDb)) {
+            databases.add(appDb);
+        }
+        return databases;
+    }
+}
@@ -0,0 +1,145 @@
+package com.EcoChartPro.tools;
+
+import com.EcoChartPro.core.settings.SettingsService;
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.ui.chart.axis.ChartAxis;
+import com.EcoChartPro.ui.chart.render.CandleRenderer;
+import com.EcoChartPro.ui.chart.render.RenderSnapshot;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A command-line benchmark for the candle rendering path. It paints the same synthetic
+ * window into an off-screen image twice: once with the previous per-price
+ * {@code BigDecimal} mapping over {@code List<KLine>} ("before") and once through
+ * {@link RenderSnapshot} and {@link ChartAxis#priceToY(double)} ("after").
+ * <p>
+ * Usage: {@code RenderBenchmark [visibleBars] [frames]}. Defaults to 2,000 bars and 500 frames.
+ */
+public class RenderBenchmark {
+
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+    private static final int Y_AXIS_PADDING = 20;
+    private static final int WARMUP_FRAMES = 200;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int bars = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        System.out.println("--- EcoChartPro Render Benchmark ---");
+        System.out.printf("Visible bars: %,d, frames: %,d, canvas: %dx%d%n", bars, frames, WIDTH, HEIGHT);
+
+        List<KLine> klines = generateKLines(bars);
+        BigDecimal min = klines.stream().map(KLine::low).reduce(BigDecimal::min).orElseThrow();
+        BigDecimal max = klines.stream().map(KLine::high).reduce(BigDecimal::max).orElseThrow();
+
+        ChartAxis axis = new ChartAxis();
+        axis.configure(min, max, bars, new Dimension(WIDTH, HEIGHT), false);
+        CandleRenderer renderer = new CandleRenderer();
+        SettingsService.getInstance(); // Load settings before timing.
+
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        Runnable before = () -> drawLegacy(g2d, axis, klines);
+        // One snapshot per data update; every frame after that reuses it.
+        RenderSnapshot snapshot = RenderSnapshot.of(klines);
+        Runnable after = () -> renderer.draw(g2d, axis, snapshot, 0, null);
+
+        long snapshotNanos = time(() -> RenderSnapshot.of(klines), frames);
+        double beforeMs = measure(before, frames);
+        double afterMs = measure(after, frames);
+        g2d.dispose();
+
+        System.out.printf("Before (BigDecimal priceToY): %8.3f ms/frame%n", beforeMs);
+        System.out.printf("After  (RenderSnapshot):      %8.3f ms/frame%n", afterMs);
+        System.out.printf("Snapshot build (per data update): %8.3f ms%n", snapshotNanos / 1e6 / frames);
+        System.out.printf("Speed-up: %.2fx%n", beforeMs / afterMs);
+    }
+
+    private static double measure(Runnable frame, int frames) {
+        time(frame, WARMUP_FRAMES);
+        return time(frame, frames) / 1e6 / frames;
+    }
+
+    private static long time(Runnable task, int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * The candle loop as it was before the snapshot: every OHLC value goes through
+     * BigDecimal subtract/divide/multiply.
+     */
+    private static void drawLegacy(Graphics2D g2d, ChartAxis axis, List<KLine> klines) {
+        SettingsService settings = SettingsService.getInstance();
+        int candleBodyWidth = Math.max(1, (int) (axis.getBarWidth() * 0.8));
+        BigDecimal minPrice = axis.getMinPrice();
+        BigDecimal priceRange = axis.getMaxPrice().subtract(minPrice);
+        int drawableHeight = HEIGHT - 2 * Y_AXIS_PADDING;
+
+        for (int i = 0; i < klines.size(); i++) {
+            KLine kline = klines.get(i);
+            int xCenter = axis.slotToX(i);
+            int yOpen = legacyPriceToY(kline.open(), minPrice, priceRange, drawableHeight);
+            int yClose = legacyPriceToY(kline.close(), minPrice, priceRange, drawableHeight);
+            int yHigh = legacyPriceToY(kline.high(), minPrice, priceRange, drawableHeight);
+            int yLow = legacyPriceToY(kline.low(), minPrice, priceRange, drawableHeight);
+
+            g2d.setColor(kline.close().compareTo(kline.open()) >= 0 ? settings.getBullColor() : settings.getBearColor());
+            g2d.drawLine(xCenter, yHigh, xCenter, yLow);
+            if (kline.close().compareTo(kline.open()) >= 0) {
+                g2d.fillRect(xCenter - candleBodyWidth / 2, yClose, candleBodyWidth, yOpen - yClose);
+            } else {
+                int bodyX = xCenter - candleBodyWidth / 2;
+                g2d.setColor(settings.getBearColor());
+                g2d.fillRect(bodyX, yOpen, candleBodyWidth, yClose - yOpen);
+                g2d.setColor(settings.getChartBackground());
+                g2d.drawRect(bodyX, yOpen, candleBodyWidth, yClose - yOpen);
+            }
+        }
+    }
+
+    private static int legacyPriceToY(BigDecimal price, BigDecimal minPrice, BigDecimal priceRange, int drawableHeight) {
+        BigDecimal priceRatio = price.subtract(minPrice).divide(priceRange, 10, RoundingMode.HALF_UP);
+        int pixelOffset = priceRatio.multiply(BigDecimal.valueOf(drawableHeight)).intValue();
+        return Y_AXIS_PADDING + drawableHeight - pixelOffset;
+    }
+
+    private static List<KLine> generateKLines(int count) {
+        Random random = new Random(42);
+        List<KLine> klines = new ArrayList<>(count);
+        Instant time = Instant.parse("2024-01-01T00:00:00Z");
+        double price = 42_000.0;
+        for (int i = 0; i < count; i++) {
+            double open = price;
+            double close = open + random.nextGaussian() * 25;
+            double high = Math.max(open, close) + random.nextDouble() * 15;
+            double low = Math.min(open, close) - random.nextDouble() * 15;
+            klines.add(new KLine(time.plusSeconds(60L * i),
+                    price(open), price(high), price(low), price(close),
+                    BigDecimal.valueOf(random.nextInt(500) + 1, 2)));
+            price = close;
+        }
+        return klines;
+    }
+
+    private static BigDecimal price(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,186 @@
+package com.EcoChartPro.tools;
+
+import com.EcoChartPro.data.provider.StreamMessageDecoder;
+import com.EcoChartPro.data.provider.StreamNameTable;
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.model.TradeTick;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A command-line benchmark for decoding exchange stream messages. It decodes recorded
+ * Binance and OKX payloads with the previous Gson tree path ("before") and with
+ * {@link StreamMessageDecoder} ("after"), and reports throughput and bytes allocated per
+ * message on the decoding thread. The decoder looks stream names up among 200 subscribed
+ * streams, as many as one connection carries.
+ * <p>
+ * Usage: {@code StreamDecodeBenchmark [messages]}. Defaults to 2,000,000 messages per run.
+ */
+public class StreamDecodeBenchmark {
+
+    private static final int WARMUP_MESSAGES = 500_000;
+    private static final int SUBSCRIBED_STREAMS = 200;
+
+    // Recorded payloads, one per message shape the live feed handles.
+    private static final List<String> BINANCE_PAYLOADS = List.of(
+        "{\"stream\":\"btcusdt@trade\",\"data\":{\"e\":\"trade\",\"E\":1718035202345,\"s\":\"BTCUSDT\",\"t\":3651723881,"
+            + "\"p\":\"69512.01000000\",\"q\":\"0.00144000\",\"T\":1718035202344,\"m\":true,\"M\":true}}",
+        "{\"stream\":\"btcusdt@trade\",\"data\":{\"e\":\"trade\",\"E\":1718035202351,\"s\":\"BTCUSDT\",\"t\":3651723882,"
+            + "\"p\":\"69512.02000000\",\"q\":\"0.05000000\",\"T\":1718035202350,\"m\":false,\"M\":true}}",
+        "{\"stream\":\"btcusdt@kline_1m\",\"data\":{\"e\":\"kline\",\"E\":1718035202402,\"s\":\"BTCUSDT\",\"k\":{"
+            + "\"t\":1718035200000,\"T\":1718035259999,\"s\":\"BTCUSDT\",\"i\":\"1m\",\"f\":3651723512,\"L\":3651723882,"
+            + "\"o\":\"69498.00000000\",\"c\":\"69512.02000000\",\"h\":\"69515.99000000\",\"l\":\"69497.99000000\","
+            + "\"v\":\"4.87213000\",\"n\":371,\"x\":false,\"q\":\"338631.64793060\",\"V\":\"2.11520000\","
+            + "\"Q\":\"147014.50171990\",\"B\":\"0\"}}}"
+    );
+    private static final List<String> OKX_PAYLOADS = List.of(
+        "{\"arg\":{\"channel\":\"trades\",\"instId\":\"BTC-USDT\"},\"data\":[{\"instId\":\"BTC-USDT\",\"tradeId\":\"525364513\","
+            + "\"px\":\"69511.9\",\"sz\":\"0.00021811\",\"side\":\"sell\",\"ts\":\"1718035202344\",\"count\":\"1\"}]}",
+        "{\"arg\":{\"channel\":\"trades\",\"instId\":\"BTC-USDT\"},\"data\":[{\"instId\":\"BTC-USDT\",\"tradeId\":\"525364514\","
+            + "\"px\":\"69512\",\"sz\":\"0.01537\",\"side\":\"buy\",\"ts\":\"1718035202351\",\"count\":\"2\"}]}",
+        "{\"arg\":{\"channel\":\"candle1m\",\"instId\":\"BTC-USDT\"},\"data\":[[\"1718035200000\",\"69498\",\"69516\","
+            + "\"69497.9\",\"69512\",\"5.31026547\",\"369119.671498\",\"369119.671498\",\"0\"]]}"
+    );
+
+    public static void main(String[] args) {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+
+        System.out.println("--- EcoChartPro Stream Decode Benchmark ---");
+        System.out.printf("Messages per run: %,d%n", messages);
+
+        List<String> streams = new ArrayList<>(List.of("btcusdt@trade", "btcusdt@kline_1m", "trades:BTC-USDT", "candle1m:BTC-USDT"));
+        for (int i = streams.size(); i < SUBSCRIBED_STREAMS; i++) {
+            streams.add("sym" + i + "usdt@kline_1m");
+        }
+        StreamNameTable table = StreamNameTable.of(streams);
+        StreamMessageDecoder decoder = new StreamMessageDecoder(() -> table);
+        Blackhole blackhole = new Blackhole();
+        run("Binance", messages, BINANCE_PAYLOADS,
+            message -> legacyBinance(message, blackhole),
+            message -> decoder.decodeBinance(message, blackhole));
+        run("OKX", messages, OKX_PAYLOADS,
+            message -> legacyOkx(message, blackhole),
+            message -> decoder.decodeOkx(message, blackhole));
+        System.out.println("(checksum " + blackhole.checksum + ")");
+    }
+
+    private static void run(String exchange, int messages, List<String> payloads, Consumer<String> before, Consumer<String> after) {
+        Result beforeResult = measure(before, payloads, messages);
+        Result afterResult = measure(after, payloads, messages);
+        System.out.printf("%s before (Gson tree):      %,12.0f msg/s %8.0f B/msg%n", exchange, beforeResult.messagesPerSecond, beforeResult.bytesPerMessage);
+        System.out.printf("%s after  (StreamDecoder):  %,12.0f msg/s %8.0f B/msg%n", exchange, afterResult.messagesPerSecond, afterResult.bytesPerMessage);
+        System.out.printf("%s speed-up: %.2fx, allocation: %.1fx less%n", exchange,
+            afterResult.messagesPerSecond / beforeResult.messagesPerSecond, beforeResult.bytesPerMessage / afterResult.bytesPerMessage);
+    }
+
+    private record Result(double messagesPerSecond, double bytesPerMessage) {}
+
+    private static Result measure(Consumer<String> decode, List<String> payloads, int messages) {
+        loop(decode, payloads, WARMUP_MESSAGES);
+        long bytesBefore = allocatedBytes();
+        long start = System.nanoTime();
+        loop(decode, payloads, messages);
+        long nanos = System.nanoTime() - start;
+        long bytes = allocatedBytes() - bytesBefore;
+        return new Result(messages / (nanos / 1e9), (double) bytes / messages);
+    }
+
+    private static void loop(Consumer<String> decode, List<String> payloads, int messages) {
+        int count = payloads.size();
+        for (int i = 0; i < messages; i++) {
+            decode.accept(payloads.get(i % count));
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    /** Consumes decoded values so that neither path can be optimized away. */
+    private static final class Blackhole implements StreamMessageDecoder.Sink {
+        long checksum;
+
+        @Override
+        public void onKLine(String streamName, KLine kline) {
+            checksum += streamName.length() + kline.timestamp().toEpochMilli() + kline.close().scale();
+        }
+
+        @Override
+        public void onTrade(String streamName, TradeTick trade) {
+            checksum += streamName.length() + trade.timestamp().toEpochMilli() + trade.price().scale() + trade.side().length();
+        }
+    }
+
+    // --- The previous decoding path of LiveDataManager ---
+
+    private static void legacyBinance(String message, StreamMessageDecoder.Sink sink) {
+        JsonObject root = JsonParser.parseString(message).getAsJsonObject();
+        if (!root.has("stream") || !root.has("data")) return;
+
+        String streamName = root.get("stream").getAsString();
+        JsonObject data = root.getAsJsonObject("data");
+        String eventType = data.get("e").getAsString();
+
+        if ("kline".equals(eventType)) {
+            JsonObject klineJson = data.getAsJsonObject("k");
+            sink.onKLine(streamName, new KLine(
+                Instant.ofEpochMilli(klineJson.get("t").getAsLong()),
+                new BigDecimal(klineJson.get("o").getAsString()),
+                new BigDecimal(klineJson.get("h").getAsString()),
+                new BigDecimal(klineJson.get("l").getAsString()),
+                new BigDecimal(klineJson.get("c").getAsString()),
+                new BigDecimal(klineJson.get("v").getAsString())
+            ));
+        } else if ("trade".equals(eventType)) {
+            sink.onTrade(streamName, new TradeTick(
+                Instant.ofEpochMilli(data.get("T").getAsLong()),
+                new BigDecimal(data.get("p").getAsString()),
+                new BigDecimal(data.get("q").getAsString()),
+                data.get("m").getAsBoolean() ? "sell" : "buy"
+            ));
+        }
+    }
+
+    private static void legacyOkx(String message, StreamMessageDecoder.Sink sink) {
+        JsonObject root = JsonParser.parseString(message).getAsJsonObject();
+        if (root.has("event") || !root.has("arg") || !root.has("data")) return;
+
+        JsonObject arg = root.getAsJsonObject("arg");
+        String channel = arg.get("channel").getAsString();
+        String instId = arg.get("instId").getAsString();
+        String streamName = String.format("%s:%s", channel, instId);
+
+        if (channel.startsWith("candle")) {
+            for (JsonElement candleElement : root.getAsJsonArray("data")) {
+                JsonArray rawBar = candleElement.getAsJsonArray();
+                sink.onKLine(streamName, new KLine(
+                    Instant.ofEpochMilli(Long.parseLong(rawBar.get(0).getAsString())),
+                    new BigDecimal(rawBar.get(1).getAsString()),
+                    new BigDecimal(rawBar.get(2).getAsString()),
+                    new BigDecimal(rawBar.get(3).getAsString()),
+                    new BigDecimal(rawBar.get(4).getAsString()),
+                    new BigDecimal(rawBar.get(5).getAsString())
+                ));
+            }
+        } else if ("trades".equals(channel)) {
+            for (JsonElement tradeElement : root.getAsJsonArray("data")) {
+                JsonObject tradeJson = tradeElement.getAsJsonObject();
+                sink.onTrade(streamName, new TradeTick(
+                    Instant.ofEpochMilli(Long.parseLong(tradeJson.get("ts").getAsString())),
+                    new BigDecimal(tradeJson.get("px").getAsString()),
+                    new BigDecimal(tradeJson.get("sz").getAsString()),
+                    tradeJson.get("side").getAsString()
+                ));
+            }
+        }
+    }
+}
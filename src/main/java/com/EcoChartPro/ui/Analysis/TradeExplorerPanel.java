@@ -296,7 +296,7 @@ public class TradeExplorerPanel extends JPanel implements PropertyChangeListener
                 Optional<DataSourceManager.ChartDataSource> sourceOpt = DataSourceManager.getInstance().getAvailableSources().stream()
                         .filter(s -> s.symbol().equalsIgnoreCase(trade.symbol().name())).findFirst();
                 if (sourceOpt.isPresent()) {
-                    try (DatabaseManager db = new DatabaseManager("jdbc:sqlite:" + sourceOpt.get().dbPath().toAbsolutePath())) {
+                    try (DatabaseManager db = DatabaseManager.open("jdbc:sqlite:" + sourceOpt.get().dbPath().toAbsolutePath())) {
                         Instant startTime = trade.entryTime().minus(Duration.ofMinutes(15));
                         Instant endTime = trade.exitTime().plus(Duration.ofMinutes(15));
                         List<KLine> baseData = db.getKLinesBetween(new Symbol(trade.symbol().name()), "1m", startTime, endTime);
@@ -338,7 +338,7 @@ public class TradeExplorerPanel extends JPanel implements PropertyChangeListener
                     return Collections.emptyMap();
                 }
 
-                try (DatabaseManager db = new DatabaseManager("jdbc:sqlite:" + sourceOpt.get().dbPath().toAbsolutePath())) {
+                try (DatabaseManager db = DatabaseManager.open("jdbc:sqlite:" + sourceOpt.get().dbPath().toAbsolutePath())) {
                     Instant startTime = trade.entryTime().minus(Duration.ofMinutes(1));
                     Instant endTime = trade.exitTime().plus(Duration.ofMinutes(1));
                     List<KLine> klines = db.getKLinesBetween(new Symbol(trade.symbol().name()), "1m", startTime, endTime);
@@ -486,7 +486,7 @@ public class ChartWorkspacePanel extends JPanel implements PropertyChangeListene
         if (source != null && source.dbPath() != null) {
             // Case 1: Local File Replay (specific .db file)
             String jdbcUrl = "jdbc:sqlite:" + source.dbPath().toAbsolutePath();
-            this.activeDbManager = new DatabaseManager(jdbcUrl);
+            this.activeDbManager = DatabaseManager.open(jdbcUrl);
         } else {
             // Case 2: Live Data (Binance/OKX) - Use the main application DB for caching
             this.activeDbManager = DatabaseManager.getInstance();
@@ -30,6 +30,7 @@ import com.EcoChartPro.model.trading.Position;
 import com.EcoChartPro.ui.chart.axis.ChartAxis;
 import com.EcoChartPro.ui.chart.render.AxisRenderer;
 import com.EcoChartPro.ui.chart.render.ChartRenderer;
+import com.EcoChartPro.ui.chart.render.RenderSnapshot;
 import com.EcoChartPro.ui.chart.render.DaySeparatorRenderer;
 import com.EcoChartPro.ui.chart.render.IndicatorDrawableRenderer;
 import com.EcoChartPro.ui.chart.render.PeakHoursRenderer;
@@ -58,6 +59,7 @@ import java.beans.PropertyChangeListener;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -104,6 +106,12 @@ public class ChartPanel extends JPanel implements PropertyChangeListener, Drawin
     private boolean isLoading = false;
     private String loadingMessage = "";
 
+    // Render-side snapshot of the visible window, rebuilt only when the model publishes a new window.
+    private transient List<KLine> snapshotSource;
+    private transient ChartType snapshotChartType;
+    private transient List<KLine> snapshotKLines = Collections.emptyList();
+    private transient RenderSnapshot renderSnapshot = RenderSnapshot.EMPTY;
+
     private boolean showDrawings = true;
     private boolean showIndicators = true;
     private boolean showPositionsAndOrders = true;
@@ -418,6 +426,23 @@ public class ChartPanel extends JPanel implements PropertyChangeListener, Drawin
         repaint();
     }
 
+    /**
+     * Rebuilds the primitive render snapshot when the model has assembled a new visible
+     * window or the chart type changed. Repaints for crosshair moves and the like reuse it.
+     */
+    private void updateRenderSnapshot(List<KLine> rawVisibleKLines) {
+        if (rawVisibleKLines == snapshotSource && this.chartType == snapshotChartType
+                && rawVisibleKLines.size() == snapshotKLines.size()) {
+            return;
+        }
+        snapshotSource = rawVisibleKLines;
+        snapshotChartType = this.chartType;
+        snapshotKLines = (this.chartType == ChartType.HEIKIN_ASHI)
+                ? DataTransformer.transformToHeikinAshi(rawVisibleKLines)
+                : rawVisibleKLines;
+        renderSnapshot = RenderSnapshot.of(snapshotKLines);
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
@@ -468,13 +493,11 @@ public class ChartPanel extends JPanel implements PropertyChangeListener, Drawin
              return;
         }
 
-        List<KLine> klinesToRender = rawVisibleKLines;
-        if (this.chartType == ChartType.HEIKIN_ASHI) {
-            klinesToRender = DataTransformer.transformToHeikinAshi(rawVisibleKLines);
-        }
+        updateRenderSnapshot(rawVisibleKLines);
+        List<KLine> klinesToRender = snapshotKLines;
 
         axisRenderer.draw(g2d, chartAxis, klinesToRender, currentTimeframe);
-        chartRenderer.draw(g2d, this.chartType, chartAxis, klinesToRender, interactionManager.getStartIndex(), this.dataModel);
+        chartRenderer.draw(g2d, this.chartType, chartAxis, renderSnapshot, interactionManager.getStartIndex(), this.dataModel);
 
 
         if (settings.isDaySeparatorsEnabled()) {
@@ -17,6 +17,9 @@ import java.util.List;
 public class ChartAxis {
     private BigDecimal minPrice = BigDecimal.ZERO;
     private BigDecimal maxPrice = BigDecimal.ZERO;
+    // Double copies of the price range so that per-candle mapping stays off BigDecimal.
+    private double minPriceValue = 0;
+    private double priceRangeValue = 0;
     private int barsPerScreen = 0;
     private int chartWidth = 0;
     private int chartHeight = 0;
@@ -50,6 +53,7 @@ public class ChartAxis {
         this.chartWidth = dimensions.width;
         this.chartHeight = dimensions.height;
         this.isInverted = isInverted;
+        updatePriceValues();
         this.isConfigured = true;
     }
 
@@ -68,10 +72,16 @@ public class ChartAxis {
         this.maxPrice = yAxisSource.maxPrice;
         this.chartHeight = yAxisSource.chartHeight;
         this.isInverted = yAxisSource.isInverted;
+        updatePriceValues();
 
         this.isConfigured = true;
     }
 
+    private void updatePriceValues() {
+        this.minPriceValue = minPrice.doubleValue();
+        this.priceRangeValue = maxPrice.subtract(minPrice).doubleValue();
+    }
+
 
     public int priceToY(BigDecimal price) {
         if (!isConfigured) return 0;
@@ -82,15 +92,21 @@ public class ChartAxis {
         if (price.equals(ANCHOR_BOTTOM)) {
             return isInverted ? Y_AXIS_PADDING : chartHeight - Y_AXIS_PADDING;
         }
+        return priceToY(price.doubleValue());
+    }
+
+    /**
+     * Maps a price to a screen Y-coordinate using plain double arithmetic. This is the
+     * hot path for renderers; it does not recognise the {@link #ANCHOR_TOP}/{@link #ANCHOR_BOTTOM} sentinels.
+     */
+    public int priceToY(double price) {
+        if (!isConfigured) return 0;
 
         int drawableHeight = chartHeight - (2 * Y_AXIS_PADDING);
-        BigDecimal priceRange = maxPrice.subtract(minPrice);
-        if (priceRange.compareTo(BigDecimal.ZERO) <= 0) {
+        if (priceRangeValue <= 0) {
             return Y_AXIS_PADDING + drawableHeight / 2;
         }
-        BigDecimal priceOffset = price.subtract(minPrice);
-        BigDecimal priceRatio = priceOffset.divide(priceRange, 10, RoundingMode.HALF_UP);
-        int pixelOffset = priceRatio.multiply(BigDecimal.valueOf(drawableHeight)).intValue();
+        int pixelOffset = (int) ((price - minPriceValue) / priceRangeValue * drawableHeight);
 
         if (isInverted) {
             return Y_AXIS_PADDING + pixelOffset;
@@ -132,12 +148,11 @@ public class ChartAxis {
         if (!isConfigured) return 0;
 
         int drawableHeight = chartHeight - (2 * Y_AXIS_PADDING);
-        BigDecimal totalPriceRange = maxPrice.subtract(minPrice);
-        if (totalPriceRange.compareTo(BigDecimal.ZERO) <= 0) {
+        if (priceRangeValue <= 0) {
             return 0;
         }
 
-        double priceRatio = priceValue / totalPriceRange.doubleValue();
+        double priceRatio = priceValue / priceRangeValue;
         return priceRatio * drawableHeight;
     }
 
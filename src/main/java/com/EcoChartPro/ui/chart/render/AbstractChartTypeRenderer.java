@@ -1,11 +1,9 @@
 package com.EcoChartPro.ui.chart.render;
 
 import com.EcoChartPro.core.model.ChartDataModel;
-import com.EcoChartPro.model.KLine;
 import com.EcoChartPro.ui.chart.axis.ChartAxis;
 
 import java.awt.Graphics2D;
-import java.util.List;
 
 /**
  * An interface defining the contract for a renderer that can draw a specific chart type
@@ -18,9 +16,9 @@ public interface AbstractChartTypeRenderer {
      *
      * @param g2d The graphics context to draw on.
      * @param axis The configured chart axis for coordinate mapping.
-     * @param visibleKlines The list of KLine data points that are currently visible on the screen.
+     * @param snapshot The primitive snapshot of the candles that are currently visible on the screen.
      * @param viewStartIndex The absolute starting index of the visible data from the full dataset.
      * @param dataModel The chart's data model, for accessing additional data like footprints.
      */
-    void draw(Graphics2D g2d, ChartAxis axis, List<KLine> visibleKlines, int viewStartIndex, ChartDataModel dataModel);
+    void draw(Graphics2D g2d, ChartAxis axis, RenderSnapshot snapshot, int viewStartIndex, ChartDataModel dataModel);
 }
\ No newline at end of file
@@ -2,34 +2,32 @@ package com.EcoChartPro.ui.chart.render;
 
 import com.EcoChartPro.core.model.ChartDataModel;
 import com.EcoChartPro.core.settings.SettingsService;
-import com.EcoChartPro.model.KLine;
 import com.EcoChartPro.ui.chart.axis.ChartAxis;
 
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.geom.GeneralPath;
-import java.util.List;
 
 public class AreaRenderer implements AbstractChartTypeRenderer {
     @Override
-    public void draw(Graphics2D g2d, ChartAxis axis, List<KLine> klines, int viewStartIndex, ChartDataModel dataModel) {
-        if (!axis.isConfigured() || klines == null || klines.isEmpty()) return;
+    public void draw(Graphics2D g2d, ChartAxis axis, RenderSnapshot snapshot, int viewStartIndex, ChartDataModel dataModel) {
+        if (!axis.isConfigured() || snapshot == null || snapshot.isEmpty()) return;
 
         SettingsService settings = SettingsService.getInstance();
         Color lineColor = settings.getBullColor();
         Color areaColor = new Color(lineColor.getRed(), lineColor.getGreen(), lineColor.getBlue(), 50); // 20% opacity
 
-        GeneralPath path = new GeneralPath();
-        KLine firstKline = klines.get(0);
+        // Build the top line once and reuse it for both the filled area and the outline.
+        GeneralPath linePath = new GeneralPath();
         int firstX = axis.slotToX(0);
-        path.moveTo(firstX, axis.priceToY(firstKline.close()));
-
-        for (int i = 1; i < klines.size(); i++) {
-            path.lineTo(axis.slotToX(i), axis.priceToY(klines.get(i).close()));
+        linePath.moveTo(firstX, axis.priceToY(snapshot.close(0)));
+        for (int i = 1; i < snapshot.size(); i++) {
+            linePath.lineTo(axis.slotToX(i), axis.priceToY(snapshot.close(i)));
         }
 
-        int lastX = axis.slotToX(klines.size() - 1);
+        GeneralPath path = new GeneralPath(linePath);
+        int lastX = axis.slotToX(snapshot.size() - 1);
         int chartHeight = g2d.getClipBounds().height;
         path.lineTo(lastX, chartHeight);
         path.lineTo(firstX, chartHeight);
@@ -41,11 +39,6 @@ public class AreaRenderer implements AbstractChartTypeRenderer {
         // Draw the top line
         g2d.setColor(lineColor);
         g2d.setStroke(new BasicStroke(2.0f));
-        GeneralPath linePath = new GeneralPath();
-        linePath.moveTo(firstX, axis.priceToY(firstKline.close()));
-        for (int i = 1; i < klines.size(); i++) {
-            linePath.lineTo(axis.slotToX(i), axis.priceToY(klines.get(i).close()));
-        }
         g2d.draw(linePath);
     }
-}
\ No newline at end of file
+}
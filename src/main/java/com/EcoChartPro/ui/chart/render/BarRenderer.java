@@ -2,31 +2,31 @@ package com.EcoChartPro.ui.chart.render;
 
 import com.EcoChartPro.core.model.ChartDataModel;
 import com.EcoChartPro.core.settings.SettingsService;
-import com.EcoChartPro.model.KLine;
 import com.EcoChartPro.ui.chart.axis.ChartAxis;
 
+import java.awt.Color;
 import java.awt.Graphics2D;
-import java.util.List;
 
 public class BarRenderer implements AbstractChartTypeRenderer {
     @Override
-    public void draw(Graphics2D g2d, ChartAxis axis, List<KLine> klines, int viewStartIndex, ChartDataModel dataModel) {
-        if (!axis.isConfigured() || klines == null) return;
+    public void draw(Graphics2D g2d, ChartAxis axis, RenderSnapshot snapshot, int viewStartIndex, ChartDataModel dataModel) {
+        if (!axis.isConfigured() || snapshot == null) return;
 
         SettingsService settings = SettingsService.getInstance();
+        Color bullColor = settings.getBullColor();
+        Color bearColor = settings.getBearColor();
         double barWidth = axis.getBarWidth();
         int tickWidth = Math.max(1, (int) (barWidth / 4));
 
-        for (int i = 0; i < klines.size(); i++) {
-            KLine kline = klines.get(i);
+        for (int i = 0; i < snapshot.size(); i++) {
             int xCenter = axis.slotToX(i);
 
-            int yOpen = axis.priceToY(kline.open());
-            int yClose = axis.priceToY(kline.close());
-            int yHigh = axis.priceToY(kline.high());
-            int yLow = axis.priceToY(kline.low());
+            int yOpen = axis.priceToY(snapshot.open(i));
+            int yClose = axis.priceToY(snapshot.close(i));
+            int yHigh = axis.priceToY(snapshot.high(i));
+            int yLow = axis.priceToY(snapshot.low(i));
 
-            g2d.setColor(kline.close().compareTo(kline.open()) >= 0 ? settings.getBullColor() : settings.getBearColor());
+            g2d.setColor(snapshot.isBullish(i) ? bullColor : bearColor);
 
             // Vertical high-low line
             g2d.drawLine(xCenter, yHigh, xCenter, yLow);
@@ -36,4 +36,4 @@ public class BarRenderer implements AbstractChartTypeRenderer {
             g2d.drawLine(xCenter, yClose, xCenter + tickWidth, yClose);
         }
     }
-}
\ No newline at end of file
+}
@@ -31,8 +31,9 @@ public class FootprintRenderer implements AbstractChartTypeRenderer {
     private static final BigDecimal MIN_RENDER_STEP = new BigDecimal("0.00000001");
 
     @Override
-    public void draw(Graphics2D g2d, ChartAxis axis, List<KLine> visibleKlines, int viewStartIndex, ChartDataModel dataModel) {
-        if (!axis.isConfigured() || visibleKlines.isEmpty()) return;
+    public void draw(Graphics2D g2d, ChartAxis axis, RenderSnapshot snapshot, int viewStartIndex, ChartDataModel dataModel) {
+        if (!axis.isConfigured() || snapshot == null || snapshot.isEmpty()) return;
+        List<KLine> visibleKlines = snapshot.getKLines();
 
         SettingsService settings = SettingsService.getInstance();
         g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
@@ -52,7 +53,7 @@ public class FootprintRenderer implements AbstractChartTypeRenderer {
             int barWidth = (int) axis.getBarWidth();
             FootprintBar fpBar = footprintData.get(kline.timestamp());
             if (fpBar == null) {
-                drawFallbackCandle(g2d, axis, kline, i);
+                drawFallbackCandle(g2d, axis, snapshot, i);
                 continue;
             }
 
@@ -174,17 +175,17 @@ public class FootprintRenderer implements AbstractChartTypeRenderer {
         }
     }
 
-    private void drawFallbackCandle(Graphics2D g2d, ChartAxis axis, KLine kline, int slotIndex) {
+    private void drawFallbackCandle(Graphics2D g2d, ChartAxis axis, RenderSnapshot snapshot, int slotIndex) {
         SettingsService settings = SettingsService.getInstance();
         int candleBodyWidth = Math.max(1, (int) (axis.getBarWidth() * 0.8));
         int xCenter = axis.slotToX(slotIndex);
 
-        int yOpen = axis.priceToY(kline.open());
-        int yClose = axis.priceToY(kline.close());
-        int yHigh = axis.priceToY(kline.high());
-        int yLow = axis.priceToY(kline.low());
+        int yOpen = axis.priceToY(snapshot.open(slotIndex));
+        int yClose = axis.priceToY(snapshot.close(slotIndex));
+        int yHigh = axis.priceToY(snapshot.high(slotIndex));
+        int yLow = axis.priceToY(snapshot.low(slotIndex));
 
-        boolean isUp = kline.close().compareTo(kline.open()) >= 0;
+        boolean isUp = snapshot.isBullish(slotIndex);
         g2d.setColor(isUp ? settings.getBullColor() : settings.getBearColor());
         g2d.drawLine(xCenter, yHigh, xCenter, yLow);
         g2d.fillRect(xCenter - candleBodyWidth / 2, Math.min(yOpen, yClose), candleBodyWidth, Math.abs(yOpen - yClose));
@@ -2,35 +2,35 @@ package com.EcoChartPro.ui.chart.render;
 
 import com.EcoChartPro.core.model.ChartDataModel;
 import com.EcoChartPro.core.settings.SettingsService;
-import com.EcoChartPro.model.KLine;
 import com.EcoChartPro.ui.chart.axis.ChartAxis;
 
 import java.awt.*;
-import java.util.List;
 
 public class HeikinAshiRenderer implements AbstractChartTypeRenderer {
     @Override
-    public void draw(Graphics2D g2d, ChartAxis axis, List<KLine> klines, int viewStartIndex, ChartDataModel dataModel) {
-        if (!axis.isConfigured() || klines == null) {
+    public void draw(Graphics2D g2d, ChartAxis axis, RenderSnapshot snapshot, int viewStartIndex, ChartDataModel dataModel) {
+        if (!axis.isConfigured() || snapshot == null) {
             return;
         }
 
         SettingsService settings = SettingsService.getInstance();
+        Color bullColor = settings.getBullColor();
+        Color bearColor = settings.getBearColor();
+        Color backgroundColor = settings.getChartBackground();
         double barWidth = axis.getBarWidth();
         int candleBodyWidth = Math.max(1, (int) (barWidth * 0.8));
 
-        for (int i = 0; i < klines.size(); i++) {
-            KLine kline = klines.get(i);
+        for (int i = 0; i < snapshot.size(); i++) {
             int xCenter = axis.slotToX(i);
 
-            int yOpen = axis.priceToY(kline.open());
-            int yClose = axis.priceToY(kline.close());
-            int yHigh = axis.priceToY(kline.high());
-            int yLow = axis.priceToY(kline.low());
+            int yOpen = axis.priceToY(snapshot.open(i));
+            int yClose = axis.priceToY(snapshot.close(i));
+            int yHigh = axis.priceToY(snapshot.high(i));
+            int yLow = axis.priceToY(snapshot.low(i));
 
             // The color is determined by the Heikin-Ashi open and close, which are already calculated
-            boolean isBullish = kline.close().compareTo(kline.open()) >= 0;
-            g2d.setColor(isBullish ? settings.getBullColor() : settings.getBearColor());
+            boolean isBullish = snapshot.isBullish(i);
+            g2d.setColor(isBullish ? bullColor : bearColor);
 
             // Render wicks precisely relative to the candle body for accurate HA representation.
             int bodyTopY = Math.min(yOpen, yClose);
@@ -49,9 +49,9 @@ public class HeikinAshiRenderer implements AbstractChartTypeRenderer {
 
             // Add an outline to bearish candles for better visibility, matching the standard candle style.
             if (!isBullish) {
-                g2d.setColor(settings.getChartBackground());
+                g2d.setColor(backgroundColor);
                 g2d.drawRect(bodyX, bodyTopY, candleBodyWidth, bodyHeight);
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+package com.EcoChartPro.ui.chart.render;
+
+import com.EcoChartPro.model.KLine;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable, primitive copy of the visible candles, built once per data update
+ * so that renderers can map prices with {@link com.EcoChartPro.ui.chart.axis.ChartAxis#priceToY(double)}
+ * without touching {@code BigDecimal} on every repaint.
+ */
+public final class RenderSnapshot {
+
+    public static final RenderSnapshot EMPTY = new RenderSnapshot(Collections.emptyList());
+
+    private final List<KLine> klines;
+    private final long[] timestamps; // epoch millis
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final double[] volume;
+    private final double minVolume;
+    private final double maxVolume;
+
+    private RenderSnapshot(List<KLine> klines) {
+        int n = klines.size();
+        this.klines = klines;
+        this.timestamps = new long[n];
+        this.open = new double[n];
+        this.high = new double[n];
+        this.low = new double[n];
+        this.close = new double[n];
+        this.volume = new double[n];
+
+        double minVol = n > 0 ? Double.MAX_VALUE : 0;
+        double maxVol = n > 0 ? -Double.MAX_VALUE : 0;
+        for (int i = 0; i < n; i++) {
+            KLine k = klines.get(i);
+            timestamps[i] = k.timestamp().toEpochMilli();
+            open[i] = k.open().doubleValue();
+            high[i] = k.high().doubleValue();
+            low[i] = k.low().doubleValue();
+            close[i] = k.close().doubleValue();
+            volume[i] = k.volume().doubleValue();
+            minVol = Math.min(minVol, volume[i]);
+            maxVol = Math.max(maxVol, volume[i]);
+        }
+        this.minVolume = minVol;
+        this.maxVolume = maxVol;
+    }
+
+    public static RenderSnapshot of(List<KLine> klines) {
+        return (klines == null || klines.isEmpty()) ? EMPTY : new RenderSnapshot(klines);
+    }
+
+    /**
+     * @return The candles this snapshot was built from, for renderers that need more than OHLCV.
+     */
+    public List<KLine> getKLines() { return klines; }
+
+    public int size() { return timestamps.length; }
+    public boolean isEmpty() { return timestamps.length == 0; }
+
+    public long timestampMillis(int i) { return timestamps[i]; }
+    public double open(int i) { return open[i]; }
+    public double high(int i) { return high[i]; }
+    public double low(int i) { return low[i]; }
+    public double close(int i) { return close[i]; }
+    public double volume(int i) { return volume[i]; }
+    public boolean isBullish(int i) { return close[i] >= open[i]; }
+
+    public double getMinVolume() { return minVolume; }
+    public double getMaxVolume() { return maxVolume; }
+}
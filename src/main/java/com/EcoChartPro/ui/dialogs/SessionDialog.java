@@ -221,7 +221,7 @@ public class SessionDialog extends JDialog {
             if (this.sessionMode == SessionMode.REPLAY && selectedDataSource != null) {
                 LocalDate selectedDate = calendarPanel.getSelectedDate();
                 if (selectedDate != null) {
-                    try (DatabaseManager db = new DatabaseManager("jdbc:sqlite:" + selectedDataSource.dbPath().toAbsolutePath())) {
+                    try (DatabaseManager db = DatabaseManager.open("jdbc:sqlite:" + selectedDataSource.dbPath().toAbsolutePath())) {
                         this.replayStartIndex = db.findClosestTimestampIndex(
                             new Symbol(selectedDataSource.symbol()), "1m", selectedDate.atStartOfDay(ZoneId.of("UTC")).toInstant()
                         );
@@ -436,7 +436,7 @@ public class SessionDialog extends JDialog {
             return;
         }
         
-        try (DatabaseManager tempDbManager = new DatabaseManager("jdbc:sqlite:" + source.dbPath().toAbsolutePath())) {
+        try (DatabaseManager tempDbManager = DatabaseManager.open("jdbc:sqlite:" + source.dbPath().toAbsolutePath())) {
             Optional<DatabaseManager.DataRange> rangeOpt = tempDbManager.getDataRange(new Symbol(source.symbol()), "1m");
             if (rangeOpt.isPresent()) {
                 DatabaseManager.DataRange range = rangeOpt.get();
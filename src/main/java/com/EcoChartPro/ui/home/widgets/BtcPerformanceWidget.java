@@ -10,6 +10,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
+import java.util.List;
 import java.util.function.Consumer;
 
 public class BtcPerformanceWidget extends TitledContentPanel {
@@ -26,7 +27,7 @@ public class BtcPerformanceWidget extends TitledContentPanel {
     private static final String BTC_TIMEFRAME = "1m";
 
     private final BinanceProvider binanceProvider = new BinanceProvider();
-    private Consumer<KLine> liveDataConsumer; // Field to hold the consumer instance
+    private Consumer<List<KLine>> liveDataConsumer; // Field to hold the consumer instance
 
     public BtcPerformanceWidget() {
         super("BTC/USDT Performance", new JPanel(new GridBagLayout()));
@@ -102,7 +103,9 @@ public class BtcPerformanceWidget extends TitledContentPanel {
     }
 
     private void subscribeToLiveData() {
-        this.liveDataConsumer = kline -> {
+        // Only the latest update of each batch is shown.
+        this.liveDataConsumer = batch -> {
+            KLine kline = batch.get(batch.size() - 1);
             SwingUtilities.invokeLater(() -> {
                 BigDecimal newPrice = kline.close();
                 priceLabel.setText(String.format("%,.2f", newPrice));
@@ -117,7 +120,7 @@ public class BtcPerformanceWidget extends TitledContentPanel {
                 lastPrice = newPrice;
             });
         };
-        LiveDataManager.getInstance().subscribeToKLine(BTC_SYMBOL, BTC_TIMEFRAME, this.liveDataConsumer);
+        LiveDataManager.getInstance().subscribeToKLineBatches(BTC_SYMBOL, BTC_TIMEFRAME, this.liveDataConsumer);
     }
 
     private void update24hStats(BinanceProvider.TickerData data) {
@@ -138,7 +141,7 @@ public class BtcPerformanceWidget extends TitledContentPanel {
     public void cleanup() {
         // Unsubscribe from the WebSocket to prevent resource leaks
         if (this.liveDataConsumer != null) {
-            LiveDataManager.getInstance().unsubscribeFromKLine(BTC_SYMBOL, BTC_TIMEFRAME, this.liveDataConsumer);
+            LiveDataManager.getInstance().unsubscribeFromKLineBatches(BTC_SYMBOL, BTC_TIMEFRAME, this.liveDataConsumer);
         }
     }
 }
\ No newline at end of file
@@ -55,15 +55,22 @@ public class ReplayControlPanel extends JPanel implements PropertyChangeListener
 
         JLabel speedLabel = new JLabel("Speed:");
         speedLabel.setForeground(UIManager.getColor("Label.foreground"));
-        String[] speeds = {"0.05s", "0.1s", "0.2s", "0.5s", "1s", "2s", "5s"};
+        String[] speeds = {"Turbo Max", "Turbo x60", "Turbo x10", "0.05s", "0.1s", "0.2s", "0.5s", "1s", "2s", "5s"};
         speedComboBox = new JComboBox<>(speeds);
         speedComboBox.setSelectedItem("1s");
         speedComboBox.setToolTipText("Select playback speed");
         speedComboBox.setFocusable(false);
-        speedComboBox.setMaximumSize(new Dimension(80, speedComboBox.getPreferredSize().height));
+        speedComboBox.setMaximumSize(new Dimension(100, speedComboBox.getPreferredSize().height));
         speedComboBox.addActionListener(e -> {
             String selected = (String) speedComboBox.getSelectedItem();
             if (selected == null) return;
+            // Turbo modes advance several bars per display frame and repaint once per frame.
+            if (selected.startsWith("Turbo")) {
+                controller.setTurbo(selected.endsWith("Max")
+                        ? ReplaySessionManager.TURBO_MAX
+                        : Integer.parseInt(selected.substring(selected.indexOf('x') + 1)));
+                return;
+            }
             try {
                 int delay = (int) (Double.parseDouble(selected.replace("s", "")) * 1000);
                 controller.setSpeed(delay);
@@ -81,7 +81,7 @@ public class SymbolProgressCache {
         if (source.dbPath() == null) {
             return 0; // Live sources don't have a fixed total bar count for progress
         }
-        try (DatabaseManager tempDb = new DatabaseManager("jdbc:sqlite:" + source.dbPath().toAbsolutePath())) {
+        try (DatabaseManager tempDb = DatabaseManager.open("jdbc:sqlite:" + source.dbPath().toAbsolutePath())) {
             return tempDb.getTotalKLineCount(new Symbol(source.symbol()), "1m");
         } catch (Exception e) {
             logger.warn("Could not read total bar count for progress calculation on {}", source.symbol(), e);
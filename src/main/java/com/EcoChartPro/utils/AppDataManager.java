@@ -21,6 +21,7 @@ public final class AppDataManager {
     // [MODIFIED] Renamed constant and file to be specific to Replay mode.
     private static final String REPLAY_AUTO_SAVE_FILE_NAME = "replay_autosave.json";
     private static final String LOGS_DIR_NAME = "logs"; 
+    private static final String HISTORY_CACHE_DIR_NAME = "history_cache";
 
 
     private AppDataManager() {}
@@ -65,6 +66,24 @@ public final class AppDataManager {
         }
     }
     
+    /**
+     * @return The directory of the per-exchange history cache databases, created if needed.
+     */
+    public static Optional<Path> getHistoryCacheDirectory() {
+        try {
+            Path appDataDir = getAppDataDirectory();
+            Path cacheDir = appDataDir.resolve(HISTORY_CACHE_DIR_NAME);
+            if (Files.notExists(cacheDir)) {
+                Files.createDirectories(cacheDir);
+                logger.info("Created history cache directory at: {}", cacheDir.toAbsolutePath());
+            }
+            return Optional.of(cacheDir);
+        } catch (IOException e) {
+            logger.error("Could not create or access the history cache directory.", e);
+            return Optional.empty();
+        }
+    }
+
     public static Optional<Path> getScriptsDirectory() {
         try {
             Path appDataDir = getAppDataDirectory();
@@ -0,0 +1,142 @@
+package com.EcoChartPro.utils;
+
+import java.util.Arrays;
+
+/**
+ * Maps the row indices of one timestamp-sorted K-line series to their timestamps and
+ * back without touching the bars. The series is stored as runs of evenly spaced bars:
+ * a gap-free stretch of 1m data is a single run, and each gap (a weekend, an exchange
+ * outage, a minute without trades) starts a new one. Both directions are a binary search
+ * over the runs, so a lookup costs O(log runs) whatever the length of the series.
+ * <p>
+ * The index only grows by {@link #append}; a series that changes elsewhere has to be
+ * re-indexed from the point of the change. Not thread-safe.
+ */
+final class BarTimeIndex {
+
+    /** One run of bars: {@code length} bars {@code stepSec} apart, the first at row {@code startIndex}. */
+    record Run(int startIndex, long startSec, long stepSec, int length) {}
+
+    private int[] startIndex = new int[16];
+    private long[] startSec = new long[16];
+    private long[] stepSec = new long[16];
+    private int[] length = new int[16];
+    private int runCount;
+    private int size;
+
+    /**
+     * Adds a run read back from storage. Runs must be added in order and be contiguous.
+     */
+    void addRun(Run run) {
+        if (run.startIndex() != size || run.length() < 1) {
+            throw new IllegalArgumentException("Run " + run + " does not continue an index of " + size + " bars.");
+        }
+        ensureCapacity();
+        startIndex[runCount] = run.startIndex();
+        startSec[runCount] = run.startSec();
+        stepSec[runCount] = run.length() == 1 ? 0 : run.stepSec();
+        length[runCount] = run.length();
+        runCount++;
+        size += run.length();
+    }
+
+    /**
+     * Adds the next bar of the series. Timestamps must be strictly ascending.
+     */
+    void append(long timestampSec) {
+        if (runCount > 0) {
+            int last = runCount - 1;
+            long delta = timestampSec - lastTimestampSec();
+            if (delta <= 0) {
+                throw new IllegalArgumentException("Timestamp " + timestampSec + " is not after " + lastTimestampSec() + ".");
+            }
+            if (length[last] == 1 || stepSec[last] == delta) {
+                stepSec[last] = delta;
+                length[last]++;
+                size++;
+                return;
+            }
+        }
+        ensureCapacity();
+        startIndex[runCount] = size;
+        startSec[runCount] = timestampSec;
+        stepSec[runCount] = 0;
+        length[runCount] = 1;
+        runCount++;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int runCount() {
+        return runCount;
+    }
+
+    Run run(int i) {
+        return new Run(startIndex[i], startSec[i], stepSec[i], length[i]);
+    }
+
+    /**
+     * @return The timestamp of the last bar, or {@code Long.MIN_VALUE} if the index is empty.
+     */
+    long lastTimestampSec() {
+        if (runCount == 0) return Long.MIN_VALUE;
+        int last = runCount - 1;
+        return startSec[last] + stepSec[last] * (length[last] - 1);
+    }
+
+    /**
+     * @return The index of the first bar at or after the target, or {@link #size()} if there is none.
+     */
+    int indexAtOrAfter(long timestampSec) {
+        int run = lastRunStartingAtOrBefore(timestampSec);
+        if (run < 0) return 0;
+        long offsetSec = timestampSec - startSec[run];
+        if (stepSec[run] == 0) {
+            return offsetSec == 0 ? startIndex[run] : startIndex[run] + 1;
+        }
+        long offset = (offsetSec + stepSec[run] - 1) / stepSec[run];
+        return offset < length[run] ? startIndex[run] + (int) offset : startIndex[run] + length[run];
+    }
+
+    /**
+     * @return The timestamp of the bar at the index, which must be in [0, size).
+     */
+    long timestampAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Bar " + index + " of " + size);
+        }
+        int low = 0, high = runCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (startIndex[mid] <= index) low = mid; else high = mid - 1;
+        }
+        return startSec[low] + stepSec[low] * (index - startIndex[low]);
+    }
+
+    /** @return The last run starting at or before the timestamp, or -1 if every run starts after it. */
+    private int lastRunStartingAtOrBefore(long timestampSec) {
+        int low = 0, high = runCount - 1, found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (startSec[mid] <= timestampSec) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    private void ensureCapacity() {
+        if (runCount < startIndex.length) return;
+        int capacity = startIndex.length * 2;
+        startIndex = Arrays.copyOf(startIndex, capacity);
+        startSec = Arrays.copyOf(startSec, capacity);
+        stepSec = Arrays.copyOf(stepSec, capacity);
+        length = Arrays.copyOf(length, capacity);
+    }
+}
@@ -17,9 +17,21 @@ import java.sql.Statement;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public final class DatabaseManager implements AutoCloseable {
 
@@ -28,7 +40,29 @@ public final class DatabaseManager implements AutoCloseable {
     private static final String DB_URL = getDatabaseUrl();
     private static volatile DatabaseManager instance;
 
-    private Connection connection;
+    private static final int READ_POOL_SIZE = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final long WRITER_SHUTDOWN_TIMEOUT_MS = 30_000;
+
+    // All writes go through the writer's single connection; reads use the pool.
+    private DatabaseWriter writer;
+    private ReadConnectionPool readPool;
+    private String databaseUrl;
+
+    // Open managers by normalized URL. refCount, registryKey and pendingIdleClose are guarded by this map.
+    private static final Map<String, DatabaseManager> openDatabases = new HashMap<>();
+    private static final long IDLE_CLOSE_DELAY_MS = 30_000;
+    private static final ScheduledExecutorService idleCloser = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "DB-Idle-Closer");
+        t.setDaemon(true);
+        return t;
+    });
+    private int refCount;
+    private String registryKey;
+    private ScheduledFuture<?> pendingIdleClose;
+    // Row index <-> timestamp maps of the series read so far, by series key. Dropped when a write commits.
+    private final ConcurrentMap<String, CompletableFuture<BarTimeIndex>> timeIndexes = new ConcurrentHashMap<>();
+    // Bumped after every committed K-line write, per series, to detect stale index scans.
+    private final Map<String, AtomicLong> klineWriteGenerations = new ConcurrentHashMap<>();
 
     public record DatasetInfo(String symbol, String timeframe) {
         @Override
@@ -39,6 +73,26 @@ public final class DatabaseManager implements AutoCloseable {
 
     public record DataRange(Instant start, Instant end) {}
 
+    /**
+     * Prefix of the timeframe key that a rollup series (derived from a symbol's 1m bars) is
+     * stored under, so that it never shares a key with imported data of the same timeframe.
+     */
+    public static final String ROLLUP_KEY_PREFIX = "rollup:";
+
+    /**
+     * @return The timeframe key that the rollup of the given timeframe is stored under.
+     */
+    public static String rollupKey(String timeframe) {
+        return ROLLUP_KEY_PREFIX + timeframe;
+    }
+
+    /**
+     * @return True if the timeframe key holds a rollup rather than imported or live data.
+     */
+    public static boolean isRollupKey(String timeframe) {
+        return timeframe != null && timeframe.startsWith(ROLLUP_KEY_PREFIX);
+    }
+
     private static final String CREATE_TABLE_SQL = """
         CREATE TABLE IF NOT EXISTS kline_data (
             symbol TEXT NOT NULL,
@@ -95,24 +149,83 @@ public final class DatabaseManager implements AutoCloseable {
         ON trade_kline_data (trade_id, timeframe, timestamp_sec);
     """;
 
-    private DatabaseManager() {
-        init(DB_URL);
+    // The runs of evenly spaced bars that make up each kline_data series (see BarTimeIndex).
+    private static final String CREATE_TIME_RUNS_TABLE_SQL = """
+        CREATE TABLE IF NOT EXISTS kline_time_runs (
+            symbol TEXT NOT NULL,
+            timeframe TEXT NOT NULL,
+            start_index INTEGER NOT NULL,
+            start_sec INTEGER NOT NULL,
+            step_sec INTEGER NOT NULL,
+            length INTEGER NOT NULL,
+            PRIMARY KEY (symbol, timeframe, start_index)
+        );
+    """;
+
+    // Half-open [start_sec, end_sec) ranges of a series known to hold every bar of its source.
+    private static final String CREATE_COVERAGE_TABLE_SQL = """
+        CREATE TABLE IF NOT EXISTS kline_coverage (
+            symbol TEXT NOT NULL,
+            timeframe TEXT NOT NULL,
+            start_sec INTEGER NOT NULL,
+            end_sec INTEGER NOT NULL,
+            PRIMARY KEY (symbol, timeframe, start_sec)
+        );
+    """;
+
+    private DatabaseManager(String dbUrl) {
+        init(dbUrl);
     }
-    
+
     /**
-     * Public constructor to create a manager for a specific database file.
+     * Opens a manager for a specific database file. Every caller that opens the same file
+     * shares one manager, so the connections, PRAGMAs and schema setup happen once per
+     * file rather than once per call. Each call must be matched by one {@link #close()}.
      * @param dbUrl The full JDBC URL (e.g., "jdbc:sqlite:/path/to/data.db").
      */
-    public DatabaseManager(String dbUrl) {
-        init(dbUrl);
+    public static DatabaseManager open(String dbUrl) {
+        String key = normalizeUrl(dbUrl);
+        if (key == null) {
+            // In-memory databases are private to their connection, so they are never shared.
+            DatabaseManager db = new DatabaseManager(dbUrl);
+            db.refCount = 1;
+            return db;
+        }
+        synchronized (openDatabases) {
+            DatabaseManager db = openDatabases.get(key);
+            if (db == null) {
+                db = new DatabaseManager(key);
+                db.registryKey = key;
+                openDatabases.put(key, db);
+            } else if (db.pendingIdleClose != null) {
+                db.pendingIdleClose.cancel(false);
+                db.pendingIdleClose = null;
+            }
+            db.refCount++;
+            return db;
+        }
+    }
+
+    private static String normalizeUrl(String dbUrl) {
+        String prefix = "jdbc:sqlite:";
+        if (!dbUrl.startsWith(prefix) || dbUrl.contains(":memory:") || dbUrl.length() == prefix.length()) {
+            return null;
+        }
+        return prefix + Path.of(dbUrl.substring(prefix.length())).toAbsolutePath().normalize();
     }
     
     private void init(String dbUrl) {
+        this.databaseUrl = dbUrl;
         try {
-            connection = DriverManager.getConnection(dbUrl);
+            Connection connection = DriverManager.getConnection(dbUrl);
             logger.info("Database connection established for URL: {}", dbUrl);
-            setConnectionPragmas();
-            initializeSchema();
+            setConnectionPragmas(connection);
+            initializeSchema(connection);
+            this.writer = new DatabaseWriter(connection, dbUrl);
+            // A non-file database cannot be opened a second time, so its reads share the write connection.
+            this.readPool = getDatabasePath().isPresent()
+                    ? new ReadConnectionPool(dbUrl, READ_POOL_SIZE)
+                    : new ReadConnectionPool(connection);
         } catch (SQLException e) {
             logger.error("Failed to connect to the database at " + dbUrl, e);
             throw new RuntimeException("Database connection failed", e);
@@ -131,7 +244,7 @@ public final class DatabaseManager implements AutoCloseable {
         }
     }
     
-    private void setConnectionPragmas() throws SQLException {
+    private static void setConnectionPragmas(Connection connection) throws SQLException {
         try (Statement stmt = connection.createStatement()) {
             stmt.execute("PRAGMA journal_mode = WAL;");
             stmt.execute("PRAGMA synchronous = NORMAL;");
@@ -141,18 +254,29 @@ public final class DatabaseManager implements AutoCloseable {
         }
     }
 
+    /**
+     * @return The path of the underlying database file, or empty for non-file URLs.
+     */
+    public Optional<Path> getDatabasePath() {
+        String prefix = "jdbc:sqlite:";
+        if (databaseUrl == null || !databaseUrl.startsWith(prefix) || databaseUrl.contains(":memory:")) {
+            return Optional.empty();
+        }
+        return Optional.of(Path.of(databaseUrl.substring(prefix.length())));
+    }
+
     public static DatabaseManager getInstance() {
         if (instance == null) {
             synchronized (DatabaseManager.class) {
                 if (instance == null) {
-                    instance = new DatabaseManager();
+                    instance = open(DB_URL);
                 }
             }
         }
         return instance;
     }
 
-    private void initializeSchema() throws SQLException {
+    private static void initializeSchema(Connection connection) throws SQLException {
         try (Statement stmt = connection.createStatement()) {
             stmt.execute(CREATE_TABLE_SQL);
             stmt.execute(CREATE_INDEX_SQL);
@@ -161,14 +285,20 @@ public final class DatabaseManager implements AutoCloseable {
             // [NEW] Create the new table on initialization
             stmt.execute(CREATE_TRADE_KLINES_TABLE_SQL);
             stmt.execute(CREATE_TRADE_KLINES_INDEX_SQL);
+            stmt.execute(CREATE_TIME_RUNS_TABLE_SQL);
+            stmt.execute(CREATE_COVERAGE_TABLE_SQL);
         }
     }
 
+    /**
+     * @return The stored (symbol, timeframe) series, without rollups, which are derived data.
+     */
     public List<DatasetInfo> getAvailableDatasets() {
         List<DatasetInfo> datasets = new ArrayList<>();
-        String sql = "SELECT DISTINCT symbol, timeframe FROM kline_data ORDER BY symbol, timeframe";
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        String sql = "SELECT DISTINCT symbol, timeframe FROM kline_data WHERE timeframe NOT LIKE '" + ROLLUP_KEY_PREFIX + "%' "
+                + "ORDER BY symbol, timeframe";
+        try (ReadConnectionPool.Lease lease = readPool.acquire();
+             ResultSet rs = lease.prepare(sql).executeQuery()) {
             while (rs.next()) {
                 datasets.add(new DatasetInfo(rs.getString("symbol"), rs.getString("timeframe")));
             }
@@ -180,7 +310,8 @@ public final class DatabaseManager implements AutoCloseable {
 
     public Optional<DataRange> getDataRange(Symbol symbol, String timeframe) {
         String sql = "SELECT MIN(timestamp_sec), MAX(timestamp_sec) FROM kline_data WHERE symbol = ? AND timeframe = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (ReadConnectionPool.Lease lease = readPool.acquire()) {
+            PreparedStatement pstmt = lease.prepare(sql);
             pstmt.setString(1, symbol.name());
             pstmt.setString(2, timeframe);
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -199,11 +330,14 @@ public final class DatabaseManager implements AutoCloseable {
         return Optional.empty();
     }
 
+    /**
+     * @return The timeframes of the stored data, without rollups.
+     */
     public List<String> getDistinctTimeframes() {
         List<String> timeframes = new ArrayList<>();
-        String sql = "SELECT DISTINCT timeframe FROM kline_data ORDER BY timeframe";
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        String sql = "SELECT DISTINCT timeframe FROM kline_data WHERE timeframe NOT LIKE '" + ROLLUP_KEY_PREFIX + "%' ORDER BY timeframe";
+        try (ReadConnectionPool.Lease lease = readPool.acquire();
+             ResultSet rs = lease.prepare(sql).executeQuery()) {
             while (rs.next()) {
                 timeframes.add(rs.getString("timeframe"));
             }
@@ -221,7 +355,8 @@ public final class DatabaseManager implements AutoCloseable {
     public List<Long> getAllTimestamps(Symbol symbol, String timeframe) {
         List<Long> timestamps = new ArrayList<>();
         String sql = "SELECT timestamp_sec FROM kline_data WHERE symbol = ? AND timeframe = ? ORDER BY timestamp_sec ASC";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (ReadConnectionPool.Lease lease = readPool.acquire()) {
+            PreparedStatement pstmt = lease.prepare(sql);
             pstmt.setString(1, symbol.name());
             pstmt.setString(2, timeframe);
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -237,53 +372,30 @@ public final class DatabaseManager implements AutoCloseable {
     }
 
     /**
-     * An extremely efficient method to find the index of a timestamp without loading data into memory.
-     * It performs two fast, indexed queries.
+     * Finds the index of the first bar at or after the target time, or of the last bar if
+     * there is none. Answered from the series' time index, without querying the bars.
      */
     public int findClosestTimestampIndex(Symbol symbol, String timeframe, Instant targetTime) {
-        long targetTimestampSec = targetTime.getEpochSecond();
-        long foundTimestampSec = -1;
-
-        String findSql = "SELECT timestamp_sec FROM kline_data WHERE symbol = ? AND timeframe = ? AND timestamp_sec >= ? ORDER BY timestamp_sec ASC LIMIT 1";
-        try (PreparedStatement pstmt = connection.prepareStatement(findSql)) {
-            pstmt.setString(1, symbol.name());
-            pstmt.setString(2, timeframe);
-            pstmt.setLong(3, targetTimestampSec);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    foundTimestampSec = rs.getLong(1);
-                }
-            }
-        } catch (SQLException e) {
-            logger.error("Failed to find closest timestamp for {} ({})", symbol.name(), timeframe, e);
-            return 0;
-        }
-
-        if (foundTimestampSec == -1) {
-            return Math.max(0, getTotalKLineCount(symbol, timeframe) - 1);
-        }
+        BarTimeIndex index = timeIndex(symbol, timeframe);
+        if (index.size() == 0) return 0;
+        return Math.min(index.indexAtOrAfter(targetTime.getEpochSecond()), index.size() - 1);
+    }
 
-        String countSql = "SELECT COUNT(*) FROM kline_data WHERE symbol = ? AND timeframe = ? AND timestamp_sec < ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(countSql)) {
-            pstmt.setString(1, symbol.name());
-            pstmt.setString(2, timeframe);
-            pstmt.setLong(3, foundTimestampSec);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1);
-                }
-            }
-        } catch (SQLException e) {
-            logger.error("Failed to count preceding timestamps for {} ({})", symbol.name(), timeframe, e);
-        }
-        return 0;
+    /**
+     * @return The timestamp of the bar at the index, or empty if the series has no such bar.
+     */
+    public Optional<Instant> findTimestampAtIndex(Symbol symbol, String timeframe, int rowIndex) {
+        BarTimeIndex index = timeIndex(symbol, timeframe);
+        if (rowIndex < 0 || rowIndex >= index.size()) return Optional.empty();
+        return Optional.of(Instant.ofEpochSecond(index.timestampAt(rowIndex)));
     }
 
 
     public List<KLine> getKLinesStartingFrom(Symbol symbol, String timeframe, long startTimestamp, int limit) {
         List<KLine> klines = new ArrayList<>();
         String sql = "SELECT * FROM kline_data WHERE symbol = ? AND timeframe = ? AND timestamp_sec >= ? ORDER BY timestamp_sec ASC LIMIT ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (ReadConnectionPool.Lease lease = readPool.acquire()) {
+            PreparedStatement pstmt = lease.prepare(sql);
             pstmt.setString(1, symbol.name());
             pstmt.setString(2, timeframe);
             pstmt.setLong(3, startTimestamp);
@@ -307,14 +419,22 @@ public final class DatabaseManager implements AutoCloseable {
         return klines;
     }
 
+    /**
+     * Loads bars by row index. The index is resolved through the series' time index to a
+     * timestamp seek, so no rows are skipped however far into the series the offset is.
+     */
     public List<KLine> getKLinesByIndex(Symbol symbol, String timeframe, int offset, int limit) {
         List<KLine> klines = new ArrayList<>();
-        String sql = "SELECT * FROM kline_data WHERE symbol = ? AND timeframe = ? ORDER BY timestamp_sec ASC LIMIT ? OFFSET ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        BarTimeIndex index = timeIndex(symbol, timeframe);
+        int firstRow = Math.max(0, offset);
+        if (firstRow >= index.size() || limit <= 0) return klines;
+        String sql = "SELECT * FROM kline_data WHERE symbol = ? AND timeframe = ? AND timestamp_sec >= ? ORDER BY timestamp_sec ASC LIMIT ?";
+        try (ReadConnectionPool.Lease lease = readPool.acquire()) {
+            PreparedStatement pstmt = lease.prepare(sql);
             pstmt.setString(1, symbol.name());
             pstmt.setString(2, timeframe);
-            pstmt.setInt(3, limit);
-            pstmt.setInt(4, offset);
+            pstmt.setLong(3, index.timestampAt(firstRow));
+            pstmt.setInt(4, limit);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                  while (rs.next()) {
@@ -337,7 +457,8 @@ public final class DatabaseManager implements AutoCloseable {
     public List<KLine> getKLinesBetween(Symbol symbol, String timeframe, Instant startTime, Instant endTime) {
         List<KLine> klines = new ArrayList<>();
         String sql = "SELECT * FROM kline_data WHERE symbol = ? AND timeframe = ? AND timestamp_sec BETWEEN ? AND ? ORDER BY timestamp_sec ASC";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (ReadConnectionPool.Lease lease = readPool.acquire()) {
+            PreparedStatement pstmt = lease.prepare(sql);
             pstmt.setString(1, symbol.name());
             pstmt.setString(2, timeframe);
             pstmt.setLong(3, startTime.getEpochSecond());
@@ -365,7 +486,8 @@ public final class DatabaseManager implements AutoCloseable {
         List<KLine> klines = new ArrayList<>();
         String sql = "SELECT timestamp_sec, open, high, low, close, volume FROM kline_data WHERE symbol = ? AND timeframe = ? ORDER BY timestamp_sec ASC";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (ReadConnectionPool.Lease lease = readPool.acquire()) {
+            PreparedStatement pstmt = lease.prepare(sql);
             pstmt.setString(1, symbol.name());
             pstmt.setString(2, timeframe);
             
@@ -389,80 +511,136 @@ public final class DatabaseManager implements AutoCloseable {
 
 
     public int getTotalKLineCount(Symbol symbol, String timeframe) {
-        String sql = "SELECT COUNT(*) FROM kline_data WHERE symbol = ? AND timeframe = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        return timeIndex(symbol, timeframe).size();
+    }
+    
+    /**
+     * Queues K-lines for writing. The list is copied, so the caller may reuse it.
+     * Callers outside the store layer should save through
+     * {@link com.EcoChartPro.data.store.KLineStores#forDatabase} so that a columnar copy stays in sync.
+     * <p>
+     * The write is asynchronous: reads issued before the returned future completes may not
+     * see the bars yet. Callers that read them back must wait for it, or for {@link #flush}.
+     * @return A future completed once the bars are committed, or exceptionally if the write failed.
+     */
+    public CompletableFuture<Void> saveKLines(List<KLine> klines, Symbol symbol, String timeframe) {
+        if (klines.isEmpty()) return CompletableFuture.completedFuture(null);
+        List<KLine> batch = List.copyOf(klines);
+        String sql = "INSERT OR REPLACE INTO kline_data (symbol, timeframe, timestamp_sec, open, high, low, close, volume) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        return writer.submit("kline_data", statements -> {
+            PreparedStatement pstmt = statements.prepare(sql);
+            for (KLine kline : batch) {
+                pstmt.setString(1, symbol.name());
+                pstmt.setString(2, timeframe);
+                pstmt.setLong(3, kline.timestamp().getEpochSecond());
+                pstmt.setString(4, kline.open().toPlainString());
+                pstmt.setString(5, kline.high().toPlainString());
+                pstmt.setString(6, kline.low().toPlainString());
+                pstmt.setString(7, kline.close().toPlainString());
+                pstmt.setString(8, kline.volume().toPlainString());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            invalidateTimeRuns(statements, symbol, timeframe, batch);
+            // Also bumped here so a time index save later in this same transaction sees the change.
+            klineWriteGeneration(seriesKey(symbol, timeframe)).incrementAndGet();
+        }).thenRun(() -> onKLinesCommitted(symbol, timeframe));
+    }
+
+    /**
+     * @return The ranges of the series known to hold every bar of its source, as half-open
+     *         [start, end) ranges in ascending order that neither overlap nor touch.
+     */
+    public List<DataRange> getCoverage(Symbol symbol, String timeframe) {
+        List<DataRange> ranges = new ArrayList<>();
+        String sql = "SELECT start_sec, end_sec FROM kline_coverage WHERE symbol = ? AND timeframe = ? ORDER BY start_sec ASC";
+        try (ReadConnectionPool.Lease lease = readPool.acquire()) {
+            PreparedStatement pstmt = lease.prepare(sql);
             pstmt.setString(1, symbol.name());
             pstmt.setString(2, timeframe);
             try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1);
+                while (rs.next()) {
+                    ranges.add(new DataRange(Instant.ofEpochSecond(rs.getLong(1)), Instant.ofEpochSecond(rs.getLong(2))));
                 }
             }
         } catch (SQLException e) {
-            logger.error("Failed to get K-line count.", e);
+            logger.error("Failed to retrieve coverage for {} ({}).", symbol.name(), timeframe, e);
         }
-        return 0;
+        return ranges;
     }
-    
-    public void saveKLines(List<KLine> klines, Symbol symbol, String timeframe) {
-        String sql = "INSERT OR REPLACE INTO kline_data (symbol, timeframe, timestamp_sec, open, high, low, close, volume) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-        try {
-            connection.setAutoCommit(false);
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                for (KLine kline : klines) {
-                    pstmt.setString(1, symbol.name());
-                    pstmt.setString(2, timeframe);
-                    pstmt.setLong(3, kline.timestamp().getEpochSecond());
-                    pstmt.setString(4, kline.open().toPlainString());
-                    pstmt.setString(5, kline.high().toPlainString());
-                    pstmt.setString(6, kline.low().toPlainString());
-                    pstmt.setString(7, kline.close().toPlainString());
-                    pstmt.setString(8, kline.volume().toPlainString());
-                    pstmt.addBatch();
+
+    /**
+     * Queues marking the half-open range [start, end) of a series as complete, merged with
+     * the stored ranges it overlaps or touches. It is queued with the K-line writes, so a
+     * range never becomes visible before the bars saved ahead of it.
+     * @return A future completed once the range is committed.
+     */
+    public CompletableFuture<Void> addCoverage(Symbol symbol, String timeframe, DataRange range) {
+        long start = range.start().getEpochSecond();
+        long end = range.end().getEpochSecond();
+        if (end <= start) return CompletableFuture.completedFuture(null);
+        String boundsSql = "SELECT MIN(start_sec), MAX(end_sec) FROM kline_coverage WHERE symbol = ? AND timeframe = ? AND start_sec <= ? AND end_sec >= ?";
+        String deleteSql = "DELETE FROM kline_coverage WHERE symbol = ? AND timeframe = ? AND start_sec <= ? AND end_sec >= ?";
+        String insertSql = "INSERT INTO kline_coverage (symbol, timeframe, start_sec, end_sec) VALUES (?, ?, ?, ?)";
+        return writer.submit("kline_data", statements -> {
+            long mergedStart = start;
+            long mergedEnd = end;
+            PreparedStatement bounds = statements.prepare(boundsSql);
+            bounds.setString(1, symbol.name());
+            bounds.setString(2, timeframe);
+            bounds.setLong(3, end);
+            bounds.setLong(4, start);
+            try (ResultSet rs = bounds.executeQuery()) {
+                if (rs.next()) {
+                    long minStart = rs.getLong(1);
+                    if (!rs.wasNull()) {
+                        mergedStart = Math.min(mergedStart, minStart);
+                        mergedEnd = Math.max(mergedEnd, rs.getLong(2));
+                    }
                 }
-                pstmt.executeBatch();
-                connection.commit();
-            } catch (SQLException e) {
-                connection.rollback();
-                logger.error("Error during batch insert, transaction rolled back.", e);
-            } finally {
-                connection.setAutoCommit(true);
             }
-        } catch (SQLException e) {
-            logger.error("Failed to set transaction properties.", e);
-        }
+            PreparedStatement delete = statements.prepare(deleteSql);
+            delete.setString(1, symbol.name());
+            delete.setString(2, timeframe);
+            delete.setLong(3, end);
+            delete.setLong(4, start);
+            delete.executeUpdate();
+            PreparedStatement insert = statements.prepare(insertSql);
+            insert.setString(1, symbol.name());
+            insert.setString(2, timeframe);
+            insert.setLong(3, mergedStart);
+            insert.setLong(4, mergedEnd);
+            insert.executeUpdate();
+        });
     }
-    
-    public void saveTrades(List<TradeTick> trades, String symbol) {
+
+    /**
+     * Queues trade ticks for writing. The list is copied, so the caller may reuse it.
+     * @return A future completed once the ticks are committed.
+     */
+    public CompletableFuture<Void> saveTrades(List<TradeTick> trades, String symbol) {
+        if (trades.isEmpty()) return CompletableFuture.completedFuture(null);
+        List<TradeTick> batch = List.copyOf(trades);
         String sql = "INSERT OR IGNORE INTO trades (symbol, timestamp_ms, price, quantity, side) VALUES (?, ?, ?, ?, ?)";
-        try {
-            connection.setAutoCommit(false);
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                for (TradeTick trade : trades) {
-                    pstmt.setString(1, symbol);
-                    pstmt.setLong(2, trade.timestamp().toEpochMilli());
-                    pstmt.setString(3, trade.price().toPlainString());
-                    pstmt.setString(4, trade.quantity().toPlainString());
-                    pstmt.setString(5, trade.side());
-                    pstmt.addBatch();
-                }
-                pstmt.executeBatch();
-                connection.commit();
-            } catch (SQLException e) {
-                connection.rollback();
-                logger.error("Error during trade batch insert, transaction rolled back.", e);
-            } finally {
-                connection.setAutoCommit(true);
+        return writer.submit("trades", statements -> {
+            PreparedStatement pstmt = statements.prepare(sql);
+            for (TradeTick trade : batch) {
+                pstmt.setString(1, symbol);
+                pstmt.setLong(2, trade.timestamp().toEpochMilli());
+                pstmt.setString(3, trade.price().toPlainString());
+                pstmt.setString(4, trade.quantity().toPlainString());
+                pstmt.setString(5, trade.side());
+                pstmt.addBatch();
             }
-        } catch (SQLException e) {
-            logger.error("Failed to set transaction properties for saving trades.", e);
-        }
+            pstmt.executeBatch();
+        });
     }
 
     public List<TradeTick> getTrades(String symbol, long startTimeMs, long endTimeMs) {
         List<TradeTick> trades = new ArrayList<>();
         String sql = "SELECT * FROM trades WHERE symbol = ? AND timestamp_ms BETWEEN ? AND ? ORDER BY timestamp_ms ASC";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (ReadConnectionPool.Lease lease = readPool.acquire()) {
+            PreparedStatement pstmt = lease.prepare(sql);
             pstmt.setString(1, symbol);
             pstmt.setLong(2, startTimeMs);
             pstmt.setLong(3, endTimeMs);
@@ -482,40 +660,41 @@ public final class DatabaseManager implements AutoCloseable {
         }
         return trades;
     }
+
+    /**
+     * Opens a streaming cursor over the ticks in [startTimeMs, endTimeMs], for ranges too large
+     * to load with {@link #getTrades}. The cursor borrows a read connection only while it reads a page.
+     */
+    public TradeCursor openTradeCursor(String symbol, long startTimeMs, long endTimeMs) throws SQLException {
+        return new TradeCursor(readPool, symbol, startTimeMs, endTimeMs);
+    }
     
     /**
      * [NEW] Saves a list of K-lines associated with a specific trade ID.
      * Uses INSERT OR IGNORE to prevent duplicates if data is saved multiple times.
+     * @return A future completed once the candles are committed.
      */
-    public void saveTradeCandles(UUID tradeId, String symbol, String timeframe, List<KLine> candles) {
+    public CompletableFuture<Void> saveTradeCandles(UUID tradeId, String symbol, String timeframe, List<KLine> candles) {
+        if (candles.isEmpty()) return CompletableFuture.completedFuture(null);
+        List<KLine> batch = List.copyOf(candles);
         String sql = "INSERT OR IGNORE INTO trade_kline_data (trade_id, symbol, timeframe, timestamp_sec, open, high, low, close, volume) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        try {
-            connection.setAutoCommit(false);
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                for (KLine kline : candles) {
-                    pstmt.setString(1, tradeId.toString());
-                    pstmt.setString(2, symbol);
-                    pstmt.setString(3, timeframe);
-                    pstmt.setLong(4, kline.timestamp().getEpochSecond());
-                    pstmt.setString(5, kline.open().toPlainString());
-                    pstmt.setString(6, kline.high().toPlainString());
-                    pstmt.setString(7, kline.low().toPlainString());
-                    pstmt.setString(8, kline.close().toPlainString());
-                    pstmt.setString(9, kline.volume().toPlainString());
-                    pstmt.addBatch();
-                }
-                pstmt.executeBatch();
-                connection.commit();
-                logger.debug("Saved batch of {} candles for trade {}", candles.size(), tradeId);
-            } catch (SQLException e) {
-                connection.rollback();
-                logger.error("Error during trade candle batch insert, transaction rolled back.", e);
-            } finally {
-                connection.setAutoCommit(true);
+        return writer.submit("trade_kline_data", statements -> {
+            PreparedStatement pstmt = statements.prepare(sql);
+            for (KLine kline : batch) {
+                pstmt.setString(1, tradeId.toString());
+                pstmt.setString(2, symbol);
+                pstmt.setString(3, timeframe);
+                pstmt.setLong(4, kline.timestamp().getEpochSecond());
+                pstmt.setString(5, kline.open().toPlainString());
+                pstmt.setString(6, kline.high().toPlainString());
+                pstmt.setString(7, kline.low().toPlainString());
+                pstmt.setString(8, kline.close().toPlainString());
+                pstmt.setString(9, kline.volume().toPlainString());
+                pstmt.addBatch();
             }
-        } catch (SQLException e) {
-            logger.error("Failed to set transaction properties for saving trade candles.", e);
-        }
+            pstmt.executeBatch();
+            logger.debug("Saved batch of {} candles for trade {}", batch.size(), tradeId);
+        });
     }
 
     /**
@@ -524,7 +703,8 @@ public final class DatabaseManager implements AutoCloseable {
     public List<KLine> getCandlesForTrade(UUID tradeId, String timeframe) {
         List<KLine> klines = new ArrayList<>();
         String sql = "SELECT * FROM trade_kline_data WHERE trade_id = ? AND timeframe = ? ORDER BY timestamp_sec ASC";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (ReadConnectionPool.Lease lease = readPool.acquire()) {
+            PreparedStatement pstmt = lease.prepare(sql);
             pstmt.setString(1, tradeId.toString());
             pstmt.setString(2, timeframe);
 
@@ -549,7 +729,7 @@ public final class DatabaseManager implements AutoCloseable {
     /**
      * [NEW] Deletes all candle data for trades that were closed before the specified timestamp.
      */
-    public void pruneOldTradeCandles(Instant olderThan) {
+    public CompletableFuture<Void> pruneOldTradeCandles(Instant olderThan) {
         // This query finds all trade_ids where the last candle for that trade is older than the retention period.
         String sql = """
             DELETE FROM trade_kline_data
@@ -560,7 +740,8 @@ public final class DatabaseManager implements AutoCloseable {
                 HAVING MAX(timestamp_sec) < ?
             )
         """;
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        return writer.submit("trade_kline_data", statements -> {
+            PreparedStatement pstmt = statements.prepare(sql);
             pstmt.setLong(1, olderThan.getEpochSecond());
             int rowsAffected = pstmt.executeUpdate();
             if (rowsAffected > 0) {
@@ -568,33 +749,273 @@ public final class DatabaseManager implements AutoCloseable {
             } else {
                 logger.debug("No old trade candle data to prune.");
             }
-        } catch (SQLException e) {
-            logger.error("Failed to prune old trade candle data.", e);
-        }
+        });
     }
     
     /**
      * [NEW] Deletes all records from the trade_kline_data table.
      */
-    public void clearAllTradeCandles() {
+    public CompletableFuture<Void> clearAllTradeCandles() {
         String sql = "DELETE FROM trade_kline_data;";
-        try (Statement stmt = connection.createStatement()) {
-            int rowsAffected = stmt.executeUpdate(sql);
+        return writer.submit("trade_kline_data", statements -> {
+            PreparedStatement stmt = statements.prepare(sql);
+            int rowsAffected = stmt.executeUpdate();
             logger.info("Cleared all cached trade candle data. {} records deleted.", rowsAffected);
+        });
+    }
+
+    // --- Write queue ---
+
+    /**
+     * @return A future completed once every write queued before this call is committed.
+     */
+    public CompletableFuture<Void> flush() {
+        return writer.flush();
+    }
+
+    /**
+     * @return True if the write queue is full, so further saves will block until it drains.
+     */
+    public boolean isWriteBackpressured() {
+        return writer.isBackpressured();
+    }
+
+    /**
+     * @return Queue depth and commit latency of this database's writer.
+     */
+    public DatabaseWriter.WriteMetrics getWriteMetrics() {
+        return writer.getMetrics();
+    }
+
+    // --- Row index <-> timestamp index ---
+
+    /**
+     * @return The time index of the series, extended up to its last bar. The first call for
+     *         a series scans its timestamps once and stores the runs; later calls, including
+     *         those of later sessions, only load the runs and scan the bars added since.
+     *         Concurrent calls for the same series wait for one build; other series are not blocked.
+     */
+    private BarTimeIndex timeIndex(Symbol symbol, String timeframe) {
+        String key = seriesKey(symbol, timeframe);
+        CompletableFuture<BarTimeIndex> build = new CompletableFuture<>();
+        CompletableFuture<BarTimeIndex> existing = timeIndexes.putIfAbsent(key, build);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException | CancellationException e) {
+                return timeIndex(symbol, timeframe); // The build failed and was removed; try again.
+            }
+        }
+
+        BarTimeIndex index;
+        boolean cacheable;
+        try {
+            // Captured before reading: if bars are committed meanwhile, the index may be stale.
+            long writeGeneration = klineWriteGeneration(key).get();
+            index = buildTimeIndex(symbol, timeframe, writeGeneration);
+            cacheable = index != null && klineWriteGeneration(key).get() == writeGeneration;
+            if (index == null) index = new BarTimeIndex();
+        } catch (RuntimeException e) {
+            timeIndexes.remove(key, build);
+            build.completeExceptionally(e);
+            throw e;
+        }
+        if (!cacheable) {
+            // Lookups see the bars indexed so far; the next one builds the index again.
+            timeIndexes.remove(key, build);
+        }
+        build.complete(index);
+        return index;
+    }
+
+    /**
+     * Loads the stored runs, extends them with a scan of the newer bars and queues the
+     * changed runs for storage.
+     * @return The index, or null if the scan failed.
+     */
+    private BarTimeIndex buildTimeIndex(Symbol symbol, String timeframe, long writeGeneration) {
+        long start = System.nanoTime();
+        BarTimeIndex index = loadTimeRuns(symbol, timeframe);
+        int storedRuns = index.runCount();
+        int storedSize = index.size();
+
+        String scanSql = "SELECT timestamp_sec FROM kline_data WHERE symbol = ? AND timeframe = ? AND timestamp_sec > ? ORDER BY timestamp_sec ASC";
+        try (ReadConnectionPool.Lease lease = readPool.acquire()) {
+            PreparedStatement pstmt = lease.prepare(scanSql);
+            pstmt.setString(1, symbol.name());
+            pstmt.setString(2, timeframe);
+            pstmt.setLong(3, index.lastTimestampSec());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    index.append(rs.getLong(1));
+                }
+            }
         } catch (SQLException e) {
-            logger.error("Failed to clear trade candle data.", e);
+            logger.error("Failed to scan {} ({}) for its time index.", symbol.name(), timeframe, e);
+            return null;
+        }
+
+        if (index.size() > storedSize) {
+            // The last stored run may have been extended, so it is written again.
+            saveTimeRuns(symbol, timeframe, index, Math.max(0, storedRuns - 1), writeGeneration);
+            logger.debug("Indexed {} bars of {} ({}) as {} runs in {} ms.", index.size() - storedSize,
+                    symbol.name(), timeframe, index.runCount(), (System.nanoTime() - start) / 1_000_000);
+        }
+        return index;
+    }
+
+    private BarTimeIndex loadTimeRuns(Symbol symbol, String timeframe) {
+        BarTimeIndex index = new BarTimeIndex();
+        String sql = "SELECT start_index, start_sec, step_sec, length FROM kline_time_runs WHERE symbol = ? AND timeframe = ? ORDER BY start_index ASC";
+        try (ReadConnectionPool.Lease lease = readPool.acquire()) {
+            PreparedStatement pstmt = lease.prepare(sql);
+            pstmt.setString(1, symbol.name());
+            pstmt.setString(2, timeframe);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    index.addRun(new BarTimeIndex.Run(rs.getInt(1), rs.getLong(2), rs.getLong(3), rs.getInt(4)));
+                }
+            }
+        } catch (SQLException | IllegalArgumentException e) {
+            // Rebuilt from the bars; the rewrite replaces whatever was stored.
+            logger.warn("Ignoring unreadable time index of {} ({}).", symbol.name(), timeframe, e);
+            return new BarTimeIndex();
+        }
+        return index;
+    }
+
+    /**
+     * Queues the runs from {@code fromRun} on for storage without waiting for the commit.
+     * Skipped if bars of the series were committed after {@code writeGeneration} was read,
+     * since the row indices may have shifted.
+     */
+    private void saveTimeRuns(Symbol symbol, String timeframe, BarTimeIndex index, int fromRun, long writeGeneration) {
+        String deleteSql = "DELETE FROM kline_time_runs WHERE symbol = ? AND timeframe = ? AND start_index >= ?";
+        String insertSql = "INSERT INTO kline_time_runs (symbol, timeframe, start_index, start_sec, step_sec, length) VALUES (?, ?, ?, ?, ?, ?)";
+        List<BarTimeIndex.Run> runs = new ArrayList<>(index.runCount() - fromRun);
+        for (int i = fromRun; i < index.runCount(); i++) {
+            runs.add(index.run(i));
+        }
+        AtomicLong generation = klineWriteGeneration(seriesKey(symbol, timeframe));
+        // Queued with the K-line writes so it is ordered against their run invalidation.
+        writer.submit("kline_data", statements -> {
+            if (generation.get() != writeGeneration) {
+                logger.debug("Discarded a stale time index for {} ({}).", symbol.name(), timeframe);
+                return;
+            }
+            PreparedStatement delete = statements.prepare(deleteSql);
+            delete.setString(1, symbol.name());
+            delete.setString(2, timeframe);
+            delete.setLong(3, runs.get(0).startIndex());
+            delete.executeUpdate();
+            PreparedStatement insert = statements.prepare(insertSql);
+            for (BarTimeIndex.Run run : runs) {
+                insert.setString(1, symbol.name());
+                insert.setString(2, timeframe);
+                insert.setInt(3, run.startIndex());
+                insert.setLong(4, run.startSec());
+                insert.setLong(5, run.stepSec());
+                insert.setInt(6, run.length());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }).exceptionally(e -> {
+            // Nothing stored; the next session indexes the series again.
+            logger.error("Error while storing the time index of {} ({}).", symbol.name(), timeframe, e);
+            return null;
+        });
+    }
+
+    /**
+     * Cuts the stored runs back to the bars before the earliest written bar, since inserting
+     * a bar shifts the row index of everything after it. Runs that start at or after it are
+     * dropped and a run spanning it is shortened. Runs inside the writer's transaction.
+     */
+    private static void invalidateTimeRuns(StatementCache statements, Symbol symbol, String timeframe, List<KLine> written) throws SQLException {
+        long earliest = Long.MAX_VALUE;
+        for (KLine kline : written) {
+            earliest = Math.min(earliest, kline.timestamp().getEpochSecond());
         }
+        String deleteSql = "DELETE FROM kline_time_runs WHERE symbol = ? AND timeframe = ? AND start_sec >= ?";
+        PreparedStatement delete = statements.prepare(deleteSql);
+        delete.setString(1, symbol.name());
+        delete.setString(2, timeframe);
+        delete.setLong(3, earliest);
+        delete.executeUpdate();
+
+        // Keeps the bars of the spanning run that are strictly before 'earliest'.
+        String truncateSql = "UPDATE kline_time_runs SET length = (? - start_sec - 1) / step_sec + 1 "
+                + "WHERE symbol = ? AND timeframe = ? AND step_sec > 0 AND start_sec + step_sec * (length - 1) >= ?";
+        PreparedStatement truncate = statements.prepare(truncateSql);
+        truncate.setLong(1, earliest);
+        truncate.setString(2, symbol.name());
+        truncate.setString(3, timeframe);
+        truncate.setLong(4, earliest);
+        truncate.executeUpdate();
+    }
+
+    /**
+     * Runs after a K-line write is committed. Readers only see the new rows from now on,
+     * so this is the point where the cached time index of the series becomes invalid.
+     */
+    private void onKLinesCommitted(Symbol symbol, String timeframe) {
+        String key = seriesKey(symbol, timeframe);
+        klineWriteGeneration(key).incrementAndGet();
+        timeIndexes.remove(key);
+    }
+
+    private AtomicLong klineWriteGeneration(String seriesKey) {
+        return klineWriteGenerations.computeIfAbsent(seriesKey, k -> new AtomicLong());
+    }
+
+    private static String seriesKey(Symbol symbol, String timeframe) {
+        return symbol.name() + "|" + timeframe;
     }
     
+    /**
+     * Releases one reference obtained from {@link #open}. When the last reference is
+     * released, queued writes are flushed before this returns, and the connections are
+     * closed once the database has stayed unused for a short while. Reopening it within
+     * that time reuses the existing connections.
+     */
     @Override
     public void close() {
+        synchronized (openDatabases) {
+            if (refCount <= 0) {
+                logger.warn("Database {} closed more often than it was opened.", databaseUrl);
+                return;
+            }
+            if (--refCount > 0) return;
+        }
+
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                logger.info("Database connection closed.");
+            writer.flush().join();
+        } catch (Exception e) {
+            logger.error("Failed to flush pending writes for {}.", databaseUrl, e);
+        }
+
+        synchronized (openDatabases) {
+            if (refCount > 0) return; // Reopened while flushing.
+            if (registryKey == null) {
+                shutdown();
+            } else if (pendingIdleClose == null) {
+                pendingIdleClose = idleCloser.schedule(this::closeIfIdle, IDLE_CLOSE_DELAY_MS, TimeUnit.MILLISECONDS);
             }
-        } catch (SQLException e) {
-            logger.error("Failed to close the database connection.", e);
         }
     }
-}
\ No newline at end of file
+
+    private void closeIfIdle() {
+        synchronized (openDatabases) {
+            if (refCount > 0 || pendingIdleClose == null) return;
+            pendingIdleClose = null;
+            openDatabases.remove(registryKey);
+        }
+        shutdown();
+    }
+
+    private void shutdown() {
+        writer.shutdown(WRITER_SHUTDOWN_TIMEOUT_MS);
+        readPool.close();
+        logger.info("Database connection closed.");
+    }
+}
@@ -0,0 +1,282 @@
+package com.EcoChartPro.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The single writer thread behind a {@link DatabaseManager}. All writes are queued here
+ * and applied by one thread that owns the database's only writable connection, so
+ * callers never share a connection or toggle its auto-commit state concurrently.
+ * <p>
+ * Each time the thread wakes up it drains everything queued and commits each run of
+ * consecutive tasks for the same table in a single transaction. Under load, many small
+ * saves therefore cost one commit instead of one each, while writes are still applied
+ * in the order they were submitted. The queue is bounded: when it is full,
+ * {@link #submit} blocks the caller until the writer catches up (backpressure).
+ */
+public final class DatabaseWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseWriter.class);
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int MAX_TASKS_PER_DRAIN = 256;
+
+    /**
+     * A unit of work run on the writer thread inside a transaction. It must not commit,
+     * roll back or change the auto-commit mode of the connection, and must not close
+     * statements obtained from the cache.
+     */
+    @FunctionalInterface
+    public interface WriteTask {
+        void execute(StatementCache statements) throws SQLException;
+    }
+
+    /**
+     * A point-in-time view of the writer's health.
+     *
+     * @param queueDepth Tasks waiting to be written.
+     * @param committedTasks Tasks written successfully since startup.
+     * @param failedTasks Tasks that were rolled back.
+     * @param transactions Transactions committed since startup.
+     * @param lastCommitMillis Duration of the most recent transaction, including its commit.
+     * @param averageCommitMillis Average transaction duration.
+     * @param maxCommitMillis Longest transaction duration.
+     */
+    public record WriteMetrics(int queueDepth, long committedTasks, long failedTasks, long transactions,
+                               double lastCommitMillis, double averageCommitMillis, double maxCommitMillis) {}
+
+    private record QueuedTask(String table, WriteTask task, CompletableFuture<Void> result) {}
+
+    // Marks the end of the queue on shutdown.
+    private static final QueuedTask POISON = new QueuedTask("", s -> {}, new CompletableFuture<>());
+
+    private final Connection connection;
+    private final StatementCache statements;
+    private final String name;
+    private final BlockingQueue<QueuedTask> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread thread;
+    private volatile boolean accepting = true;
+    // Set by the writer thread once it has stopped taking tasks.
+    private volatile boolean stopped;
+
+    // Metrics, written only by the writer thread.
+    private volatile long committedTasks;
+    private volatile long failedTasks;
+    private volatile long transactions;
+    private volatile long lastCommitNanos;
+    private volatile long totalCommitNanos;
+    private volatile long maxCommitNanos;
+
+    /**
+     * @param connection The writable connection. The writer takes ownership and closes it on shutdown.
+     * @param name A short name for log messages, typically the database URL.
+     */
+    DatabaseWriter(Connection connection, String name) {
+        this.connection = connection;
+        this.statements = new StatementCache(connection);
+        this.name = name;
+        this.thread = new Thread(this::runLoop, "DB-Writer-" + threadCount.incrementAndGet());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues a write. Blocks while the queue is full.
+     *
+     * @param table The table the task writes to. Consecutive tasks for the same table are committed together.
+     * @return A future completed once the task's transaction has been committed.
+     */
+    public CompletableFuture<Void> submit(String table, WriteTask task) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        if (!accepting) {
+            logger.error("Write to '{}' rejected: writer for {} is shut down.", table, name);
+            result.completeExceptionally(new IllegalStateException("Database writer is shut down"));
+            return result;
+        }
+        QueuedTask queued = new QueuedTask(table, task, result);
+        try {
+            if (!queue.offer(queued)) {
+                logger.warn("Write queue for {} is full ({} tasks). Waiting for the writer to catch up.", name, QUEUE_CAPACITY);
+                queue.put(queued);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+        }
+        // A task that passed the accepting check just before shutdown can land behind the
+        // shutdown marker. Either the writer's final drain sees it, or this check does.
+        if (stopped) {
+            failRemaining();
+        }
+        return result;
+    }
+
+    /**
+     * @return A future completed once every write submitted before this call has been applied.
+     */
+    public CompletableFuture<Void> flush() {
+        return submit("", s -> {});
+    }
+
+    /**
+     * @return True if the queue is full and new writes will block.
+     */
+    public boolean isBackpressured() {
+        return queue.remainingCapacity() == 0;
+    }
+
+    public WriteMetrics getMetrics() {
+        long tx = transactions;
+        return new WriteMetrics(
+                queue.size(), committedTasks, failedTasks, tx,
+                lastCommitNanos / 1e6,
+                tx == 0 ? 0 : totalCommitNanos / 1e6 / tx,
+                maxCommitNanos / 1e6);
+    }
+
+    /**
+     * Stops accepting writes, applies everything already queued and closes the connection.
+     *
+     * @param timeoutMillis How long to wait for the queue to drain.
+     */
+    public void shutdown(long timeoutMillis) {
+        if (!accepting) return;
+        accepting = false;
+        try {
+            if (!queue.offer(POISON, timeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.warn("Could not enqueue shutdown marker for {}; {} writes may be lost.", name, queue.size());
+                thread.interrupt();
+            }
+            thread.join(timeoutMillis);
+            if (thread.isAlive()) {
+                logger.warn("Writer for {} did not finish within {} ms; {} writes pending.", name, timeoutMillis, queue.size());
+                thread.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (!connection.isClosed()) {
+                statements.close();
+                connection.close();
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to close the write connection for {}.", name, e);
+        }
+        logger.info("Database writer for {} stopped. {}", name, getMetrics());
+    }
+
+    private void runLoop() {
+        List<QueuedTask> drained = new ArrayList<>(MAX_TASKS_PER_DRAIN);
+        boolean running = true;
+        while (running) {
+            try {
+                drained.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(drained, MAX_TASKS_PER_DRAIN - 1);
+
+            // Only runs of consecutive tasks are grouped, so a write never overtakes one
+            // submitted before it to another table, and a flush stays a barrier.
+            List<QueuedTask> group = new ArrayList<>();
+            for (QueuedTask queued : drained) {
+                if (queued == POISON) {
+                    running = false;
+                    continue;
+                }
+                if (!group.isEmpty() && !group.get(0).table().equals(queued.table())) {
+                    writeGroup(group);
+                    group = new ArrayList<>();
+                }
+                group.add(queued);
+            }
+            if (!group.isEmpty()) {
+                writeGroup(group);
+            }
+            drained.clear();
+        }
+        stopped = true;
+        failRemaining();
+    }
+
+    /**
+     * Fails whatever is left in the queue after the writer stopped, so callers waiting on it are released.
+     */
+    private void failRemaining() {
+        QueuedTask queued;
+        while ((queued = queue.poll()) != null) {
+            queued.result().completeExceptionally(new IllegalStateException("Database writer stopped"));
+        }
+    }
+
+    /**
+     * Commits a group in one transaction. If that fails, the tasks are retried one by one
+     * so a single bad write only loses itself.
+     */
+    private void writeGroup(List<QueuedTask> group) {
+        if (runInTransaction(group)) {
+            group.forEach(queued -> queued.result().complete(null));
+            return;
+        }
+        if (group.size() == 1) {
+            failedTasks++;
+            return;
+        }
+        for (QueuedTask queued : group) {
+            if (runInTransaction(List.of(queued))) {
+                queued.result().complete(null);
+            } else {
+                failedTasks++;
+            }
+        }
+    }
+
+    private boolean runInTransaction(List<QueuedTask> tasks) {
+        long start = System.nanoTime();
+        try {
+            connection.setAutoCommit(false);
+            try {
+                for (QueuedTask queued : tasks) {
+                    queued.task().execute(statements);
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                statements.clearBatches();
+                if (tasks.size() == 1) {
+                    logger.error("Error writing to '{}', transaction rolled back.", tasks.get(0).table(), e);
+                    tasks.get(0).result().completeExceptionally(e);
+                } else {
+                    logger.warn("Batched write of {} tasks to '{}' failed; retrying individually.", tasks.size(), tasks.get(0).table());
+                }
+                return false;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to set transaction properties on {}.", name, e);
+            if (tasks.size() == 1) tasks.get(0).result().completeExceptionally(e);
+            return false;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        transactions++;
+        committedTasks += tasks.size();
+        lastCommitNanos = elapsed;
+        totalCommitNanos += elapsed;
+        maxCommitNanos = Math.max(maxCommitNanos, elapsed);
+        return true;
+    }
+}
@@ -0,0 +1,77 @@
+package com.EcoChartPro.utils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses the plain decimal strings that exchanges send and the database stores, such as
+ * {@code "-42150.25"}, straight into an unscaled long and a scale, without building a String.
+ * Anything else (exponents, more than 18 digits) falls back to the BigDecimal parser, which
+ * also reports malformed text as {@link NumberFormatException}.
+ */
+public final class FixedPointDecimal {
+
+    private FixedPointDecimal() {
+    }
+
+    /**
+     * Parses {@code text[from, to)}.
+     */
+    public static BigDecimal parse(CharSequence text, int from, int to) {
+        long unscaled = 0;
+        int scale = -1;
+        int digits = 0;
+        boolean negative = from < to && text.charAt(from) == '-';
+        for (int i = negative ? from + 1 : from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > 18) return slowParse(text, from, to);
+                unscaled = unscaled * 10 + (c - '0');
+                if (scale >= 0) scale++;
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return slowParse(text, from, to);
+            }
+        }
+        if (digits == 0) return slowParse(text, from, to);
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    private static BigDecimal slowParse(CharSequence text, int from, int to) {
+        return new BigDecimal(text.subSequence(from, to).toString());
+    }
+
+    /**
+     * A reusable {@link CharSequence} view of ASCII bytes, so that byte rows can be parsed
+     * without decoding them first. Not thread-safe.
+     */
+    public static final class AsciiView implements CharSequence {
+        private byte[] bytes = new byte[0];
+
+        public AsciiView wrap(byte[] bytes) {
+            this.bytes = bytes;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return bytes.length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(bytes, start, end - start, StandardCharsets.US_ASCII);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+    }
+}
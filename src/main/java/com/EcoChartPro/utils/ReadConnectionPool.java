@@ -0,0 +1,170 @@
+package com.EcoChartPro.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sqlite.SQLiteConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A small pool of read-only SQLite connections. With the database in WAL mode, readers
+ * see the last committed state and are never blocked by the {@link DatabaseWriter}, so
+ * chart loads keep running while a large batch is being written.
+ * <p>
+ * Connections are opened lazily, up to the pool size, and handed out as a {@link Lease}
+ * to be used in a try-with-resources block. Each connection keeps its own
+ * {@link StatementCache}, so a query is prepared once per connection rather than once per call.
+ */
+public final class ReadConnectionPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadConnectionPool.class);
+    private static final long ACQUIRE_TIMEOUT_SECONDS = 30;
+
+    /**
+     * A borrowed connection. Closing the lease returns the connection to the pool.
+     */
+    public final class Lease implements AutoCloseable {
+        private final StatementCache statements;
+        private boolean released;
+
+        private Lease(StatementCache statements) {
+            this.statements = statements;
+        }
+
+        public Connection connection() {
+            return statements.connection();
+        }
+
+        /**
+         * @return A cached statement for this SQL. Do not close it; close only its result sets.
+         */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            return statements.prepare(sql);
+        }
+
+        @Override
+        public void close() {
+            if (released) return;
+            released = true;
+            release(statements);
+        }
+    }
+
+    private final String dbUrl;
+    private final int maxSize;
+    private final BlockingQueue<StatementCache> idle;
+    private final List<StatementCache> all = new ArrayList<>();
+    private final boolean ownsConnections;
+    private boolean closed;
+
+    /**
+     * Creates a pool of read-only connections to a database file.
+     */
+    ReadConnectionPool(String dbUrl, int maxSize) {
+        this.dbUrl = dbUrl;
+        this.maxSize = maxSize;
+        this.idle = new ArrayBlockingQueue<>(maxSize);
+        this.ownsConnections = true;
+    }
+
+    /**
+     * Creates a pool that hands out one existing connection, one reader at a time. Used for
+     * databases that can only be opened once, such as {@code :memory:}. The connection is
+     * not closed by the pool.
+     */
+    ReadConnectionPool(Connection sharedConnection) {
+        this.dbUrl = null;
+        this.maxSize = 1;
+        this.idle = new ArrayBlockingQueue<>(1);
+        this.ownsConnections = false;
+        StatementCache statements = new StatementCache(sharedConnection);
+        all.add(statements);
+        idle.offer(statements);
+    }
+
+    /**
+     * Borrows a connection, opening a new one if none is idle and the pool is not full.
+     *
+     * @throws SQLException if the pool is closed, a connection cannot be opened, or none is freed in time.
+     */
+    public Lease acquire() throws SQLException {
+        StatementCache connection = idle.poll();
+        if (connection == null) {
+            connection = openIfRoomLeft();
+        }
+        if (connection == null) {
+            try {
+                connection = idle.poll(ACQUIRE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a read connection", e);
+            }
+            if (connection == null) {
+                throw new SQLException("Timed out waiting for a read connection to " + dbUrl);
+            }
+        }
+        return new Lease(connection);
+    }
+
+    private StatementCache openIfRoomLeft() throws SQLException {
+        synchronized (all) {
+            if (closed) throw new SQLException("Read connection pool is closed");
+            if (all.size() >= maxSize) return null;
+
+            SQLiteConfig config = new SQLiteConfig();
+            config.setReadOnly(true);
+            Connection connection = config.createConnection(dbUrl);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("PRAGMA mmap_size = 268435456;");
+                stmt.execute("PRAGMA cache_size = -50000;");
+                stmt.execute("PRAGMA busy_timeout = 5000;");
+            }
+            StatementCache statements = new StatementCache(connection);
+            all.add(statements);
+            logger.debug("Opened read connection {}/{} for {}", all.size(), maxSize, dbUrl);
+            return statements;
+        }
+    }
+
+    private void release(StatementCache connection) {
+        synchronized (all) {
+            if (closed) {
+                closeQuietly(connection);
+            } else {
+                idle.offer(connection);
+            }
+        }
+    }
+
+    /**
+     * Closes idle connections now and borrowed ones as they are returned.
+     */
+    public void close() {
+        synchronized (all) {
+            if (closed) return;
+            closed = true;
+            StatementCache connection;
+            while ((connection = idle.poll()) != null) {
+                closeQuietly(connection);
+            }
+        }
+    }
+
+    private void closeQuietly(StatementCache connection) {
+        connection.close();
+        if (!ownsConnections) return;
+        try {
+            connection.connection().close();
+        } catch (SQLException e) {
+            logger.warn("Failed to close a read connection.", e);
+        }
+    }
+}
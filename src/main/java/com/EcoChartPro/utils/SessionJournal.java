@@ -0,0 +1,512 @@
+package com.EcoChartPro.utils;
+
+import com.EcoChartPro.core.state.ReplaySessionState;
+import com.EcoChartPro.core.state.SymbolSessionState;
+import com.EcoChartPro.model.Trade;
+import com.EcoChartPro.model.drawing.DrawingObject;
+import com.EcoChartPro.model.trading.Order;
+import com.EcoChartPro.model.trading.Position;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only binary log of what changed in the replay session since the last
+ * auto-save snapshot, so that an auto-save costs as much as what changed rather than a
+ * rewrite of the whole session.
+ * <p>
+ * The snapshot is the regular {@code replay_autosave.json}; the journal next to it starts
+ * with the CRC of the snapshot it extends, followed by length-prefixed, checksummed
+ * frames. Every event sets state (an order, a position, a head index) rather than
+ * describing a delta, so applying one twice is harmless. {@link #checkpoint} writes a
+ * fresh snapshot and starts an empty journal; a journal whose CRC does not match the
+ * snapshot on disk, e.g. after a crash between the two steps, is ignored on recovery.
+ * Recovery stops at the first incomplete or corrupt frame, which is where a crash cut the log.
+ * <p>
+ * Trading events are written as they happen, each preceded by the replay head of its
+ * symbol (see {@link #head}), so a recovered position is never newer than its recovered head.
+ * Repeated heads are written once.
+ * <p>
+ * All file I/O happens on one writer thread that flushes after each batch of queued events.
+ * Callers start recording only after the first checkpoint. If a snapshot cannot be written,
+ * the next {@link #registerAutoSave} asks for another checkpoint; events that arrive while
+ * no journal is open are counted and reported, and are saved by that checkpoint's snapshot.
+ */
+public final class SessionJournal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionJournal.class);
+    private static volatile SessionJournal instance;
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+    static final int MAGIC = 0x45434A31; // "ECJ1"
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final long COMPACTION_BYTES = 1L << 20;
+    private static final int COMPACTION_INTERVAL = 50; // auto-saves between snapshots
+
+    static final byte ORDER_PUT = 1;
+    static final byte ORDER_REMOVED = 2;
+    static final byte POSITION_PUT = 3;
+    static final byte POSITION_REMOVED = 4;
+    static final byte TRADE_PUT = 5;
+    static final byte BALANCE = 6;
+    static final byte HEAD = 7;
+    static final byte ACTIVE_SYMBOL = 8;
+    static final byte DRAWINGS = 9;
+
+    private static final TypeReference<List<DrawingObject>> DRAWING_LIST = new TypeReference<>() {};
+
+    @FunctionalInterface
+    private interface JournalTask {
+        void run() throws IOException;
+    }
+
+    @FunctionalInterface
+    interface PayloadWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    // Marks the end of the queue on shutdown.
+    private static final JournalTask POISON = () -> {};
+
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final ObjectWriter jsonWriter;
+    private final BlockingQueue<JournalTask> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Object appendLock = new Object();
+    private final AtomicLong bytesSinceSnapshot = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean accepting = true;
+    private int autoSavesSinceSnapshot;
+    private final Map<String, Integer> journaledHeads = new HashMap<>(); // Guarded by appendLock.
+    private volatile boolean snapshotMissing;
+    private long eventsWithoutJournal; // Written by the writer thread only.
+
+    private OutputStream out; // Owned by the writer thread; null until the first checkpoint.
+
+    private SessionJournal(Path snapshotFile, ObjectMapper mapper) {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalPathFor(snapshotFile);
+        this.jsonWriter = mapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.thread = new Thread(this::runLoop, "Session-Journal");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * @return The journal of the replay auto-save, or null if its location is not accessible.
+     */
+    public static SessionJournal getInstance() {
+        if (instance == null) {
+            synchronized (SessionJournal.class) {
+                if (instance == null) {
+                    instance = AppDataManager.getAutoSaveFilePath()
+                            .map(path -> new SessionJournal(path, SessionManager.getInstance().getObjectMapper()))
+                            .orElse(null);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Closes the journal if it was ever opened, writing out every queued event.
+     */
+    public static void shutdown() {
+        SessionJournal journal = instance;
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    static Path journalPathFor(Path snapshotFile) {
+        return snapshotFile.resolveSibling(snapshotFile.getFileName() + JOURNAL_SUFFIX);
+    }
+
+    // --- Events ---
+
+    public void orderPut(String symbol, Order order) {
+        appendJson(ORDER_PUT, symbol, order);
+    }
+
+    public void orderRemoved(String symbol, UUID orderId) {
+        appendId(ORDER_REMOVED, symbol, orderId);
+    }
+
+    public void positionPut(String symbol, Position position) {
+        appendJson(POSITION_PUT, symbol, position);
+    }
+
+    public void positionRemoved(String symbol, UUID positionId) {
+        appendId(POSITION_REMOVED, symbol, positionId);
+    }
+
+    /** Records a closed trade, or a change to its journal entry. */
+    public void tradePut(String symbol, Trade trade) {
+        appendJson(TRADE_PUT, symbol, trade);
+    }
+
+    public void balance(BigDecimal accountBalance) {
+        append(BALANCE, out -> out.writeUTF(accountBalance.toPlainString()));
+    }
+
+    /**
+     * Records the replay head of a symbol, unless it is the head recorded last for it.
+     */
+    public void head(String symbol, int replayHeadIndex, Instant lastTimestamp) {
+        synchronized (appendLock) {
+            Integer journaled = journaledHeads.put(symbol, replayHeadIndex);
+            if (journaled != null && journaled == replayHeadIndex) return;
+        }
+        append(HEAD, out -> {
+            out.writeUTF(symbol);
+            out.writeInt(replayHeadIndex);
+            out.writeBoolean(lastTimestamp != null);
+            if (lastTimestamp != null) {
+                out.writeLong(lastTimestamp.getEpochSecond());
+                out.writeInt(lastTimestamp.getNano());
+            }
+        });
+    }
+
+    public void activeSymbol(String symbol) {
+        append(ACTIVE_SYMBOL, out -> out.writeUTF(symbol));
+    }
+
+    /** Records the complete drawing list of a symbol. */
+    public void drawings(String symbol, List<DrawingObject> drawings) {
+        append(DRAWINGS, out -> {
+            out.writeUTF(symbol);
+            out.write(jsonWriter.forType(DRAWING_LIST).writeValueAsBytes(drawings));
+        });
+    }
+
+    // --- Snapshots ---
+
+    /**
+     * Counts an auto-save; call it once per auto-save.
+     *
+     * @return True if the journal has grown enough, or enough auto-saves have passed,
+     *         that this auto-save should be a {@link #checkpoint}.
+     */
+    public boolean registerAutoSave() {
+        return snapshotMissing || bytesSinceSnapshot.get() >= COMPACTION_BYTES || ++autoSavesSinceSnapshot >= COMPACTION_INTERVAL;
+    }
+
+    /**
+     * Captures the session state on the calling thread and writes it as the new snapshot on
+     * the writer thread, then starts an empty journal. Events recorded while the state is
+     * captured wait, so each event is either part of the snapshot or logged after it.
+     */
+    public void checkpoint(Supplier<ReplaySessionState> capture) {
+        synchronized (appendLock) {
+            ReplaySessionState state = capture.get();
+            bytesSinceSnapshot.set(0);
+            autoSavesSinceSnapshot = 0;
+            journaledHeads.clear();
+            enqueue(() -> writeSnapshot(state));
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (appendLock) {
+            if (!accepting) return;
+            accepting = false;
+        }
+        try {
+            queue.put(POISON);
+            thread.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void appendJson(byte type, String symbol, Object value) {
+        append(type, out -> {
+            out.writeUTF(symbol);
+            out.write(jsonWriter.writeValueAsBytes(value));
+        });
+    }
+
+    private void appendId(byte type, String symbol, UUID id) {
+        append(type, out -> {
+            out.writeUTF(symbol);
+            out.writeLong(id.getMostSignificantBits());
+            out.writeLong(id.getLeastSignificantBits());
+        });
+    }
+
+    /**
+     * Encodes the event on the calling thread, so that mutable objects such as trades are
+     * captured as they are now, and queues the frame for the writer thread.
+     */
+    private void append(byte type, PayloadWriter payloadWriter) {
+        byte[] frame;
+        try {
+            frame = encodeFrame(type, payloadWriter);
+        } catch (IOException e) {
+            logger.error("Failed to encode session journal event of type {}.", type, e);
+            return;
+        }
+
+        synchronized (appendLock) {
+            bytesSinceSnapshot.addAndGet(frame.length);
+            enqueue(() -> {
+                if (out != null) {
+                    out.write(frame);
+                } else if (eventsWithoutJournal++ == 0) {
+                    logger.warn("No session snapshot is on disk yet; events are kept only in memory until the next snapshot.");
+                }
+            });
+        }
+    }
+
+    /**
+     * @return The event as a frame: payload length, payload checksum, then the type and payload.
+     */
+    static byte[] encodeFrame(byte type, PayloadWriter payloadWriter) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeInt(0); // length, filled in below
+        data.writeInt(0); // checksum, filled in below
+        data.writeByte(type);
+        payloadWriter.write(data);
+        data.flush();
+        byte[] frame = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(frame, 8, frame.length - 8);
+        ByteBuffer.wrap(frame).putInt(frame.length - 8).putInt((int) crc.getValue());
+        return frame;
+    }
+
+    private void enqueue(JournalTask task) {
+        if (!accepting) return;
+        try {
+            queue.put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while queueing a session journal event; the event is lost.");
+        }
+    }
+
+    private void writeSnapshot(ReplaySessionState state) throws IOException {
+        long start = System.nanoTime();
+        long snapshotCrc;
+        try {
+            snapshotCrc = SessionManager.getInstance().saveAutoSaveSnapshot(state, snapshotFile);
+        } catch (IOException | RuntimeException e) {
+            // The previous snapshot and its journal, if any, stay in place and keep being appended to.
+            snapshotMissing = true;
+            throw e;
+        }
+        snapshotMissing = false;
+        if (eventsWithoutJournal > 0) {
+            logger.warn("{} session events were kept only in memory until this snapshot.", eventsWithoutJournal);
+            eventsWithoutJournal = 0;
+        }
+        if (out != null) {
+            out.close();
+        }
+        out = new BufferedOutputStream(Files.newOutputStream(journalFile,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), 64 * 1024);
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeLong(snapshotCrc);
+        header.flush();
+        logger.debug("Session snapshot written and journal compacted in {} ms.", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void runLoop() {
+        List<JournalTask> drained = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                drained.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(drained);
+            for (JournalTask task : drained) {
+                if (task == POISON) {
+                    running = false;
+                    break;
+                }
+                try {
+                    task.run();
+                } catch (IOException e) {
+                    logger.error("Session journal write failed.", e);
+                }
+            }
+            drained.clear();
+            try {
+                if (out != null) out.flush();
+            } catch (IOException e) {
+                logger.error("Failed to flush the session journal.", e);
+            }
+        }
+        try {
+            if (out != null) out.close();
+        } catch (IOException e) {
+            logger.error("Failed to close the session journal.", e);
+        }
+    }
+
+    // --- Recovery ---
+
+    /**
+     * Applies the journal next to a snapshot file to the state loaded from it.
+     *
+     * @return The recovered state, or the snapshot itself if there is no journal for it.
+     */
+    static ReplaySessionState recover(Path snapshotFile, ReplaySessionState snapshot, ObjectMapper mapper) {
+        Path journal = journalPathFor(snapshotFile);
+        if (snapshot == null || Files.notExists(journal)) return snapshot;
+        try {
+            byte[] log = Files.readAllBytes(journal);
+            CRC32 snapshotCrc = new CRC32();
+            snapshotCrc.update(Files.readAllBytes(snapshotFile));
+            ByteBuffer buffer = ByteBuffer.wrap(log);
+            if (log.length < 12 || buffer.getInt() != MAGIC || buffer.getLong() != snapshotCrc.getValue()) {
+                logger.info("Session journal does not belong to the current auto-save snapshot; ignoring it.");
+                return snapshot;
+            }
+
+            RecoveredSession session = new RecoveredSession(snapshot);
+            int applied = 0;
+            while (buffer.remaining() >= 8) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length < 1 || length > buffer.remaining()) break;
+                CRC32 crc = new CRC32();
+                crc.update(log, buffer.position(), length);
+                if ((int) crc.getValue() != checksum) break;
+                byte type = log[buffer.position()];
+                DataInputStream payload = new DataInputStream(new ByteArrayInputStream(log, buffer.position() + 1, length - 1));
+                session.apply(type, payload, mapper);
+                buffer.position(buffer.position() + length);
+                applied++;
+            }
+            if (buffer.hasRemaining()) {
+                logger.warn("Session journal ends with {} bytes of an incomplete event; it was ignored.", buffer.remaining());
+            }
+            logger.info("Recovered {} session journal events on top of the auto-save snapshot.", applied);
+            return session.toState();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to replay the session journal; using the auto-save snapshot alone.", e);
+            return snapshot;
+        }
+    }
+
+    /**
+     * Mutable form of a {@link ReplaySessionState} that journal events are applied to.
+     */
+    private static final class RecoveredSession {
+        private BigDecimal accountBalance;
+        private String lastActiveSymbol;
+        private final Map<String, RecoveredSymbol> symbols = new HashMap<>();
+
+        RecoveredSession(ReplaySessionState snapshot) {
+            this.accountBalance = snapshot.accountBalance();
+            this.lastActiveSymbol = snapshot.lastActiveSymbol();
+            if (snapshot.symbolStates() != null) {
+                snapshot.symbolStates().forEach((symbol, state) -> symbols.put(symbol, new RecoveredSymbol(state)));
+            }
+        }
+
+        void apply(byte type, DataInputStream in, ObjectMapper mapper) throws IOException {
+            switch (type) {
+                case ORDER_PUT -> {
+                    RecoveredSymbol s = symbol(in.readUTF());
+                    Order order = mapper.readValue(in.readAllBytes(), Order.class);
+                    s.orders.put(order.id(), order);
+                }
+                case ORDER_REMOVED -> symbol(in.readUTF()).orders.remove(new UUID(in.readLong(), in.readLong()));
+                case POSITION_PUT -> {
+                    RecoveredSymbol s = symbol(in.readUTF());
+                    Position position = mapper.readValue(in.readAllBytes(), Position.class);
+                    s.positions.put(position.id(), position);
+                }
+                case POSITION_REMOVED -> symbol(in.readUTF()).positions.remove(new UUID(in.readLong(), in.readLong()));
+                case TRADE_PUT -> {
+                    RecoveredSymbol s = symbol(in.readUTF());
+                    Trade trade = mapper.readValue(in.readAllBytes(), Trade.class);
+                    s.trades.put(trade.id(), trade);
+                }
+                case BALANCE -> accountBalance = new BigDecimal(in.readUTF());
+                case HEAD -> {
+                    RecoveredSymbol s = symbol(in.readUTF());
+                    s.replayHeadIndex = in.readInt();
+                    s.lastTimestamp = in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+                }
+                case ACTIVE_SYMBOL -> lastActiveSymbol = in.readUTF();
+                case DRAWINGS -> {
+                    RecoveredSymbol s = symbol(in.readUTF());
+                    s.drawings = mapper.readValue(in.readAllBytes(), DRAWING_LIST);
+                }
+                default -> logger.warn("Skipping unknown session journal event type {}.", type);
+            }
+        }
+
+        ReplaySessionState toState() {
+            Map<String, SymbolSessionState> states = new HashMap<>();
+            symbols.forEach((symbol, s) -> states.put(symbol, s.toState()));
+            return new ReplaySessionState(accountBalance, lastActiveSymbol, states);
+        }
+
+        private RecoveredSymbol symbol(String symbol) {
+            return symbols.computeIfAbsent(symbol, k -> new RecoveredSymbol(null));
+        }
+    }
+
+    private static final class RecoveredSymbol {
+        int replayHeadIndex = -1;
+        Instant lastTimestamp;
+        final Map<UUID, Order> orders = new LinkedHashMap<>();
+        final Map<UUID, Position> positions = new LinkedHashMap<>();
+        final Map<UUID, Trade> trades = new LinkedHashMap<>();
+        List<DrawingObject> drawings = new ArrayList<>();
+
+        RecoveredSymbol(SymbolSessionState state) {
+            if (state == null) return;
+            replayHeadIndex = state.replayHeadIndex();
+            lastTimestamp = state.lastTimestamp();
+            if (state.pendingOrders() != null) state.pendingOrders().forEach(o -> orders.put(o.id(), o));
+            if (state.openPositions() != null) state.openPositions().forEach(p -> positions.put(p.id(), p));
+            if (state.tradeHistory() != null) state.tradeHistory().forEach(t -> trades.put(t.id(), t));
+            if (state.drawings() != null) drawings = state.drawings();
+        }
+
+        SymbolSessionState toState() {
+            return new SymbolSessionState(replayHeadIndex, new ArrayList<>(positions.values()),
+                    new ArrayList<>(orders.values()), new ArrayList<>(trades.values()), drawings, lastTimestamp);
+        }
+    }
+}
@@ -30,9 +30,11 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.Instant;
 import java.time.YearMonth;
 import java.util.Collections;
@@ -41,6 +43,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.zip.CRC32;
 
 /**
  * A singleton service responsible for saving and loading ReplaySessionState
@@ -135,9 +138,9 @@ public final class SessionManager {
             latestFile = lastManualFileOpt.get();
             latestMod = latestFile.lastModified();
         }
-        if (replayAutoSaveFileOpt.isPresent() && replayAutoSaveFileOpt.get().lastModified() > latestMod) {
+        if (replayAutoSaveFileOpt.isPresent() && autoSaveLastModified(replayAutoSaveFileOpt.get()) > latestMod) {
             latestFile = replayAutoSaveFileOpt.get();
-            latestMod = latestFile.lastModified();
+            latestMod = autoSaveLastModified(latestFile);
         }
         if (liveAutoSaveFileOpt.isPresent() && liveAutoSaveFileOpt.get().lastModified() > latestMod) {
             latestFile = liveAutoSaveFileOpt.get();
@@ -154,7 +157,8 @@ public final class SessionManager {
         } catch (IOException liveException) {
             try {
                 // If that fails, it's likely a Replay file.
-                ReplaySessionState state = loadSession(latestFile);
+                ReplaySessionState state = replayAutoSaveFileOpt.isPresent() && latestFile.equals(replayAutoSaveFileOpt.get())
+                        ? loadReplayAutoSave(latestFile) : loadSession(latestFile);
                 return Optional.of(new LatestSessionResult(state, SessionType.REPLAY, latestFile));
             } catch (IOException replayException) {
                 logger.error("Failed to load latest session file '{}' as either Live or Replay format.", latestFile.getAbsolutePath(), replayException);
@@ -173,7 +177,7 @@ public final class SessionManager {
         Optional<File> autoSaveFileOpt = AppDataManager.getAutoSaveFilePath().filter(Files::exists).map(Path::toFile);
         
         if (lastManualFileOpt.isPresent() && autoSaveFileOpt.isPresent()) {
-            latestFile = lastManualFileOpt.get().lastModified() > autoSaveFileOpt.get().lastModified()
+            latestFile = lastManualFileOpt.get().lastModified() > autoSaveLastModified(autoSaveFileOpt.get())
                          ? lastManualFileOpt.get() : autoSaveFileOpt.get();
         } else if (lastManualFileOpt.isPresent()) {
             latestFile = lastManualFileOpt.get();
@@ -184,7 +188,8 @@ public final class SessionManager {
         if (latestFile != null) {
             try {
                 // The loadSession method is already safe and will reject live files.
-                latestState = loadSession(latestFile);
+                latestState = autoSaveFileOpt.isPresent() && latestFile.equals(autoSaveFileOpt.get())
+                        ? loadReplayAutoSave(latestFile) : loadSession(latestFile);
             } catch (IOException e) {
                 logger.error("Failed to load latest replay session file: {}", latestFile.getAbsolutePath(), e);
             }
@@ -221,6 +226,48 @@ public final class SessionManager {
         }
     }
 
+    /**
+     * [NEW] Writes the replay auto-save snapshot through a temporary file and an atomic
+     * rename, so a crash mid-write never leaves a truncated snapshot behind.
+     * @return The CRC32 of the written file, which {@link SessionJournal} uses to tie its log to this snapshot.
+     */
+    public long saveAutoSaveSnapshot(ReplaySessionState state, Path file) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(state);
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tempFile, bytes);
+        try {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (state.symbolStates() != null) {
+            state.symbolStates().forEach(SymbolProgressCache.getInstance()::updateProgressForSymbol);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    /**
+     * [NEW] Loads the replay auto-save snapshot and replays the session journal written since it.
+     */
+    public ReplaySessionState loadReplayAutoSave(File file) throws IOException {
+        return SessionJournal.recover(file.toPath(), loadSession(file), objectMapper);
+    }
+
+    /**
+     * The auto-save snapshot is only rewritten on compaction; the journal next to it
+     * records the latest activity.
+     */
+    private long autoSaveLastModified(File autoSaveFile) {
+        File journal = SessionJournal.journalPathFor(autoSaveFile.toPath()).toFile();
+        return Math.max(autoSaveFile.lastModified(), journal.lastModified());
+    }
+
+    ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
     public ReplaySessionState loadSession(File file) throws IOException {
         try {
             JsonNode rootNode = objectMapper.readTree(file);
@@ -385,6 +432,7 @@ public final class SessionManager {
                     Files.delete(path);
                     logger.info("Auto-save session file deleted successfully.");
                 }
+                Files.deleteIfExists(SessionJournal.journalPathFor(path));
             } catch (IOException e) {
                 logger.error("Failed to delete auto-save session file at: {}", path, e);
             }
@@ -0,0 +1,82 @@
+package com.EcoChartPro.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the prepared statements of one connection so that each SQL string is compiled
+ * only once per connection. Not thread-safe: a cache belongs to whichever thread
+ * currently owns its connection.
+ * <p>
+ * Statements returned by {@link #prepare} are owned by the cache. Callers must close
+ * their {@code ResultSet}s but never the statement itself.
+ */
+public final class StatementCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementCache.class);
+    private static final int MAX_STATEMENTS = 32;
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+            if (size() > MAX_STATEMENTS) {
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    StatementCache(Connection connection) {
+        this.connection = connection;
+    }
+
+    public Connection connection() {
+        return connection;
+    }
+
+    /**
+     * @return The cached statement for this SQL, prepared on first use.
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null || statement.isClosed()) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    /**
+     * Discards batches left behind by a failed write, so they are not executed with the next one.
+     */
+    void clearBatches() {
+        for (PreparedStatement statement : statements.values()) {
+            try {
+                statement.clearBatch();
+            } catch (SQLException e) {
+                logger.warn("Failed to clear a statement batch.", e);
+            }
+        }
+    }
+
+    void close() {
+        statements.values().forEach(StatementCache::closeQuietly);
+        statements.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            logger.warn("Failed to close a cached statement.", e);
+        }
+    }
+}
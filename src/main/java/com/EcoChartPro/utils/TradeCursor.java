@@ -0,0 +1,149 @@
+package com.EcoChartPro.utils;
+
+import com.EcoChartPro.model.TradeTick;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+
+/**
+ * A forward-only stream over the {@code trades} table, in timestamp order. Ticks are read in
+ * pages of {@value #PAGE_SIZE} rows, each on a read connection that is returned to the pool
+ * as soon as the page is decoded, so memory stays constant however many ticks the range
+ * holds and a long backtest does not keep a connection.
+ * <p>
+ * Price, quantity and side are fetched as one concatenated column and parsed here: every
+ * column read is a native call in the SQLite driver, and that call, not the query, is what
+ * bounds the tick rate. Rows with a missing field are skipped and counted.
+ * <p>
+ * Use it in a try-with-resources block. Not thread-safe.
+ */
+public final class TradeCursor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradeCursor.class);
+
+    static final int PAGE_SIZE = 50_000;
+
+    // Pages continue after the last (timestamp, rowid) read, since timestamps repeat.
+    static final String SQL = "SELECT timestamp_ms, rowid, COALESCE(price, '') || ',' || COALESCE(quantity, '') || ',' || COALESCE(side, '') "
+            + "FROM trades WHERE symbol = ? AND timestamp_ms >= ? AND timestamp_ms <= ? AND (timestamp_ms > ? OR rowid > ?) "
+            + "ORDER BY timestamp_ms ASC, rowid ASC LIMIT ?";
+
+    private final ReadConnectionPool pool;
+    private final String symbol;
+    private final long endTimeMs;
+    private final TradeTick[] page = new TradeTick[PAGE_SIZE];
+    private final FixedPointDecimal.AsciiView rowView = new FixedPointDecimal.AsciiView();
+    private int pageCount;
+    private int pagePosition;
+    private long lastTimestampMs;
+    private long lastRowId;
+    private boolean lastPage;
+    private long skippedRows;
+
+    TradeCursor(ReadConnectionPool pool, String symbol, long startTimeMs, long endTimeMs) throws SQLException {
+        this.pool = pool;
+        this.symbol = symbol;
+        this.endTimeMs = endTimeMs;
+        this.lastTimestampMs = startTimeMs;
+        this.lastRowId = Long.MIN_VALUE;
+        readPage(true);
+    }
+
+    /**
+     * @return The next tick, or null once the range is exhausted.
+     */
+    public TradeTick next() throws SQLException {
+        if (pagePosition == pageCount) {
+            if (lastPage) return null;
+            readPage(false);
+            if (pageCount == 0) return null;
+        }
+        TradeTick tick = page[pagePosition];
+        page[pagePosition++] = null;
+        return tick;
+    }
+
+    @Override
+    public void close() {
+        lastPage = true;
+        pageCount = pagePosition = 0;
+        if (skippedRows > 0) {
+            logger.warn("Skipped {} trades of {} with a missing price, quantity or side.", skippedRows, symbol);
+            skippedRows = 0;
+        }
+    }
+
+    /**
+     * @param first True for the first page, which includes trades at the start time itself.
+     */
+    private void readPage(boolean first) throws SQLException {
+        pageCount = pagePosition = 0;
+        int rows = 0;
+        try (ReadConnectionPool.Lease lease = pool.acquire()) {
+            PreparedStatement pstmt = lease.prepare(SQL);
+            pstmt.setString(1, symbol);
+            pstmt.setLong(2, lastTimestampMs);
+            pstmt.setLong(3, endTimeMs);
+            pstmt.setLong(4, first ? lastTimestampMs - 1 : lastTimestampMs);
+            pstmt.setLong(5, lastRowId);
+            pstmt.setInt(6, PAGE_SIZE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows++;
+                    lastTimestampMs = rs.getLong(1);
+                    lastRowId = rs.getLong(2);
+                    TradeTick tick = decode(lastTimestampMs, rs.getBytes(3));
+                    if (tick != null) {
+                        page[pageCount++] = tick;
+                    } else {
+                        skippedRows++;
+                    }
+                }
+            }
+        }
+        lastPage = rows < PAGE_SIZE;
+        if (pageCount == 0 && !lastPage) {
+            readPage(false); // A whole page of unusable rows.
+        }
+    }
+
+    /**
+     * @return The tick, or null if the row lacks a field.
+     */
+    private TradeTick decode(long timestampMs, byte[] row) {
+        int priceEnd = indexOf(row, 0);
+        int quantityEnd = indexOf(row, priceEnd + 1);
+        if (priceEnd == 0 || quantityEnd == priceEnd + 1 || quantityEnd + 1 >= row.length) {
+            return null;
+        }
+        try {
+            return new TradeTick(
+                Instant.ofEpochMilli(timestampMs),
+                FixedPointDecimal.parse(rowView.wrap(row), 0, priceEnd),
+                FixedPointDecimal.parse(rowView, priceEnd + 1, quantityEnd),
+                parseSide(row, quantityEnd + 1)
+            );
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int indexOf(byte[] row, int from) {
+        for (int i = from; i < row.length; i++) {
+            if (row[i] == ',') return i;
+        }
+        return row.length;
+    }
+
+    private static String parseSide(byte[] row, int from) {
+        int length = row.length - from;
+        if (length == 3 && row[from] == 'b' && row[from + 1] == 'u' && row[from + 2] == 'y') return TradeTick.BUY;
+        if (length == 4 && row[from] == 's' && row[from + 1] == 'e' && row[from + 2] == 'l' && row[from + 3] == 'l') return TradeTick.SELL;
+        return new String(row, from, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,109 @@
+package com.EcoChartPro.core.trading;
+
+import com.EcoChartPro.core.trading.OrderFillRules.Exit;
+import com.EcoChartPro.core.trading.OrderFillRules.ExitReason;
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.model.Symbol;
+import com.EcoChartPro.model.TradeDirection;
+import com.EcoChartPro.model.trading.Order;
+import com.EcoChartPro.model.trading.OrderStatus;
+import com.EcoChartPro.model.trading.OrderType;
+import com.EcoChartPro.model.trading.Position;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class OrderFillRulesTest {
+
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Test
+    void buyLimitFillsWhenTheLowReachesIt() {
+        Order order = order(TradeDirection.LONG, OrderType.LIMIT, "100");
+        assertEquals(bd("100"), OrderFillRules.pendingFillPrice(order, bar("105", "110", "100", "108")));
+        assertNull(OrderFillRules.pendingFillPrice(order, bar("105", "110", "100.01", "108")));
+    }
+
+    @Test
+    void buyStopFillsWhenTheHighReachesIt() {
+        Order order = order(TradeDirection.LONG, OrderType.STOP, "110");
+        assertEquals(bd("110"), OrderFillRules.pendingFillPrice(order, bar("105", "110", "100", "108")));
+        assertNull(OrderFillRules.pendingFillPrice(order, bar("105", "109.99", "100", "108")));
+    }
+
+    @Test
+    void sellLimitAndSellStopAreMirrored() {
+        KLine bar = bar("105", "110", "100", "108");
+        assertEquals(bd("110"), OrderFillRules.pendingFillPrice(order(TradeDirection.SHORT, OrderType.LIMIT, "110"), bar));
+        assertNull(OrderFillRules.pendingFillPrice(order(TradeDirection.SHORT, OrderType.LIMIT, "111"), bar));
+        assertEquals(bd("100"), OrderFillRules.pendingFillPrice(order(TradeDirection.SHORT, OrderType.STOP, "100"), bar));
+        assertNull(OrderFillRules.pendingFillPrice(order(TradeDirection.SHORT, OrderType.STOP, "99"), bar));
+    }
+
+    @Test
+    void orderWithoutPriceNeverFills() {
+        assertNull(OrderFillRules.pendingFillPrice(order(TradeDirection.LONG, OrderType.MARKET, null), bar("105", "110", "100", "108")));
+    }
+
+    @Test
+    void stopLossWinsWhenBothLevelsAreInsideTheBar() {
+        Position position = position(TradeDirection.LONG, "105", "100", "110", null);
+        Exit exit = OrderFillRules.exitFor(position, bar("105", "111", "99", "105"));
+        assertEquals(new Exit(bd("100"), ExitReason.STOP_LOSS), exit);
+    }
+
+    @Test
+    void takeProfitHitWithoutStop() {
+        assertEquals(new Exit(bd("110"), ExitReason.TAKE_PROFIT),
+                OrderFillRules.exitFor(position(TradeDirection.LONG, "105", "100", "110", null), bar("105", "110", "101", "109")));
+        assertEquals(new Exit(bd("100"), ExitReason.TAKE_PROFIT),
+                OrderFillRules.exitFor(position(TradeDirection.SHORT, "105", "110", "100", null), bar("105", "109", "100", "101")));
+        assertNull(OrderFillRules.exitFor(position(TradeDirection.SHORT, "105", "110", "100", null), bar("105", "109", "101", "101")));
+    }
+
+    @Test
+    void trailingStopOnlyMovesInThePositionsFavour() {
+        Position isLong = position(TradeDirection.LONG, "100", "95", null, "5");
+        assertEquals(bd("103"), OrderFillRules.trailedStopLoss(isLong, bar("100", "108", "99", "107")));
+        assertNull(OrderFillRules.trailedStopLoss(isLong, bar("100", "100", "99", "99")));
+
+        Position isShort = position(TradeDirection.SHORT, "100", "105", null, "5");
+        assertEquals(bd("97"), OrderFillRules.trailedStopLoss(isShort, bar("100", "101", "92", "93")));
+        assertNull(OrderFillRules.trailedStopLoss(isShort, bar("100", "101", "100", "101")));
+
+        assertNull(OrderFillRules.trailedStopLoss(position(TradeDirection.LONG, "100", "95", null, null), bar("100", "120", "99", "119")));
+    }
+
+    @Test
+    void realizedPnlIsNetOfSpread() {
+        Position isLong = position(TradeDirection.LONG, "100", null, null, null);
+        assertEquals(0, bd("20").compareTo(OrderFillRules.realizedPnl(isLong, bd("110"), null)));
+        assertEquals(0, bd("19").compareTo(OrderFillRules.realizedPnl(isLong, bd("110"), bd("0.5"))));
+        Position isShort = position(TradeDirection.SHORT, "100", null, null, null);
+        assertEquals(0, bd("-20").compareTo(OrderFillRules.realizedPnl(isShort, bd("110"), BigDecimal.ZERO)));
+    }
+
+    private static Order order(TradeDirection direction, OrderType type, String price) {
+        return new Order(UUID.randomUUID(), new Symbol("BTCUSDT"), type, OrderStatus.PENDING, direction, bd("1"),
+                price != null ? bd(price) : null, null, null, null, T0, null);
+    }
+
+    private static Position position(TradeDirection direction, String entry, String stopLoss, String takeProfit, String trailing) {
+        return new Position(UUID.randomUUID(), new Symbol("BTCUSDT"), direction, bd("2"), bd(entry),
+                stopLoss != null ? bd(stopLoss) : null, takeProfit != null ? bd(takeProfit) : null,
+                trailing != null ? bd(trailing) : null, T0, null);
+    }
+
+    private static KLine bar(String open, String high, String low, String close) {
+        return new KLine(T0, bd(open), bd(high), bd(low), bd(close), BigDecimal.ONE);
+    }
+
+    private static BigDecimal bd(String value) {
+        return new BigDecimal(value);
+    }
+}
@@ -0,0 +1,120 @@
+package com.EcoChartPro.core.trading;
+
+import com.EcoChartPro.model.KLine;
+import com.EcoChartPro.model.Symbol;
+import com.EcoChartPro.model.TradeDirection;
+import com.EcoChartPro.model.trading.Order;
+import com.EcoChartPro.model.trading.OrderStatus;
+import com.EcoChartPro.model.trading.OrderType;
+import com.EcoChartPro.model.trading.Position;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TriggerBookTest {
+
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Test
+    void findsOrdersWhoseLevelIsInsideTheBar() {
+        TriggerBook book = new TriggerBook();
+        Order buyLimit = order(TradeDirection.LONG, OrderType.LIMIT, "95");
+        Order buyStop = order(TradeDirection.LONG, OrderType.STOP, "105");
+        Order sellLimit = order(TradeDirection.SHORT, OrderType.LIMIT, "120");
+        Order sellStop = order(TradeDirection.SHORT, OrderType.STOP, "80");
+        List.of(buyLimit, buyStop, sellLimit, sellStop).forEach(book::put);
+
+        assertEquals(Set.of(buyLimit.id(), buyStop.id()), book.triggeredBy(bar("95", "105")));
+        assertEquals(Set.of(), book.triggeredBy(bar("96", "104")));
+        assertEquals(Set.of(buyLimit.id(), buyStop.id(), sellLimit.id(), sellStop.id()), book.triggeredBy(bar("80", "120")));
+    }
+
+    @Test
+    void agreesWithTheFillRules() {
+        TriggerBook book = new TriggerBook();
+        List<Order> orders = List.of(
+                order(TradeDirection.LONG, OrderType.LIMIT, "98"),
+                order(TradeDirection.LONG, OrderType.STOP, "98"),
+                order(TradeDirection.SHORT, OrderType.LIMIT, "102"),
+                order(TradeDirection.SHORT, OrderType.STOP, "102"),
+                order(TradeDirection.LONG, OrderType.LIMIT, "90"),
+                order(TradeDirection.SHORT, OrderType.STOP, "110"));
+        orders.forEach(book::put);
+        KLine bar = bar("97", "103");
+        Set<UUID> candidates = book.triggeredBy(bar);
+        for (Order order : orders) {
+            boolean fills = OrderFillRules.pendingFillPrice(order, bar) != null;
+            assertTrue(!fills || candidates.contains(order.id()), "Fillable order missing from the book: " + order);
+        }
+    }
+
+    @Test
+    void indexesPositionsByStopAndTarget() {
+        TriggerBook book = new TriggerBook();
+        Position isLong = position(TradeDirection.LONG, "90", "110", null);
+        Position isShort = position(TradeDirection.SHORT, "110", "90", null);
+        book.put(isLong);
+        book.put(isShort);
+
+        assertEquals(Set.of(isLong.id(), isShort.id()), book.triggeredBy(bar("89", "100")));
+        assertEquals(Set.of(isLong.id(), isShort.id()), book.triggeredBy(bar("100", "111")));
+        assertEquals(Set.of(), book.triggeredBy(bar("91", "109")));
+    }
+
+    @Test
+    void reindexingMovesTheLevel() {
+        TriggerBook book = new TriggerBook();
+        Position position = position(TradeDirection.LONG, "90", null, null);
+        book.put(position);
+        book.put(OrderFillRules.withExitLevels(position, new BigDecimal("99"), null, null));
+
+        assertEquals(Set.of(position.id()), book.triggeredBy(bar("98", "100")));
+        assertEquals(Set.of(), book.triggeredBy(bar("100", "101")));
+    }
+
+    @Test
+    void removeAndClearEmptyTheBook() {
+        TriggerBook book = new TriggerBook();
+        Order order = order(TradeDirection.LONG, OrderType.LIMIT, "95");
+        Position trailing = position(TradeDirection.LONG, "90", null, "5");
+        book.put(order);
+        book.put(trailing);
+        assertEquals(List.of(trailing.id()), book.trailing());
+
+        book.remove(order.id());
+        assertEquals(Set.of(trailing.id()), book.triggeredBy(bar("90", "100")));
+        book.clear();
+        assertTrue(book.isEmpty());
+        assertEquals(List.of(), book.trailing());
+    }
+
+    @Test
+    void marketOrdersAreNotIndexed() {
+        TriggerBook book = new TriggerBook();
+        book.put(order(TradeDirection.LONG, OrderType.MARKET, "100"));
+        assertTrue(book.isEmpty());
+    }
+
+    private static Order order(TradeDirection direction, OrderType type, String price) {
+        return new Order(UUID.randomUUID(), new Symbol("BTCUSDT"), type, OrderStatus.PENDING, direction, BigDecimal.ONE,
+                new BigDecimal(price), null, null, null, T0, null);
+    }
+
+    private static Position position(TradeDirection direction, String stopLoss, String takeProfit, String trailing) {
+        return new Position(UUID.randomUUID(), new Symbol("BTCUSDT"), direction, BigDecimal.ONE, new BigDecimal("100"),
+                stopLoss != null ? new BigDecimal(stopLoss) : null, takeProfit != null ? new BigDecimal(takeProfit) : null,
+                trailing != null ? new BigDecimal(trailing) : null, T0, null);
+    }
+
+    private static KLine bar(String low, String high) {
+        BigDecimal l = new BigDecimal(low);
+        return new KLine(T0, l, new BigDecimal(high), l, l, BigDecimal.ONE);
+    }
+}
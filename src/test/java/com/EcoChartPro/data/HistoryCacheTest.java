@@ -0,0 +1,51 @@
+package com.EcoChartPro.data;
+
+import com.EcoChartPro.utils.DatabaseManager.DataRange;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HistoryCacheTest {
+
+    @Test
+    void nothingCoveredMeansTheWholeRange() {
+        assertRanges(HistoryCache.uncoveredRanges(List.of(), 1000, 5000), 1000, 5000);
+    }
+
+    @Test
+    void coverageInsideTheRangeLeavesBothEnds() {
+        assertRanges(HistoryCache.uncoveredRanges(List.of(range(2, 3)), 1000, 5000), 1000, 2000, 3000, 5000);
+    }
+
+    @Test
+    void gapsBetweenCoveredRanges() {
+        List<DataRange> coverage = List.of(range(0, 2), range(3, 4), range(6, 10));
+        assertRanges(HistoryCache.uncoveredRanges(coverage, 1000, 8000), 2000, 3000, 4000, 6000);
+    }
+
+    @Test
+    void fullyCoveredRangeNeedsNoFetch() {
+        assertEquals(0, HistoryCache.uncoveredRanges(List.of(range(0, 10)), 1000, 5000).size());
+    }
+
+    @Test
+    void coverageOutsideTheRangeIsIgnored() {
+        List<DataRange> coverage = List.of(range(0, 1), range(6, 7));
+        assertRanges(HistoryCache.uncoveredRanges(coverage, 2000, 5000), 2000, 5000);
+    }
+
+    private static DataRange range(long startSec, long endSec) {
+        return new DataRange(Instant.ofEpochSecond(startSec), Instant.ofEpochSecond(endSec));
+    }
+
+    private static void assertRanges(List<long[]> actual, long... expectedBounds) {
+        assertEquals(expectedBounds.length / 2, actual.size());
+        for (int i = 0; i < actual.size(); i++) {
+            assertArrayEquals(new long[] {expectedBounds[2 * i], expectedBounds[2 * i + 1]}, actual.get(i));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.EcoChartPro.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LiveStreamRingTest {
+
+    @Test
+    void fullRingDropsNewItems() {
+        LiveStreamRing<Integer> ring = new LiveStreamRing<>(4, false);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+
+        assertEquals(List.of(0, 1, 2, 3), drain(ring));
+        assertEquals(1, ring.dropped());
+    }
+
+    @Test
+    void fullRingKeepsTheLatestItemAfterTheOthers() {
+        LiveStreamRing<Integer> ring = new LiveStreamRing<>(4, true);
+        for (int i = 0; i < 7; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertEquals(5, ring.backlog());
+
+        assertEquals(List.of(0, 1, 2, 3, 6), drain(ring));
+        assertEquals(2, ring.dropped());
+        assertEquals(0, ring.backlog());
+    }
+
+    @Test
+    void overflowIsTakenEvenPastTheDrainLimit() {
+        LiveStreamRing<Integer> ring = new LiveStreamRing<>(4, true);
+        for (int i = 0; i < 5; i++) {
+            ring.offer(i);
+        }
+        List<Integer> sink = new ArrayList<>();
+        assertEquals(5, ring.drainTo(sink, 2));
+        assertEquals(List.of(0, 1, 2, 3, 4), sink);
+
+        ring.offer(5);
+        assertEquals(List.of(5), drain(ring));
+        assertEquals(6, ring.published());
+    }
+
+    private static List<Integer> drain(LiveStreamRing<Integer> ring) {
+        List<Integer> sink = new ArrayList<>();
+        ring.drainTo(sink, ring.backlog());
+        return sink;
+    }
+}
@@ -0,0 +1,142 @@
+package com.EcoChartPro.data.store;
+
+import com.EcoChartPro.model.KLine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarSeriesTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendsAndOverwritesInPlace() throws IOException {
+        ColumnarSeries series = new ColumnarSeries(dir, "BTCUSDT", "1m");
+        series.write(List.of(bar(60, "100.5"), bar(120, "101")));
+        series.write(List.of(bar(120, "102"), bar(180, "103")));
+
+        assertBars(List.of(bar(60, "100.5"), bar(120, "102"), bar(180, "103")), reread(series));
+        assertEquals(1, ColumnarSeries.readMeta(dir).generation());
+    }
+
+    @Test
+    void outOfOrderInsertCommitsANewGenerationAndRemovesTheOld() throws IOException {
+        ColumnarSeries series = new ColumnarSeries(dir, "BTCUSDT", "1m");
+        series.write(List.of(bar(60, "100"), bar(180, "102")));
+        series.write(List.of(bar(120, "101")));
+
+        assertEquals(2, ColumnarSeries.readMeta(dir).generation());
+        assertTrue(Files.isDirectory(dir.resolve("g2")));
+        assertFalse(Files.exists(dir.resolve("g1")));
+        assertBars(List.of(bar(60, "100"), bar(120, "101"), bar(180, "102")), reread(series));
+    }
+
+    @Test
+    void abandonedGenerationIsIgnoredAndRemoved() throws IOException {
+        ColumnarSeries series = new ColumnarSeries(dir, "BTCUSDT", "1m");
+        series.write(List.of(bar(60, "100"), bar(120, "101")));
+        series.close();
+        // A rewrite that crashed before replacing meta.bin.
+        Path abandoned = Files.createDirectories(dir.resolve("g2"));
+        Files.write(abandoned.resolve("ts.col"), new byte[] {1, 2, 3});
+
+        assertBars(List.of(bar(60, "100"), bar(120, "101")), reread(series));
+        assertFalse(Files.exists(abandoned));
+    }
+
+    @Test
+    void scaleNeverShrinks() throws IOException {
+        ColumnarSeries series = new ColumnarSeries(dir, "BTCUSDT", "1m");
+        series.write(List.of(bar(60, "1.2345")));
+        series.write(List.of(bar(120, "2")));
+        series.write(List.of(bar(30, "3")));
+
+        assertEquals(4, ColumnarSeries.readMeta(dir).priceScale());
+        List<KLine> bars = reread(series);
+        assertEquals(0, new BigDecimal("1.2345").compareTo(bars.get(1).close()));
+    }
+
+    @Test
+    void valueTooLargeForTheCurrentScaleFailsWithoutWriting() throws IOException {
+        ColumnarSeries series = new ColumnarSeries(dir, "BTCUSDT", "1m");
+        series.write(List.of(bar(60, "0.000000000001")));
+        assertThrows(ArithmeticException.class, () -> series.write(List.of(bar(60, "5"), bar(120, "12345678901"))));
+
+        assertBars(List.of(bar(60, "0.000000000001")), reread(series));
+    }
+
+    @Test
+    void readsAndUpgradesAVersionOneSeries() throws IOException {
+        writeLegacySeries(new long[] {60, 120}, new long[] {1000, 1010});
+        ColumnarSeries series = new ColumnarSeries(dir, "BTCUSDT", "1m");
+        assertBars(List.of(bar(60, "100.0"), bar(120, "101.0")), series.read(0, 10));
+
+        series.write(List.of(bar(90, "100.5")));
+
+        assertEquals(1, ColumnarSeries.readMeta(dir).generation());
+        assertFalse(Files.exists(dir.resolve("ts.col")));
+        assertBars(List.of(bar(60, "100.0"), bar(90, "100.5"), bar(120, "101.0")), reread(series));
+    }
+
+    /**
+     * Compares timestamps and prices by value, since stored prices come back at the series' scale.
+     */
+    private static void assertBars(List<KLine> expected, List<KLine> actual) {
+        assertEquals(expected.size(), actual.size(), "bar count");
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).timestamp(), actual.get(i).timestamp());
+            assertEquals(0, expected.get(i).close().compareTo(actual.get(i).close()),
+                    "close at " + expected.get(i).timestamp() + ": " + actual.get(i).close());
+        }
+    }
+
+    private static List<KLine> reread(ColumnarSeries series) throws IOException {
+        series.close();
+        return series.read(0, Integer.MAX_VALUE);
+    }
+
+    private void writeLegacySeries(long[] timestamps, long[] prices) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(dir.resolve(ColumnarSeries.META_FILE)))) {
+            out.writeInt(0x45434B4C);
+            out.writeInt(1);
+            out.writeInt(1); // price scale
+            out.writeInt(0); // volume scale
+            out.writeInt(1024);
+            out.writeUTF("BTCUSDT");
+            out.writeUTF("1m");
+        }
+        long[] volumes = new long[timestamps.length];
+        Arrays.fill(volumes, 1);
+        writeLongs("ts.col", timestamps);
+        for (String column : new String[] {"open.col", "high.col", "low.col", "close.col"}) {
+            writeLongs(column, prices);
+        }
+        writeLongs("volume.col", volumes);
+    }
+
+    private void writeLongs(String file, long[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Long.BYTES);
+        buffer.asLongBuffer().put(values);
+        Files.write(dir.resolve(file), buffer.array());
+    }
+
+    private static KLine bar(long epochSecond, String price) {
+        BigDecimal p = new BigDecimal(price);
+        return new KLine(Instant.ofEpochSecond(epochSecond), p, p, p, p, BigDecimal.ONE);
+    }
+}
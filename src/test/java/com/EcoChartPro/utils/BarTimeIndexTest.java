@@ -0,0 +1,78 @@
+package com.EcoChartPro.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BarTimeIndexTest {
+
+    @Test
+    void gapFreeSeriesIsOneRun() {
+        BarTimeIndex index = new BarTimeIndex();
+        for (int i = 0; i < 1000; i++) {
+            index.append(60_000 + i * 60L);
+        }
+        assertEquals(1000, index.size());
+        assertEquals(1, index.runCount());
+        assertEquals(60_000 + 999 * 60L, index.lastTimestampSec());
+        assertEquals(60_000 + 500 * 60L, index.timestampAt(500));
+    }
+
+    @Test
+    void gapsStartNewRuns() {
+        BarTimeIndex index = indexOf(0, 60, 120, 600, 660, 10_000);
+        assertEquals(6, index.size());
+        assertEquals(3, index.runCount());
+        assertEquals(new BarTimeIndex.Run(3, 600, 60, 2), index.run(1));
+        assertEquals(new BarTimeIndex.Run(5, 10_000, 0, 1), index.run(2));
+        long[] expected = {0, 60, 120, 600, 660, 10_000};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], index.timestampAt(i));
+        }
+    }
+
+    @Test
+    void indexAtOrAfterRoundsUpIntoGaps() {
+        BarTimeIndex index = indexOf(0, 60, 120, 600, 660, 10_000);
+        assertEquals(0, index.indexAtOrAfter(-5));
+        assertEquals(0, index.indexAtOrAfter(0));
+        assertEquals(1, index.indexAtOrAfter(1));
+        assertEquals(2, index.indexAtOrAfter(120));
+        assertEquals(3, index.indexAtOrAfter(121));
+        assertEquals(3, index.indexAtOrAfter(599));
+        assertEquals(4, index.indexAtOrAfter(601));
+        assertEquals(5, index.indexAtOrAfter(661));
+        assertEquals(5, index.indexAtOrAfter(10_000));
+        assertEquals(6, index.indexAtOrAfter(10_001));
+    }
+
+    @Test
+    void runsReadBackFromStorageMatchAppendedIndex() {
+        BarTimeIndex appended = indexOf(0, 60, 120, 600, 660, 10_000);
+        BarTimeIndex restored = new BarTimeIndex();
+        for (int i = 0; i < appended.runCount(); i++) {
+            restored.addRun(appended.run(i));
+        }
+        restored.append(10_060);
+        assertEquals(7, restored.size());
+        assertEquals(10_060, restored.timestampAt(6));
+        assertEquals(appended.runCount(), restored.runCount());
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        BarTimeIndex index = indexOf(0, 60);
+        assertThrows(IllegalArgumentException.class, () -> index.append(60));
+        assertThrows(IllegalArgumentException.class, () -> index.addRun(new BarTimeIndex.Run(5, 600, 60, 2)));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.timestampAt(2));
+    }
+
+    private static BarTimeIndex indexOf(long... timestampsSec) {
+        BarTimeIndex index = new BarTimeIndex();
+        for (long timestampSec : timestampsSec) {
+            index.append(timestampSec);
+        }
+        return index;
+    }
+}
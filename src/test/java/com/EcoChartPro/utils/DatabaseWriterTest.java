@@ -0,0 +1,170 @@
+package com.EcoChartPro.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatabaseWriterTest {
+
+    @TempDir
+    Path dir;
+
+    private String url;
+    private DatabaseWriter writer;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        url = "jdbc:sqlite:" + dir.resolve("writer.db");
+        Connection connection = DriverManager.getConnection(url);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE a (seq INTEGER NOT NULL)");
+            stmt.execute("CREATE TABLE b (seq INTEGER NOT NULL)");
+        }
+        writer = new DatabaseWriter(connection, url);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.shutdown(5000);
+    }
+
+    @Test
+    void appliesWritesToDifferentTablesInSubmissionOrder() throws Exception {
+        CountDownLatch release = holdWriter();
+
+        List<String> applied = new ArrayList<>(); // Only touched by the writer thread.
+        String[] tables = {"a", "a", "b", "a", "b", "b", "a"};
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < tables.length; i++) {
+            String table = tables[i];
+            int seq = i;
+            results.add(writer.submit(table, s -> {
+                applied.add(table + seq);
+                insert(s, table, seq);
+            }));
+        }
+        release.countDown();
+        CompletableFuture.allOf(results.toArray(CompletableFuture<?>[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("a0", "a1", "b2", "a3", "b4", "b5", "a6"), applied);
+        // The held task, then one transaction per run of the same table.
+        assertEquals(6, writer.getMetrics().transactions());
+        assertEquals(List.of(0, 1, 3, 6), read("a"));
+        assertEquals(List.of(2, 4, 5), read("b"));
+    }
+
+    @Test
+    void flushWaitsForEarlierWrites() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            int seq = i;
+            writer.submit(i % 2 == 0 ? "a" : "b", s -> insert(s, seq % 2 == 0 ? "a" : "b", seq));
+        }
+        writer.flush().get(5, TimeUnit.SECONDS);
+        assertEquals(50, read("a").size());
+        assertEquals(50, read("b").size());
+    }
+
+    @Test
+    void failedTaskOnlyLosesItself() throws Exception {
+        CountDownLatch release = holdWriter();
+        CompletableFuture<Void> first = writer.submit("a", s -> insert(s, "a", 1));
+        CompletableFuture<Void> bad = writer.submit("a", s -> s.prepare("INSERT INTO missing VALUES (1)").executeUpdate());
+        CompletableFuture<Void> last = writer.submit("a", s -> insert(s, "a", 2));
+        release.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        last.get(5, TimeUnit.SECONDS);
+        assertThrows(Exception.class, () -> bad.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 2), read("a"));
+        assertEquals(1, writer.getMetrics().failedTasks());
+    }
+
+    @Test
+    void rejectsWritesAfterShutdown() {
+        writer.shutdown(5000);
+        CompletableFuture<Void> result = writer.submit("a", s -> insert(s, "a", 1));
+        assertTrue(result.isCompletedExceptionally());
+    }
+
+    @Test
+    void writesRacingShutdownAreNeverLeftPending() throws Exception {
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        Thread submitter = new Thread(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                int seq = i;
+                results.add(writer.submit("a", s -> insert(s, "a", seq)));
+            }
+        });
+        submitter.start();
+        writer.shutdown(5000);
+        submitter.join(10_000);
+
+        for (CompletableFuture<Void> result : results) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException expected) {
+                // Rejected or failed after shutdown; what matters is that it completed.
+            }
+        }
+    }
+
+    /**
+     * Blocks the writer thread in a task of its own, so that everything submitted until the
+     * returned latch is released is drained in one batch.
+     */
+    private CountDownLatch holdWriter() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        writer.submit("hold", s -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private static void insert(StatementCache statements, String table, int seq) throws SQLException {
+        PreparedStatement pstmt = statements.prepare("INSERT INTO " + table + " (seq) VALUES (?)");
+        pstmt.setInt(1, seq);
+        pstmt.executeUpdate();
+    }
+
+    private List<Integer> read(String table) throws SQLException {
+        List<Integer> values = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT seq FROM " + table + " ORDER BY rowid")) {
+            while (rs.next()) {
+                values.add(rs.getInt(1));
+            }
+        }
+        return values;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.EcoChartPro.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FixedPointDecimalTest {
+
+    @Test
+    void parsesPlainDecimalsWithTheirScale() {
+        assertEquals(new BigDecimal("42150.25"), parse("42150.25"));
+        assertEquals(new BigDecimal("-0.00100"), parse("-0.00100"));
+        assertEquals(new BigDecimal("7"), parse("7"));
+        assertEquals(new BigDecimal("7"), parse("7."));
+    }
+
+    @Test
+    void fallsBackForExponentsAndLongNumbers() {
+        assertEquals(new BigDecimal("1.5E-7"), parse("1.5E-7"));
+        assertEquals(new BigDecimal("1234567890.1234567890"), parse("1234567890.1234567890"));
+    }
+
+    @Test
+    void rejectsMalformedText() {
+        assertThrows(NumberFormatException.class, () -> parse(""));
+        assertThrows(NumberFormatException.class, () -> parse("-"));
+        assertThrows(NumberFormatException.class, () -> parse("1.2.3"));
+    }
+
+    @Test
+    void parsesARangeOfBytes() {
+        byte[] row = "100.5,0.25,buy".getBytes(StandardCharsets.US_ASCII);
+        FixedPointDecimal.AsciiView view = new FixedPointDecimal.AsciiView().wrap(row);
+        assertEquals(new BigDecimal("100.5"), FixedPointDecimal.parse(view, 0, 5));
+        assertEquals(new BigDecimal("0.25"), FixedPointDecimal.parse(view, 6, 10));
+    }
+
+    private static BigDecimal parse(String text) {
+        return FixedPointDecimal.parse("[" + text + "]", 1, text.length() + 1);
+    }
+}
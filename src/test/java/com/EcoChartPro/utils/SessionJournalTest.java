@@ -0,0 +1,149 @@
+package com.EcoChartPro.utils;
+
+import com.EcoChartPro.core.state.ReplaySessionState;
+import com.EcoChartPro.core.state.SymbolSessionState;
+import com.EcoChartPro.model.Symbol;
+import com.EcoChartPro.model.TradeDirection;
+import com.EcoChartPro.model.trading.Position;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionJournalTest {
+
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    private Path snapshotFile;
+    private Position position;
+    private ReplaySessionState snapshot;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        snapshotFile = dir.resolve("replay_autosave.json");
+        Files.writeString(snapshotFile, "{\"snapshot\":1}");
+        position = new Position(UUID.randomUUID(), new Symbol("BTCUSDT"), TradeDirection.LONG, BigDecimal.ONE,
+                new BigDecimal("100"), null, null, null, T0, null);
+        SymbolSessionState btc = new SymbolSessionState(10, List.of(position), List.of(), List.of(), List.of(), T0);
+        snapshot = new ReplaySessionState(new BigDecimal("1000"), "BTCUSDT", Map.of("BTCUSDT", btc));
+    }
+
+    @Test
+    void appliesJournalEventsOnTopOfTheSnapshot() throws IOException {
+        writeJournal(crcOf(snapshotFile),
+                head("BTCUSDT", 42, T0.plusSeconds(60)),
+                frame(SessionJournal.POSITION_REMOVED, out -> writeId(out, "BTCUSDT", position.id())),
+                frame(SessionJournal.BALANCE, out -> out.writeUTF("1050.5")),
+                head("ETHUSDT", 7, null),
+                frame(SessionJournal.ACTIVE_SYMBOL, out -> out.writeUTF("ETHUSDT")));
+
+        ReplaySessionState recovered = SessionJournal.recover(snapshotFile, snapshot, MAPPER);
+
+        assertEquals(new BigDecimal("1050.5"), recovered.accountBalance());
+        assertEquals("ETHUSDT", recovered.lastActiveSymbol());
+        SymbolSessionState btc = recovered.symbolStates().get("BTCUSDT");
+        assertEquals(42, btc.replayHeadIndex());
+        assertEquals(T0.plusSeconds(60), btc.lastTimestamp());
+        assertTrue(btc.openPositions().isEmpty());
+        SymbolSessionState eth = recovered.symbolStates().get("ETHUSDT");
+        assertEquals(7, eth.replayHeadIndex());
+        assertNull(eth.lastTimestamp());
+    }
+
+    @Test
+    void stopsAtATruncatedEvent() throws IOException {
+        byte[] balance = frame(SessionJournal.BALANCE, out -> out.writeUTF("2000"));
+        byte[] cut = new byte[balance.length - 3];
+        System.arraycopy(balance, 0, cut, 0, cut.length);
+        writeJournal(crcOf(snapshotFile), head("BTCUSDT", 42, null), cut);
+
+        ReplaySessionState recovered = SessionJournal.recover(snapshotFile, snapshot, MAPPER);
+
+        assertEquals(42, recovered.symbolStates().get("BTCUSDT").replayHeadIndex());
+        assertEquals(new BigDecimal("1000"), recovered.accountBalance());
+    }
+
+    @Test
+    void stopsAtACorruptEvent() throws IOException {
+        byte[] corrupt = frame(SessionJournal.BALANCE, out -> out.writeUTF("2000"));
+        corrupt[corrupt.length - 1] ^= 0x01;
+        writeJournal(crcOf(snapshotFile), corrupt, head("BTCUSDT", 42, null));
+
+        ReplaySessionState recovered = SessionJournal.recover(snapshotFile, snapshot, MAPPER);
+
+        assertEquals(new BigDecimal("1000"), recovered.accountBalance());
+        assertEquals(10, recovered.symbolStates().get("BTCUSDT").replayHeadIndex());
+    }
+
+    @Test
+    void ignoresAJournalOfAnotherSnapshot() throws IOException {
+        writeJournal(crcOf(snapshotFile) + 1, head("BTCUSDT", 42, null));
+        assertSame(snapshot, SessionJournal.recover(snapshotFile, snapshot, MAPPER));
+    }
+
+    @Test
+    void snapshotAloneWithoutJournal() {
+        assertSame(snapshot, SessionJournal.recover(snapshotFile, snapshot, MAPPER));
+    }
+
+    private void writeJournal(long snapshotCrc, byte[]... frames) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(SessionJournal.MAGIC);
+        out.writeLong(snapshotCrc);
+        for (byte[] frame : frames) {
+            out.write(frame);
+        }
+        out.flush();
+        Files.write(SessionJournal.journalPathFor(snapshotFile), bytes.toByteArray());
+    }
+
+    private static byte[] head(String symbol, int replayHeadIndex, Instant lastTimestamp) throws IOException {
+        return frame(SessionJournal.HEAD, out -> {
+            out.writeUTF(symbol);
+            out.writeInt(replayHeadIndex);
+            out.writeBoolean(lastTimestamp != null);
+            if (lastTimestamp != null) {
+                out.writeLong(lastTimestamp.getEpochSecond());
+                out.writeInt(lastTimestamp.getNano());
+            }
+        });
+    }
+
+    private static byte[] frame(byte type, SessionJournal.PayloadWriter payload) throws IOException {
+        return SessionJournal.encodeFrame(type, payload);
+    }
+
+    private static void writeId(DataOutputStream out, String symbol, UUID id) throws IOException {
+        out.writeUTF(symbol);
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static long crcOf(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(file));
+        return crc.getValue();
+    }
+}